@@ -1,9 +1,17 @@
 package com.example.rest.conf;
 
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.IOrderService;
+import com.example.rest.service.dto.IOrderPublicDTO;
+import com.example.rest.service.imp.IdempotencyStore;
+import com.example.rest.service.intake.FileOrderDeadLetters;
+import com.example.rest.service.intake.MappedOrderJournal;
+import com.example.rest.service.intake.OrderIntake;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +21,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 
+import java.nio.file.Path;
+
 @Configuration
 @ComponentScan(basePackages = "com.example.rest")
 @EnableJpaRepositories(basePackages = "com.example.rest.repository")
@@ -31,6 +41,40 @@ public class AppConfig {
         return new MethodValidationPostProcessor();
     }
 
+    @Bean
+    public IdempotencyStore<IOrderPublicDTO> orderIdempotencyStore(@Value("${idempotency.maxEntries:10000}") int maxEntries) {
+        return new IdempotencyStore<>(maxEntries);
+    }
+
+    /**
+     * Write-behind intake of new orders, started only when intake.enabled is true.
+     * Journal is kept in local segment files, so accepted orders survive restart.
+     * Accepted orders, which can't be written, are kept in local dead letter file.
+     */
+    @Bean
+    public OrderIntake orderIntake(IOrderService orderService,
+                                   OrderRepository orderRepository,
+                                   @Value("${intake.enabled:false}") boolean enabled,
+                                   @Value("${intake.capacity:10000}") int capacity,
+                                   @Value("${intake.batchSize:100}") int batchSize,
+                                   @Value("${intake.offerTimeoutMillis:100}") long offerTimeoutMillis,
+                                   @Value("${intake.journalDir:order-intake-journal}") String journalDir,
+                                   @Value("${intake.journalSegmentSize:67108864}") int journalSegmentSize,
+                                   @Value("${intake.journalFsync:EVERY_WRITE}") MappedOrderJournal.FsyncPolicy journalFsync,
+                                   @Value("${intake.journalFsyncIntervalMillis:10}") long journalFsyncIntervalMillis,
+                                   @Value("${intake.deadLetterFile:order-intake-dead-letters.tsv}") String deadLetterFile,
+                                   @Value("${orderAllocationSize:10}") int allocationSize) {
+        MappedOrderJournal journal = new MappedOrderJournal(Path.of(journalDir), journalSegmentSize);
+        journal.setFsyncPolicy(journalFsync);
+        journal.setFsyncIntervalMillis(journalFsyncIntervalMillis);
+
+        OrderIntake intake = new OrderIntake(orderService, orderRepository, journal, capacity, batchSize, allocationSize);
+        intake.setEnabled(enabled);
+        intake.setOfferTimeoutMillis(offerTimeoutMillis);
+        intake.setDeadLetters(new FileOrderDeadLetters(Path.of(deadLetterFile)));
+        return intake;
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
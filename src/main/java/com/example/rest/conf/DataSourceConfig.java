@@ -5,10 +5,17 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 
+/**
+ * Connection pools of primary and, when replica url is set, of read replica.
+ * Read-only transactions are routed to replica, see {@link ReplicaRoutingDataSource}.
+ * Pools are registered as mbeans under their names with "-primary" and "-replica" suffixes.
+ */
 @PropertySource("classpath:/db.properties")
 @Configuration
 public class DataSourceConfig {
@@ -34,20 +41,52 @@ public class DataSourceConfig {
     @Value("${dataSourceClassName}")
     private String dataSourceClassName;
 
+    @Value("${replica.url:}")
+    private String replicaJdbcUrl;
+    @Value("${replica.user:${user}}")
+    private String replicaUsername;
+    @Value("${replica.password:${password}}")
+    private String replicaPassword;
+    @Value("${replica.maximumPoolSize:${maximumPoolSize}}")
+    private int replicaMaximumPoolSize;
+    @Value("${replica.maxLagMillis:5000}")
+    private long replicaMaxLagMillis;
+    @Value("${replica.lagCheckIntervalMillis:1000}")
+    private long replicaLagCheckIntervalMillis;
+
     @Bean
-    public DataSource dataSource() {
+    public ReplicaRoutingDataSource routingDataSource() {
+        HikariDataSource primary = createPool(poolName + "-primary", jdbcUrl, username, password, maximumPoolSize);
+        HikariDataSource replica = replicaJdbcUrl.isBlank()
+                ? null
+                : createPool(poolName + "-replica", replicaJdbcUrl, replicaUsername, replicaPassword, replicaMaximumPoolSize);
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica);
+        routingDataSource.setMaxLagMillis(replicaMaxLagMillis);
+        routingDataSource.setLagCheckIntervalMillis(replicaLagCheckIntervalMillis);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource createPool(String name, String url, String user, String password, int maxPoolSize) {
         HikariConfig hikariConfig = new HikariConfig();
 
-        hikariConfig.setJdbcUrl(jdbcUrl);
-        hikariConfig.setUsername(username);
+        hikariConfig.setJdbcUrl(url);
+        hikariConfig.setUsername(user);
         hikariConfig.setPassword(password);
-        hikariConfig.setMaximumPoolSize(maximumPoolSize);
-        hikariConfig.setMinimumIdle(minimumIdle);
+        hikariConfig.setMaximumPoolSize(maxPoolSize);
+        hikariConfig.setMinimumIdle(Math.min(minimumIdle, maxPoolSize));
         hikariConfig.setIdleTimeout(idleTimeout);
         hikariConfig.setMaxLifetime(maxLifetime);
         hikariConfig.setConnectionTimeout(connectionTimeout);
-        hikariConfig.setPoolName(poolName);
+        hikariConfig.setPoolName(name);
         hikariConfig.setDriverClassName(dataSourceClassName);
+        hikariConfig.setRegisterMbeans(true);
 
         return new HikariDataSource(hikariConfig);
     }
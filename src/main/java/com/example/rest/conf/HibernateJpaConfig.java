@@ -1,10 +1,13 @@
 package com.example.rest.conf;
 
+import com.example.rest.entity.id.PooledLoSequenceGenerator;
+import org.hibernate.cfg.BatchSettings;
 import org.hibernate.cfg.JdbcSettings;
 import org.hibernate.cfg.SchemaToolingSettings;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -24,7 +27,20 @@ public class HibernateJpaConfig {
     @Value("${ddl-auto}")
     private String ddlAuto;
 
+    @Value("${baristaAllocationSize:10}")
+    private int baristaAllocationSize;
+
+    @Value("${coffeeAllocationSize:10}")
+    private int coffeeAllocationSize;
+
+    @Value("${orderAllocationSize:10}")
+    private int orderAllocationSize;
+
+    @Value("${jdbcBatchSize:50}")
+    private int jdbcBatchSize;
+
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
         LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
         emf.setDataSource(dataSource);
@@ -38,6 +54,11 @@ public class HibernateJpaConfig {
         properties.put(JdbcSettings.DIALECT, databasePlatform);
         properties.put(JdbcSettings.SHOW_SQL, showSql);
         properties.put(SchemaToolingSettings.HBM2DDL_AUTO, ddlAuto);
+        properties.put(BatchSettings.STATEMENT_BATCH_SIZE, jdbcBatchSize);
+        properties.put(BatchSettings.ORDER_INSERTS, true);
+        properties.put(PooledLoSequenceGenerator.allocationSizeSetting("barista_sequence"), baristaAllocationSize);
+        properties.put(PooledLoSequenceGenerator.allocationSizeSetting("coffee_sequence"), coffeeAllocationSize);
+        properties.put(PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"), orderAllocationSize);
 
         emf.setJpaProperties(properties);
 
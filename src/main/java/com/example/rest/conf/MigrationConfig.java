@@ -0,0 +1,59 @@
+package com.example.rest.conf;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Versioned schema migrations, applied at startup before entity manager factory is created.
+ * Scripts are placed in db/migration. Existing schema, created by ddl-auto, is baselined
+ * at version 1, so only later migrations are applied to it.
+ * Allocation sizes of id sequences are passed as placeholders to repeatable migration,
+ * which sets sequence increments.
+ * Transactional advisory lock of PostgreSQL is disabled: migrations create indexes concurrently,
+ * and create index concurrently waits for all older transactions, including one, which holds the lock,
+ * so migration would never finish. Session-level lock is used instead.
+ */
+@PropertySource("classpath:/db.properties")
+@Configuration
+public class MigrationConfig {
+
+    @Value("${flyway.enabled:true}")
+    private boolean enabled;
+    @Value("${flyway.locations:classpath:db/migration}")
+    private String locations;
+    @Value("${flyway.baselineOnMigrate:true}")
+    private boolean baselineOnMigrate;
+    @Value("${flyway.baselineVersion:1}")
+    private String baselineVersion;
+    @Value("${baristaAllocationSize:10}")
+    private int baristaAllocationSize;
+    @Value("${coffeeAllocationSize:10}")
+    private int coffeeAllocationSize;
+    @Value("${orderAllocationSize:10}")
+    private int orderAllocationSize;
+
+    @Bean
+    public Flyway flyway(DataSource dataSource) {
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations.split("\\s*,\\s*"))
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion(baselineVersion)
+                .placeholders(Map.of(
+                        "baristaAllocationSize", String.valueOf(baristaAllocationSize),
+                        "coffeeAllocationSize", String.valueOf(coffeeAllocationSize),
+                        "orderAllocationSize", String.valueOf(orderAllocationSize)))
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+
+        if (enabled)
+            flyway.migrate();
+        return flyway;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.rest.conf;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Data source, that routes connections of read-only transactions to replica and all others to primary.
+ * Must be wrapped by {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * so connection is obtained after transaction's read-only flag is bound to thread.
+ * <p>
+ * Replica lag is checked by lag query at most once per check interval. When lag is above maximum,
+ * lag can't be checked or replica connection can't be obtained, read-only transactions
+ * go to primary until next successful check.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    /**
+     * Lag of Postgres streaming replica in milliseconds. Zero when all received wal is replayed
+     * or when server is not a replica.
+     */
+    public static final String POSTGRES_LAG_QUERY = """
+            select case
+                when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            end""";
+
+    /**
+     * Target of connection.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Map<Route, LongAdder> routed = new EnumMap<>(Route.class);
+    private final LongAdder fallbacks = new LongAdder();
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private String lagQuery = POSTGRES_LAG_QUERY;
+    private long maxLagMillis = 5000;
+    private long lagCheckIntervalMillis = 1000;
+
+    private volatile boolean replicaUsable = true;
+    private volatile long lagCheckedAt;
+    private volatile long lastLagMillis;
+
+    /**
+     * Create routing data source.
+     *
+     * @param primary primary data source, used for all not read-only connections.
+     * @param replica replica data source. If null, all connections go to primary.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        if (replica != null)
+            targets.put(Route.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        for (Route route : Route.values())
+            routed.put(route, new LongAdder());
+        afterPropertiesSet();
+    }
+
+    /**
+     * Set query, which returns replica lag in milliseconds as single number.
+     *
+     * @param lagQuery sql query, executed on replica.
+     */
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Set maximum replica lag, with which read-only transactions still go to replica.
+     *
+     * @param maxLagMillis maximum lag in milliseconds. Can't be less than zero.
+     * @throws IllegalArgumentException when maxLagMillis is less than zero.
+     */
+    public void setMaxLagMillis(long maxLagMillis) {
+        if (maxLagMillis < 0)
+            throw new IllegalArgumentException("Maximum lag can't be less than zero!");
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    /**
+     * Set minimal interval between replica lag checks.
+     *
+     * @param lagCheckIntervalMillis interval in milliseconds. Can't be less than zero.
+     * @throws IllegalArgumentException when lagCheckIntervalMillis is less than zero.
+     */
+    public void setLagCheckIntervalMillis(long lagCheckIntervalMillis) {
+        if (lagCheckIntervalMillis < 0)
+            throw new IllegalArgumentException("Lag check interval can't be less than zero!");
+        this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && isReplicaUsable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+        routed.get(route).increment();
+        return route;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target != replica || replica == null)
+                throw e;
+            markReplicaUnusable();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            if (target != replica || replica == null)
+                throw e;
+            markReplicaUnusable();
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * Check that replica is configured and its lag, checked not earlier than check interval ago,
+     * is not above maximum. Only one thread checks lag, others use last result.
+     *
+     * @return true if read-only transactions can go to replica.
+     */
+    public boolean isReplicaUsable() {
+        if (replica == null)
+            return false;
+
+        long now = System.currentTimeMillis();
+        if (now - lagCheckedAt >= lagCheckIntervalMillis && checking.compareAndSet(false, true)) {
+            try {
+                lastLagMillis = queryLag();
+                replicaUsable = lastLagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                lastLagMillis = -1;
+                replicaUsable = false;
+            } finally {
+                lagCheckedAt = now;
+                checking.set(false);
+            }
+        }
+        return replicaUsable;
+    }
+
+    /**
+     * Number of connections, routed to target. Replica connections, that fell back to primary,
+     * are counted as replica ones and also as fallbacks.
+     *
+     * @param route target of connection.
+     * @return number of routed connections.
+     */
+    public long getRoutedCount(Route route) {
+        return routed.get(route).sum();
+    }
+
+    /**
+     * Number of replica connections, that could not be obtained and were taken from primary.
+     *
+     * @return number of fallbacks to primary.
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * Lag, returned by last check.
+     *
+     * @return lag in milliseconds, -1 when last check failed.
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * Close primary and replica pools, if they are closeable.
+     *
+     * @throws IOException when pool can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (replica instanceof Closeable closeable)
+            closeable.close();
+        if (primary instanceof Closeable closeable)
+            closeable.close();
+    }
+
+    private long queryLag() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? Math.round(resultSet.getDouble(1)) : 0;
+        }
+    }
+
+    private void markReplicaUnusable() {
+        fallbacks.increment();
+        replicaUsable = false;
+        lagCheckedAt = System.currentTimeMillis();
+    }
+}
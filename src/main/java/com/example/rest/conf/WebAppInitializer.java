@@ -1,9 +1,11 @@
 package com.example.rest.conf;
 
+import jakarta.servlet.FilterRegistration;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRegistration;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
@@ -39,5 +41,9 @@ public class WebAppInitializer extends AbstractAnnotationConfigDispatcherServlet
         dispatcher.setLoadOnStartup(1);
         dispatcher.addMapping("/");
 
+        FilterRegistration.Dynamic compression = servletContext.addFilter("compressionFilter",
+                new DelegatingFilterProxy("compressionFilter", context));
+        compression.addMappingForServletNames(null, false, "dispatcher");
+
     }
 }
\ No newline at end of file
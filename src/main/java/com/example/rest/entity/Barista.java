@@ -5,6 +5,7 @@ import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
 import com.example.rest.entity.exception.NoValidTipSizeException;
 import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.entity.id.PooledLoSequence;
 import jakarta.persistence.*;
 
 import java.util.ArrayList;
@@ -19,15 +20,7 @@ import java.util.Objects;
 @Table(name = "barista")
 public class Barista {
     @Id
-    @SequenceGenerator(
-            name = "barista_sequence",
-            sequenceName = "barista_sequence",
-            allocationSize = 10
-    )
-    @GeneratedValue(
-            strategy = GenerationType.SEQUENCE,
-            generator = "barista_sequence"
-    )
+    @PooledLoSequence(name = "barista_sequence")
     @Column(name = "id", nullable = false)
     private Long id = -1L;
 
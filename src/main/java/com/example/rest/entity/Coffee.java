@@ -5,11 +5,13 @@ import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
 import com.example.rest.entity.exception.NoValidPriceException;
 import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.entity.id.PooledLoSequence;
 import jakarta.persistence.*;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Coffee entity. Contains id, name, price and order list fields.
@@ -19,15 +21,7 @@ import java.util.Objects;
 @Table(name = "coffee")
 public class Coffee {
     @Id
-    @SequenceGenerator(
-            name = "coffee_sequence",
-            sequenceName = "coffee_sequence",
-            allocationSize = 10
-    )
-    @GeneratedValue(
-            strategy = GenerationType.SEQUENCE,
-            generator = "coffee_sequence"
-    )
+    @PooledLoSequence(name = "coffee_sequence")
     @Column(
             name = "id",
             nullable = false,
@@ -41,8 +35,8 @@ public class Coffee {
     @Column(name = "price", nullable = false)
     private Double price;
 
-    @ManyToMany(mappedBy = "coffeeList", fetch = FetchType.LAZY)
-    private List<Order> orderList = new ArrayList<>();
+    @OneToMany(mappedBy = "coffee", fetch = FetchType.LAZY)
+    private List<OrderLine> lineList = new ArrayList<>();
 
     /**
      * Empty constructor.
@@ -75,7 +69,7 @@ public class Coffee {
         this.id = id;
         this.name = name;
         this.price = price;
-        this.orderList = new ArrayList<>(orderList);
+        setOrderList(orderList);
     }
 
     /**
@@ -162,11 +156,14 @@ public class Coffee {
      * @return order list, that contains this coffee.
      */
     public List<Order> getOrderList() {
-        return orderList;
+        return lineList.stream()
+                .map(OrderLine::getOrder)
+                .toList();
     }
 
     /**
-     * Set order list that contains this coffee.
+     * Set order list that contains this coffee. Lines are not persisted from this side,
+     * they are managed by order.
      *
      * @param orderList list of orders that contains this coffee. Can't be null.
      * @throws NullParamException thrown when one of param equals null.
@@ -175,7 +172,9 @@ public class Coffee {
         if (orderList == null)
             throw new NullParamException();
 
-        this.orderList = new ArrayList<>(orderList);
+        this.lineList = orderList.stream()
+                .map(order -> new OrderLine(order, this, 1))
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 
     @Override
@@ -2,47 +2,43 @@ package com.example.rest.entity;
 
 
 import com.example.rest.entity.exception.*;
+import com.example.rest.entity.id.PooledLoSequence;
 import com.example.rest.servlet.adapter.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
- * Order entity. Contains fields: id, barista - hwo prepared order, coffeeList - ordered coffee list,
+ * Order entity. Contains fields: id, barista - hwo prepared order, lines - ordered coffee with quantity,
  * created - order created datetime, completed - order completed datetime and
  * price - price for order (sum of coffee's prices * barista's tip size).
  * Required fields: barista, coffeeList.
  * Default values: id = -1, price = 0, created = null, completed = null.
+ * Update statement contains only changed columns.
  */
 @Entity(name = "Order")
-@Table(name = "\"order\"")
+@DynamicUpdate
+@Table(name = "\"order\"", indexes = {
+        @Index(name = "order_barista_id_idx", columnList = "barista, id"),
+        @Index(name = "order_created_idx", columnList = "created"),
+        @Index(name = "order_completed_created_idx", columnList = "completed, created")
+})
 public class Order {
     @Id
-    @SequenceGenerator(
-            name = "order_sequence",
-            sequenceName = "order_sequence",
-            allocationSize = 10
-    )
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_sequence")
+    @PooledLoSequence(name = "order_sequence", allowAssigned = true)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "barista", nullable = false)
     private Barista barista;
 
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-            name = "order_coffee",
-            joinColumns = {@JoinColumn(name = "order_id")},
-            inverseJoinColumns = {@JoinColumn(name = "coffee_id")}
-    )
-    private List<Coffee> coffeeList = new ArrayList<>();
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderLine> lines = new ArrayList<>();
 
     @Column(name = "created", nullable = false)
     @JsonDeserialize(using = LocalDateTimeDeserializer.class)
@@ -92,7 +88,7 @@ public class Order {
 
         this.id = id;
         this.barista = barista;
-        this.coffeeList = new ArrayList<>(coffeeList);
+        setCoffeeList(coffeeList);
         this.created = created;
         this.completed = completed;
         this.price = price;
@@ -149,16 +145,24 @@ public class Order {
     }
 
     /**
-     * Get list of ordered coffee.
+     * Get list of ordered coffee. Coffee is repeated as many times as it is ordered.
+     * Changes of returned list are not applied to order.
      *
      * @return list of ordered coffee.
      */
     public List<Coffee> getCoffeeList() {
+        List<Coffee> coffeeList = new ArrayList<>();
+        for (OrderLine line : lines) {
+            for (int i = 0; i < line.getQuantity(); i++)
+                coffeeList.add(line.getCoffee());
+        }
         return coffeeList;
     }
 
     /**
-     * Set list of ordered coffee.
+     * Set list of ordered coffee. Repeated coffee is counted as quantity of one line.
+     * Existing lines are kept with their unit price, only quantity is changed;
+     * lines of coffee, that is not contained in list, are removed.
      *
      * @param coffeeList list of ordered coffee. Can't be null.
      * @throws NullParamException thrown when one of param equals null.
@@ -167,7 +171,35 @@ public class Order {
         if (coffeeList == null)
             throw new NullParamException();
 
-        this.coffeeList = new ArrayList<>(coffeeList);
+        Map<Coffee, Integer> quantities = new LinkedHashMap<>();
+        for (Coffee coffee : coffeeList)
+            quantities.merge(coffee, 1, Integer::sum);
+
+        lines.removeIf(line -> !quantities.containsKey(line.getCoffee()));
+        for (OrderLine line : lines)
+            line.setQuantity(quantities.remove(line.getCoffee()));
+        quantities.forEach((coffee, quantity) -> lines.add(new OrderLine(this, coffee, quantity)));
+    }
+
+    /**
+     * Get lines of order, one for each ordered coffee.
+     *
+     * @return lines of order.
+     */
+    public List<OrderLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Get price of ordered coffee by unit prices of lines, without barista's tip.
+     * Coffee is not loaded, because unit prices are copied when lines are created.
+     *
+     * @return sum of lines' prices.
+     */
+    public Double getLinesPrice() {
+        return lines.stream()
+                .map(OrderLine::getLinePrice)
+                .reduce(0.0, Double::sum);
     }
 
     /**
@@ -261,7 +293,7 @@ public class Order {
         return "Order{" +
                 "id=" + id +
                 ", barista=" + barista +
-                ", coffeeList=" + coffeeList +
+                ", lines=" + lines +
                 ", created=" + created +
                 ", completed=" + completed +
                 ", price=" + price +
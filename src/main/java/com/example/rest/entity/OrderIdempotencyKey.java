@@ -0,0 +1,96 @@
+package com.example.rest.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key of order creation. Stored in the same transaction as created order,
+ * so retried request with the same key returns this order instead of creating new one,
+ * even after restart or on other instance.
+ */
+@Entity(name = "OrderIdempotencyKey")
+@Table(name = "order_idempotency_key", indexes = {
+        @Index(name = "order_idempotency_key_created_idx", columnList = "created")
+})
+public class OrderIdempotencyKey implements Persistable<String> {
+    /**
+     * Name of primary key constraint, violated when the same key is stored by concurrent transactions.
+     */
+    public static final String PRIMARY_KEY = "order_idempotency_key_pk";
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, updatable = false)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private Long orderId;
+
+    @Column(name = "created", nullable = false, updatable = false)
+    private LocalDateTime created;
+
+    @Transient
+    private boolean stored;
+
+    /**
+     * Empty constructor.
+     */
+    public OrderIdempotencyKey() {
+    }
+
+    /**
+     * All fields constructor.
+     *
+     * @param key         idempotency key from request header.
+     * @param requestHash SHA-256 hex digest of request body.
+     * @param orderId     id of created order.
+     * @param created     key stored datetime.
+     */
+    public OrderIdempotencyKey(String key, String requestHash, Long orderId, LocalDateTime created) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.orderId = orderId;
+        this.created = created;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    /**
+     * New key is inserted without selecting it first.
+     *
+     * @return true if key is not loaded from db or persisted yet.
+     */
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        this.stored = true;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getCreated() {
+        return created;
+    }
+}
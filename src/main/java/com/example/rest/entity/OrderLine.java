@@ -0,0 +1,168 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.exception.NoValidQuantityException;
+import com.example.rest.entity.exception.NullParamException;
+import jakarta.persistence.*;
+
+/**
+ * Order line entity. Row of order's coffee list: ordered coffee, quantity of it and
+ * coffee's name and unit price, that are copied from coffee when line is created.
+ * Snapshot is never changed, so line is rendered and priced without loading coffee
+ * and changing menu doesn't touch historical orders.
+ * Identified by order's id and coffee's id, so order contains only one line for each coffee.
+ */
+@Entity(name = "OrderLine")
+@Table(name = "order_coffee", indexes = {
+        @Index(name = "order_coffee_coffee_id_order_id_idx", columnList = "coffee_id, order_id")
+})
+public class OrderLine {
+    @EmbeddedId
+    private OrderLineId id = new OrderLineId();
+
+    @MapsId("orderId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    @MapsId("coffeeId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "coffee_id")
+    private Coffee coffee;
+
+    @Column(name = "coffee_name", nullable = false, updatable = false)
+    private String coffeeName;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_price", nullable = false, updatable = false)
+    private Double unitPrice;
+
+    /**
+     * Empty constructor.
+     */
+    public OrderLine() {
+    }
+
+    /**
+     * Create line of order. Coffee's name and price are copied from coffee.
+     *
+     * @param order    order, that contains this line. Can't be null.
+     * @param coffee   ordered coffee. Can't be null.
+     * @param quantity quantity of ordered coffee. Can't be null or less than one.
+     * @throws NullParamException       thrown when one of param equals null.
+     * @throws NoValidQuantityException thrown when quantity is less than one.
+     */
+    public OrderLine(Order order, Coffee coffee, Integer quantity) {
+        if (order == null || coffee == null || quantity == null)
+            throw new NullParamException();
+        if (quantity < 1)
+            throw new NoValidQuantityException(quantity);
+
+        this.order = order;
+        this.coffee = coffee;
+        this.coffeeName = coffee.getName();
+        this.quantity = quantity;
+        this.unitPrice = coffee.getPrice();
+    }
+
+    /**
+     * Get composite identifier of line.
+     *
+     * @return order's id and coffee's id.
+     */
+    public OrderLineId getId() {
+        return id;
+    }
+
+    /**
+     * Get order, that contains this line.
+     *
+     * @return order.
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Get ordered coffee.
+     *
+     * @return coffee.
+     */
+    public Coffee getCoffee() {
+        return coffee;
+    }
+
+    /**
+     * Get id of ordered coffee. For persisted line id is taken from line's identifier,
+     * so coffee is not loaded.
+     *
+     * @return coffee's id.
+     */
+    public Long getCoffeeId() {
+        Long coffeeId = id.getCoffeeId();
+        return coffeeId != null ? coffeeId : coffee.getId();
+    }
+
+    /**
+     * Get coffee's name at the moment, when line was created.
+     *
+     * @return name of ordered coffee.
+     */
+    public String getCoffeeName() {
+        return coffeeName;
+    }
+
+    /**
+     * Get quantity of ordered coffee.
+     *
+     * @return quantity of ordered coffee.
+     */
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Set quantity of ordered coffee.
+     *
+     * @param quantity quantity of ordered coffee. Can't be null or less than one.
+     * @throws NullParamException       thrown when one of param equals null.
+     * @throws NoValidQuantityException thrown when quantity is less than one.
+     */
+    public void setQuantity(Integer quantity) {
+        if (quantity == null)
+            throw new NullParamException();
+        if (quantity < 1)
+            throw new NoValidQuantityException(quantity);
+
+        this.quantity = quantity;
+    }
+
+    /**
+     * Get coffee's price at the moment, when line was created.
+     *
+     * @return unit price of ordered coffee.
+     */
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+
+    /**
+     * Get price of line: unit price multiplied by quantity.
+     *
+     * @return price of line.
+     */
+    public Double getLinePrice() {
+        return unitPrice * quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderLine{" +
+                "id=" + id +
+                ", coffeeName='" + coffeeName + '\'' +
+                ", quantity=" + quantity +
+                ", unitPrice=" + unitPrice +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.rest.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite identifier of order line. Contains order's id and coffee's id.
+ * Both fields are filled by persistence provider from line's order and coffee.
+ */
+@Embeddable
+public class OrderLineId implements Serializable {
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "coffee_id", nullable = false)
+    private Long coffeeId;
+
+    /**
+     * Empty constructor.
+     */
+    public OrderLineId() {
+    }
+
+    /**
+     * All fields constructor.
+     *
+     * @param orderId  order's id.
+     * @param coffeeId coffee's id.
+     */
+    public OrderLineId(Long orderId, Long coffeeId) {
+        this.orderId = orderId;
+        this.coffeeId = coffeeId;
+    }
+
+    /**
+     * Get order's id.
+     *
+     * @return order's id.
+     */
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Get coffee's id.
+     *
+     * @return coffee's id.
+     */
+    public Long getCoffeeId() {
+        return coffeeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OrderLineId that)) return false;
+
+        return Objects.equals(orderId, that.orderId) && Objects.equals(coffeeId, that.coffeeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, coffeeId);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderLineId{" +
+                "orderId=" + orderId +
+                ", coffeeId=" + coffeeId +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.exception.NoValidStatusException;
+
+import java.util.Arrays;
+
+/**
+ * Status of order. Pending order has no completed datetime, completed order has it.
+ */
+public enum OrderStatus {
+    PENDING,
+    COMPLETED;
+
+    /**
+     * Parse status ignoring case.
+     *
+     * @param status status name, for example "pending". Can be null.
+     * @return parsed status or null, when status is null.
+     * @throws NoValidStatusException when status is unknown.
+     */
+    public static OrderStatus parse(String status) {
+        if (status == null)
+            return null;
+
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(status.trim()))
+                .findFirst()
+                .orElseThrow(() -> new NoValidStatusException(status));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.rest.entity.exception;
+
+/**
+ * Thrown when quantity is less than one.
+ */
+public class NoValidQuantityException extends RuntimeException {
+    public NoValidQuantityException(Integer quantity) {
+        super(String.format("Quantity must be more than zero! Your value '%d'", quantity));
+    }
+}
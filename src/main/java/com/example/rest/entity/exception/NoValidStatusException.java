@@ -0,0 +1,10 @@
+package com.example.rest.entity.exception;
+
+/**
+ * Thrown when order status is unknown.
+ */
+public class NoValidStatusException extends RuntimeException {
+    public NoValidStatusException(String status) {
+        super(String.format("Status must be 'pending' or 'completed'! Your value is '%s'.", status));
+    }
+}
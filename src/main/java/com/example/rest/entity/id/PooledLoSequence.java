@@ -0,0 +1,42 @@
+package com.example.rest.entity.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id is generated from db sequence with pooled-lo optimizer: each nextval call returns
+ * the lowest id of the next block of allocation size ids, which are assigned without db round trips.
+ * Allocation size is taken from setting {@code app.sequence.<name>.allocation_size}, if it is present,
+ * and must be equal to increment of db sequence.
+ */
+@IdGeneratorType(PooledLoSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledLoSequence {
+
+    /**
+     * Name of db sequence.
+     *
+     * @return sequence name.
+     */
+    String name();
+
+    /**
+     * Allocation size, used when it is not set in settings.
+     *
+     * @return default allocation size.
+     */
+    int allocationSize() default 10;
+
+    /**
+     * Whether id, that is already set on persisted entity, is kept. Such id must be taken
+     * from block of the same sequence, for example by id allocator of order intake.
+     *
+     * @return true if assigned ids are allowed.
+     */
+    boolean allowAssigned() default false;
+}
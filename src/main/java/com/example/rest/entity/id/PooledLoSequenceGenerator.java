@@ -0,0 +1,73 @@
+package com.example.rest.entity.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Sequence generator of {@link PooledLoSequence}. Allocation size of each sequence can be configured
+ * separately, so bulk inserted entities can take bigger blocks of ids.
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+    private static final String SETTING_PREFIX = "app.sequence.";
+    private static final String SETTING_SUFFIX = ".allocation_size";
+
+    private final String sequenceName;
+    private final int defaultAllocationSize;
+    private final boolean allowAssigned;
+
+    public PooledLoSequenceGenerator(PooledLoSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.name();
+        this.defaultAllocationSize = config.allocationSize();
+        this.allowAssigned = config.allowAssigned();
+    }
+
+    /**
+     * Name of setting, which contains allocation size of sequence.
+     *
+     * @param sequenceName name of db sequence.
+     * @return setting name, for example "app.sequence.order_sequence.allocation_size".
+     */
+    public static String allocationSizeSetting(String sequenceName) {
+        return SETTING_PREFIX + sequenceName + SETTING_SUFFIX;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return allowAssigned;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (allowAssigned) {
+            Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+            if (assigned != null)
+                return assigned;
+        }
+        return super.generate(session, owner, currentValue, eventType);
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class).getSetting(
+                allocationSizeSetting(sequenceName), StandardConverters.INTEGER, defaultAllocationSize);
+        if (allocationSize < 1)
+            throw new MappingException(String.format("Allocation size of '%s' must be positive!", sequenceName));
+
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
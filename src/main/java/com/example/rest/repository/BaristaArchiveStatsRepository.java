@@ -0,0 +1,19 @@
+package com.example.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Interface to statistics of archived orders of barista.
+ */
+public interface BaristaArchiveStatsRepository {
+    /**
+     * Aggregate archived orders of each barista by one query, like completed orders of order table.
+     * Runs in read-write transaction, so it is not routed to replica, which can lag behind.
+     *
+     * @return one row for each barista with archived orders.
+     */
+    @Transactional
+    List<BaristaStatsRow> aggregateArchivedOrders();
+}
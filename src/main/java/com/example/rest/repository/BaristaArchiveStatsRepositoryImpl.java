@@ -0,0 +1,48 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+/**
+ * Implementation of statistics of archived orders by native query.
+ */
+public class BaristaArchiveStatsRepositoryImpl implements BaristaArchiveStatsRepository {
+    private static final String SELECT = """
+            select a.barista barista_id,
+                   count(*) completed_orders,
+                   sum(cast(extract(epoch from a.completed) - extract(epoch from a.created) as float8)) prep_seconds,
+                   sum(a.price) revenue,
+                   sum(a.price - coalesce(l.lines_price, 0.0)) tip_revenue
+            from order_archive a
+                     left join (select l.order_id order_id, l.created created, sum(l.unit_price * l.quantity) lines_price
+                                from order_coffee_archive l
+                                group by l.order_id, l.created) l
+                               on l.order_id = a.id and l.created = a.created
+            group by a.barista""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<BaristaStatsRow> aggregateArchivedOrders() {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(SELECT)
+                .unwrap(NativeQuery.class)
+                .addScalar("barista_id", Long.class)
+                .addScalar("completed_orders", Long.class)
+                .addScalar("prep_seconds", Double.class)
+                .addScalar("revenue", Double.class)
+                .addScalar("tip_revenue", Double.class);
+        return query.getResultList()
+                .stream()
+                .map(row -> new BaristaStatsRow((Long) row[0],
+                        (Long) row[1],
+                        (Double) row[2],
+                        (Double) row[3],
+                        (Double) row[4]))
+                .toList();
+    }
+}
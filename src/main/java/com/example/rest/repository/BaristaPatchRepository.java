@@ -0,0 +1,16 @@
+package com.example.rest.repository;
+
+/**
+ * Partial update of barista, that touches only supplied columns.
+ */
+public interface BaristaPatchRepository {
+    /**
+     * Update supplied fields of barista by one statement without loading barista.
+     *
+     * @param id       barista's id.
+     * @param fullName new full name or null, when it is not changed.
+     * @param tipSize  new tip size or null, when it is not changed.
+     * @return number of updated rows, zero when barista is not found or nothing is supplied.
+     */
+    int patch(Long id, String fullName, Double tipSize);
+}
@@ -0,0 +1,21 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Barista;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of barista's partial update by criteria update.
+ */
+public class BaristaPatchRepositoryImpl implements BaristaPatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, String fullName, Double tipSize) {
+        return new CriteriaPatch<>(entityManager, Barista.class, id)
+                .set("fullName", fullName)
+                .set("tipSize", tipSize)
+                .execute();
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.rest.repository;
 
 import com.example.rest.entity.Barista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +22,8 @@ import java.util.Optional;
  * Interface to interaction with barista in db.
  */
 @Repository
-public interface BaristaRepository extends JpaRepository<Barista, Long> {
+public interface BaristaRepository extends JpaRepository<Barista, Long>, BaristaPatchRepository, BaristaSearchRepository,
+        BaristaArchiveStatsRepository {
 
     @EntityGraph(attributePaths = {
             "id",
@@ -22,6 +31,7 @@ public interface BaristaRepository extends JpaRepository<Barista, Long> {
             "tipSize",
             "orderList"
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     List<Barista> findAll();
 
@@ -40,7 +50,104 @@ public interface BaristaRepository extends JpaRepository<Barista, Long> {
             "tipSize",
             "orderList"
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     Page<Barista> findAll(Pageable page);
 
+    /**
+     * Find all barista without fetching order list.
+     *
+     * @return list of barista's with not initialized order list.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select b from Barista b")
+    List<Barista> findAllWithoutOrders();
+
+    /**
+     * Find barista by id without fetching order list.
+     *
+     * @param id barista's id.
+     * @return barista with not initialized order list.
+     */
+    @Query("select b from Barista b where b.id = :id")
+    Optional<Barista> findByIdWithoutOrders(@Param("id") Long id);
+
+    /**
+     * Delete barista by one statement without loading it and its orders. Barista with orders is not deleted: orders
+     * reference it by foreign key.
+     *
+     * @param id barista's id.
+     * @return number of deleted rows, zero when barista is not found.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Barista b where b.id = :id")
+    int deleteByIdWithoutLoading(@Param("id") Long id);
+
+    /**
+     * Find all barista grouped by page without fetching order list.
+     *
+     * @param page page request.
+     * @return page of barista's with not initialized order list.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select b from Barista b", countQuery = "select count(b) from Barista b")
+    Page<Barista> findAllWithoutOrders(Pageable page);
+
+    /**
+     * Find first orders of each barista ordered by order's id, with total count of barista's orders.
+     * Rows are numbered by window function, so result is bounded by ids count multiplied by limit.
+     *
+     * @param ids   barista's ids.
+     * @param limit maximum number of orders of each barista.
+     * @return rows ordered by barista's id and order's id.
+     */
+    @Query("""
+            select new com.example.rest.repository.NestedOrderRow(t.baristaId, t.id, t.baristaId, t.created, t.completed, t.price, t.total)
+            from (select o.id id, o.barista.id baristaId, o.created created, o.completed completed, o.price price,
+                         row_number() over (partition by o.barista.id order by o.id) rn,
+                         count(*) over (partition by o.barista.id) total
+                  from Order o
+                  where o.barista.id in :ids) t
+            where t.rn <= :limit
+            order by t.baristaId, t.id""")
+    List<NestedOrderRow> findFirstOrders(@Param("ids") Collection<Long> ids, @Param("limit") int limit);
+
+    /**
+     * Aggregate completed orders of each barista by one query: count, sum of preparation times,
+     * sum of prices and sum of tips, that is price without prices of lines.
+     * Runs in read-write transaction, so it is not routed to replica, which can lag behind.
+     *
+     * @return one row for each barista with completed orders.
+     */
+    @Transactional
+    @Query("""
+            select new com.example.rest.repository.BaristaStatsRow(t.baristaId, count(*), sum(t.prepSeconds),
+                                                                  sum(t.price), sum(t.price - t.linesPrice))
+            from (select o.barista.id baristaId, o.price price,
+                         cast(extract(epoch from o.completed) - extract(epoch from o.created) as Double) prepSeconds,
+                         (select coalesce(sum(l.unitPrice * l.quantity), 0.0) from OrderLine l where l.order = o) linesPrice
+                  from Order o
+                  where o.completed is not null) t
+            group by t.baristaId""")
+    List<BaristaStatsRow> aggregateCompletedOrders();
+
+    /**
+     * Aggregate one stored order like aggregateCompletedOrders, so it can be added to or removed from
+     * statistics of its barista. Order and its lines are not loaded.
+     *
+     * @param orderId order's id.
+     * @return row of one order, empty when order is not found or is not completed.
+     */
+    @Query("""
+            select new com.example.rest.repository.BaristaStatsRow(t.baristaId, count(*), sum(t.prepSeconds),
+                                                                  sum(t.price), sum(t.price - t.linesPrice))
+            from (select o.barista.id baristaId, o.price price,
+                         cast(extract(epoch from o.completed) - extract(epoch from o.created) as Double) prepSeconds,
+                         (select coalesce(sum(l.unitPrice * l.quantity), 0.0) from OrderLine l where l.order = o) linesPrice
+                  from Order o
+                  where o.id = :orderId and o.completed is not null) t
+            group by t.baristaId""")
+    Optional<BaristaStatsRow> aggregateCompletedOrder(@Param("orderId") Long orderId);
+
 }
@@ -0,0 +1,22 @@
+package com.example.rest.repository;
+
+import java.util.List;
+
+/**
+ * Interface to search of barista by name.
+ */
+public interface BaristaSearchRepository {
+    /**
+     * Find barista, which full names match query, ordered by rank of match and id.
+     * Rank is thousands of match kind: full name starts with query (0), some word starts with query (1000),
+     * full name contains query (2000), full name is similar to query (3000), plus distance
+     * of trigram similarity from 0 to 999, when db supports it. Case is ignored.
+     *
+     * @param query     searched name.
+     * @param afterRank rank of last barista of previous slice. Can be null, then search starts from first barista.
+     * @param after     id of last barista of previous slice. Is ignored, when afterRank is null.
+     * @param limit     maximum number of barista.
+     * @return rows ordered by rank and id.
+     */
+    List<BaristaSearchRow> searchByName(String query, Integer afterRank, Long after, int limit);
+}
@@ -0,0 +1,88 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementation of barista name search by native queries.
+ * On Postgres substring and similarity matches are read from trigram index of lower-cased full name
+ * and matches of the same kind are ranked by trigram similarity. Other db, such as embedded test db,
+ * find matches by like without index and rank matches of the same kind by id.
+ */
+public class BaristaSearchRepositoryImpl implements BaristaSearchRepository {
+    private static final String POSTGRES_SELECT = """
+            select t.id id, t.full_name full_name, t.tip_size tip_size, t.search_rank search_rank
+            from (select b.id id, b.full_name full_name, b.tip_size tip_size,
+                         case when lower(b.full_name) like :prefix then 0
+                              when lower(b.full_name) like :wordPrefix then 1000
+                              when lower(b.full_name) like :infix then 2000
+                              else 3000 end
+                         + cast(round((1 - similarity(lower(b.full_name), :query)) * 999) as integer) search_rank
+                  from barista b
+                  where lower(b.full_name) like :infix
+                     or lower(b.full_name) % :query) t
+            where t.search_rank > :afterRank
+               or (t.search_rank = :afterRank and t.id > :after)
+            order by t.search_rank, t.id
+            limit :limit""";
+    private static final String FALLBACK_SELECT = """
+            select t.id id, t.full_name full_name, t.tip_size tip_size, t.search_rank search_rank
+            from (select b.id id, b.full_name full_name, b.tip_size tip_size,
+                         case when lower(b.full_name) like :prefix then 0
+                              when lower(b.full_name) like :wordPrefix then 1000
+                              else 2000 end search_rank
+                  from barista b
+                  where lower(b.full_name) like :infix) t
+            where t.search_rank > :afterRank
+               or (t.search_rank = :afterRank and t.id > :after)
+            order by t.search_rank, t.id
+            limit :limit""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<BaristaSearchRow> searchByName(String query, Integer afterRank, Long after, int limit) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        String escaped = lower.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        boolean postgres = isPostgres();
+
+        NativeQuery<Object[]> nativeQuery = entityManager.createNativeQuery(postgres ? POSTGRES_SELECT : FALLBACK_SELECT)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("full_name", String.class)
+                .addScalar("tip_size", Double.class)
+                .addScalar("search_rank", Integer.class);
+        if (postgres)
+            nativeQuery.setParameter("query", lower);
+        return nativeQuery.setParameter("prefix", escaped + "%")
+                .setParameter("wordPrefix", "% " + escaped + "%")
+                .setParameter("infix", "%" + escaped + "%")
+                .setParameter("afterRank", afterRank == null ? -1 : afterRank)
+                .setParameter("after", afterRank == null ? -1L : after)
+                .setParameter("limit", limit)
+                .getResultList()
+                .stream()
+                .map(row -> new BaristaSearchRow((Long) row[0],
+                        (String) row[1],
+                        (Double) row[2],
+                        (Integer) row[3]))
+                .toList();
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rest.repository;
+
+/**
+ * Barista, found by name search, with rank of match.
+ *
+ * @param id       barista's id.
+ * @param fullName barista's full name.
+ * @param tipSize  barista's tip size.
+ * @param rank     rank of match, less is better. Is keyset cursor of search together with id.
+ */
+public record BaristaSearchRow(Long id,
+                               String fullName,
+                               Double tipSize,
+                               Integer rank) {
+}
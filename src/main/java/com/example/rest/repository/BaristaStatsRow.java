@@ -0,0 +1,17 @@
+package com.example.rest.repository;
+
+/**
+ * Row of completed orders' aggregates of one barista.
+ *
+ * @param baristaId       barista's id.
+ * @param completedOrders number of completed orders.
+ * @param prepSeconds     sum of preparation times (completed - created) in seconds.
+ * @param revenue         sum of orders' prices.
+ * @param tipRevenue      sum of orders' prices without prices of lines, that is barista's tips.
+ */
+public record BaristaStatsRow(Long baristaId,
+                              Long completedOrders,
+                              Double prepSeconds,
+                              Double revenue,
+                              Double tipRevenue) {
+}
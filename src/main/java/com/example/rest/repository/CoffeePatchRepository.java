@@ -0,0 +1,17 @@
+package com.example.rest.repository;
+
+/**
+ * Partial update of coffee, that touches only supplied columns.
+ */
+public interface CoffeePatchRepository {
+    /**
+     * Update supplied fields of coffee by one statement without loading coffee.
+     * Orders are not changed, because they keep coffee's price of the moment, when coffee was ordered.
+     *
+     * @param id    coffee's id.
+     * @param name  new name or null, when it is not changed.
+     * @param price new price or null, when it is not changed.
+     * @return number of updated rows, zero when coffee is not found or nothing is supplied.
+     */
+    int patch(Long id, String name, Double price);
+}
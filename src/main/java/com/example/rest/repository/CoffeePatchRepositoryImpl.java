@@ -0,0 +1,21 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Coffee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of coffee's partial update by criteria update.
+ */
+public class CoffeePatchRepositoryImpl implements CoffeePatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, String name, Double price) {
+        return new CriteriaPatch<>(entityManager, Coffee.class, id)
+                .set("name", name)
+                .set("price", price)
+                .execute();
+    }
+}
@@ -1,26 +1,37 @@
 package com.example.rest.repository;
 
 import com.example.rest.entity.Coffee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface to interaction with Coffee entity in db.
  */
 @Repository
-public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
+public interface CoffeeRepository extends JpaRepository<Coffee, Long>, CoffeePatchRepository, CoffeeStatsRepository {
 
     @EntityGraph(attributePaths = {
             "id",
             "name",
             "price",
-            "orderList"
+            "lineList",
+            "lineList.order"
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     Page<Coffee> findAll(Pageable pageable);
 
@@ -28,8 +39,10 @@ public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
             "id",
             "name",
             "price",
-            "orderList"
+            "lineList",
+            "lineList.order"
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     List<Coffee> findAll();
 
@@ -37,8 +50,77 @@ public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
             "id",
             "name",
             "price",
-            "orderList"
+            "lineList",
+            "lineList.order"
     })
     @Override
     List<Coffee> findAllById(Iterable<Long> longs);
+
+    /**
+     * Find all coffee without fetching order list.
+     *
+     * @return list of coffee with not initialized order list.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from Coffee c")
+    List<Coffee> findAllWithoutOrders();
+
+    /**
+     * Find coffee by id without fetching order list.
+     *
+     * @param id coffee's id.
+     * @return coffee with not initialized order list.
+     */
+    @Query("select c from Coffee c where c.id = :id")
+    Optional<Coffee> findByIdWithoutOrders(@Param("id") Long id);
+
+    /**
+     * Find coffee by ids without fetching order list.
+     *
+     * @param ids coffee's ids.
+     * @return found coffee with not initialized order list, in any order.
+     */
+    @Query("select c from Coffee c where c.id in :ids")
+    List<Coffee> findAllByIdWithoutOrders(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Delete coffee by one statement without loading it and its orders. Ordered coffee is not deleted: lines of orders
+     * reference it by foreign key, because orders keep their coffee.
+     *
+     * @param id coffee's id.
+     * @return number of deleted rows, zero when coffee is not found.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Coffee c where c.id = :id")
+    int deleteByIdWithoutLoading(@Param("id") Long id);
+
+    /**
+     * Find all coffee grouped by page without fetching order list.
+     *
+     * @param pageable page request.
+     * @return page of coffee with not initialized order list.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select c from Coffee c", countQuery = "select count(c) from Coffee c")
+    Page<Coffee> findAllWithoutOrders(Pageable pageable);
+
+    /**
+     * Find first orders of each coffee ordered by order's id, with total count of coffee's orders.
+     * Rows are numbered by window function, so result is bounded by ids count multiplied by limit.
+     *
+     * @param ids   coffee's ids.
+     * @param limit maximum number of orders of each coffee.
+     * @return rows ordered by coffee's id and order's id.
+     */
+    @Query("""
+            select new com.example.rest.repository.NestedOrderRow(t.coffeeId, t.id, t.baristaId, t.created, t.completed, t.price, t.total)
+            from (select l.coffee.id coffeeId, o.id id, o.barista.id baristaId, o.created created, o.completed completed, o.price price,
+                         row_number() over (partition by l.coffee.id order by o.id) rn,
+                         count(*) over (partition by l.coffee.id) total
+                  from OrderLine l join l.order o
+                  where l.coffee.id in :ids) t
+            where t.rn <= :limit
+            order by t.coffeeId, t.id""")
+    List<NestedOrderRow> findFirstOrders(@Param("ids") Collection<Long> ids, @Param("limit") int limit);
 }
@@ -0,0 +1,27 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface to hourly rollup of ordered coffee.
+ */
+public interface CoffeeStatsRepository {
+    /**
+     * Add changes to hourly rows of statistics. Missing rows are inserted.
+     *
+     * @param changes changes of hourly rows, bucket of each change is start of hour.
+     */
+    void addStats(Collection<CoffeeStatsRow> changes);
+
+    /**
+     * Find statistics of all coffee, grouped by coffee and bucket.
+     *
+     * @param from   start of period, rounded down to hour.
+     * @param to     end of period, exclusive.
+     * @param bucket size of bucket.
+     * @return rows with orders, ordered by bucket and coffee's id.
+     */
+    List<CoffeeStatsRow> findStats(LocalDateTime from, LocalDateTime to, StatsBucket bucket);
+}
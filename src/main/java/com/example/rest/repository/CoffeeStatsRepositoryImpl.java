@@ -0,0 +1,86 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementation of hourly rollup of ordered coffee by native queries.
+ * Changes are upserted by one jdbc batch in order of changes, so callers, which sort changes,
+ * lock rows in the same order.
+ */
+public class CoffeeStatsRepositoryImpl implements CoffeeStatsRepository {
+    private static final String UPSERT = """
+            insert into coffee_stats_hourly as s (coffee_id, bucket, orders, quantity, revenue)
+            values (?, ?, ?, ?, ?)
+            on conflict (bucket, coffee_id) do update
+            set orders   = s.orders + excluded.orders,
+                quantity = s.quantity + excluded.quantity,
+                revenue  = s.revenue + excluded.revenue""";
+    private static final String SELECT = """
+            select s.coffee_id coffee_id,
+                   date_trunc(:unit, s.bucket) bucket,
+                   sum(s.orders) orders,
+                   sum(s.quantity) quantity,
+                   sum(s.revenue) revenue
+            from coffee_stats_hourly s
+            where s.bucket >= date_trunc('hour', cast(:from as timestamp))
+              and s.bucket < :to
+            group by 1, 2
+            having sum(s.orders) > 0
+            order by 2, 1""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addStats(Collection<CoffeeStatsRow> changes) {
+        if (changes.isEmpty())
+            return;
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (CoffeeStatsRow change : changes) {
+                    statement.setLong(1, change.coffeeId());
+                    statement.setTimestamp(2, Timestamp.valueOf(change.bucket()));
+                    statement.setLong(3, change.orders());
+                    statement.setLong(4, change.quantity());
+                    statement.setDouble(5, change.revenue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CoffeeStatsRow> findStats(LocalDateTime from, LocalDateTime to, StatsBucket bucket) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(SELECT)
+                .unwrap(NativeQuery.class)
+                .addScalar("coffee_id", Long.class)
+                .addScalar("bucket", LocalDateTime.class)
+                .addScalar("orders", Long.class)
+                .addScalar("quantity", Long.class)
+                .addScalar("revenue", Double.class);
+        return query.setParameter("unit", bucket.name().toLowerCase(Locale.ROOT))
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .stream()
+                .map(row -> new CoffeeStatsRow((Long) row[0],
+                        (LocalDateTime) row[1],
+                        (Long) row[2],
+                        (Long) row[3],
+                        (Double) row[4]))
+                .toList();
+    }
+}
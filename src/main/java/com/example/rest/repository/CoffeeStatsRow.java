@@ -0,0 +1,19 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of coffee's statistics in one time bucket, or change of hourly row of statistics.
+ *
+ * @param coffeeId coffee's id.
+ * @param bucket   start of time bucket.
+ * @param orders   number of orders, which contain coffee.
+ * @param quantity ordered quantity of coffee.
+ * @param revenue  sum of prices of lines with coffee, without barista's tips.
+ */
+public record CoffeeStatsRow(Long coffeeId,
+                             LocalDateTime bucket,
+                             Long orders,
+                             Long quantity,
+                             Double revenue) {
+}
@@ -0,0 +1,73 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Builder of targeted update of one entity by id. Only attributes with not null values are set,
+ * so statement touches only supplied columns and entity is not loaded.
+ *
+ * @param <T> entity type.
+ */
+final class CriteriaPatch<T> {
+    private final EntityManager entityManager;
+    private final CriteriaBuilder builder;
+    private final CriteriaUpdate<T> update;
+    private final Root<T> root;
+    private final List<Predicate> conditions = new ArrayList<>();
+    private boolean changed;
+
+    CriteriaPatch(EntityManager entityManager, Class<T> entityType, Long id) {
+        this.entityManager = entityManager;
+        this.builder = entityManager.getCriteriaBuilder();
+        this.update = builder.createCriteriaUpdate(entityType);
+        this.root = update.from(entityType);
+        this.conditions.add(builder.equal(root.get("id"), id));
+    }
+
+    /**
+     * Set attribute, when value is not null.
+     *
+     * @param attribute name of entity's attribute.
+     * @param value     new value or null, when attribute is not changed.
+     * @return this patch.
+     */
+    CriteriaPatch<T> set(String attribute, Object value) {
+        if (value != null) {
+            update.set(root.get(attribute), value);
+            changed = true;
+        }
+        return this;
+    }
+
+    /**
+     * Add condition, that must be true for updated row.
+     *
+     * @param condition function of root and criteria builder, that returns predicate.
+     * @return this patch.
+     */
+    CriteriaPatch<T> where(BiFunction<Root<T>, CriteriaBuilder, Predicate> condition) {
+        conditions.add(condition.apply(root, builder));
+        return this;
+    }
+
+    /**
+     * Execute update.
+     *
+     * @return number of updated rows, zero when nothing is set.
+     */
+    int execute() {
+        if (!changed)
+            return 0;
+
+        update.where(conditions.toArray(Predicate[]::new));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
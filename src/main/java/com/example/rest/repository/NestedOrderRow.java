@@ -0,0 +1,24 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of bounded nested order list. Contains order's columns, id of owner entity (barista or coffee)
+ * and total count of owner's orders.
+ *
+ * @param ownerId   id of barista or coffee, that owns order list.
+ * @param id        order's id.
+ * @param baristaId order's barista id.
+ * @param created   order's creation time.
+ * @param completed order's completion time.
+ * @param price     order's price.
+ * @param total     total count of owner's orders, not only fetched.
+ */
+public record NestedOrderRow(Long ownerId,
+                             Long id,
+                             Long baristaId,
+                             LocalDateTime created,
+                             LocalDateTime completed,
+                             Double price,
+                             Long total) {
+}
@@ -0,0 +1,23 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter of archived orders. Not specified (null) fields are not applied.
+ *
+ * @param after       keyset cursor, orders with greater id are found.
+ * @param createdFrom start of created period.
+ * @param createdTo   end of created period, exclusive.
+ * @param baristaId   id of order's barista.
+ * @param coffeeId    id of coffee, which order contains.
+ * @param minPrice    minimum price, inclusive.
+ * @param maxPrice    maximum price, inclusive.
+ */
+public record OrderArchiveFilter(Long after,
+                                 LocalDateTime createdFrom,
+                                 LocalDateTime createdTo,
+                                 Long baristaId,
+                                 Long coffeeId,
+                                 Double minPrice,
+                                 Double maxPrice) {
+}
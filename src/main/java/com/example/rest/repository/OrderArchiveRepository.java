@@ -0,0 +1,32 @@
+package com.example.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface to archive of completed orders.
+ */
+public interface OrderArchiveRepository {
+    /**
+     * Move one batch of orders, completed before specified time, with their lines to archive
+     * in one transaction. Missing monthly partitions of archive are created. Orders, locked
+     * by other transactions, are skipped and moved by next batch. Idempotency keys of moved orders are deleted.
+     *
+     * @param completedBefore orders completed before this time are moved.
+     * @param batchSize       maximum number of moved orders.
+     * @return number of moved orders.
+     */
+    @Transactional
+    int archiveCompleted(LocalDateTime completedBefore, int batchSize);
+
+    /**
+     * Find first archived orders, that match filter, ordered by id.
+     *
+     * @param filter filter of orders.
+     * @param limit  maximum number of orders.
+     * @return rows ordered by id.
+     */
+    List<OrderArchiveRow> findArchivedOrders(OrderArchiveFilter filter, int limit);
+}
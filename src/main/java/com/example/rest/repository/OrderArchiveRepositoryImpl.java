@@ -0,0 +1,144 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Implementation of archive of completed orders by native queries.
+ * Batch is selected by index on completed time and locked with skip locked, so archival doesn't wait
+ * for transactions, which change orders. Orders and lines of batch are deleted and inserted to archive
+ * by one statement, so foreign key of lines is checked once, after both are deleted.
+ */
+public class OrderArchiveRepositoryImpl implements OrderArchiveRepository {
+    private static final String SELECT_BATCH = """
+            select o.id, o.created
+            from "order" o
+            where o.completed < ?
+            order by o.completed
+            limit ?
+            for update skip locked""";
+    private static final String CREATE_PARTITION = """
+            create table if not exists %1$s_y%2$04dm%3$02d partition of %1$s
+            for values from ('%2$04d-%3$02d-01') to ('%4$04d-%5$02d-01')""";
+    private static final String MOVE = """
+            with moved as (
+                delete from "order" o
+                where o.id = any (?)
+                returning o.id, o.barista, o.created, o.completed, o.price),
+                 moved_lines as (
+                delete from order_coffee l
+                using moved m
+                where l.order_id = m.id
+                returning l.order_id, l.coffee_id, l.coffee_name, l.quantity, l.unit_price, m.created),
+                 archived_lines as (
+                insert into order_coffee_archive (order_id, coffee_id, coffee_name, quantity, unit_price, created)
+                select * from moved_lines)
+            insert into order_archive (id, barista, created, completed, price, archived)
+            select m.id, m.barista, m.created, m.completed, m.price, localtimestamp
+            from moved m""";
+    private static final String SELECT = """
+            select a.id id, a.barista barista, a.created created, a.completed completed, a.price price
+            from order_archive a
+            where true""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int archiveCompleted(LocalDateTime completedBefore, int batchSize) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<Long> ids = new ArrayList<>();
+            SortedSet<YearMonth> months = new TreeSet<>();
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BATCH)) {
+                statement.setTimestamp(1, Timestamp.valueOf(completedBefore));
+                statement.setInt(2, batchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getLong(1));
+                        months.add(YearMonth.from(resultSet.getTimestamp(2).toLocalDateTime()));
+                    }
+                }
+            }
+            if (ids.isEmpty())
+                return 0;
+
+            try (Statement statement = connection.createStatement()) {
+                for (YearMonth month : months) {
+                    statement.execute(partition("order_archive", month));
+                    statement.execute(partition("order_coffee_archive", month));
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(MOVE)) {
+                statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<OrderArchiveRow> findArchivedOrders(OrderArchiveFilter filter, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        condition(sql, parameters, "a.id > :after", "after", filter.after());
+        condition(sql, parameters, "a.created >= :createdFrom", "createdFrom", filter.createdFrom());
+        condition(sql, parameters, "a.created < :createdTo", "createdTo", filter.createdTo());
+        condition(sql, parameters, "a.barista = :baristaId", "baristaId", filter.baristaId());
+        condition(sql, parameters, """
+                exists (select 1
+                               from order_coffee_archive l
+                               where l.order_id = a.id
+                                 and l.created = a.created
+                                 and l.coffee_id = :coffeeId)""", "coffeeId", filter.coffeeId());
+        condition(sql, parameters, "a.price >= :minPrice", "minPrice", filter.minPrice());
+        condition(sql, parameters, "a.price <= :maxPrice", "maxPrice", filter.maxPrice());
+        sql.append("\norder by a.id\nlimit :limit");
+
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("barista", Long.class)
+                .addScalar("created", LocalDateTime.class)
+                .addScalar("completed", LocalDateTime.class)
+                .addScalar("price", Double.class);
+        parameters.forEach(query::setParameter);
+        return query.setParameter("limit", limit)
+                .getResultList()
+                .stream()
+                .map(row -> new OrderArchiveRow((Long) row[0],
+                        (Long) row[1],
+                        (LocalDateTime) row[2],
+                        (LocalDateTime) row[3],
+                        (Double) row[4]))
+                .toList();
+    }
+
+    private static String partition(String table, YearMonth month) {
+        YearMonth next = month.plusMonths(1);
+        return String.format(CREATE_PARTITION, table,
+                month.getYear(), month.getMonthValue(), next.getYear(), next.getMonthValue());
+    }
+
+    private static void condition(StringBuilder sql, Map<String, Object> parameters,
+                                  String condition, String name, Object value) {
+        if (value == null)
+            return;
+        sql.append("\n  and ").append(condition);
+        parameters.put(name, value);
+    }
+}
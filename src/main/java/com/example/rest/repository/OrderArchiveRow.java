@@ -0,0 +1,19 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of archived order.
+ *
+ * @param id        order's id.
+ * @param baristaId id of order's barista.
+ * @param created   created time of order.
+ * @param completed completed time of order.
+ * @param price     order's price.
+ */
+public record OrderArchiveRow(Long id,
+                              Long baristaId,
+                              LocalDateTime created,
+                              LocalDateTime completed,
+                              Double price) {
+}
@@ -0,0 +1,12 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Interface to interact with idempotency keys of created orders in db.
+ */
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+}
@@ -0,0 +1,18 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Order;
+
+import java.util.Collection;
+
+/**
+ * Insert of orders with already assigned ids.
+ */
+public interface OrderInsertRepository {
+    /**
+     * Persist orders with their lines without checking, that they are stored.
+     * Orders with assigned ids are inserted without select, that merge issues before insert.
+     *
+     * @param orders new orders.
+     */
+    void insertAll(Collection<Order> orders);
+}
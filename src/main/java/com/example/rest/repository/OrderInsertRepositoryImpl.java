@@ -0,0 +1,22 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+
+/**
+ * Implementation of orders insert by persist. Inserts are sent in jdbc batches at flush.
+ */
+public class OrderInsertRepositoryImpl implements OrderInsertRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<Order> orders) {
+        for (Order order : orders)
+            entityManager.persist(order);
+        entityManager.flush();
+    }
+}
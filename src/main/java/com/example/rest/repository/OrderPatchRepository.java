@@ -0,0 +1,24 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Barista;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partial update of order, that touches only supplied columns.
+ */
+public interface OrderPatchRepository {
+    /**
+     * Update supplied fields of order by one statement without loading order and its lines.
+     * Row is not updated, when new completed time is not after created time.
+     *
+     * @param id        order's id.
+     * @param barista   new barista or null, when it is not changed.
+     * @param price     new price or null, when it is not changed.
+     * @param created   new created time or null, when it is not changed.
+     * @param completed new completed time or null, when it is not changed.
+     * @return number of updated rows, zero when order is not found, completed time is not after
+     * created time or nothing is supplied.
+     */
+    int patch(Long id, Barista barista, Double price, LocalDateTime created, LocalDateTime completed);
+}
@@ -0,0 +1,34 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Barista;
+import com.example.rest.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDateTime;
+
+/**
+ * Implementation of order's partial update by criteria update.
+ * Completed time is checked against stored created time in the same statement.
+ */
+public class OrderPatchRepositoryImpl implements OrderPatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, Barista barista, Double price, LocalDateTime created, LocalDateTime completed) {
+        CriteriaPatch<Order> patch = new CriteriaPatch<>(entityManager, Order.class, id)
+                .set("barista", barista)
+                .set("price", price)
+                .set("created", created)
+                .set("completed", completed);
+
+        if (completed != null && created == null)
+            patch.where((root, builder) -> builder.lessThan(root.<LocalDateTime>get("created"), completed));
+        if (created != null && completed == null)
+            patch.where((root, builder) -> builder.or(
+                    builder.isNull(root.get("completed")),
+                    builder.greaterThan(root.<LocalDateTime>get("completed"), created)));
+        return patch.execute();
+    }
+}
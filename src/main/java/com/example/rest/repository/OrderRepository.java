@@ -1,36 +1,51 @@
 package com.example.rest.repository;
 
 import com.example.rest.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface to interact with order in db.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderPatchRepository, OrderInsertRepository, OrderTimelineRepository, OrderWaitSketchRepository,
+        OrderArchiveRepository, OrderRetentionRepository {
 
     @EntityGraph(attributePaths = {
             "id",
             "barista",
-            "coffeeList",
+            "lines",
             "created",
             "completed",
             "price"
 
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     List<Order> findAll();
 
     @EntityGraph(attributePaths = {
             "id",
             "barista",
-            "coffeeList",
+            "lines",
             "created",
             "completed",
             "price"
@@ -42,12 +57,144 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @EntityGraph(attributePaths = {
             "id",
             "barista",
-            "coffeeList",
+            "lines",
             "created",
             "completed",
             "price"
 
     })
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Override
     Page<Order> findAll(Pageable pageable);
+
+    /**
+     * Find all orders with barista, but without fetching coffee list.
+     *
+     * @return list of orders with not initialized coffee list.
+     */
+    @EntityGraph(attributePaths = {"barista"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select o from Order o")
+    List<Order> findAllWithoutCoffees();
+
+    /**
+     * Find order by id with barista, but without fetching coffee list.
+     *
+     * @param id order's id.
+     * @return order with not initialized coffee list.
+     */
+    @EntityGraph(attributePaths = {"barista"})
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdWithoutCoffees(@Param("id") Long id);
+
+    /**
+     * Find all orders grouped by page with barista, but without fetching coffee list.
+     *
+     * @param pageable page request.
+     * @return page of orders with not initialized coffee list.
+     */
+    @EntityGraph(attributePaths = {"barista"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select o from Order o", countQuery = "select count(o) from Order o")
+    Page<Order> findAllWithoutCoffees(Pageable pageable);
+
+    /**
+     * Find not completed orders sorted by created datetime, oldest first.
+     * Uses index on completed and created columns.
+     *
+     * @return order queue with barista and coffee list.
+     */
+    @EntityGraph(attributePaths = {"barista", "lines"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select o from Order o where o.completed is null order by o.created")
+    List<Order> findQueue();
+
+    /**
+     * Count not completed orders on primary db.
+     *
+     * @return number of orders in queue.
+     */
+    @Transactional
+    @Query("select count(o) from Order o where o.completed is null")
+    long countQueue();
+
+    /**
+     * Sum prices of order's lines by unit prices, copied when lines were created.
+     * Coffee table is not joined.
+     *
+     * @param id order's id.
+     * @return sum of unit prices multiplied by quantities, zero when order has no lines.
+     */
+    @Query("select coalesce(sum(l.unitPrice * l.quantity), 0.0) from OrderLine l where l.order.id = :id")
+    Double sumLinesPrice(@Param("id") Long id);
+
+    /**
+     * Delete order's lines by one statement. Order and lines are not loaded.
+     *
+     * @param id order's id.
+     * @return number of deleted lines.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from OrderLine l where l.order.id = :id")
+    int deleteLinesByOrderId(@Param("id") Long id);
+
+    /**
+     * Delete order by one statement without loading it. Lines must be deleted before;
+     * idempotency keys are deleted by db cascade.
+     *
+     * @param id order's id.
+     * @return number of deleted orders, zero when order is not found.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Order o where o.id = :id")
+    int deleteByIdWithoutLoading(@Param("id") Long id);
+
+    /**
+     * Find statistics of order's lines, one row for each line. Order is not loaded.
+     *
+     * @param id order's id.
+     * @return rows with order's created time as bucket, one order, quantity and price of line.
+     */
+    @Query("select new com.example.rest.repository.CoffeeStatsRow(l.coffee.id, l.order.created, 1L, "
+            + "cast(l.quantity as Long), l.unitPrice * l.quantity) from OrderLine l where l.order.id = :id")
+    List<CoffeeStatsRow> findLineStats(@Param("id") Long id);
+
+    /**
+     * Take next block of order ids from order sequence. Block starts from returned value
+     * and its size is sequence increment, the same as allocation size of order's id generator,
+     * so ids are never shared with orders, created by generator.
+     * Runs in read-write transaction, so it is not routed to replica.
+     *
+     * @return first id of block.
+     */
+    @Transactional
+    @Query(value = "select nextval('order_sequence')", nativeQuery = true)
+    Long nextIdBlock();
+
+    /**
+     * Find ids of stored orders among specified ids.
+     *
+     * @param ids orders' ids.
+     * @return ids of stored orders.
+     */
+    @Query("select o.id from Order o where o.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find first orders matching specification ordered by id, with barista fetched by join.
+     * Used for keyset pagination, where specification contains 'id greater than last seen' condition.
+     *
+     * @param specification filter of orders.
+     * @param limit         maximum number of orders.
+     * @return orders ordered by id.
+     */
+    default List<Order> findFirstOrderedById(Specification<Order> specification, int limit) {
+        return findBy(specification, query -> query
+                .sortBy(Sort.by("id"))
+                .project("barista")
+                .limit(limit)
+                .all());
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface to purge of orders, which are older than retention period.
+ */
+public interface OrderRetentionRepository {
+    /**
+     * Drop monthly partitions of archive, which months end not later than specified time,
+     * so their rows are removed without deleting them one by one. Partitions are detached concurrently,
+     * so parent tables are not locked exclusively, and are dropped after it. Runs without transaction,
+     * because concurrent detach can't run in transaction block.
+     *
+     * @param createdBefore orders created before this time are purged.
+     * @return archived orders of each dropped partition of archived orders.
+     */
+    List<PurgedOrders> dropArchivePartitions(LocalDateTime createdBefore);
+
+    /**
+     * Delete one chunk of archived orders, created before specified time, with their lines in one transaction.
+     *
+     * @param createdBefore orders created before this time are deleted.
+     * @param chunkSize     maximum number of deleted orders.
+     * @return deleted orders.
+     */
+    @Transactional
+    PurgedOrders deleteArchivedOrders(LocalDateTime createdBefore, int chunkSize);
+
+    /**
+     * Delete one chunk of orders, created before specified time, with their lines in one transaction.
+     * Orders, locked by other transactions, are skipped and deleted by next chunk.
+     * Idempotency keys of deleted orders are deleted.
+     *
+     * @param createdBefore orders created before this time are deleted.
+     * @param chunkSize     maximum number of deleted orders.
+     * @return deleted orders.
+     */
+    @Transactional
+    PurgedOrders deleteOrders(LocalDateTime createdBefore, int chunkSize);
+}
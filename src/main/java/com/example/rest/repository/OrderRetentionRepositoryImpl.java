@@ -0,0 +1,226 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of purge of orders by native queries.
+ * Chunk is selected by index on created time and deleted with its lines by one statement,
+ * so each transaction locks and dirties a bounded number of rows. Lines of chunk are deleted
+ * together with orders, and foreign key of lines is checked once, after both are deleted.
+ * Deleted rows are aggregated by barista in the same statement, so statistics of barista can be adjusted.
+ * <p>
+ * Expired partitions of archive are detached concurrently on connection in autocommit mode, so parent tables
+ * are locked only by share update exclusive lock and reads and archival are not blocked. Detach, interrupted
+ * by failure, is finalized by next run. Detached partitions are aggregated and dropped.
+ */
+public class OrderRetentionRepositoryImpl implements OrderRetentionRepository {
+    private static final Pattern PARTITION = Pattern.compile("(order_archive|order_coffee_archive)_(y\\d{4}m\\d{2})");
+    private static final String SELECT_PARTITIONS = """
+            select c.relname, c.relispartition, coalesce(i.inhdetachpending, false)
+            from pg_class c
+                     left join pg_inherits i on i.inhrelid = c.oid
+            where c.relkind = 'r'
+              and c.relname ~ '^order(_coffee)?_archive_y[0-9]{4}m[0-9]{2}$'""";
+    private static final String AGGREGATE = """
+            select o.barista barista_id,
+                   count(*) deleted_orders,
+                   count(o.completed) completed_orders,
+                   coalesce(sum(cast(extract(epoch from o.completed) - extract(epoch from o.created) as float8)), 0.0) prep_seconds,
+                   coalesce(sum(o.price) filter (where o.completed is not null), 0.0) revenue,
+                   coalesce(sum(o.price - coalesce(l.lines_price, 0.0)) filter (where o.completed is not null), 0.0) tip_revenue
+            from orders o
+                     left join (select l.order_id order_id, l.created created, sum(l.line_price) lines_price
+                                from lines l
+                                group by l.order_id, l.created) l
+                               on l.order_id = o.id and l.created = o.created
+            group by o.barista""";
+    private static final String DELETE_ARCHIVED = """
+            with chunk as (
+                select a.id, a.created
+                from order_archive a
+                where a.created < ?
+                order by a.created
+                limit ?),
+                 lines as (
+                delete from order_coffee_archive l
+                using chunk c
+                where l.order_id = c.id
+                  and l.created = c.created
+                returning l.order_id, l.created, l.unit_price * l.quantity line_price),
+                 orders as (
+                delete from order_archive a
+                using chunk c
+                where a.id = c.id
+                  and a.created = c.created
+                returning a.id, a.barista, a.created, a.completed, a.price)
+            """ + AGGREGATE;
+    private static final String DELETE = """
+            with chunk as (
+                select o.id, o.created
+                from "order" o
+                where o.created < ?
+                order by o.created
+                limit ?
+                for update skip locked),
+                 lines as (
+                delete from order_coffee l
+                using chunk c
+                where l.order_id = c.id
+                returning l.order_id, c.created, l.unit_price * l.quantity line_price),
+                 orders as (
+                delete from "order" o
+                using chunk c
+                where o.id = c.id
+                returning o.id, o.barista, o.created, o.completed, o.price)
+            """ + AGGREGATE;
+    private static final String AGGREGATE_PARTITION = """
+            with orders as (
+                select a.id, a.barista, a.created, a.completed, a.price
+                from %s a),
+                 lines as (
+                select l.order_id, l.created, l.unit_price * l.quantity line_price
+                from %s l)
+            """ + AGGREGATE;
+    private static final String EMPTY_LINES = """
+            (select cast(null as bigint) order_id, cast(null as timestamp) created, cast(null as float8) unit_price,
+                    cast(null as integer) quantity
+             where false)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public List<PurgedOrders> dropArchivePartitions(LocalDateTime createdBefore) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            Map<String, Map<String, PartitionState>> expired = findExpiredPartitions(connection, createdBefore);
+
+            List<PurgedOrders> purged = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                for (Map<String, PartitionState> month : expired.values()) {
+                    PartitionState orders = month.get("order_archive");
+                    PartitionState lines = month.get("order_coffee_archive");
+                    if (orders != null)
+                        orders.detach(statement);
+                    if (lines != null)
+                        lines.detach(statement);
+                    if (orders != null && orders.attached())
+                        purged.add(aggregate(statement, orders.name(), lines == null ? EMPTY_LINES : lines.name()));
+                    if (lines != null)
+                        statement.execute("drop table if exists " + lines.name());
+                    if (orders != null)
+                        statement.execute("drop table if exists " + orders.name());
+                }
+            }
+            return purged;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Archive partitions are not dropped: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public PurgedOrders deleteArchivedOrders(LocalDateTime createdBefore, int chunkSize) {
+        return delete(DELETE_ARCHIVED, createdBefore, chunkSize);
+    }
+
+    @Override
+    public PurgedOrders deleteOrders(LocalDateTime createdBefore, int chunkSize) {
+        return delete(DELETE, createdBefore, chunkSize);
+    }
+
+    private PurgedOrders delete(String sql, LocalDateTime createdBefore, int chunkSize) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setTimestamp(1, Timestamp.valueOf(createdBefore));
+                statement.setInt(2, chunkSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return purged(resultSet);
+                }
+            }
+        });
+    }
+
+    /**
+     * Find partitions of archive, which months end not later than specified time, grouped by month.
+     * Tables of partitions, detached by failed run, are found too, so they are dropped.
+     */
+    private static Map<String, Map<String, PartitionState>> findExpiredPartitions(Connection connection,
+                                                                                  LocalDateTime createdBefore)
+            throws SQLException {
+        Map<String, Map<String, PartitionState>> expired = new TreeMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_PARTITIONS)) {
+            while (resultSet.next()) {
+                Matcher matcher = PARTITION.matcher(resultSet.getString(1));
+                if (!matcher.matches())
+                    continue;
+                String suffix = matcher.group(2);
+                YearMonth month = YearMonth.of(Integer.parseInt(suffix.substring(1, 5)),
+                        Integer.parseInt(suffix.substring(6, 8)));
+                if (month.plusMonths(1).atDay(1).atStartOfDay().isAfter(createdBefore))
+                    continue;
+                expired.computeIfAbsent(suffix, key -> new TreeMap<>())
+                        .put(matcher.group(1), new PartitionState(matcher.group(1), matcher.group(),
+                                resultSet.getBoolean(2), resultSet.getBoolean(3)));
+            }
+        }
+        return expired;
+    }
+
+    private static PurgedOrders aggregate(Statement statement, String orders, String lines) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(String.format(AGGREGATE_PARTITION, orders, lines))) {
+            return purged(resultSet);
+        }
+    }
+
+    private static PurgedOrders purged(ResultSet resultSet) throws SQLException {
+        int orders = 0;
+        List<BaristaStatsRow> baristaStats = new ArrayList<>();
+        while (resultSet.next()) {
+            orders += resultSet.getInt("deleted_orders");
+            long completed = resultSet.getLong("completed_orders");
+            if (completed > 0)
+                baristaStats.add(new BaristaStatsRow(resultSet.getLong("barista_id"),
+                        completed,
+                        resultSet.getDouble("prep_seconds"),
+                        resultSet.getDouble("revenue"),
+                        resultSet.getDouble("tip_revenue")));
+        }
+        return new PurgedOrders(orders, baristaStats);
+    }
+
+    /**
+     * Table of archive's partition: attached to parent, pending detach after failed concurrent detach
+     * or already detached.
+     */
+    private record PartitionState(String parent, String name, boolean attached, boolean detachPending) {
+        private void detach(Statement statement) throws SQLException {
+            if (!attached)
+                return;
+            statement.execute(String.format("alter table %s detach partition %s %s",
+                    parent, name, detachPending ? "finalize" : "concurrently"));
+        }
+    }
+}
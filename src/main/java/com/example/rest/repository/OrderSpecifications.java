@@ -0,0 +1,117 @@
+package com.example.rest.repository;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specifications to filter orders. Each method returns null, when its param is null,
+ * so specifications can be combined without null checks.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Orders prepared by barista. Uses index on order's barista and id columns,
+     * so orders of barista are read in id order.
+     *
+     * @param baristaId barista's id.
+     * @return specification or null, when baristaId is null.
+     */
+    public static Specification<Order> ofBarista(Long baristaId) {
+        if (baristaId == null)
+            return null;
+        return (root, query, builder) -> builder.equal(root.get("barista").get("id"), baristaId);
+    }
+
+    /**
+     * Orders containing coffee. Uses index on coffee_id and order_id columns of order_coffee table,
+     * so orders of coffee are read in id order.
+     *
+     * @param coffeeId coffee's id.
+     * @return specification or null, when coffeeId is null.
+     */
+    public static Specification<Order> ofCoffee(Long coffeeId) {
+        if (coffeeId == null)
+            return null;
+        return (root, query, builder) -> builder.equal(root.join("lines").get("coffee").get("id"), coffeeId);
+    }
+
+    /**
+     * Orders with id greater than specified, used as keyset pagination cursor.
+     *
+     * @param id last seen order's id.
+     * @return specification or null, when id is null.
+     */
+    public static Specification<Order> idAfter(Long id) {
+        if (id == null)
+            return null;
+        return (root, query, builder) -> builder.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Orders with specified status.
+     *
+     * @param status pending or completed.
+     * @return specification or null, when status is null.
+     */
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        if (status == null)
+            return null;
+        return (root, query, builder) -> status == OrderStatus.PENDING
+                ? builder.isNull(root.get("completed"))
+                : builder.isNotNull(root.get("completed"));
+    }
+
+    /**
+     * Orders created at or after specified datetime.
+     *
+     * @param from lower bound of created datetime, inclusive.
+     * @return specification or null, when from is null.
+     */
+    public static Specification<Order> createdFrom(LocalDateTime from) {
+        if (from == null)
+            return null;
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("created"), from);
+    }
+
+    /**
+     * Orders created before specified datetime.
+     *
+     * @param to upper bound of created datetime, exclusive.
+     * @return specification or null, when to is null.
+     */
+    public static Specification<Order> createdTo(LocalDateTime to) {
+        if (to == null)
+            return null;
+        return (root, query, builder) -> builder.lessThan(root.get("created"), to);
+    }
+
+    /**
+     * Orders with price not less than specified.
+     *
+     * @param min lower bound of price, inclusive.
+     * @return specification or null, when min is null.
+     */
+    public static Specification<Order> minPrice(Double min) {
+        if (min == null)
+            return null;
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("price"), min);
+    }
+
+    /**
+     * Orders with price not greater than specified.
+     *
+     * @param max upper bound of price, inclusive.
+     * @return specification or null, when max is null.
+     */
+    public static Specification<Order> maxPrice(Double max) {
+        if (max == null)
+            return null;
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("price"), max);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface to per-minute rollup of order throughput.
+ */
+public interface OrderTimelineRepository {
+    /**
+     * Save rows of minutes. Stored rows of the same minutes are overwritten.
+     *
+     * @param rows rows of minutes.
+     */
+    @Transactional
+    void saveTimeline(Collection<OrderTimelineRow> rows);
+
+    /**
+     * Find rows of minutes in period. Without outer transaction runs in read-write transaction,
+     * so rows, which are just flushed, are read from primary db.
+     *
+     * @param from start of period.
+     * @param to   end of period, exclusive.
+     * @return rows ordered by minute.
+     */
+    @Transactional
+    List<OrderTimelineRow> findTimeline(LocalDateTime from, LocalDateTime to);
+}
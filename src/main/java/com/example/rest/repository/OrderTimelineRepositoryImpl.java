@@ -0,0 +1,79 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementation of per-minute rollup of order throughput by native queries.
+ * Rows are upserted by one jdbc batch.
+ */
+public class OrderTimelineRepositoryImpl implements OrderTimelineRepository {
+    private static final String UPSERT = """
+            insert into order_stats_minute (minute, created, completed, wait_seconds, queue_depth)
+            values (?, ?, ?, ?, ?)
+            on conflict (minute) do update
+            set created      = excluded.created,
+                completed    = excluded.completed,
+                wait_seconds = excluded.wait_seconds,
+                queue_depth  = excluded.queue_depth""";
+    private static final String SELECT = """
+            select s.minute minute, s.created created, s.completed completed,
+                   s.wait_seconds wait_seconds, s.queue_depth queue_depth
+            from order_stats_minute s
+            where s.minute >= :from
+              and s.minute < :to
+            order by s.minute""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void saveTimeline(Collection<OrderTimelineRow> rows) {
+        if (rows.isEmpty())
+            return;
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (OrderTimelineRow row : rows) {
+                    statement.setTimestamp(1, Timestamp.valueOf(row.minute()));
+                    statement.setLong(2, row.created());
+                    statement.setLong(3, row.completed());
+                    statement.setDouble(4, row.waitSeconds());
+                    statement.setLong(5, row.queueDepth());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<OrderTimelineRow> findTimeline(LocalDateTime from, LocalDateTime to) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(SELECT)
+                .unwrap(NativeQuery.class)
+                .addScalar("minute", LocalDateTime.class)
+                .addScalar("created", Long.class)
+                .addScalar("completed", Long.class)
+                .addScalar("wait_seconds", Double.class)
+                .addScalar("queue_depth", Long.class);
+        return query.setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .stream()
+                .map(row -> new OrderTimelineRow((LocalDateTime) row[0],
+                        (Long) row[1],
+                        (Long) row[2],
+                        (Double) row[3],
+                        (Long) row[4]))
+                .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of order throughput in one minute.
+ *
+ * @param minute      start of minute.
+ * @param created     number of orders, created in minute.
+ * @param completed   number of orders, completed in minute.
+ * @param waitSeconds sum of waits (completed - created) of orders, completed in minute, in seconds.
+ * @param queueDepth  number of not completed orders after last event of minute.
+ */
+public record OrderTimelineRow(LocalDateTime minute,
+                               Long created,
+                               Long completed,
+                               Double waitSeconds,
+                               Long queueDepth) {
+}
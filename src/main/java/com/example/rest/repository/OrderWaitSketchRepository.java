@@ -0,0 +1,32 @@
+package com.example.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface to hourly sketches of order wait time.
+ */
+public interface OrderWaitSketchRepository {
+    /**
+     * Save sketches. Stored sketches of the same dimension, hour and key are overwritten.
+     *
+     * @param rows sketches.
+     */
+    @Transactional
+    void saveWaitSketches(Collection<WaitSketchRow> rows);
+
+    /**
+     * Find sketches of dimension, which hours start in period. Without outer transaction runs
+     * in read-write transaction, so sketches, which are just flushed, are read from primary db.
+     *
+     * @param dimension dimension of sketches.
+     * @param from      start of period.
+     * @param to        end of period, exclusive.
+     * @return sketches ordered by hour and key.
+     */
+    @Transactional
+    List<WaitSketchRow> findWaitSketches(StatsDimension dimension, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,70 @@
+package com.example.rest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementation of hourly sketches of order wait time by native queries.
+ * Sketches are upserted by one jdbc batch.
+ */
+public class OrderWaitSketchRepositoryImpl implements OrderWaitSketchRepository {
+    private static final String UPSERT = """
+            insert into order_wait_sketch (dimension, bucket, key_id, histogram)
+            values (?, ?, ?, ?)
+            on conflict (dimension, bucket, key_id) do update
+            set histogram = excluded.histogram""";
+    private static final String SELECT = """
+            select s.bucket bucket, s.key_id key_id, s.histogram histogram
+            from order_wait_sketch s
+            where s.dimension = :dimension
+              and s.bucket >= :from
+              and s.bucket < :to
+            order by s.bucket, s.key_id""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void saveWaitSketches(Collection<WaitSketchRow> rows) {
+        if (rows.isEmpty())
+            return;
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (WaitSketchRow row : rows) {
+                    statement.setString(1, row.dimension().name());
+                    statement.setTimestamp(2, Timestamp.valueOf(row.hour()));
+                    statement.setLong(3, row.keyId());
+                    statement.setBytes(4, row.histogram());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<WaitSketchRow> findWaitSketches(StatsDimension dimension, LocalDateTime from, LocalDateTime to) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(SELECT)
+                .unwrap(NativeQuery.class)
+                .addScalar("bucket", LocalDateTime.class)
+                .addScalar("key_id", Long.class)
+                .addScalar("histogram", byte[].class);
+        return query.setParameter("dimension", dimension.name())
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .stream()
+                .map(row -> new WaitSketchRow(dimension, (LocalDateTime) row[0], (Long) row[1], (byte[]) row[2]))
+                .toList();
+    }
+}
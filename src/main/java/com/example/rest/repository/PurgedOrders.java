@@ -0,0 +1,13 @@
+package com.example.rest.repository;
+
+import java.util.List;
+
+/**
+ * Orders, deleted by one chunk of purge or with one dropped partition of archive.
+ *
+ * @param orders       number of deleted orders, completed and pending.
+ * @param baristaStats aggregates of deleted completed orders, one row for each barista.
+ */
+public record PurgedOrders(int orders,
+                           List<BaristaStatsRow> baristaStats) {
+}
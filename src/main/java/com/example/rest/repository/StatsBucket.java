@@ -0,0 +1,48 @@
+package com.example.rest.repository;
+
+import com.example.rest.repository.exception.NoValidStatsBucketException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Size of time bucket, by which statistics are grouped.
+ */
+public enum StatsBucket {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    StatsBucket(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Get start of bucket, which contains time.
+     *
+     * @param time time in bucket.
+     * @return time truncated to bucket's size.
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Parse bucket ignoring case.
+     *
+     * @param bucket bucket name, for example "hour". Can be null.
+     * @return parsed bucket or null, when bucket is null.
+     * @throws NoValidStatsBucketException when bucket is unknown.
+     */
+    public static StatsBucket parse(String bucket) {
+        if (bucket == null)
+            return null;
+
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(bucket.trim()))
+                .findFirst()
+                .orElseThrow(() -> new NoValidStatsBucketException(bucket));
+    }
+}
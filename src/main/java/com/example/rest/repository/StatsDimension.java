@@ -0,0 +1,30 @@
+package com.example.rest.repository;
+
+import com.example.rest.repository.exception.NoValidStatsDimensionException;
+
+import java.util.Arrays;
+
+/**
+ * Dimension, by which statistics of orders are broken down.
+ */
+public enum StatsDimension {
+    BARISTA,
+    COFFEE;
+
+    /**
+     * Parse dimension ignoring case.
+     *
+     * @param dimension dimension name, for example "barista". Can be null.
+     * @return parsed dimension or null, when dimension is null.
+     * @throws NoValidStatsDimensionException when dimension is unknown.
+     */
+    public static StatsDimension parse(String dimension) {
+        if (dimension == null)
+            return null;
+
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(dimension.trim()))
+                .findFirst()
+                .orElseThrow(() -> new NoValidStatsDimensionException(dimension));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.rest.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored sketch of order wait time of one barista or coffee in one hour.
+ *
+ * @param dimension dimension of key.
+ * @param hour      start of hour.
+ * @param keyId     id of barista or coffee.
+ * @param histogram HDR histogram of wait in milliseconds, serialized in compressed form.
+ */
+public record WaitSketchRow(StatsDimension dimension, LocalDateTime hour, Long keyId, byte[] histogram) {
+}
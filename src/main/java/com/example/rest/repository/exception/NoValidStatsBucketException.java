@@ -0,0 +1,10 @@
+package com.example.rest.repository.exception;
+
+/**
+ * Thrown when bucket of statistics is unknown.
+ */
+public class NoValidStatsBucketException extends RuntimeException {
+    public NoValidStatsBucketException(String bucket) {
+        super(String.format("Bucket must be 'hour' or 'day'! Your value is '%s'.", bucket));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.rest.repository.exception;
+
+/**
+ * Thrown when dimension of statistics is unknown.
+ */
+public class NoValidStatsDimensionException extends RuntimeException {
+    public NoValidStatsDimensionException(String dimension) {
+        super(String.format("Dimension must be 'barista' or 'coffee'! Your value is '%s'.", dimension));
+    }
+}
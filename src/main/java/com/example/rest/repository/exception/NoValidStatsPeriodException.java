@@ -0,0 +1,12 @@
+package com.example.rest.repository.exception;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thrown when end of statistics' period is not after its start.
+ */
+public class NoValidStatsPeriodException extends RuntimeException {
+    public NoValidStatsPeriodException(LocalDateTime from, LocalDateTime to) {
+        super(String.format("Period end must be after period start! Your period is from '%s' to '%s'.", from, to));
+    }
+}
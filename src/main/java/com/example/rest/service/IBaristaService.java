@@ -1,8 +1,14 @@
 package com.example.rest.service;
 
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaCreateDTO;
+import com.example.rest.service.dto.IBaristaPatchDTO;
 import com.example.rest.service.dto.IBaristaPublicDTO;
+import com.example.rest.service.dto.IBaristaSearchDTO;
+import com.example.rest.service.dto.IBaristaSliceDTO;
 import com.example.rest.service.dto.IBaristaUpdateDTO;
+import com.example.rest.service.dto.IOrderFilterDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import jakarta.validation.Valid;
 
 import java.util.List;
@@ -29,6 +35,14 @@ public interface IBaristaService {
      */
     IBaristaPublicDTO update(@Valid IBaristaUpdateDTO baristaDTO);
 
+    /**
+     * Partial updating barista by IBaristaPatchDTO. Only not null fields are changed.
+     *
+     * @param baristaDTO object with IBaristaPatchDTO type.
+     * @return Barista object without order list.
+     */
+    IBaristaPublicDTO patch(@Valid IBaristaPatchDTO baristaDTO);
+
     /**
      * Delete barista from db.
      * Updating couped orders, setting default barista.
@@ -60,4 +74,87 @@ public interface IBaristaService {
      * @return list of barista's objects
      */
     List<? extends IBaristaPublicDTO> findAllByPage(int page, int limit);
+
+    /**
+     * Found barista by id with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param id     barista's id.
+     * @param fields requested fields.
+     * @return Barista's object, not requested fields are null.
+     */
+    IBaristaPublicDTO findById(Long id, FieldSet fields);
+
+    /**
+     * Found all barista with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param fields requested fields.
+     * @return list of barista's objects, not requested fields are null.
+     */
+    List<? extends IBaristaPublicDTO> findAll(FieldSet fields);
+
+    /**
+     * Found all barista with requested fields only, grouped by page and limited.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param page   number of page. Can't be less than zero.
+     * @param limit  number of maximum objects in list.
+     * @param fields requested fields.
+     * @return list of barista's objects, not requested fields are null.
+     */
+    List<? extends IBaristaPublicDTO> findAllByPage(int page, int limit, FieldSet fields);
+
+    /**
+     * Found barista by id with requested fields only and bounded order list.
+     * Only first orders are fetched, with total count of orders and link to next orders.
+     *
+     * @param id          barista's id.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in barista's order list.
+     * @return Barista's object, not requested fields are null.
+     */
+    IBaristaPublicDTO findById(Long id, FieldSet fields, int ordersLimit);
+
+    /**
+     * Found all barista with requested fields only and bounded order lists.
+     * Only first orders of each barista are fetched, with total count of orders and link to next orders.
+     *
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each barista's order list.
+     * @return list of barista's objects, not requested fields are null.
+     */
+    List<? extends IBaristaPublicDTO> findAll(FieldSet fields, int ordersLimit);
+
+    /**
+     * Found all barista with requested fields only and bounded order lists, grouped by page and limited.
+     * Only first orders of each barista are fetched, with total count of orders and link to next orders.
+     *
+     * @param page        number of page. Can't be less than zero.
+     * @param limit       number of maximum objects in list.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each barista's order list.
+     * @return list of barista's objects, not requested fields are null.
+     */
+    List<? extends IBaristaPublicDTO> findAllByPage(int page, int limit, FieldSet fields, int ordersLimit);
+
+    /**
+     * Found barista's orders by keyset pagination, ordered by id.
+     * Orders are filtered by status and created period, when they are specified.
+     *
+     * @param id     barista's id.
+     * @param filter keyset cursor, limit, status and created period.
+     * @return slice of orders with cursor of next slice.
+     */
+    IOrderSliceDTO findOrders(Long id, @Valid IOrderFilterDTO filter);
+
+    /**
+     * Search barista by full name, best matches first, by keyset pagination.
+     * Barista, which names start with query, are followed by barista with word starting with query,
+     * then by barista, which names contain query or are similar to it.
+     *
+     * @param search query, keyset cursor and limit.
+     * @return slice of barista with cursor of next slice.
+     */
+    IBaristaSliceDTO search(@Valid IBaristaSearchDTO search);
 }
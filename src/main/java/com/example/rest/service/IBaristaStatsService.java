@@ -0,0 +1,55 @@
+package com.example.rest.service;
+
+import com.example.rest.entity.Order;
+import com.example.rest.repository.BaristaStatsRow;
+import com.example.rest.service.dto.IBaristaStatsDTO;
+
+import java.util.List;
+
+/**
+ * Interface to barista's statistics of completed orders.
+ */
+public interface IBaristaStatsService {
+    /**
+     * Find statistics of barista.
+     *
+     * @param baristaId barista's id.
+     * @return statistics of barista's completed orders.
+     */
+    IBaristaStatsDTO findById(Long baristaId);
+
+    /**
+     * Find statistics of all barista, who completed orders.
+     *
+     * @return list of statistics ordered by barista's id.
+     */
+    List<? extends IBaristaStatsDTO> findAll();
+
+    /**
+     * Add completed order to statistics of its barista.
+     *
+     * @param order completed order.
+     */
+    void recordCompleted(Order order);
+
+    /**
+     * Add stored order to statistics of its barista, when it is completed.
+     *
+     * @param orderId order's id.
+     */
+    void recordCompleted(Long orderId);
+
+    /**
+     * Remove stored order from statistics of its barista, when it is completed.
+     *
+     * @param orderId order's id.
+     */
+    void recordDeleted(Long orderId);
+
+    /**
+     * Remove completed orders, deleted by purge, from statistics of their barista.
+     *
+     * @param purged aggregates of deleted completed orders.
+     */
+    void recordPurged(List<BaristaStatsRow> purged);
+}
@@ -0,0 +1,34 @@
+package com.example.rest.service;
+
+import com.example.rest.entity.Coffee;
+import com.example.rest.service.dto.ICoffeeNoRefDTO;
+
+import java.util.List;
+
+/**
+ * Interface to search of coffee by name.
+ */
+public interface ICoffeeSearchService {
+    /**
+     * Find coffee, which names match query by prefix, substring or similarity, best matches first.
+     *
+     * @param query searched name.
+     * @param limit maximum number of coffee. Can be null.
+     * @return list of matched coffee.
+     */
+    List<? extends ICoffeeNoRefDTO> search(String query, Integer limit);
+
+    /**
+     * Index created or changed coffee.
+     *
+     * @param coffee saved coffee.
+     */
+    void recordSaved(Coffee coffee);
+
+    /**
+     * Remove deleted coffee from index.
+     *
+     * @param id deleted coffee's id.
+     */
+    void recordDeleted(Long id);
+}
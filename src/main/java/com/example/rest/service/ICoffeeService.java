@@ -1,8 +1,12 @@
 package com.example.rest.service;
 
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.ICoffeeCreateDTO;
+import com.example.rest.service.dto.ICoffeePatchDTO;
 import com.example.rest.service.dto.ICoffeePublicDTO;
 import com.example.rest.service.dto.ICoffeeUpdateDTO;
+import com.example.rest.service.dto.IOrderFilterDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import jakarta.validation.Valid;
 
 import java.util.List;
@@ -30,6 +34,14 @@ public interface ICoffeeService {
      */
     ICoffeePublicDTO update(@Valid ICoffeeUpdateDTO coffeeDTO);
 
+    /**
+     * Partial updating coffee by ICoffeePatchDTO. Only not null fields are changed.
+     *
+     * @param coffeeDTO object with ICoffeePatchDTO type.
+     * @return Coffee object without order list.
+     */
+    ICoffeePublicDTO patch(@Valid ICoffeePatchDTO coffeeDTO);
+
     /**
      * Delete coffee with specified id.
      *
@@ -60,4 +72,77 @@ public interface ICoffeeService {
      * @return list of object from specified page. Maximum number object in list equals limit.
      */
     List<? extends ICoffeePublicDTO> findAllByPage(int page, int limit);
+
+    /**
+     * Find coffee by specified id with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param id     finding coffee's id.
+     * @param fields requested fields.
+     * @return Coffee object, not requested fields are null.
+     */
+    ICoffeePublicDTO findById(Long id, FieldSet fields);
+
+    /**
+     * Find all coffees with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param fields requested fields.
+     * @return all coffee from db, not requested fields are null.
+     */
+    List<? extends ICoffeePublicDTO> findAll(FieldSet fields);
+
+    /**
+     * Find all coffee with requested fields only, grouping by pages and limited.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param page   number of representing page. Can't be less than zero.
+     * @param limit  number maximum represented objects.
+     * @param fields requested fields.
+     * @return list of object from specified page, not requested fields are null.
+     */
+    List<? extends ICoffeePublicDTO> findAllByPage(int page, int limit, FieldSet fields);
+
+    /**
+     * Found coffee by id with requested fields only and bounded order list.
+     * Only first orders are fetched, with total count of orders and link to next orders.
+     *
+     * @param id          coffee's id.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in coffee's order list.
+     * @return Coffee object, not requested fields are null.
+     */
+    ICoffeePublicDTO findById(Long id, FieldSet fields, int ordersLimit);
+
+    /**
+     * Found all coffee with requested fields only and bounded order lists.
+     * Only first orders of each coffee are fetched, with total count of orders and link to next orders.
+     *
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each coffee's order list.
+     * @return list of coffee's objects, not requested fields are null.
+     */
+    List<? extends ICoffeePublicDTO> findAll(FieldSet fields, int ordersLimit);
+
+    /**
+     * Found all coffee with requested fields only and bounded order lists, grouped by page and limited.
+     * Only first orders of each coffee are fetched, with total count of orders and link to next orders.
+     *
+     * @param page        number of page. Can't be less than zero.
+     * @param limit       number of maximum objects in list.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each coffee's order list.
+     * @return list of coffee's objects, not requested fields are null.
+     */
+    List<? extends ICoffeePublicDTO> findAllByPage(int page, int limit, FieldSet fields, int ordersLimit);
+
+    /**
+     * Found orders containing coffee by keyset pagination, ordered by id.
+     * Orders are filtered by status and created period, when they are specified.
+     *
+     * @param id     coffee's id.
+     * @param filter keyset cursor, limit, status and created period.
+     * @return slice of orders with cursor of next slice.
+     */
+    IOrderSliceDTO findOrders(Long id, @Valid IOrderFilterDTO filter);
 }
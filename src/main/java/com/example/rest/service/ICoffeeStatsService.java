@@ -0,0 +1,50 @@
+package com.example.rest.service;
+
+import com.example.rest.entity.Order;
+import com.example.rest.service.dto.ICoffeeStatsDTO;
+import com.example.rest.service.dto.ICoffeeStatsFilterDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface to statistics of ordered coffee over time.
+ */
+public interface ICoffeeStatsService {
+    /**
+     * Find statistics of all coffee in period, grouped by time buckets.
+     *
+     * @param filter period and size of bucket.
+     * @return list of statistics ordered by bucket and coffee's id.
+     */
+    List<? extends ICoffeeStatsDTO> findStats(ICoffeeStatsFilterDTO filter);
+
+    /**
+     * Add lines of created order to statistics.
+     *
+     * @param order created order.
+     */
+    void recordCreated(Order order);
+
+    /**
+     * Remove lines of order from statistics.
+     *
+     * @param order deleted order or order before update.
+     */
+    void recordDeleted(Order order);
+
+    /**
+     * Remove stored lines of order from statistics without loading order.
+     *
+     * @param orderId deleted order's id.
+     */
+    void recordDeleted(Long orderId);
+
+    /**
+     * Move stored lines of order to bucket of new created time.
+     *
+     * @param orderId order's id.
+     * @param created new created time of order.
+     */
+    void recordMoved(Long orderId, LocalDateTime created);
+}
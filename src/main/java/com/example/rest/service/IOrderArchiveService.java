@@ -0,0 +1,13 @@
+package com.example.rest.service;
+
+/**
+ * Interface to archival of completed orders.
+ */
+public interface IOrderArchiveService {
+    /**
+     * Move orders, completed earlier than configured age, to archive.
+     *
+     * @return number of archived orders.
+     */
+    int archive();
+}
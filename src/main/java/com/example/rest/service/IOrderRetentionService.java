@@ -0,0 +1,22 @@
+package com.example.rest.service;
+
+import com.example.rest.service.dto.IOrderRetentionDTO;
+
+/**
+ * Interface to purge of orders, which are older than retention period.
+ */
+public interface IOrderRetentionService {
+    /**
+     * Delete orders and archived orders, created before retention period.
+     *
+     * @return progress of purge after it is finished.
+     */
+    IOrderRetentionDTO purge();
+
+    /**
+     * Find progress of purge: current or last cutoff, totals of deleted rows and run times.
+     *
+     * @return progress of purge.
+     */
+    IOrderRetentionDTO findProgress();
+}
@@ -1,8 +1,13 @@
 package com.example.rest.service;
 
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IOrderCreateDTO;
+import com.example.rest.service.dto.IOrderPatchDTO;
 import com.example.rest.service.dto.IOrderPublicDTO;
+import com.example.rest.service.dto.IOrderSearchDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import com.example.rest.service.dto.IOrderUpdateDTO;
+import com.example.rest.service.intake.AcceptedOrder;
 import jakarta.validation.Valid;
 
 import java.util.List;
@@ -20,6 +25,32 @@ public interface IOrderService {
      */
     IOrderPublicDTO create(@Valid IOrderCreateDTO orderDTO);
 
+    /**
+     * Create 'order' in db by IOrderCreateDTO once for idempotency key.
+     * Retried request with the same key returns created order without writing.
+     *
+     * @param orderDTO       object with IOrderCreateDTO type.
+     * @param idempotencyKey key of request, sent by client.
+     * @return created or stored Order object.
+     */
+    IOrderPublicDTO create(@Valid IOrderCreateDTO orderDTO, String idempotencyKey);
+
+    /**
+     * Check, that order can be created by IOrderCreateDTO, without writing it.
+     *
+     * @param orderDTO object with IOrderCreateDTO type.
+     */
+    void validate(@Valid IOrderCreateDTO orderDTO);
+
+    /**
+     * Create orders, accepted by intake, with their ids and created time in one transaction.
+     * Orders, which ids are already stored, are skipped.
+     *
+     * @param orders accepted orders.
+     * @return number of created orders.
+     */
+    int createAccepted(List<AcceptedOrder> orders);
+
     /**
      * Update 'order' in db by IOrderUpdateDTO.
      *
@@ -28,6 +59,15 @@ public interface IOrderService {
      */
     IOrderPublicDTO update(@Valid IOrderUpdateDTO orderDTO);
 
+    /**
+     * Partial update 'order' in db by IOrderPatchDTO. Only not null fields are changed,
+     * price is recalculated when barista is changed.
+     *
+     * @param orderDTO object with IOrderPatchDTO type.
+     * @return updated Order object without coffee list.
+     */
+    IOrderPublicDTO patch(@Valid IOrderPatchDTO orderDTO);
+
     /**
      * Delete 'order' by specified id.
      *
@@ -76,4 +116,42 @@ public interface IOrderService {
      */
     List<? extends IOrderPublicDTO> findAllByPage(int page, int limit);
 
+    /**
+     * Find 'order' by specified id with requested fields only.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param id     the desired order "id".
+     * @param fields requested fields.
+     * @return Order object with specified id, not requested fields are null.
+     */
+    IOrderPublicDTO findById(Long id, FieldSet fields);
+
+    /**
+     * Find all 'order' in db with requested fields only.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param fields requested fields.
+     * @return list of all 'order' objects, not requested fields are null.
+     */
+    List<? extends IOrderPublicDTO> findAll(FieldSet fields);
+
+    /**
+     * Find all 'order' with requested fields only, grouping by pages and limited.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param page   number of representing page. Can't be less than zero.
+     * @param limit  number maximum represented objects.
+     * @param fields requested fields.
+     * @return list of object from specified page, not requested fields are null.
+     */
+    List<? extends IOrderPublicDTO> findAllByPage(int page, int limit, FieldSet fields);
+
+    /**
+     * Find orders by keyset pagination, ordered by id. Orders are filtered by barista, coffee,
+     * status, created period and price range, when they are specified.
+     *
+     * @param filter keyset cursor, limit and filters.
+     * @return slice of orders with cursor of next slice.
+     */
+    IOrderSliceDTO findOrders(@Valid IOrderSearchDTO filter);
 }
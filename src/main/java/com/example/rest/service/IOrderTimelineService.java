@@ -0,0 +1,35 @@
+package com.example.rest.service;
+
+import com.example.rest.entity.Order;
+import com.example.rest.service.dto.IOrderTimelineDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface to per-minute throughput of orders.
+ */
+public interface IOrderTimelineService {
+    /**
+     * Find per-minute throughput in period.
+     *
+     * @param from start of period.
+     * @param to   end of period, exclusive.
+     * @return list of minutes with created or completed orders, ordered by minute.
+     */
+    List<? extends IOrderTimelineDTO> findTimeline(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Count created order in minute of its created time.
+     *
+     * @param order created order.
+     */
+    void recordCreated(Order order);
+
+    /**
+     * Count completed order in minute of its completed time.
+     *
+     * @param order completed order.
+     */
+    void recordCompleted(Order order);
+}
@@ -0,0 +1,29 @@
+package com.example.rest.service;
+
+import com.example.rest.entity.Order;
+import com.example.rest.service.dto.IOrderWaitTimeDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface to percentiles of order wait time per barista and per coffee.
+ */
+public interface IOrderWaitTimeService {
+    /**
+     * Find percentiles of wait time of orders, completed in period, for each barista or each coffee.
+     *
+     * @param from start of period.
+     * @param to   end of period, exclusive.
+     * @param by   dimension: "barista" or "coffee".
+     * @return list of percentiles ordered by id of barista or coffee.
+     */
+    List<? extends IOrderWaitTimeDTO> findWaitTimes(LocalDateTime from, LocalDateTime to, String by);
+
+    /**
+     * Record wait time of completed order for its barista and coffees.
+     *
+     * @param order completed order.
+     */
+    void recordCompleted(Order order);
+}
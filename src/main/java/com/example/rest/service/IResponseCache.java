@@ -0,0 +1,12 @@
+package com.example.rest.service;
+
+/**
+ * Cache of web responses, which contain orders. Services evict it after commit of order changes,
+ * because orders are also changed without web request, for example by intake writer and retention purge.
+ */
+public interface IResponseCache {
+    /**
+     * Evict all cached responses.
+     */
+    void evictAll();
+}
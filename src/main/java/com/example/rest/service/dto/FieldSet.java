@@ -0,0 +1,95 @@
+package com.example.rest.service.dto;
+
+import com.example.rest.service.exception.NoValidFieldsException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * Set of requested fields of public dto. Used to select which attributes are fetched
+ * and sent to client. Nested collections, that not contained in set, are not fetched from db.
+ *
+ * @param fields names of requested fields. If null, all fields are requested.
+ */
+public record FieldSet(Set<String> fields) {
+
+    /**
+     * Field set, that contains all fields.
+     *
+     * @return field set with all fields.
+     */
+    public static FieldSet all() {
+        return new FieldSet(null);
+    }
+
+    /**
+     * Parse comma separated field names. Names must be equal to dto's components.
+     *
+     * @param fields  comma separated field names, for example "id,fullName".
+     * @param dtoType dto record class, which components are allowed field names.
+     * @return parsed field set.
+     * @throws NoValidFieldsException when fields is empty or contains unknown field.
+     */
+    public static FieldSet parse(String fields, Class<? extends Record> dtoType) {
+        if (fields == null || fields.isBlank())
+            throw new NoValidFieldsException();
+
+        Set<String> allowed = Arrays.stream(dtoType.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(LinkedHashSet::new, Set::add, Set::addAll);
+
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!allowed.contains(name))
+                throw new NoValidFieldsException(name, allowed);
+            requested.add(name);
+        }
+        return new FieldSet(Collections.unmodifiableSet(requested));
+    }
+
+    /**
+     * Check that field is requested.
+     *
+     * @param field name of field.
+     * @return true if field is requested.
+     */
+    public boolean contains(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Check that at least one of fields is requested.
+     *
+     * @param fields names of fields.
+     * @return true if any of fields is requested.
+     */
+    public boolean containsAny(String... fields) {
+        return Arrays.stream(fields).anyMatch(this::contains);
+    }
+
+    /**
+     * Make map from dto, that contains only requested fields in order of record components.
+     *
+     * @param dto public dto record.
+     * @return map of requested field names and values.
+     * @throws IllegalArgumentException when dto is not a record.
+     */
+    public Map<String, Object> project(Object dto) {
+        if (!(dto instanceof Record))
+            throw new IllegalArgumentException("Only record can be projected!");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (RecordComponent component : dto.getClass().getRecordComponents()) {
+            if (!contains(component.getName()))
+                continue;
+            try {
+                result.put(component.getName(), component.getAccessor().invoke(dto));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rest.service.dto;
+
+/**
+ * Partial update of barista. Null fields are not changed.
+ */
+public interface IBaristaPatchDTO extends IUpdateDTO {
+    Long id();
+
+    String fullName();
+
+    Double tipSize();
+
+}
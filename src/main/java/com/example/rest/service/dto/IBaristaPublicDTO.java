@@ -10,4 +10,8 @@ public interface IBaristaPublicDTO {
     Double tipSize();
 
     List<? extends IOrderNoRefDTO> orders();
+
+    Long ordersTotal();
+
+    String ordersNext();
 }
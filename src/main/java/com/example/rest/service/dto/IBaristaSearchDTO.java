@@ -0,0 +1,11 @@
+package com.example.rest.service.dto;
+
+public interface IBaristaSearchDTO {
+    String q();
+
+    Integer afterRank();
+
+    Long after();
+
+    Integer limit();
+}
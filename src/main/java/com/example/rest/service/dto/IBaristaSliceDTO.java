@@ -0,0 +1,11 @@
+package com.example.rest.service.dto;
+
+import java.util.List;
+
+public interface IBaristaSliceDTO {
+    List<? extends IBaristaNoRefDTO> baristas();
+
+    Integer nextAfterRank();
+
+    Long nextAfter();
+}
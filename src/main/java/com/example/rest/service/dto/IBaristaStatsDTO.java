@@ -0,0 +1,13 @@
+package com.example.rest.service.dto;
+
+public interface IBaristaStatsDTO {
+    Long baristaId();
+
+    Long completedOrders();
+
+    Double averagePrepSeconds();
+
+    Double revenue();
+
+    Double tipRevenue();
+}
@@ -0,0 +1,12 @@
+package com.example.rest.service.dto;
+
+/**
+ * Partial update of coffee. Null fields are not changed.
+ */
+public interface ICoffeePatchDTO extends IUpdateDTO {
+    Long id();
+
+    String name();
+
+    Double price();
+}
@@ -10,4 +10,8 @@ public interface ICoffeePublicDTO {
     Double price();
 
     List<? extends IOrderNoRefDTO> orders();
+
+    Long ordersTotal();
+
+    String ordersNext();
 }
@@ -0,0 +1,15 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+public interface ICoffeeStatsDTO {
+    Long coffeeId();
+
+    LocalDateTime bucket();
+
+    Long orders();
+
+    Long quantity();
+
+    Double revenue();
+}
@@ -0,0 +1,11 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+public interface ICoffeeStatsFilterDTO {
+    LocalDateTime from();
+
+    LocalDateTime to();
+
+    String bucket();
+}
@@ -1,9 +1,33 @@
 package com.example.rest.service.dto;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface IOrderCreateDTO extends ICreateDTO {
     Long baristaId();
 
     List<Long> coffeeIdList();
+
+    /**
+     * SHA-256 digest of canonical form of request fields. Same requests have same digest, so retried request
+     * with idempotency key can be distinguished from other request with reused key.
+     * Canonical form is barista id and coffee ids in request order, for example "1:2,3".
+     *
+     * @return lower-case hex digest of barista id and coffee id list, 64 characters.
+     */
+    default String requestHash() {
+        String canonical = baristaId() + ":" + (coffeeIdList() == null ? "null" : coffeeIdList().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported!", e);
+        }
+    }
 }
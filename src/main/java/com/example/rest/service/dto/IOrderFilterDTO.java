@@ -0,0 +1,15 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+public interface IOrderFilterDTO {
+    Long after();
+
+    Integer limit();
+
+    String status();
+
+    LocalDateTime createdFrom();
+
+    LocalDateTime createdTo();
+}
@@ -0,0 +1,16 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partial update of order. Null fields are not changed.
+ */
+public interface IOrderPatchDTO extends IUpdateDTO {
+    Long id();
+
+    Long baristaId();
+
+    LocalDateTime created();
+
+    LocalDateTime completed();
+}
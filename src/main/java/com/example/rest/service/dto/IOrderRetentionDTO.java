@@ -0,0 +1,21 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+public interface IOrderRetentionDTO {
+    Boolean purging();
+
+    LocalDateTime createdBefore();
+
+    Long deletedOrders();
+
+    Long deletedArchivedOrders();
+
+    Long droppedPartitions();
+
+    Long chunks();
+
+    LocalDateTime lastStarted();
+
+    LocalDateTime lastFinished();
+}
@@ -0,0 +1,13 @@
+package com.example.rest.service.dto;
+
+public interface IOrderSearchDTO extends IOrderFilterDTO {
+    Long baristaId();
+
+    Long coffeeId();
+
+    Double minPrice();
+
+    Double maxPrice();
+
+    Boolean includeArchived();
+}
@@ -0,0 +1,9 @@
+package com.example.rest.service.dto;
+
+import java.util.List;
+
+public interface IOrderSliceDTO {
+    List<? extends IOrderNoRefDTO> orders();
+
+    Long nextAfter();
+}
@@ -0,0 +1,15 @@
+package com.example.rest.service.dto;
+
+import java.time.LocalDateTime;
+
+public interface IOrderTimelineDTO {
+    LocalDateTime minute();
+
+    Long created();
+
+    Long completed();
+
+    Double averageWaitSeconds();
+
+    Long queueDepth();
+}
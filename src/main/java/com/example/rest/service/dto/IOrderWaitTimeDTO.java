@@ -0,0 +1,15 @@
+package com.example.rest.service.dto;
+
+public interface IOrderWaitTimeDTO {
+    Long id();
+
+    Long orders();
+
+    Double p50Seconds();
+
+    Double p95Seconds();
+
+    Double p99Seconds();
+
+    Double maxSeconds();
+}
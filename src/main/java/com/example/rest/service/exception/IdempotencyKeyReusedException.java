@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when idempotency key is reused with other request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency key '%s' is already used with other request!", key));
+    }
+}
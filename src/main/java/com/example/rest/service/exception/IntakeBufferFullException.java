@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when order intake buffer is full and order can't be accepted.
+ */
+public class IntakeBufferFullException extends RuntimeException {
+    public IntakeBufferFullException(int capacity) {
+        super(String.format("Order intake buffer of %d orders is full, retry later!", capacity));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.rest.service.exception;
+
+import java.util.Set;
+
+/**
+ * Thrown when requested fields are empty or contain unknown field.
+ */
+public class NoValidFieldsException extends RuntimeException {
+    public NoValidFieldsException() {
+        super("Fields can't be empty!");
+    }
+
+    public NoValidFieldsException(String field, Set<String> allowed) {
+        super(String.format("Unknown field '%s'! Allowed fields: %s", field, allowed));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when idempotency key is blank or longer than maximum length.
+ */
+public class NoValidIdempotencyKeyException extends RuntimeException {
+    public NoValidIdempotencyKeyException(int maxLength) {
+        super(String.format("Idempotency key can't be blank or longer than %d characters!", maxLength));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when request has params, which are not supported by requested resource.
+ */
+public class NoValidParamsException extends RuntimeException {
+    public NoValidParamsException(String params, String supportedBy) {
+        super(String.format("Params %s are supported only by %s!", params, supportedBy));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when keyset cursor of search has only one of rank and id, or they are less than zero.
+ */
+public class NoValidSearchCursorException extends RuntimeException {
+    public NoValidSearchCursorException(Integer afterRank, Long after) {
+        super(String.format("Search cursor must have both rank and id not less than zero! Your cursor is '%s', '%s'.",
+                afterRank, after));
+    }
+}
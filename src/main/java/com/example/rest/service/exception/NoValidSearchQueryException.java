@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when search query has no letters or digits.
+ */
+public class NoValidSearchQueryException extends RuntimeException {
+    public NoValidSearchQueryException(String query) {
+        super(String.format("Search query must contain letters or digits! Your query is '%s'.", query));
+    }
+}
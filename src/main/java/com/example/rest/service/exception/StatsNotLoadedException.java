@@ -0,0 +1,10 @@
+package com.example.rest.service.exception;
+
+/**
+ * Thrown when statistics are requested before they are loaded from db.
+ */
+public class StatsNotLoadedException extends RuntimeException {
+    public StatsNotLoadedException(String stats) {
+        super(String.format("%s statistics are not loaded yet, retry later!", stats));
+    }
+}
@@ -3,14 +3,28 @@ package com.example.rest.service.imp;
 import com.example.rest.entity.Barista;
 import com.example.rest.entity.exception.*;
 import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.BaristaSearchRow;
+import com.example.rest.repository.NestedOrderRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderSpecifications;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
 import com.example.rest.service.IBaristaService;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaCreateDTO;
+import com.example.rest.service.dto.IBaristaPatchDTO;
 import com.example.rest.service.dto.IBaristaPublicDTO;
+import com.example.rest.service.dto.IBaristaSearchDTO;
 import com.example.rest.service.dto.IBaristaUpdateDTO;
+import com.example.rest.service.dto.IOrderFilterDTO;
+import com.example.rest.service.exception.NoValidSearchCursorException;
+import com.example.rest.service.exception.NoValidSearchQueryException;
 import com.example.rest.service.mapper.BaristaMapper;
+import com.example.rest.service.search.TrigramIndex;
+import com.example.rest.servlet.dto.BaristaNoRefDTO;
 import com.example.rest.servlet.dto.BaristaPublicDTO;
+import com.example.rest.servlet.dto.BaristaSliceDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -21,6 +35,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Service for processing barista entity.
@@ -28,21 +46,29 @@ import java.util.List;
 @Service
 @Validated
 public class BaristaService implements IBaristaService {
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,fullName,tipSize", BaristaPublicDTO.class);
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
     private final BaristaRepository baristaRepository;
+    private final OrderRepository orderRepository;
     private final BaristaMapper mapper;
 
     /**
      * Constructor based on repositories. Create mapper by order repository.
      *
      * @param baristaRepository repository to interact with barista schema in db.
+     * @param orderRepository   repository to interact with order schema in db.
      * @throws NullParamException when some of params is null.
      */
     @Autowired
-    public BaristaService(BaristaRepository baristaRepository, BaristaMapper mapper) {
-        if (baristaRepository == null || mapper == null)
+    public BaristaService(BaristaRepository baristaRepository, OrderRepository orderRepository, BaristaMapper mapper) {
+        if (baristaRepository == null || orderRepository == null || mapper == null)
             throw new NullParamException();
 
         this.baristaRepository = baristaRepository;
+        this.orderRepository = orderRepository;
         this.mapper = mapper;
     }
 
@@ -94,8 +120,37 @@ public class BaristaService implements IBaristaService {
     }
 
     /**
-     * Delete barista from db.
-     * Updating couped orders, setting default barista.
+     * Partial updating barista by IBaristaPatchDTO.
+     * Only supplied fields are written by one update statement, barista's orders are not fetched.
+     *
+     * @param baristaDTO object with IBaristaPatchDTO type.
+     * @return Barista object without order list.
+     * @throws NullParamException       when baristaDTO or its id is null.
+     * @throws NoValidIdException       when baristaDTO's id is less than zero.
+     * @throws BaristaNotFoundException when barista with this id is not found in db.
+     */
+    @Override
+    @Transactional
+    public IBaristaPublicDTO patch(@Valid IBaristaPatchDTO baristaDTO) {
+        if (baristaDTO == null || baristaDTO.id() == null)
+            throw new NullParamException();
+        Long id = baristaDTO.id();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        if (baristaDTO.fullName() != null || baristaDTO.tipSize() != null) {
+            int updated = this.baristaRepository.patch(id, baristaDTO.fullName(), baristaDTO.tipSize());
+            if (updated == 0)
+                throw new BaristaNotFoundException(id);
+        }
+
+        return this.baristaRepository.findByIdWithoutOrders(id)
+                .map(barista -> mapper.entityToDto(barista, PATCHED_FIELDS))
+                .orElseThrow(() -> new BaristaNotFoundException(id));
+    }
+
+    /**
+     * Delete barista from db by one statement, barista is not loaded.
      *
      * @param id deleting barista.
      * @throws NullParamException       when id is null.
@@ -109,7 +164,8 @@ public class BaristaService implements IBaristaService {
         if (id < 0)
             throw new NoValidIdException(id);
 
-        this.baristaRepository.deleteById(id);
+        if (this.baristaRepository.deleteByIdWithoutLoading(id) == 0)
+            throw new BaristaNotFoundException(id);
     }
 
     /**
@@ -122,7 +178,7 @@ public class BaristaService implements IBaristaService {
      * @throws BaristaNotFoundException when barista with this id is not found in db.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public IBaristaPublicDTO findById(Long id) {
         if (id == null)
             throw new NullParamException();
@@ -142,7 +198,7 @@ public class BaristaService implements IBaristaService {
      * @return list of barista's objects
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<BaristaPublicDTO> findAll() {
         List<Barista> baristaList = this.baristaRepository.findAll();
         return baristaList.stream()
@@ -160,7 +216,7 @@ public class BaristaService implements IBaristaService {
      * @throws NoValidLimitException when limit is less than one.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<BaristaPublicDTO> findAllByPage(int page, int limit) {
         if (page < 0)
             throw new NoValidPageException(page);
@@ -175,4 +231,255 @@ public class BaristaService implements IBaristaService {
                 .toList();
     }
 
+    /**
+     * Found barista by id with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param id     barista's id.
+     * @param fields requested fields.
+     * @return Barista's object, not requested fields are null.
+     * @throws NullParamException       when id or fields is null.
+     * @throws NoValidIdException       when id is less than zero.
+     * @throws BaristaNotFoundException when barista with this id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BaristaPublicDTO findById(Long id, FieldSet fields) {
+        if (id == null || fields == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        Optional<Barista> barista = fields.contains("orders")
+                ? this.baristaRepository.findById(id)
+                : this.baristaRepository.findByIdWithoutOrders(id);
+
+        return barista.map(found -> mapper.entityToDto(found, fields))
+                .orElseThrow(() -> new BaristaNotFoundException(id));
+    }
+
+    /**
+     * Found all barista with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param fields requested fields.
+     * @return list of barista's objects, not requested fields are null.
+     * @throws NullParamException when fields is null.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BaristaPublicDTO> findAll(FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+
+        List<Barista> baristaList = fields.contains("orders")
+                ? this.baristaRepository.findAll()
+                : this.baristaRepository.findAllWithoutOrders();
+
+        return baristaList.stream()
+                .map(barista -> mapper.entityToDto(barista, fields))
+                .toList();
+    }
+
+    /**
+     * Found all barista with requested fields only, grouped by page and limited.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param page   number of page. Can't be less than zero.
+     * @param limit  number of maximum objects in list.
+     * @param fields requested fields.
+     * @return list of barista's objects, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidPageException  when page is less than zero.
+     * @throws NoValidLimitException when limit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BaristaPublicDTO> findAllByPage(int page, int limit, FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+        if (page < 0)
+            throw new NoValidPageException(page);
+        if (limit <= 0)
+            throw new NoValidLimitException(limit);
+
+        Pageable pageable = PageRequest.of(page, limit);
+
+        Page<Barista> baristaList = fields.contains("orders")
+                ? this.baristaRepository.findAll(pageable)
+                : this.baristaRepository.findAllWithoutOrders(pageable);
+
+        return baristaList.stream()
+                .map(barista -> mapper.entityToDto(barista, fields))
+                .toList();
+    }
+
+    /**
+     * Found barista by id with requested fields only and bounded order list.
+     * Only first orders are fetched, with total count of orders and link to next orders.
+     *
+     * @param id          barista's id.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in barista's order list.
+     * @return Barista's object, not requested fields are null.
+     * @throws NullParamException       when id or fields is null.
+     * @throws NoValidIdException       when id is less than zero.
+     * @throws NoValidLimitException    when ordersLimit is less than one.
+     * @throws BaristaNotFoundException when barista with this id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BaristaPublicDTO findById(Long id, FieldSet fields, int ordersLimit) {
+        if (id == null || fields == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        Barista barista = this.baristaRepository.findByIdWithoutOrders(id)
+                .orElseThrow(() -> new BaristaNotFoundException(id));
+
+        return withFirstOrders(List.of(barista), fields, ordersLimit).get(0);
+    }
+
+    /**
+     * Found all barista with requested fields only and bounded order lists.
+     * Only first orders of each barista are fetched, with total count of orders and link to next orders.
+     *
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each barista's order list.
+     * @return list of barista's objects, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidLimitException when ordersLimit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BaristaPublicDTO> findAll(FieldSet fields, int ordersLimit) {
+        if (fields == null)
+            throw new NullParamException();
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        return withFirstOrders(this.baristaRepository.findAllWithoutOrders(), fields, ordersLimit);
+    }
+
+    /**
+     * Found all barista with requested fields only and bounded order lists, grouped by page and limited.
+     * Only first orders of each barista are fetched, with total count of orders and link to next orders.
+     *
+     * @param page        number of page. Can't be less than zero.
+     * @param limit       number of maximum objects in list.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each barista's order list.
+     * @return list of barista's objects, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidPageException  when page is less than zero.
+     * @throws NoValidLimitException when limit or ordersLimit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BaristaPublicDTO> findAllByPage(int page, int limit, FieldSet fields, int ordersLimit) {
+        if (fields == null)
+            throw new NullParamException();
+        if (page < 0)
+            throw new NoValidPageException(page);
+        if (limit <= 0)
+            throw new NoValidLimitException(limit);
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        Pageable pageable = PageRequest.of(page, limit);
+
+        return withFirstOrders(this.baristaRepository.findAllWithoutOrders(pageable).getContent(), fields, ordersLimit);
+    }
+
+    /**
+     * Found barista's orders by keyset pagination, ordered by id.
+     * Orders are filtered by status and created period, when they are specified.
+     *
+     * @param id     barista's id.
+     * @param filter keyset cursor, limit, status and created period.
+     * @return slice of orders with cursor of next slice.
+     * @throws NullParamException       when id or filter is null.
+     * @throws NoValidIdException       when id or filter's after is less than zero.
+     * @throws NoValidLimitException    when filter's limit is less than one.
+     * @throws NoValidStatusException   when filter's status is unknown.
+     * @throws BaristaNotFoundException when barista with this id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderSliceDTO findOrders(Long id, @Valid IOrderFilterDTO filter) {
+        if (id == null || filter == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        OrderSliceDTO slice = OrderSlices.find(orderRepository, OrderSpecifications.ofBarista(id), filter);
+        if (slice.orders().isEmpty() && !this.baristaRepository.existsById(id))
+            throw new BaristaNotFoundException(id);
+
+        return slice;
+    }
+
+    /**
+     * Search barista by full name, best matches first, by keyset pagination.
+     * Query is trimmed and its spaces are collapsed; case is ignored.
+     * One more barista than limit is fetched to know, that next slice exists.
+     *
+     * @param search query, keyset cursor and limit. Limit can be null, then it is 20. Greater limit is cut to 100.
+     * @return slice of barista with cursor of next slice, cursor is null when it is last slice.
+     * @throws NullParamException           when search or its query is null.
+     * @throws NoValidSearchQueryException  when query has no letters or digits.
+     * @throws NoValidSearchCursorException when only one of afterRank and after is specified or one is negative.
+     * @throws NoValidLimitException        when limit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BaristaSliceDTO search(@Valid IBaristaSearchDTO search) {
+        if (search == null || search.q() == null)
+            throw new NullParamException();
+        if (TrigramIndex.normalize(search.q()).isEmpty())
+            throw new NoValidSearchQueryException(search.q());
+        if ((search.afterRank() == null) != (search.after() == null)
+                || search.afterRank() != null && (search.afterRank() < 0 || search.after() < 0))
+            throw new NoValidSearchCursorException(search.afterRank(), search.after());
+        if (search.limit() != null && search.limit() < 1)
+            throw new NoValidLimitException(search.limit());
+
+        int limit = search.limit() == null ? DEFAULT_SEARCH_LIMIT : Math.min(search.limit(), MAX_SEARCH_LIMIT);
+        String query = SPACES.matcher(search.q().strip()).replaceAll(" ");
+        List<BaristaSearchRow> found = this.baristaRepository.searchByName(query,
+                search.afterRank(), search.after(), limit + 1);
+        List<BaristaSearchRow> rows = found.stream()
+                .limit(limit)
+                .toList();
+        List<BaristaNoRefDTO> baristas = rows.stream()
+                .map(row -> new BaristaNoRefDTO(row.id(), row.fullName(), row.tipSize()))
+                .toList();
+        BaristaSearchRow last = found.size() > limit ? rows.get(limit - 1) : null;
+
+        return new BaristaSliceDTO(baristas,
+                last == null ? null : last.rank(),
+                last == null ? null : last.id());
+    }
+
+    /**
+     * Map barista to public dto's, fetching first orders of all barista by one query.
+     * Orders are not fetched, when none of order fields is requested.
+     */
+    private List<BaristaPublicDTO> withFirstOrders(List<Barista> baristaList, FieldSet fields, int ordersLimit) {
+        if (baristaList.isEmpty() || !fields.containsAny("orders", "ordersTotal", "ordersNext"))
+            return baristaList.stream()
+                    .map(barista -> mapper.entityToDto(barista, fields))
+                    .toList();
+
+        List<Long> ids = baristaList.stream().map(Barista::getId).toList();
+        Map<Long, List<NestedOrderRow>> firstOrders = this.baristaRepository.findFirstOrders(ids, ordersLimit).stream()
+                .collect(Collectors.groupingBy(NestedOrderRow::ownerId));
+
+        return baristaList.stream()
+                .map(barista -> mapper.entityToDto(barista, firstOrders.getOrDefault(barista.getId(), List.of())))
+                .toList();
+    }
 }
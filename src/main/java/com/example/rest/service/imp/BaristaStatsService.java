@@ -0,0 +1,293 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.BaristaNotFoundException;
+import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.BaristaStatsRow;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.exception.StatsNotLoadedException;
+import com.example.rest.servlet.dto.BaristaStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barista's statistics of completed orders, kept as running aggregates in memory.
+ * Aggregates are seeded by aggregate queries of completed and archived orders in background after start,
+ * so start is not blocked, when db is not available; failed seed is retried after configured delay.
+ * Statistics are not served, until seed is finished.
+ * Aggregates are updated after transaction is committed, when order is completed, and when completed order
+ * is changed by update or patch or is deleted: its stored row is removed before change and added after it.
+ * Statistics cover retained orders, which are live and archived orders, so orders, purged by retention,
+ * are removed from them.
+ * Changes, committed while seed runs, are kept and added to seeded rows, so only changes, committed between
+ * start of seed and snapshot of its first query, are counted twice.
+ */
+@Service
+public class BaristaStatsService implements IBaristaStatsService, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaristaStatsService.class);
+
+    private final BaristaRepository baristaRepository;
+    private final Map<Long, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    private long seedRetryMillis = 5000;
+
+    private ScheduledExecutorService seeder;
+    private volatile boolean seeded;
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository.
+     *
+     * @param baristaRepository repository, which aggregates completed orders on start.
+     * @throws NullParamException when baristaRepository is null.
+     */
+    @Autowired
+    public BaristaStatsService(BaristaRepository baristaRepository) {
+        if (baristaRepository == null)
+            throw new NullParamException();
+        this.baristaRepository = baristaRepository;
+    }
+
+    /**
+     * Set delay before next seed, when seed is failed.
+     *
+     * @param seedRetryMillis delay in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when seedRetryMillis is not greater than zero.
+     */
+    @Value("${baristaStats.seedRetryMillis:5000}")
+    public void setSeedRetryMillis(long seedRetryMillis) {
+        if (seedRetryMillis < 1)
+            throw new IllegalArgumentException("Barista statistics seed retry delay must be greater than zero!");
+        this.seedRetryMillis = seedRetryMillis;
+    }
+
+    /**
+     * Find statistics of barista. Barista without completed orders has zero statistics.
+     *
+     * @param baristaId barista's id.
+     * @return statistics of barista's completed orders.
+     * @throws NullParamException       when baristaId is null.
+     * @throws NoValidIdException       when baristaId is less than zero.
+     * @throws BaristaNotFoundException when barista has no completed orders and is not found in db.
+     * @throws StatsNotLoadedException  when statistics are not seeded yet.
+     */
+    @Override
+    public BaristaStatsDTO findById(Long baristaId) {
+        if (baristaId == null)
+            throw new NullParamException();
+        if (baristaId < 0)
+            throw new NoValidIdException(baristaId);
+        checkSeeded();
+
+        Aggregate aggregate = aggregates.get(baristaId);
+        if (aggregate != null)
+            return aggregate.toDto(baristaId);
+        if (!baristaRepository.existsById(baristaId))
+            throw new BaristaNotFoundException(baristaId);
+        return new Aggregate().toDto(baristaId);
+    }
+
+    /**
+     * Find statistics of all barista, who completed orders.
+     *
+     * @return list of statistics ordered by barista's id.
+     * @throws StatsNotLoadedException when statistics are not seeded yet.
+     */
+    @Override
+    public List<BaristaStatsDTO> findAll() {
+        checkSeeded();
+        return aggregates.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Add completed order to statistics of its barista. When transaction is active,
+     * order is added after commit, so rolled back completion is not counted.
+     *
+     * @param order completed order with barista, created and completed time, price and lines.
+     * @throws NullParamException when order or its completed time is null.
+     */
+    @Override
+    public void recordCompleted(Order order) {
+        if (order == null || order.getCompleted() == null)
+            throw new NullParamException();
+
+        Long baristaId = order.getBarista().getId();
+        double prepSeconds = Duration.between(order.getCreated(), order.getCompleted()).toNanos() / 1e9;
+        double price = order.getPrice();
+        double tip = price - order.getLinesPrice();
+
+        TransactionHooks.afterCommit(() -> add(baristaId, 1, prepSeconds, price, tip));
+    }
+
+    /**
+     * Add stored order to statistics of its barista, when it is completed. Must be called after
+     * order is changed in db. Order is not loaded.
+     *
+     * @param orderId order's id.
+     * @throws NullParamException when orderId is null.
+     * @throws NoValidIdException when orderId is less than zero.
+     */
+    @Override
+    public void recordCompleted(Long orderId) {
+        recordStored(orderId, 1);
+    }
+
+    /**
+     * Remove stored order from statistics of its barista, when it is completed. Must be called before
+     * order is changed or deleted in db. Order is not loaded.
+     *
+     * @param orderId order's id.
+     * @throws NullParamException when orderId is null.
+     * @throws NoValidIdException when orderId is less than zero.
+     */
+    @Override
+    public void recordDeleted(Long orderId) {
+        recordStored(orderId, -1);
+    }
+
+    /**
+     * Remove completed orders, deleted by purge, from statistics of their barista. Must be called after
+     * orders are deleted in db, because aggregates are read from deleted rows.
+     *
+     * @param purged aggregates of deleted completed orders, one row for each barista.
+     * @throws NullParamException when purged is null.
+     */
+    @Override
+    public void recordPurged(List<BaristaStatsRow> purged) {
+        if (purged == null)
+            throw new NullParamException();
+
+        for (BaristaStatsRow row : purged)
+            TransactionHooks.afterCommit(() -> add(row.baristaId(), -row.completedOrders(), -row.prepSeconds(),
+                    -row.revenue(), -row.tipRevenue()));
+    }
+
+    /**
+     * Start seed of aggregates in background.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        seeded = false;
+        seeder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "barista-stats-seed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        seeder.execute(this::seedOrRetry);
+        running = true;
+    }
+
+    /**
+     * Stop seed, when it is not finished.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        seeder.shutdownNow();
+        seeder = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Seed aggregates from completed and archived orders in db. Changes, recorded before seed,
+     * are dropped, because they are contained in db.
+     */
+    void seed() {
+        aggregates.clear();
+        for (BaristaStatsRow row : baristaRepository.aggregateCompletedOrders())
+            add(row.baristaId(), row.completedOrders(), row.prepSeconds(), row.revenue(), row.tipRevenue());
+        for (BaristaStatsRow row : baristaRepository.aggregateArchivedOrders())
+            add(row.baristaId(), row.completedOrders(), row.prepSeconds(), row.revenue(), row.tipRevenue());
+        seeded = true;
+    }
+
+    private void seedOrRetry() {
+        try {
+            seed();
+            LOGGER.info("Barista statistics are seeded: {} barista", aggregates.size());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Barista statistics are not seeded, retry in {} ms: {}", seedRetryMillis, e.getMessage(), e);
+            synchronized (this) {
+                if (running)
+                    seeder.schedule(this::seedOrRetry, seedRetryMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void checkSeeded() {
+        if (!seeded)
+            throw new StatsNotLoadedException("Barista");
+    }
+
+    private void recordStored(Long orderId, int sign) {
+        if (orderId == null)
+            throw new NullParamException();
+        if (orderId < 0)
+            throw new NoValidIdException(orderId);
+
+        baristaRepository.aggregateCompletedOrder(orderId).ifPresent(row -> TransactionHooks.afterCommit(() ->
+                add(row.baristaId(), sign * row.completedOrders(), sign * row.prepSeconds(),
+                        sign * row.revenue(), sign * row.tipRevenue())));
+    }
+
+    /**
+     * Add values to aggregate of barista. Aggregate without orders is removed, so barista without
+     * completed orders is not listed.
+     */
+    private void add(Long baristaId, long orders, double prepSeconds, double revenue, double tipRevenue) {
+        aggregates.compute(baristaId, (id, aggregate) -> {
+            Aggregate changed = aggregate == null ? new Aggregate() : aggregate;
+            return changed.add(orders, prepSeconds, revenue, tipRevenue) == 0 ? null : changed;
+        });
+    }
+
+    private static final class Aggregate {
+        private long orders;
+        private double prepSeconds;
+        private double revenue;
+        private double tipRevenue;
+
+        private synchronized long add(long orders, double prepSeconds, double revenue, double tipRevenue) {
+            this.orders += orders;
+            this.prepSeconds += prepSeconds;
+            this.revenue += revenue;
+            this.tipRevenue += tipRevenue;
+            return this.orders;
+        }
+
+        private synchronized BaristaStatsDTO toDto(Long baristaId) {
+            return new BaristaStatsDTO(baristaId,
+                    orders,
+                    orders == 0 ? 0.0 : prepSeconds / orders,
+                    revenue,
+                    tipRevenue);
+        }
+    }
+}
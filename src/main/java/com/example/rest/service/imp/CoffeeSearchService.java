@@ -0,0 +1,121 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Coffee;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.exception.NoValidLimitException;
+import com.example.rest.service.ICoffeeSearchService;
+import com.example.rest.service.exception.NoValidSearchQueryException;
+import com.example.rest.service.search.TrigramIndex;
+import com.example.rest.servlet.dto.CoffeeNoRefDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Search of coffee by name, served from in-memory trigram index, so type-ahead doesn't query db.
+ * Index is built on start by one query and is changed, when coffee is created, changed or deleted,
+ * after transaction is committed. Coffee is kept by one application instance; changes,
+ * made by other instances, are taken into account on next start.
+ */
+@Service
+public class CoffeeSearchService implements ICoffeeSearchService, SmartLifecycle {
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final CoffeeRepository coffeeRepository;
+    private final TrigramIndex<CoffeeNoRefDTO> index = new TrigramIndex<>();
+
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository.
+     *
+     * @param coffeeRepository repository, which finds all coffee on start.
+     * @throws NullParamException when coffeeRepository is null.
+     */
+    @Autowired
+    public CoffeeSearchService(CoffeeRepository coffeeRepository) {
+        if (coffeeRepository == null)
+            throw new NullParamException();
+        this.coffeeRepository = coffeeRepository;
+    }
+
+    /**
+     * Find coffee, which names match query by prefix, substring or similarity, best matches first.
+     * Case, diacritics and punctuation are ignored.
+     *
+     * @param query searched name.
+     * @param limit maximum number of coffee. Can be null, then it is 10. Greater limit is cut to 50.
+     * @return list of matched coffee.
+     * @throws NullParamException          when query is null.
+     * @throws NoValidSearchQueryException when query has no letters or digits.
+     * @throws NoValidLimitException       when limit is less than one.
+     */
+    @Override
+    public List<CoffeeNoRefDTO> search(String query, Integer limit) {
+        if (query == null)
+            throw new NullParamException();
+        if (TrigramIndex.normalize(query).isEmpty())
+            throw new NoValidSearchQueryException(query);
+        if (limit != null && limit < 1)
+            throw new NoValidLimitException(limit);
+
+        return index.search(query, limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Index created or changed coffee by its name. Name and price are read, when method is called.
+     * When transaction is active, coffee is indexed after commit, so rolled back change is not indexed.
+     *
+     * @param coffee saved coffee with id and name.
+     * @throws NullParamException when coffee, its id or name is null.
+     */
+    @Override
+    public void recordSaved(Coffee coffee) {
+        if (coffee == null || coffee.getId() == null || coffee.getName() == null)
+            throw new NullParamException();
+
+        CoffeeNoRefDTO dto = new CoffeeNoRefDTO(coffee);
+        TransactionHooks.afterCommit(() -> index.put(dto.id(), dto.name(), dto));
+    }
+
+    /**
+     * Remove deleted coffee from index. When transaction is active, coffee is removed after commit.
+     *
+     * @param id deleted coffee's id.
+     * @throws NullParamException when id is null.
+     */
+    @Override
+    public void recordDeleted(Long id) {
+        if (id == null)
+            throw new NullParamException();
+
+        TransactionHooks.afterCommit(() -> index.remove(id));
+    }
+
+    /**
+     * Index all coffee by one query.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        for (Coffee coffee : coffeeRepository.findAllWithoutOrders())
+            index.put(coffee.getId(), coffee.getName(), new CoffeeNoRefDTO(coffee));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -3,14 +3,22 @@ package com.example.rest.service.imp;
 import com.example.rest.entity.Coffee;
 import com.example.rest.entity.exception.*;
 import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.NestedOrderRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderSpecifications;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.ICoffeeSearchService;
 import com.example.rest.service.ICoffeeService;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.ICoffeeCreateDTO;
+import com.example.rest.service.dto.ICoffeePatchDTO;
 import com.example.rest.service.dto.ICoffeePublicDTO;
 import com.example.rest.service.dto.ICoffeeUpdateDTO;
+import com.example.rest.service.dto.IOrderFilterDTO;
 import com.example.rest.service.mapper.CoffeeMapper;
 import com.example.rest.servlet.dto.CoffeePublicDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -21,6 +29,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service to processing coffee entity.
@@ -28,23 +39,33 @@ import java.util.List;
 @Service
 @Validated
 public class CoffeeService implements ICoffeeService {
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,name,price", CoffeePublicDTO.class);
+
     private final CoffeeRepository coffeeRepository;
+    private final OrderRepository orderRepository;
     private final CoffeeMapper mapper;
+    private final ICoffeeSearchService coffeeSearchService;
 
 
     /**
      * Constructor based on repositories.
      * Create mapper by orderRepository.
      *
-     * @param coffeeRepository repository to interact with coffee in db.
-     * @throws NullParamException when orderRepository of coffeeRepository is null.
+     * @param coffeeRepository    repository to interact with coffee in db.
+     * @param orderRepository     repository to interact with order in db.
+     * @param mapper              mapper of coffee entity and dto's.
+     * @param coffeeSearchService search index of coffee names, changed by create, update, patch and delete.
+     * @throws NullParamException when any param is null.
      */
     @Autowired
-    public CoffeeService(CoffeeRepository coffeeRepository, CoffeeMapper mapper) {
-        if (coffeeRepository == null || mapper == null)
+    public CoffeeService(CoffeeRepository coffeeRepository, OrderRepository orderRepository, CoffeeMapper mapper,
+                         ICoffeeSearchService coffeeSearchService) {
+        if (coffeeRepository == null || orderRepository == null || mapper == null || coffeeSearchService == null)
             throw new NullParamException();
         this.coffeeRepository = coffeeRepository;
+        this.orderRepository = orderRepository;
         this.mapper = mapper;
+        this.coffeeSearchService = coffeeSearchService;
     }
 
     /**
@@ -64,13 +85,14 @@ public class CoffeeService implements ICoffeeService {
 
         Coffee coffee = mapper.createDtoToEntity(coffeeDTO);
         coffee = this.coffeeRepository.save(coffee);
+        coffeeSearchService.recordSaved(coffee);
         return mapper.entityToDto(coffee);
     }
 
     /**
      * Updating coffee by ICoffeeUpdateDTO.
-     * Deleting references that has in db but hasn't in coffeeDTO.
-     * Add references that hasn't in db but has in coffeeDTO.
+     * Name and price are applied to stored coffee. Order list is only checked for existence,
+     * because order lines are managed by orders.
      *
      * @param coffeeDTO object with ICoffeeUpdateDTO type.
      * @return Coffee object.
@@ -90,15 +112,51 @@ public class CoffeeService implements ICoffeeService {
         Coffee coffee = coffeeRepository.findById(coffeeDTO.id())
                 .orElseThrow(() -> new CoffeeNotFoundException(coffeeDTO.id()));
 
-        coffee = mapper.updateDtoToEntity(coffeeDTO);
+        Coffee changes = mapper.updateDtoToEntity(coffeeDTO);
+        coffee.setName(changes.getName());
+        coffee.setPrice(changes.getPrice());
 
         coffee = this.coffeeRepository.save(coffee);
+        coffeeSearchService.recordSaved(coffee);
 
         return mapper.entityToDto(coffee);
     }
 
     /**
-     * Delete coffee with specified id.
+     * Partial updating coffee by ICoffeePatchDTO.
+     * Only supplied fields are written by one update statement, coffee's orders are not fetched.
+     * Orders keep price of coffee, copied when it was ordered.
+     *
+     * @param coffeeDTO object with ICoffeePatchDTO type.
+     * @return Coffee object without order list.
+     * @throws NullParamException      when coffeeDTO or its id is null.
+     * @throws NoValidIdException      when coffeeDTO's id is less than zero.
+     * @throws CoffeeNotFoundException when coffee with this id is not found.
+     */
+    @Override
+    @Transactional
+    public ICoffeePublicDTO patch(@Valid ICoffeePatchDTO coffeeDTO) {
+        if (coffeeDTO == null || coffeeDTO.id() == null)
+            throw new NullParamException();
+        Long id = coffeeDTO.id();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        if (coffeeDTO.name() != null || coffeeDTO.price() != null) {
+            int updated = this.coffeeRepository.patch(id, coffeeDTO.name(), coffeeDTO.price());
+            if (updated == 0)
+                throw new CoffeeNotFoundException(id);
+        }
+
+        Coffee coffee = this.coffeeRepository.findByIdWithoutOrders(id)
+                .orElseThrow(() -> new CoffeeNotFoundException(id));
+        coffeeSearchService.recordSaved(coffee);
+
+        return mapper.entityToDto(coffee, PATCHED_FIELDS);
+    }
+
+    /**
+     * Delete coffee with specified id by one statement, coffee is not loaded.
      *
      * @param id deleting coffee id.
      * @throws NullParamException      when id is null.
@@ -112,7 +170,9 @@ public class CoffeeService implements ICoffeeService {
         if (id < 0)
             throw new NoValidIdException(id);
 
-        this.coffeeRepository.deleteById(id);
+        if (this.coffeeRepository.deleteByIdWithoutLoading(id) == 0)
+            throw new CoffeeNotFoundException(id);
+        coffeeSearchService.recordDeleted(id);
     }
 
     /**
@@ -125,7 +185,7 @@ public class CoffeeService implements ICoffeeService {
      * @throws CoffeeNotFoundException when coffee with specified id is not found.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public ICoffeePublicDTO findById(Long id) {
         if (id == null)
             throw new NullParamException();
@@ -145,7 +205,7 @@ public class CoffeeService implements ICoffeeService {
      * @return all coffee from db.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<CoffeePublicDTO> findAll() {
         List<Coffee> coffeeList = this.coffeeRepository.findAll();
 
@@ -164,7 +224,7 @@ public class CoffeeService implements ICoffeeService {
      * @throws NoValidLimitException when limit is less than one.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<CoffeePublicDTO> findAllByPage(int page, int limit) {
         if (page < 0)
             throw new NoValidPageException(page);
@@ -179,4 +239,214 @@ public class CoffeeService implements ICoffeeService {
                 .map(mapper::entityToDto)
                 .toList();
     }
+
+    /**
+     * Find coffee by specified id with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param id     finding coffee's id.
+     * @param fields requested fields.
+     * @return Coffee object, not requested fields are null.
+     * @throws NullParamException      when id or fields is null.
+     * @throws NoValidIdException      when id less than zero.
+     * @throws CoffeeNotFoundException when coffee with specified id is not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CoffeePublicDTO findById(Long id, FieldSet fields) {
+        if (id == null || fields == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        Optional<Coffee> coffee = fields.contains("orders")
+                ? this.coffeeRepository.findById(id)
+                : this.coffeeRepository.findByIdWithoutOrders(id);
+
+        return coffee.map(found -> mapper.entityToDto(found, fields))
+                .orElseThrow(() -> new CoffeeNotFoundException(id));
+    }
+
+    /**
+     * Find all coffees with requested fields only.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param fields requested fields.
+     * @return all coffee from db, not requested fields are null.
+     * @throws NullParamException when fields is null.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoffeePublicDTO> findAll(FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+
+        List<Coffee> coffeeList = fields.contains("orders")
+                ? this.coffeeRepository.findAll()
+                : this.coffeeRepository.findAllWithoutOrders();
+
+        return coffeeList.stream()
+                .map(coffee -> mapper.entityToDto(coffee, fields))
+                .toList();
+    }
+
+    /**
+     * Find all coffee with requested fields only, grouping by pages and limited.
+     * Order list is fetched only when 'orders' field is requested.
+     *
+     * @param page   number of representing page. Can't be less than zero.
+     * @param limit  number maximum represented objects.
+     * @param fields requested fields.
+     * @return list of object from specified page, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidPageException  when page is less than zero.
+     * @throws NoValidLimitException when limit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoffeePublicDTO> findAllByPage(int page, int limit, FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+        if (page < 0)
+            throw new NoValidPageException(page);
+        if (limit <= 0)
+            throw new NoValidLimitException(limit);
+
+        Pageable pageable = PageRequest.of(page, limit);
+
+        Page<Coffee> coffeeList = fields.contains("orders")
+                ? this.coffeeRepository.findAll(pageable)
+                : this.coffeeRepository.findAllWithoutOrders(pageable);
+
+        return coffeeList.stream()
+                .map(coffee -> mapper.entityToDto(coffee, fields))
+                .toList();
+    }
+
+    /**
+     * Found coffee by id with requested fields only and bounded order list.
+     * Only first orders are fetched, with total count of orders and link to next orders.
+     *
+     * @param id          coffee's id.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in coffee's order list.
+     * @return Coffee object, not requested fields are null.
+     * @throws NullParamException       when id or fields is null.
+     * @throws NoValidIdException       when id is less than zero.
+     * @throws NoValidLimitException    when ordersLimit is less than one.
+     * @throws CoffeeNotFoundException when coffee with this id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CoffeePublicDTO findById(Long id, FieldSet fields, int ordersLimit) {
+        if (id == null || fields == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        Coffee coffee = this.coffeeRepository.findByIdWithoutOrders(id)
+                .orElseThrow(() -> new CoffeeNotFoundException(id));
+
+        return withFirstOrders(List.of(coffee), fields, ordersLimit).get(0);
+    }
+
+    /**
+     * Found all coffee with requested fields only and bounded order lists.
+     * Only first orders of each coffee are fetched, with total count of orders and link to next orders.
+     *
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each coffee's order list.
+     * @return list of coffee's objects, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidLimitException when ordersLimit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoffeePublicDTO> findAll(FieldSet fields, int ordersLimit) {
+        if (fields == null)
+            throw new NullParamException();
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        return withFirstOrders(this.coffeeRepository.findAllWithoutOrders(), fields, ordersLimit);
+    }
+
+    /**
+     * Found all coffee with requested fields only and bounded order lists, grouped by page and limited.
+     * Only first orders of each coffee are fetched, with total count of orders and link to next orders.
+     *
+     * @param page        number of page. Can't be less than zero.
+     * @param limit       number of maximum objects in list.
+     * @param fields      requested fields.
+     * @param ordersLimit maximum number of orders in each coffee's order list.
+     * @return list of coffee's objects, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidPageException  when page is less than zero.
+     * @throws NoValidLimitException when limit or ordersLimit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoffeePublicDTO> findAllByPage(int page, int limit, FieldSet fields, int ordersLimit) {
+        if (fields == null)
+            throw new NullParamException();
+        if (page < 0)
+            throw new NoValidPageException(page);
+        if (limit <= 0)
+            throw new NoValidLimitException(limit);
+        if (ordersLimit <= 0)
+            throw new NoValidLimitException(ordersLimit);
+
+        Pageable pageable = PageRequest.of(page, limit);
+
+        return withFirstOrders(this.coffeeRepository.findAllWithoutOrders(pageable).getContent(), fields, ordersLimit);
+    }
+
+    /**
+     * Found orders containing coffee by keyset pagination, ordered by id.
+     * Orders are filtered by status and created period, when they are specified.
+     *
+     * @param id     coffee's id.
+     * @param filter keyset cursor, limit, status and created period.
+     * @return slice of orders with cursor of next slice.
+     * @throws NullParamException      when id or filter is null.
+     * @throws NoValidIdException      when id or filter's after is less than zero.
+     * @throws NoValidLimitException   when filter's limit is less than one.
+     * @throws NoValidStatusException  when filter's status is unknown.
+     * @throws CoffeeNotFoundException when coffee with this id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderSliceDTO findOrders(Long id, @Valid IOrderFilterDTO filter) {
+        if (id == null || filter == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        OrderSliceDTO slice = OrderSlices.find(orderRepository, OrderSpecifications.ofCoffee(id), filter);
+        if (slice.orders().isEmpty() && !this.coffeeRepository.existsById(id))
+            throw new CoffeeNotFoundException(id);
+
+        return slice;
+    }
+
+    /**
+     * Map coffee to public dto's, fetching first orders of all coffee by one query.
+     * Orders are not fetched, when none of order fields is requested.
+     */
+    private List<CoffeePublicDTO> withFirstOrders(List<Coffee> coffeeList, FieldSet fields, int ordersLimit) {
+        if (coffeeList.isEmpty() || !fields.containsAny("orders", "ordersTotal", "ordersNext"))
+            return coffeeList.stream()
+                    .map(coffee -> mapper.entityToDto(coffee, fields))
+                    .toList();
+
+        List<Long> ids = coffeeList.stream().map(Coffee::getId).toList();
+        Map<Long, List<NestedOrderRow>> firstOrders = this.coffeeRepository.findFirstOrders(ids, ordersLimit).stream()
+                .collect(Collectors.groupingBy(NestedOrderRow::ownerId));
+
+        return coffeeList.stream()
+                .map(coffee -> mapper.entityToDto(coffee, firstOrders.getOrDefault(coffee.getId(), List.of())))
+                .toList();
+    }
 }
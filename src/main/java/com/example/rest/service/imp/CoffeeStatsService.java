@@ -0,0 +1,230 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderLine;
+import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.CoffeeStatsRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.StatsBucket;
+import com.example.rest.repository.exception.NoValidStatsBucketException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.service.ICoffeeStatsService;
+import com.example.rest.service.dto.ICoffeeStatsFilterDTO;
+import com.example.rest.servlet.dto.CoffeeStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of ordered coffee, kept in hourly rollup table. Order writes add changes of rollup rows
+ * by order's lines and hour of its created time. Changes of one transaction are merged and are written
+ * before commit, sorted by coffee and hour, so hot rows are locked shortly and in the same order
+ * by all transactions. Statistics are read from rollup rows and are grouped by hour or day.
+ */
+@Service
+public class CoffeeStatsService implements ICoffeeStatsService {
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::coffeeId)
+            .thenComparing(Key::bucket);
+
+    private final CoffeeRepository coffeeRepository;
+    private final OrderRepository orderRepository;
+
+    /**
+     * Constructor based on repositories.
+     *
+     * @param coffeeRepository repository of hourly rollup.
+     * @param orderRepository  repository, which finds lines of stored order.
+     * @throws NullParamException when coffeeRepository or orderRepository is null.
+     */
+    @Autowired
+    public CoffeeStatsService(CoffeeRepository coffeeRepository, OrderRepository orderRepository) {
+        if (coffeeRepository == null || orderRepository == null)
+            throw new NullParamException();
+        this.coffeeRepository = coffeeRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Find statistics of all coffee in period, grouped by hour or day.
+     * Start of period is rounded down to hour, end is exclusive. Bucket is hour, when it is not specified.
+     *
+     * @param filter period and size of bucket.
+     * @return list of statistics ordered by bucket and coffee's id. Buckets without orders are omitted.
+     * @throws NullParamException          when filter, its start or end is null.
+     * @throws NoValidStatsPeriodException when end of period is not after start.
+     * @throws NoValidStatsBucketException when bucket is not 'hour' or 'day'.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoffeeStatsDTO> findStats(ICoffeeStatsFilterDTO filter) {
+        if (filter == null || filter.from() == null || filter.to() == null)
+            throw new NullParamException();
+        if (!filter.to().isAfter(filter.from()))
+            throw new NoValidStatsPeriodException(filter.from(), filter.to());
+        StatsBucket bucket = StatsBucket.parse(filter.bucket());
+
+        return coffeeRepository.findStats(filter.from(), filter.to(), bucket == null ? StatsBucket.HOUR : bucket)
+                .stream()
+                .map(row -> new CoffeeStatsDTO(row.coffeeId(), row.bucket(), row.orders(), row.quantity(), row.revenue()))
+                .toList();
+    }
+
+    /**
+     * Add lines of created order to hour of its created time.
+     *
+     * @param order created order with created time and lines.
+     * @throws NullParamException when order or its created time is null.
+     */
+    @Override
+    public void recordCreated(Order order) {
+        record(order, 1);
+    }
+
+    /**
+     * Remove lines of order from hour of its created time. Lines are read, when method is called,
+     * so order can be changed after it.
+     *
+     * @param order deleted order or order before update, with created time and lines.
+     * @throws NullParamException when order or its created time is null.
+     */
+    @Override
+    public void recordDeleted(Order order) {
+        record(order, -1);
+    }
+
+    /**
+     * Remove stored lines of order from hour of stored created time. Must be called before lines are deleted
+     * from db. Order is not loaded.
+     *
+     * @param orderId deleted order's id.
+     * @throws NullParamException when orderId is null.
+     * @throws NoValidIdException when orderId is less than zero.
+     */
+    @Override
+    public void recordDeleted(Long orderId) {
+        if (orderId == null)
+            throw new NullParamException();
+        if (orderId < 0)
+            throw new NoValidIdException(orderId);
+
+        List<CoffeeStatsRow> changes = new ArrayList<>();
+        for (CoffeeStatsRow line : orderRepository.findLineStats(orderId))
+            changes.add(new CoffeeStatsRow(line.coffeeId(), StatsBucket.HOUR.truncate(line.bucket()),
+                    -line.orders(), -line.quantity(), -line.revenue()));
+        add(changes);
+    }
+
+    /**
+     * Move stored lines of order from hour of stored created time to hour of new created time.
+     * Must be called before created time is changed in db. Order is not loaded.
+     *
+     * @param orderId order's id.
+     * @param created new created time of order.
+     * @throws NullParamException when orderId or created is null.
+     * @throws NoValidIdException when orderId is less than zero.
+     */
+    @Override
+    public void recordMoved(Long orderId, LocalDateTime created) {
+        if (orderId == null || created == null)
+            throw new NullParamException();
+        if (orderId < 0)
+            throw new NoValidIdException(orderId);
+
+        LocalDateTime bucket = StatsBucket.HOUR.truncate(created);
+        List<CoffeeStatsRow> changes = new ArrayList<>();
+        for (CoffeeStatsRow line : orderRepository.findLineStats(orderId)) {
+            LocalDateTime storedBucket = StatsBucket.HOUR.truncate(line.bucket());
+            if (storedBucket.equals(bucket))
+                continue;
+            changes.add(new CoffeeStatsRow(line.coffeeId(), storedBucket,
+                    -line.orders(), -line.quantity(), -line.revenue()));
+            changes.add(new CoffeeStatsRow(line.coffeeId(), bucket,
+                    line.orders(), line.quantity(), line.revenue()));
+        }
+        add(changes);
+    }
+
+    private void record(Order order, int sign) {
+        if (order == null || order.getCreated() == null)
+            throw new NullParamException();
+
+        LocalDateTime bucket = StatsBucket.HOUR.truncate(order.getCreated());
+        List<CoffeeStatsRow> changes = new ArrayList<>();
+        for (OrderLine line : order.getLines())
+            changes.add(new CoffeeStatsRow(line.getCoffeeId(), bucket,
+                    (long) sign, (long) sign * line.getQuantity(), sign * line.getLinePrice()));
+        add(changes);
+    }
+
+    /**
+     * Add changes to changes of current transaction, or write them at once without transaction.
+     */
+    private void add(List<CoffeeStatsRow> changes) {
+        if (changes.isEmpty())
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges pending = new PendingChanges();
+            pending.add(changes);
+            pending.write();
+            return;
+        }
+
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(changes);
+    }
+
+    private record Key(Long coffeeId, LocalDateTime bucket) {
+    }
+
+    /**
+     * Changes of rollup rows, merged by coffee and hour.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Map<Key, CoffeeStatsRow> changes = new TreeMap<>(KEY_ORDER);
+
+        private void add(Collection<CoffeeStatsRow> rows) {
+            for (CoffeeStatsRow row : rows)
+                changes.merge(new Key(row.coffeeId(), row.bucket()), row, (left, right) -> new CoffeeStatsRow(
+                        left.coffeeId(),
+                        left.bucket(),
+                        left.orders() + right.orders(),
+                        left.quantity() + right.quantity(),
+                        left.revenue() + right.revenue()));
+        }
+
+        private void write() {
+            List<CoffeeStatsRow> rows = changes.values().stream()
+                    .filter(row -> row.orders() != 0 || row.quantity() != 0)
+                    .toList();
+            coffeeRepository.addStats(rows);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CoffeeStatsService.this);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.service.exception.IdempotencyKeyReusedException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory store of results by idempotency key. Least recently used keys are evicted,
+ * when store is full. First request with key executes action, concurrent requests with the same key
+ * wait for its result and later requests get stored result without executing action.
+ * Failed actions are not stored, so request can be retried with the same key.
+ *
+ * @param <T> type of stored result.
+ */
+public class IdempotencyStore<T> {
+    private final Map<String, Entry<T>> entries;
+
+    /**
+     * Create store.
+     *
+     * @param maxEntries maximum number of stored keys. Must be greater than zero.
+     * @throws IllegalArgumentException when maxEntries is not greater than zero.
+     */
+    public IdempotencyStore(int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("Maximum entries must be greater than zero!");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get stored result of key or execute action once for all concurrent requests with the key.
+     *
+     * @param key         idempotency key.
+     * @param fingerprint fingerprint of request, for example digest of request body.
+     * @param action      action, executed by first request with key.
+     * @return result of action.
+     * @throws IdempotencyKeyReusedException when key is already used with other fingerprint.
+     */
+    public T execute(String key, String fingerprint, Supplier<T> action) {
+        Entry<T> entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>(fingerprint);
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!Objects.equals(entry.fingerprint, fingerprint))
+            throw new IdempotencyKeyReusedException(key);
+        if (!owner)
+            return await(entry.result);
+
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Number of stored and in-flight keys.
+     *
+     * @return number of keys.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String fingerprint;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.IOrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archival of completed orders. Orders, completed earlier than configured age, are moved with their lines
+ * to monthly partitioned archive periodically by background thread. Orders are moved in batches,
+ * each in its own transaction, so locks are held briefly and archival, which failed, is continued by next run.
+ * Periodic archival is started only when archive.enabled is true. Archived orders are found by listing
+ * of orders with includeArchived and are counted by barista's statistics.
+ */
+@Service
+public class OrderArchiveService implements IOrderArchiveService, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final OrderRepository orderRepository;
+
+    private boolean enabled;
+    private long afterDays = 90;
+    private int batchSize = 1000;
+    private long intervalMillis = 3_600_000;
+
+    private ScheduledExecutorService archiver;
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository.
+     *
+     * @param orderRepository repository, which moves orders to archive.
+     * @throws NullParamException when orderRepository is null.
+     */
+    @Autowired
+    public OrderArchiveService(OrderRepository orderRepository) {
+        if (orderRepository == null)
+            throw new NullParamException();
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Enable periodic archival.
+     *
+     * @param enabled true to archive orders periodically.
+     */
+    @Value("${archive.enabled:false}")
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set age of archived orders.
+     *
+     * @param afterDays orders completed more than this number of days ago are archived. Must be greater than zero.
+     * @throws IllegalArgumentException when afterDays is not greater than zero.
+     */
+    @Value("${archive.afterDays:90}")
+    public void setAfterDays(long afterDays) {
+        if (afterDays < 1)
+            throw new IllegalArgumentException("Age of archived orders must be greater than zero!");
+        this.afterDays = afterDays;
+    }
+
+    /**
+     * Set number of orders, moved in one transaction.
+     *
+     * @param batchSize size of batch. Must be greater than zero.
+     * @throws IllegalArgumentException when batchSize is not greater than zero.
+     */
+    @Value("${archive.batchSize:1000}")
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Archive batch size must be greater than zero!");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set period of archival.
+     *
+     * @param intervalMillis period in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when intervalMillis is not greater than zero.
+     */
+    @Value("${archive.intervalMillis:3600000}")
+    public void setIntervalMillis(long intervalMillis) {
+        if (intervalMillis < 1)
+            throw new IllegalArgumentException("Archive interval must be greater than zero!");
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Move orders, completed earlier than configured age, to archive batch by batch,
+     * until batch is not full or service is stopped.
+     *
+     * @return number of archived orders.
+     */
+    @Override
+    public int archive() {
+        LocalDateTime completedBefore = LocalDateTime.now().minusDays(afterDays);
+        int archived = 0;
+        int moved;
+        do {
+            moved = orderRepository.archiveCompleted(completedBefore, batchSize);
+            archived += moved;
+        } while (moved >= batchSize && !stopping);
+        return archived;
+    }
+
+    /**
+     * Start periodic archival, when it is enabled. First archival runs after one period.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        stopping = false;
+        if (enabled) {
+            archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-archive");
+                thread.setDaemon(true);
+                return thread;
+            });
+            archiver.scheduleWithFixedDelay(this::archivePeriodically, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    /**
+     * Stop periodic archival after current batch.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        stopping = true;
+        if (archiver == null)
+            return;
+        archiver.shutdown();
+        try {
+            archiver.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archiver = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void archivePeriodically() {
+        try {
+            int archived = archive();
+            if (archived > 0)
+                LOGGER.info("{} orders are archived", archived);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Orders are not archived: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.PurgedOrders;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.IOrderRetentionService;
+import com.example.rest.service.IResponseCache;
+import com.example.rest.servlet.dto.OrderRetentionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Purge of orders, created more than configured number of years ago, periodically by background thread.
+ * Expired monthly partitions of archive are dropped whole; other archived orders and orders are deleted
+ * with their lines in chunks, each in its own transaction, so locks are held briefly. Deletes are throttled
+ * to configured rows per second, so dead rows are produced at a pace, which autovacuum keeps up with.
+ * Periodic purge is started only when retention.enabled is true. Progress is kept in memory
+ * as totals since start and is logged after each run.
+ * <p>
+ * Rollups keep history of purged orders: hourly coffee statistics, minutes of timeline and sketches of wait
+ * times are not changed by purge, so statistics of past periods stay available after their orders are purged.
+ * Barista's statistics are aggregates of retained orders and are seeded from them, so purged completed orders
+ * are removed from them after each chunk and each dropped partition.
+ */
+@Service
+public class OrderRetentionService implements IOrderRetentionService, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderRetentionService.class);
+
+    private final OrderRepository orderRepository;
+    private final IBaristaStatsService baristaStatsService;
+    private IResponseCache responseCache = () -> {
+    };
+
+    private boolean enabled;
+    private long years = 5;
+    private int chunkSize = 1000;
+    private int maxRowsPerSecond = 1000;
+    private long intervalMillis = 86_400_000;
+
+    private final Object purgeLock = new Object();
+    private final AtomicLong deletedOrders = new AtomicLong();
+    private final AtomicLong deletedArchivedOrders = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private volatile boolean purging;
+    private volatile LocalDateTime createdBefore;
+    private volatile LocalDateTime lastStarted;
+    private volatile LocalDateTime lastFinished;
+
+    private ScheduledExecutorService purger;
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository and barista's statistics.
+     *
+     * @param orderRepository     repository, which deletes orders.
+     * @param baristaStatsService statistics, from which purged completed orders are removed.
+     * @throws NullParamException when one of params is null.
+     */
+    @Autowired
+    public OrderRetentionService(OrderRepository orderRepository, IBaristaStatsService baristaStatsService) {
+        if (orderRepository == null || baristaStatsService == null)
+            throw new NullParamException();
+        this.orderRepository = orderRepository;
+        this.baristaStatsService = baristaStatsService;
+    }
+
+    /**
+     * Set cache of responses, which is evicted, when orders are deleted.
+     *
+     * @param responseCache cache of responses. When not set, nothing is evicted.
+     * @throws NullParamException when responseCache is null.
+     */
+    @Autowired(required = false)
+    public void setResponseCache(IResponseCache responseCache) {
+        if (responseCache == null)
+            throw new NullParamException();
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Enable periodic purge.
+     *
+     * @param enabled true to purge orders periodically.
+     */
+    @Value("${retention.enabled:false}")
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set retention period.
+     *
+     * @param years orders created more than this number of years ago are purged. Must be greater than zero.
+     * @throws IllegalArgumentException when years is not greater than zero.
+     */
+    @Value("${retention.years:5}")
+    public void setYears(long years) {
+        if (years < 1)
+            throw new IllegalArgumentException("Retention period must be greater than zero!");
+        this.years = years;
+    }
+
+    /**
+     * Set number of orders, deleted in one transaction.
+     *
+     * @param chunkSize size of chunk. Must be greater than zero.
+     * @throws IllegalArgumentException when chunkSize is not greater than zero.
+     */
+    @Value("${retention.chunkSize:1000}")
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Retention chunk size must be greater than zero!");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set maximum rate of deleted orders.
+     *
+     * @param maxRowsPerSecond maximum number of orders, deleted per second. Must be greater than zero.
+     * @throws IllegalArgumentException when maxRowsPerSecond is not greater than zero.
+     */
+    @Value("${retention.maxRowsPerSecond:1000}")
+    public void setMaxRowsPerSecond(int maxRowsPerSecond) {
+        if (maxRowsPerSecond < 1)
+            throw new IllegalArgumentException("Retention rate must be greater than zero!");
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    /**
+     * Set period of purge.
+     *
+     * @param intervalMillis period in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when intervalMillis is not greater than zero.
+     */
+    @Value("${retention.intervalMillis:86400000}")
+    public void setIntervalMillis(long intervalMillis) {
+        if (intervalMillis < 1)
+            throw new IllegalArgumentException("Retention interval must be greater than zero!");
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Drop expired partitions of archive, then delete remaining archived orders and orders, created
+     * before retention period, chunk by chunk, until chunk is not full or service is stopped.
+     * After each chunk purge sleeps, when it is ahead of maximum rate. Runs are not concurrent.
+     *
+     * @return progress of purge after it is finished.
+     */
+    @Override
+    public OrderRetentionDTO purge() {
+        synchronized (purgeLock) {
+            LocalDateTime cutoff = LocalDateTime.now().minusYears(years);
+            createdBefore = cutoff;
+            lastStarted = LocalDateTime.now();
+            purging = true;
+            try {
+                for (PurgedOrders partition : orderRepository.dropArchivePartitions(cutoff)) {
+                    baristaStatsService.recordPurged(partition.baristaStats());
+                    droppedPartitions.incrementAndGet();
+                }
+                Throttle throttle = new Throttle(maxRowsPerSecond);
+                deleteChunks(orderRepository::deleteArchivedOrders, cutoff, deletedArchivedOrders, throttle);
+                long deletedBefore = deletedOrders.get();
+                deleteChunks(orderRepository::deleteOrders, cutoff, deletedOrders, throttle);
+                if (deletedOrders.get() != deletedBefore)
+                    responseCache.evictAll();
+                lastFinished = LocalDateTime.now();
+            } finally {
+                purging = false;
+            }
+        }
+        return findProgress();
+    }
+
+    /**
+     * Find progress of purge: cutoff of current or last run, totals of deleted orders, archived orders,
+     * dropped partitions and chunks since start, and times of last run.
+     *
+     * @return progress of purge.
+     */
+    @Override
+    public OrderRetentionDTO findProgress() {
+        return new OrderRetentionDTO(purging,
+                createdBefore,
+                deletedOrders.get(),
+                deletedArchivedOrders.get(),
+                droppedPartitions.get(),
+                chunks.get(),
+                lastStarted,
+                lastFinished);
+    }
+
+    /**
+     * Start periodic purge, when it is enabled. First purge runs after one period.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        stopping = false;
+        if (enabled) {
+            purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-retention");
+                thread.setDaemon(true);
+                return thread;
+            });
+            purger.scheduleWithFixedDelay(this::purgePeriodically, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    /**
+     * Stop periodic purge after current chunk; throttled purge stops without waiting.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        stopping = true;
+        if (purger == null)
+            return;
+        purger.shutdownNow();
+        try {
+            purger.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        purger = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void deleteChunks(BiFunction<LocalDateTime, Integer, PurgedOrders> delete, LocalDateTime cutoff,
+                              AtomicLong deleted, Throttle throttle) {
+        while (!stopping) {
+            PurgedOrders chunk = delete.apply(cutoff, chunkSize);
+            baristaStatsService.recordPurged(chunk.baristaStats());
+            deleted.addAndGet(chunk.orders());
+            chunks.incrementAndGet();
+            if (chunk.orders() < chunkSize || !throttle.acquire(chunk.orders()))
+                return;
+        }
+    }
+
+    private void purgePeriodically() {
+        try {
+            OrderRetentionDTO progress = purge();
+            LOGGER.info("Orders created before {} are purged: {} orders, {} archived orders, "
+                            + "{} archive partitions deleted in total",
+                    progress.createdBefore(), progress.deletedOrders(), progress.deletedArchivedOrders(),
+                    progress.droppedPartitions());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Orders are not purged: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rate limiter of one run: sleeps, until deleted rows don't exceed maximum rate since start of run.
+     */
+    private static final class Throttle {
+        private final int maxRowsPerSecond;
+        private final long started = System.nanoTime();
+        private long rows;
+
+        private Throttle(int maxRowsPerSecond) {
+            this.maxRowsPerSecond = maxRowsPerSecond;
+        }
+
+        /**
+         * Count deleted rows and sleep, when they are ahead of rate.
+         *
+         * @return false, when sleep is interrupted.
+         */
+        private boolean acquire(int deleted) {
+            rows += deleted;
+            long aheadNanos = started + rows * 1_000_000_000L / maxRowsPerSecond - System.nanoTime();
+            if (aheadNanos <= 0)
+                return true;
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -1,43 +1,117 @@
 package com.example.rest.service.imp;
 
-import com.example.rest.entity.Coffee;
+import com.example.rest.entity.Barista;
 import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderIdempotencyKey;
 import com.example.rest.entity.exception.*;
+import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.OrderArchiveFilter;
+import com.example.rest.repository.OrderIdempotencyKeyRepository;
 import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderSpecifications;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.ICoffeeStatsService;
 import com.example.rest.service.IOrderService;
+import com.example.rest.service.IOrderTimelineService;
+import com.example.rest.service.IOrderWaitTimeService;
+import com.example.rest.service.IResponseCache;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IOrderCreateDTO;
+import com.example.rest.service.dto.IOrderPatchDTO;
 import com.example.rest.service.dto.IOrderPublicDTO;
+import com.example.rest.service.dto.IOrderSearchDTO;
 import com.example.rest.service.dto.IOrderUpdateDTO;
+import com.example.rest.service.exception.IdempotencyKeyReusedException;
+import com.example.rest.service.exception.NoValidIdempotencyKeyException;
 import com.example.rest.service.exception.OrderAlreadyCompletedException;
+import com.example.rest.service.intake.AcceptedOrder;
 import com.example.rest.service.mapper.OrderMapper;
 import com.example.rest.servlet.dto.OrderPublicDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Validated
 public class OrderService implements IOrderService {
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,baristaId,created,completed,price", OrderPublicDTO.class);
+
     private final OrderRepository orderRepository;
+    private final BaristaRepository baristaRepository;
+    private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
     private final OrderMapper mapper;
+    private final IBaristaStatsService baristaStatsService;
+    private final ICoffeeStatsService coffeeStatsService;
+    private final IOrderTimelineService orderTimelineService;
+    private final IOrderWaitTimeService orderWaitTimeService;
+
+    private boolean idempotencyKeysStored = true;
+    private IResponseCache responseCache = () -> {
+    };
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, OrderMapper mapper) {
-        if (orderRepository == null || mapper == null)
+    public OrderService(OrderRepository orderRepository,
+                        BaristaRepository baristaRepository,
+                        OrderIdempotencyKeyRepository idempotencyKeyRepository,
+                        OrderMapper mapper,
+                        IBaristaStatsService baristaStatsService,
+                        ICoffeeStatsService coffeeStatsService,
+                        IOrderTimelineService orderTimelineService,
+                        IOrderWaitTimeService orderWaitTimeService) {
+        if (orderRepository == null || baristaRepository == null || idempotencyKeyRepository == null
+                || mapper == null || baristaStatsService == null || coffeeStatsService == null
+                || orderTimelineService == null || orderWaitTimeService == null)
             throw new NullParamException();
         this.orderRepository = orderRepository;
+        this.baristaRepository = baristaRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
         this.mapper = mapper;
+        this.baristaStatsService = baristaStatsService;
+        this.coffeeStatsService = coffeeStatsService;
+        this.orderTimelineService = orderTimelineService;
+        this.orderWaitTimeService = orderWaitTimeService;
+    }
+
+    /**
+     * Set whether idempotency keys are stored in db. When they are not stored,
+     * duplicates are detected only by in-memory store of controller.
+     *
+     * @param idempotencyKeysStored true to store keys in db.
+     */
+    @Value("${idempotency.stored:true}")
+    public void setIdempotencyKeysStored(boolean idempotencyKeysStored) {
+        this.idempotencyKeysStored = idempotencyKeysStored;
+    }
+
+    /**
+     * Set cache of responses, which is evicted after commit of order changes.
+     *
+     * @param responseCache cache of responses. When not set, nothing is evicted.
+     * @throws NullParamException when responseCache is null.
+     */
+    @Autowired(required = false)
+    public void setResponseCache(IResponseCache responseCache) {
+        if (responseCache == null)
+            throw new NullParamException();
+        this.responseCache = responseCache;
     }
 
     /**
@@ -55,19 +129,123 @@ public class OrderService implements IOrderService {
 
         Order order = mapper.createDtoToEntity(orderDTO);
 
-        Double price = order.getCoffeeList().stream()
-                .map(Coffee::getPrice)
-                .reduce(0.0, Double::sum, Double::sum);
-
-        order.setPrice(price * (1.0 + order.getBarista().getTipSize()));
+        order.setPrice(order.getLinesPrice() * (1.0 + order.getBarista().getTipSize()));
         order.setCreated(LocalDateTime.now());
 
         order = this.orderRepository.save(order);
+        coffeeStatsService.recordCreated(order);
+        orderTimelineService.recordCreated(order);
+        TransactionHooks.afterCommit(responseCache::evictAll);
         return mapper.entityToDto(order);
     }
 
+    /**
+     * Create 'order' in db by IOrderCreateDTO once for idempotency key.
+     * Key is stored in the same transaction as order. When key is already stored,
+     * stored order is returned and nothing is written.
+     *
+     * @param orderDTO       object with IOrderCreateDTO type.
+     * @param idempotencyKey key of request, sent by client.
+     * @return created or stored Order object.
+     * @throws NullParamException             when orderDTO or idempotencyKey is null.
+     * @throws NoValidIdempotencyKeyException when idempotencyKey is blank or longer than 255 characters.
+     * @throws IdempotencyKeyReusedException  when key is stored with other request.
+     * @throws OrderNotFoundException         when stored order is deleted.
+     */
+    @Override
+    @Transactional
+    public IOrderPublicDTO create(@Valid IOrderCreateDTO orderDTO, String idempotencyKey) {
+        if (orderDTO == null || idempotencyKey == null)
+            throw new NullParamException();
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)
+            throw new NoValidIdempotencyKeyException(MAX_IDEMPOTENCY_KEY_LENGTH);
+        if (!idempotencyKeysStored)
+            return create(orderDTO);
+
+        Optional<OrderIdempotencyKey> storedKey = idempotencyKeyRepository.findById(idempotencyKey);
+        if (storedKey.isPresent()) {
+            if (!storedKey.get().getRequestHash().equals(orderDTO.requestHash()))
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+
+            Long orderId = storedKey.get().getOrderId();
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException(orderId));
+            return mapper.entityToDto(order);
+        }
+
+        IOrderPublicDTO created = create(orderDTO);
+        idempotencyKeyRepository.save(new OrderIdempotencyKey(
+                idempotencyKey, orderDTO.requestHash(), created.id(), LocalDateTime.now()));
+        return created;
+    }
+
+    /**
+     * Check, that order can be created by IOrderCreateDTO: barista and all coffee exist
+     * and price is valid. Nothing is written. Transaction is not read-only, so barista and coffee
+     * are read from primary db: replica can lag behind and miss just created ones.
+     *
+     * @param orderDTO object with IOrderCreateDTO type.
+     * @throws NullParamException       when orderDTO or its fields is null.
+     * @throws BaristaNotFoundException from mapper, when barista with orderDTO's baristaId is not found in db.
+     * @throws CoffeeNotFoundException  from mapper, when coffee from orderDTO's coffeeIdList is not found in db.
+     * @throws NoValidPriceException    when price of order is not valid.
+     */
+    @Override
+    @Transactional
+    public void validate(@Valid IOrderCreateDTO orderDTO) {
+        if (orderDTO == null || orderDTO.baristaId() == null || orderDTO.coffeeIdList() == null)
+            throw new NullParamException();
+
+        Order order = mapper.createDtoToEntity(orderDTO);
+        order.setPrice(order.getLinesPrice() * (1.0 + order.getBarista().getTipSize()));
+    }
+
+    /**
+     * Create orders, accepted by intake, in one transaction. Orders keep ids and created time,
+     * assigned on acceptance, and are inserted without merge. Orders, which ids are already stored,
+     * are skipped, so replayed orders are not duplicated.
+     *
+     * @param orders accepted orders.
+     * @return number of created orders.
+     * @throws NullParamException       when orders is null.
+     * @throws BaristaNotFoundException from mapper, when barista of order is not found in db.
+     * @throws CoffeeNotFoundException  from mapper, when coffee of order is not found in db.
+     */
+    @Override
+    @Transactional
+    public int createAccepted(List<AcceptedOrder> orders) {
+        if (orders == null)
+            throw new NullParamException();
+        if (orders.isEmpty())
+            return 0;
+
+        Set<Long> existingIds = new HashSet<>(orderRepository.findExistingIds(
+                orders.stream().map(AcceptedOrder::id).toList()));
+
+        List<Order> created = new ArrayList<>();
+        for (AcceptedOrder accepted : orders) {
+            if (existingIds.contains(accepted.id()))
+                continue;
+
+            Order order = mapper.createDtoToEntity(accepted);
+            order.setId(accepted.id());
+            order.setCreated(accepted.created());
+            order.setPrice(order.getLinesPrice() * (1.0 + order.getBarista().getTipSize()));
+            created.add(order);
+            coffeeStatsService.recordCreated(order);
+            orderTimelineService.recordCreated(order);
+        }
+
+        orderRepository.insertAll(created);
+        if (!created.isEmpty())
+            TransactionHooks.afterCommit(responseCache::evictAll);
+        return created.size();
+    }
+
     /**
      * Update 'order' in db by IOrderUpdateDTO.
+     * Changes are applied to stored order, so only changed lines of coffee list are written.
+     * Stored order is removed from barista's statistics and is added again, when it is completed after update.
      *
      * @param orderDTO object with IOrderUpdateDTO type.
      * @return updated Order object.
@@ -86,19 +264,116 @@ public class OrderService implements IOrderService {
         Order order = orderRepository.findById(orderDTO.id())
                 .orElseThrow(() -> new OrderNotFoundException(orderDTO.id()));
 
-        order = mapper.updateDtoToEntity(orderDTO);
+        Order changes = mapper.updateDtoToEntity(orderDTO);
+        baristaStatsService.recordDeleted(order.getId());
+        coffeeStatsService.recordDeleted(order);
+        order.setBarista(changes.getBarista());
+        order.setCoffeeList(changes.getCoffeeList());
+        order.setCreated(changes.getCreated());
+        order.setCompleted(changes.getCompleted());
 
-        Double price = order.getCoffeeList().stream()
-                .map(Coffee::getPrice)
-                .reduce(0.0, Double::sum, Double::sum);
-        order.setPrice(price * (1.0 + order.getBarista().getTipSize()));
+        order.setPrice(order.getLinesPrice() * (1.0 + order.getBarista().getTipSize()));
+        coffeeStatsService.recordCreated(order);
+        if (order.getCompleted() != null)
+            baristaStatsService.recordCompleted(order);
 
         order = this.orderRepository.save(order);
+        TransactionHooks.afterCommit(responseCache::evictAll);
         return mapper.entityToDto(order);
     }
 
     /**
-     * Delete 'order' by specified id.
+     * Partial update 'order' in db by IOrderPatchDTO.
+     * Only supplied fields are written by one update statement, order's lines are not fetched.
+     * When barista is changed, price is recalculated by unit prices of lines and new barista's tip size.
+     * When created time is changed, lines are moved to its hour in coffee statistics.
+     * Completed order is moved in barista's statistics by its stored rows before and after update.
+     * When completed time is supplied, pending order is completed like by completeOrder, so it is added
+     * to barista's statistics, timeline and wait times; completed time of completed order can't be changed.
+     *
+     * @param orderDTO object with IOrderPatchDTO type.
+     * @return updated Order object without coffee list.
+     * @throws NullParamException              when orderDTO or its id is null.
+     * @throws NoValidIdException              when orderDTO's id is less than zero.
+     * @throws BaristaNotFoundException        when barista with orderDTO's baristaId is not found in db.
+     * @throws OrderNotFoundException          when order with specific id is not found in db.
+     * @throws CompletedBeforeCreatedException when completed time is not after created time.
+     * @throws OrderAlreadyCompletedException  when completed time is supplied and order already has it.
+     */
+    @Override
+    @Transactional
+    public IOrderPublicDTO patch(@Valid IOrderPatchDTO orderDTO) {
+        if (orderDTO == null || orderDTO.id() == null)
+            throw new NullParamException();
+        Long id = orderDTO.id();
+        if (id < 0)
+            throw new NoValidIdException(id);
+        LocalDateTime created = orderDTO.created();
+        LocalDateTime completed = orderDTO.completed();
+        if (created != null && completed != null && !completed.isAfter(created))
+            throw new CompletedBeforeCreatedException(created, completed);
+
+        Barista barista = null;
+        if (orderDTO.baristaId() != null)
+            barista = baristaRepository.findByIdWithoutOrders(orderDTO.baristaId())
+                    .orElseThrow(() -> new BaristaNotFoundException(orderDTO.baristaId()));
+        if (completed != null)
+            return patchPending(id, barista, created, completed);
+
+        Double price = null;
+        if (barista != null)
+            price = orderRepository.sumLinesPrice(id) * (1.0 + barista.getTipSize());
+
+        if (barista != null || created != null) {
+            if (created != null)
+                coffeeStatsService.recordMoved(id, created);
+            baristaStatsService.recordDeleted(id);
+            int updated = orderRepository.patch(id, barista, price, created, null);
+            if (updated == 0) {
+                Order order = orderRepository.findByIdWithoutCoffees(id)
+                        .orElseThrow(() -> new OrderNotFoundException(id));
+                throw new CompletedBeforeCreatedException(created, order.getCompleted());
+            }
+            baristaStatsService.recordCompleted(id);
+            TransactionHooks.afterCommit(responseCache::evictAll);
+        }
+
+        return orderRepository.findByIdWithoutCoffees(id)
+                .map(order -> mapper.entityToDto(order, PATCHED_FIELDS))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    /**
+     * Complete pending order by patch. Order is loaded with lines and changed as managed entity,
+     * so it is recorded in statistics with patched barista, price and created time.
+     */
+    private IOrderPublicDTO patchPending(Long id, Barista barista, LocalDateTime created, LocalDateTime completed) {
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        if (order.getCompleted() != null)
+            throw new OrderAlreadyCompletedException(order);
+        LocalDateTime patchedCreated = created != null ? created : order.getCreated();
+        if (!completed.isAfter(patchedCreated))
+            throw new CompletedBeforeCreatedException(patchedCreated, completed);
+
+        if (created != null) {
+            coffeeStatsService.recordMoved(id, created);
+            order.setCreated(created);
+        }
+        if (barista != null) {
+            order.setBarista(barista);
+            order.setPrice(order.getLinesPrice() * (1.0 + barista.getTipSize()));
+        }
+        order.setCompleted(completed);
+        recordCompleted(order);
+
+        return mapper.entityToDto(order, PATCHED_FIELDS);
+    }
+
+    /**
+     * Delete 'order' by specified id and remove its lines from coffee statistics
+     * and completed order from barista's statistics.
+     * Lines and order are deleted by two statements, order is not loaded.
      *
      * @param id deleting order's id.
      * @throws NullParamException     when coffeeDTO is null or it's fields is null.
@@ -106,13 +381,19 @@ public class OrderService implements IOrderService {
      * @throws OrderNotFoundException when order with specific id is not found in db.
      */
     @Override
+    @Transactional
     public void delete(Long id) {
         if (id == null)
             throw new NullParamException();
         if (id < 0)
             throw new NoValidIdException(id);
 
-        this.orderRepository.deleteById(id);
+        coffeeStatsService.recordDeleted(id);
+        baristaStatsService.recordDeleted(id);
+        this.orderRepository.deleteLinesByOrderId(id);
+        if (this.orderRepository.deleteByIdWithoutLoading(id) == 0)
+            throw new OrderNotFoundException(id);
+        TransactionHooks.afterCommit(responseCache::evictAll);
     }
 
 
@@ -123,13 +404,9 @@ public class OrderService implements IOrderService {
      * @return list of filtered and sorted orders.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<OrderPublicDTO> getOrderQueue() {
-        List<Order> orderList = this.orderRepository.findAll();
-        orderList = orderList.stream()
-                .filter(order -> order.getCompleted() == null)
-                .sorted(Comparator.comparing(Order::getCreated))
-                .toList();
+        List<Order> orderList = this.orderRepository.findQueue();
         return orderList.stream()
                 .map(mapper::entityToDto)
                 .toList();
@@ -137,7 +414,8 @@ public class OrderService implements IOrderService {
 
     /**
      * Complete 'order' with specified 'id'.
-     * Specifying 'completed' field in 'order'.
+     * Specifying 'completed' field in 'order'. Order is managed, so only completed column
+     * is written at flush without merging. Order is added to barista's statistics after commit.
      *
      * @param id completing order's id.
      * @return completed order.
@@ -161,18 +439,25 @@ public class OrderService implements IOrderService {
             throw new OrderAlreadyCompletedException(order);
 
         order.setCompleted(LocalDateTime.now());
-        order = this.orderRepository.save(order);
+        recordCompleted(order);
 
         return mapper.entityToDto(order);
     }
 
+    private void recordCompleted(Order order) {
+        baristaStatsService.recordCompleted(order);
+        orderTimelineService.recordCompleted(order);
+        orderWaitTimeService.recordCompleted(order);
+        TransactionHooks.afterCommit(responseCache::evictAll);
+    }
+
     /**
      * Find all 'order' in db.
      *
      * @return list of all 'order' objects
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<OrderPublicDTO> findAll() {
         List<Order> orderList = this.orderRepository.findAll();
 
@@ -191,7 +476,7 @@ public class OrderService implements IOrderService {
      * @throws OrderNotFoundException when order with specific id is not found in db.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public OrderPublicDTO findById(Long id) {
         if (id == null)
             throw new NullParamException();
@@ -214,7 +499,7 @@ public class OrderService implements IOrderService {
      * @throws NoValidLimitException when limit is less than one.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<OrderPublicDTO> findAllByPage(int page, int limit) {
         if (page < 0)
             throw new NoValidPageException(page);
@@ -230,4 +515,132 @@ public class OrderService implements IOrderService {
                 .toList();
     }
 
+    /**
+     * Find 'order' by specified id with requested fields only.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param id     the desired order "id".
+     * @param fields requested fields.
+     * @return Order object with specified id, not requested fields are null.
+     * @throws NullParamException     when id or fields is null.
+     * @throws NoValidIdException     when id is less than zero.
+     * @throws OrderNotFoundException when order with specific id is not found in db.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPublicDTO findById(Long id, FieldSet fields) {
+        if (id == null || fields == null)
+            throw new NullParamException();
+        if (id < 0)
+            throw new NoValidIdException(id);
+
+        Optional<Order> order = fields.contains("coffees")
+                ? this.orderRepository.findById(id)
+                : this.orderRepository.findByIdWithoutCoffees(id);
+
+        return order.map(found -> mapper.entityToDto(found, fields))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    /**
+     * Find all 'order' in db with requested fields only.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param fields requested fields.
+     * @return list of all 'order' objects, not requested fields are null.
+     * @throws NullParamException when fields is null.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderPublicDTO> findAll(FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+
+        List<Order> orderList = fields.contains("coffees")
+                ? this.orderRepository.findAll()
+                : this.orderRepository.findAllWithoutCoffees();
+
+        return orderList.stream()
+                .map(order -> mapper.entityToDto(order, fields))
+                .toList();
+    }
+
+    /**
+     * Find all 'order' with requested fields only, grouping by pages and limited.
+     * Coffee list is fetched only when 'coffees' field is requested.
+     *
+     * @param page   number of representing page. Can't be less than zero.
+     * @param limit  number maximum represented objects.
+     * @param fields requested fields.
+     * @return list of object from specified page, not requested fields are null.
+     * @throws NullParamException    when fields is null.
+     * @throws NoValidPageException  when page is less than zero.
+     * @throws NoValidLimitException when limit is less than one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderPublicDTO> findAllByPage(int page, int limit, FieldSet fields) {
+        if (fields == null)
+            throw new NullParamException();
+        if (page < 0)
+            throw new NoValidPageException(page);
+        if (limit <= 0)
+            throw new NoValidLimitException(limit);
+
+        Pageable pageable = PageRequest.of(page, limit);
+
+        Page<Order> orderList = fields.contains("coffees")
+                ? this.orderRepository.findAll(pageable)
+                : this.orderRepository.findAllWithoutCoffees(pageable);
+
+        return orderList.stream()
+                .map(order -> mapper.entityToDto(order, fields))
+                .toList();
+    }
+
+    /**
+     * Find orders by keyset pagination, ordered by id. Orders are filtered by barista, coffee,
+     * status, created period and price range, when they are specified. All filters are compiled
+     * into one query; barista, coffee, status and created filters use indexes on their columns.
+     * When includeArchived is true, archived orders, which match the same filters, are merged by id.
+     *
+     * @param filter keyset cursor, limit and filters.
+     * @return slice of orders with cursor of next slice.
+     * @throws NullParamException     when filter is null.
+     * @throws NoValidIdException     when filter's after, baristaId or coffeeId is less than zero.
+     * @throws NoValidLimitException  when filter's limit is less than one.
+     * @throws NoValidStatusException when filter's status is unknown.
+     * @throws NoValidPriceException  when filter's minPrice or maxPrice is less than zero.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderSliceDTO findOrders(@Valid IOrderSearchDTO filter) {
+        if (filter == null)
+            throw new NullParamException();
+        if (filter.baristaId() != null && filter.baristaId() < 0)
+            throw new NoValidIdException(filter.baristaId());
+        if (filter.coffeeId() != null && filter.coffeeId() < 0)
+            throw new NoValidIdException(filter.coffeeId());
+        if (filter.minPrice() != null && filter.minPrice() < 0)
+            throw new NoValidPriceException(filter.minPrice());
+        if (filter.maxPrice() != null && filter.maxPrice() < 0)
+            throw new NoValidPriceException(filter.maxPrice());
+
+        Specification<Order> specification = Specification.where(OrderSpecifications.ofBarista(filter.baristaId()))
+                .and(OrderSpecifications.ofCoffee(filter.coffeeId()))
+                .and(OrderSpecifications.minPrice(filter.minPrice()))
+                .and(OrderSpecifications.maxPrice(filter.maxPrice()));
+        if (!Boolean.TRUE.equals(filter.includeArchived()))
+            return OrderSlices.find(orderRepository, specification, filter);
+
+        OrderArchiveFilter archiveFilter = new OrderArchiveFilter(filter.after(),
+                filter.createdFrom(),
+                filter.createdTo(),
+                filter.baristaId(),
+                filter.coffeeId(),
+                filter.minPrice(),
+                filter.maxPrice());
+        return OrderSlices.find(orderRepository, specification, filter,
+                limit -> orderRepository.findArchivedOrders(archiveFilter, limit));
+    }
 }
@@ -0,0 +1,95 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderStatus;
+import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NoValidStatusException;
+import com.example.rest.repository.OrderArchiveRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderSpecifications;
+import com.example.rest.repository.exception.NoValidLimitException;
+import com.example.rest.service.dto.IOrderFilterDTO;
+import com.example.rest.servlet.dto.OrderNoRefDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Keyset pagination of orders, shared by barista and coffee services.
+ */
+final class OrderSlices {
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    private OrderSlices() {
+    }
+
+    /**
+     * Find slice of orders, that matches owner specification and filter, ordered by id.
+     * One more order than limit is fetched to know, that next slice exists.
+     *
+     * @param orderRepository repository to interact with order in db.
+     * @param owner           specification of barista's or coffee's orders.
+     * @param filter          keyset cursor, limit, status and created period.
+     * @return slice of orders with cursor of next slice, cursor is null when it is last slice.
+     * @throws NoValidIdException     when after is less than zero.
+     * @throws NoValidLimitException  when limit is less than one.
+     * @throws NoValidStatusException when status is unknown.
+     */
+    static OrderSliceDTO find(OrderRepository orderRepository, Specification<Order> owner, IOrderFilterDTO filter) {
+        return find(orderRepository, owner, filter, null);
+    }
+
+    /**
+     * Find slice of orders and, when finder of archived orders is specified, archived orders,
+     * that match owner specification and filter, ordered by id. Archive is not read for pending orders.
+     * Orders are read before archived orders, so order, moved to archive between reads, is found twice
+     * and is returned once.
+     *
+     * @param orderRepository repository to interact with order in db.
+     * @param owner           specification of barista's or coffee's orders.
+     * @param filter          keyset cursor, limit, status and created period.
+     * @param archived        finder of first archived orders, that match the same filter, by limit. Can be null.
+     * @return slice of orders with cursor of next slice, cursor is null when it is last slice.
+     * @throws NoValidIdException     when after is less than zero.
+     * @throws NoValidLimitException  when limit is less than one.
+     * @throws NoValidStatusException when status is unknown.
+     */
+    static OrderSliceDTO find(OrderRepository orderRepository, Specification<Order> owner, IOrderFilterDTO filter,
+                              IntFunction<List<OrderArchiveRow>> archived) {
+        if (filter.after() != null && filter.after() < 0)
+            throw new NoValidIdException(filter.after());
+        if (filter.limit() != null && filter.limit() <= 0)
+            throw new NoValidLimitException(filter.limit());
+
+        int limit = filter.limit() == null ? DEFAULT_LIMIT : Math.min(filter.limit(), MAX_LIMIT);
+        OrderStatus status = OrderStatus.parse(filter.status());
+        Specification<Order> specification = Specification.where(owner)
+                .and(OrderSpecifications.idAfter(filter.after()))
+                .and(OrderSpecifications.hasStatus(status))
+                .and(OrderSpecifications.createdFrom(filter.createdFrom()))
+                .and(OrderSpecifications.createdTo(filter.createdTo()));
+
+        List<OrderNoRefDTO> found = orderRepository.findFirstOrderedById(specification, limit + 1).stream()
+                .map(OrderNoRefDTO::new)
+                .toList();
+        if (archived != null && status != OrderStatus.PENDING) {
+            Map<Long, OrderNoRefDTO> merged = new TreeMap<>();
+            found.forEach(order -> merged.put(order.id(), order));
+            archived.apply(limit + 1).forEach(row -> merged.putIfAbsent(row.id(), new OrderNoRefDTO(row)));
+            found = merged.values().stream()
+                    .limit(limit + 1)
+                    .toList();
+        }
+        List<OrderNoRefDTO> orders = found.stream()
+                .limit(limit)
+                .toList();
+        Long nextAfter = found.size() > limit ? orders.get(limit - 1).id() : null;
+
+        return new OrderSliceDTO(orders, nextAfter);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderTimelineRow;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.service.IOrderTimelineService;
+import com.example.rest.service.timeline.MinuteRing;
+import com.example.rest.servlet.dto.OrderTimelineDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-minute throughput of orders: created and completed orders, average wait and queue depth.
+ * Events of committed transactions are counted in ring of recent minutes, so each event costs constant time.
+ * Changed minutes are flushed periodically by background thread to rollup table, from which ring is seeded
+ * on start and minutes older than ring are read. Queue depth is counted on start; changes of queue
+ * by update, patch or delete of orders are taken into account on next start.
+ * Counters are kept by one application instance, which is the only writer of rollup table.
+ */
+@Service
+public class OrderTimelineService implements IOrderTimelineService, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderTimelineService.class);
+    private static final long DEFAULT_PERIOD_MINUTES = 60;
+
+    private final OrderRepository orderRepository;
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private MinuteRing ring = new MinuteRing(1440);
+    private long flushIntervalMillis = 10_000;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository.
+     *
+     * @param orderRepository repository, which counts queue and stores rollup rows.
+     * @throws NullParamException when orderRepository is null.
+     */
+    @Autowired
+    public OrderTimelineService(OrderRepository orderRepository) {
+        if (orderRepository == null)
+            throw new NullParamException();
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Set number of minutes, kept in memory. Must be called before start.
+     *
+     * @param minutes number of minutes. Must be greater than zero.
+     * @throws IllegalArgumentException when minutes is not greater than zero.
+     */
+    @Value("${timeline.minutes:1440}")
+    public void setMinutes(int minutes) {
+        this.ring = new MinuteRing(minutes);
+    }
+
+    /**
+     * Set period of flushing changed minutes to db.
+     *
+     * @param flushIntervalMillis period in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when flushIntervalMillis is not greater than zero.
+     */
+    @Value("${timeline.flushIntervalMillis:10000}")
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        if (flushIntervalMillis < 1)
+            throw new IllegalArgumentException("Flush interval must be greater than zero!");
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Find per-minute throughput in period. Kept minutes are read from memory, older minutes from db.
+     * When period is not specified, last hour is found.
+     *
+     * @param from start of period. Can be null.
+     * @param to   end of period, exclusive. Can be null, then it is now.
+     * @return list of minutes with created or completed orders, ordered by minute.
+     * @throws NoValidStatsPeriodException when end of period is not after start.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderTimelineDTO> findTimeline(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        if (to == null)
+            to = now;
+        if (from == null)
+            from = to.minusMinutes(DEFAULT_PERIOD_MINUTES);
+        if (!to.isAfter(from))
+            throw new NoValidStatsPeriodException(from, to);
+
+        LocalDateTime ringStart = now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(ring.size() - 1);
+        List<OrderTimelineRow> rows = new ArrayList<>();
+        if (from.isBefore(ringStart))
+            rows.addAll(orderRepository.findTimeline(from, to.isBefore(ringStart) ? to : ringStart));
+        if (to.isAfter(ringStart))
+            rows.addAll(ring.find(from.isAfter(ringStart) ? from : ringStart, to));
+
+        return rows.stream()
+                .map(row -> new OrderTimelineDTO(row.minute(),
+                        row.created(),
+                        row.completed(),
+                        row.completed() == 0 ? 0.0 : row.waitSeconds() / row.completed(),
+                        row.queueDepth()))
+                .toList();
+    }
+
+    /**
+     * Count created order in minute of its created time. When transaction is active,
+     * order is counted after commit, so rolled back order is not counted.
+     *
+     * @param order created order.
+     * @throws NullParamException when order or its created time is null.
+     */
+    @Override
+    public void recordCreated(Order order) {
+        if (order == null || order.getCreated() == null)
+            throw new NullParamException();
+
+        LocalDateTime created = order.getCreated();
+        TransactionHooks.afterCommit(() -> ring.recordCreated(created, queueDepth.incrementAndGet()));
+    }
+
+    /**
+     * Count completed order in minute of its completed time. When transaction is active,
+     * order is counted after commit, so rolled back completion is not counted.
+     *
+     * @param order completed order with created and completed time.
+     * @throws NullParamException when order, its created or completed time is null.
+     */
+    @Override
+    public void recordCompleted(Order order) {
+        if (order == null || order.getCreated() == null || order.getCompleted() == null)
+            throw new NullParamException();
+
+        LocalDateTime completed = order.getCompleted();
+        double waitSeconds = Duration.between(order.getCreated(), completed).toNanos() / 1e9;
+        TransactionHooks.afterCommit(() -> ring.recordCompleted(completed, waitSeconds, queueDepth.decrementAndGet()));
+    }
+
+    /**
+     * Write changed minutes to db. Failed minutes are written by next flush.
+     */
+    public void flush() {
+        try {
+            ring.flush(orderRepository::saveTimeline);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Order timeline is not flushed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Count queue, seed kept minutes from db and start periodic flush.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        queueDepth.set(orderRepository.countQueue());
+        LocalDateTime now = LocalDateTime.now();
+        for (OrderTimelineRow row : orderRepository.findTimeline(
+                now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(ring.size() - 1), now.plusMinutes(1)))
+            ring.load(row);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-timeline-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Stop periodic flush and write changed minutes.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after order intake, so orders, written by intake, are counted and flushed.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+}
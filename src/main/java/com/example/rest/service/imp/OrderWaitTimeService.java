@@ -0,0 +1,238 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderLine;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.StatsDimension;
+import com.example.rest.repository.WaitSketchRow;
+import com.example.rest.repository.exception.NoValidStatsDimensionException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.service.IOrderWaitTimeService;
+import com.example.rest.service.timeline.WaitTimeSketches;
+import com.example.rest.servlet.dto.OrderWaitTimeDTO;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percentiles of order wait time from created to completed, per barista and per coffee.
+ * Waits of orders, completed in committed transactions, are recorded to hourly quantile sketches,
+ * so percentiles are updated in real time. Only current and previous hours are kept in memory;
+ * changed sketches are flushed periodically by background thread to sketch table, from which
+ * kept hours are seeded on start and older hours are read. Sketches of period are merged
+ * by adding histograms, so percentiles of any range of hours are exact to sketch's precision.
+ * Sketches are kept by one application instance, which is the only writer of sketch table.
+ */
+@Service
+public class OrderWaitTimeService implements IOrderWaitTimeService, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderWaitTimeService.class);
+    private static final long DEFAULT_PERIOD_HOURS = 24;
+    private static final long KEPT_HOURS = 2;
+
+    private final OrderRepository orderRepository;
+    private final WaitTimeSketches sketches = new WaitTimeSketches();
+
+    private long flushIntervalMillis = 10_000;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    /**
+     * Constructor based on repository.
+     *
+     * @param orderRepository repository, which stores sketches.
+     * @throws NullParamException when orderRepository is null.
+     */
+    @Autowired
+    public OrderWaitTimeService(OrderRepository orderRepository) {
+        if (orderRepository == null)
+            throw new NullParamException();
+        this.orderRepository = orderRepository;
+        sketches.keepFrom(keptFrom(LocalDateTime.now()));
+    }
+
+    /**
+     * Set period of flushing changed sketches to db.
+     *
+     * @param flushIntervalMillis period in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when flushIntervalMillis is not greater than zero.
+     */
+    @Value("${waitTimes.flushIntervalMillis:10000}")
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        if (flushIntervalMillis < 1)
+            throw new IllegalArgumentException("Flush interval must be greater than zero!");
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Find percentiles of wait time of orders, completed in hours of period, for each barista or each coffee.
+     * Start of period is truncated to hour, because sketches are hourly. Kept hours are read from memory,
+     * older hours from db. When period is not specified, last 24 hours are found.
+     *
+     * @param from start of period. Can be null.
+     * @param to   end of period, exclusive. Can be null, then it is now.
+     * @param by   dimension: "barista" or "coffee". Can be null, then it is barista.
+     * @return list of percentiles in seconds ordered by id of barista or coffee.
+     * @throws NoValidStatsPeriodException    when end of period is not after start.
+     * @throws NoValidStatsDimensionException when dimension is unknown.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderWaitTimeDTO> findWaitTimes(LocalDateTime from, LocalDateTime to, String by) {
+        if (to == null)
+            to = LocalDateTime.now();
+        if (from == null)
+            from = to.minusHours(DEFAULT_PERIOD_HOURS);
+        if (!to.isAfter(from))
+            throw new NoValidStatsPeriodException(from, to);
+        from = from.truncatedTo(ChronoUnit.HOURS);
+        StatsDimension parsed = StatsDimension.parse(by);
+        StatsDimension dimension = parsed == null ? StatsDimension.BARISTA : parsed;
+
+        LocalDateTime keptFrom = sketches.keptFrom();
+        Map<Long, Histogram> merged = new TreeMap<>();
+        if (from.isBefore(keptFrom)) {
+            for (WaitSketchRow row : orderRepository.findWaitSketches(dimension, from, to.isBefore(keptFrom) ? to : keptFrom))
+                merged.computeIfAbsent(row.keyId(), id -> WaitTimeSketches.newHistogram())
+                        .add(WaitTimeSketches.decode(row.histogram()));
+        }
+        if (to.isAfter(keptFrom))
+            sketches.mergeInto(dimension, from.isAfter(keptFrom) ? from : keptFrom, to, merged);
+
+        return merged.entrySet().stream()
+                .map(entry -> toDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Record wait time of completed order to hour of its completed time, once for its barista
+     * and once for each distinct coffee of its lines. Barista and lines are read, when method is called.
+     * When transaction is active, wait is recorded after commit, so rolled back completion is not recorded.
+     *
+     * @param order completed order with created and completed time.
+     * @throws NullParamException when order, its created or completed time is null.
+     */
+    @Override
+    public void recordCompleted(Order order) {
+        if (order == null || order.getCreated() == null || order.getCompleted() == null)
+            throw new NullParamException();
+
+        LocalDateTime completed = order.getCompleted();
+        long waitMillis = Duration.between(order.getCreated(), completed).toMillis();
+        Long baristaId = order.getBarista() == null ? null : order.getBarista().getId();
+        Set<Long> coffeeIds = new LinkedHashSet<>();
+        for (OrderLine line : order.getLines())
+            if (line.getCoffeeId() != null)
+                coffeeIds.add(line.getCoffeeId());
+
+        TransactionHooks.afterCommit(() -> {
+            if (baristaId != null)
+                sketches.record(completed, StatsDimension.BARISTA, baristaId, waitMillis);
+            for (Long coffeeId : coffeeIds)
+                sketches.record(completed, StatsDimension.COFFEE, coffeeId, waitMillis);
+        });
+    }
+
+    /**
+     * Write changed sketches to db and drop flushed sketches of hours, which are not kept anymore.
+     * Failed sketches are written by next flush.
+     */
+    public void flush() {
+        sketches.keepFrom(keptFrom(LocalDateTime.now()));
+        try {
+            sketches.flush(orderRepository::saveWaitSketches);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Order wait time sketches are not flushed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Seed kept hours from db and start periodic flush.
+     */
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+
+        LocalDateTime now = LocalDateTime.now();
+        sketches.keepFrom(keptFrom(now));
+        for (StatsDimension dimension : StatsDimension.values())
+            for (WaitSketchRow row : orderRepository.findWaitSketches(dimension, sketches.keptFrom(), now.plusHours(1)))
+                sketches.load(row);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-wait-time-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Stop periodic flush and write changed sketches.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after order intake, like order timeline.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    private static LocalDateTime keptFrom(LocalDateTime now) {
+        return now.truncatedTo(ChronoUnit.HOURS).minusHours(KEPT_HOURS - 1);
+    }
+
+    private static OrderWaitTimeDTO toDto(Long id, Histogram histogram) {
+        return new OrderWaitTimeDTO(id,
+                histogram.getTotalCount(),
+                toSeconds(histogram.getValueAtPercentile(50.0)),
+                toSeconds(histogram.getValueAtPercentile(95.0)),
+                toSeconds(histogram.getValueAtPercentile(99.0)),
+                toSeconds(histogram.getMaxValue()));
+    }
+
+    private static Double toSeconds(long millis) {
+        return millis / 1000.0;
+    }
+}
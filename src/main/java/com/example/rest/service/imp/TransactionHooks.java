@@ -0,0 +1,36 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hooks of in-memory services into transactions, so their state is changed only by committed changes.
+ */
+final class TransactionHooks {
+    private TransactionHooks() {
+    }
+
+    /**
+     * Run action after current transaction is committed, or at once, when no transaction is active.
+     * Action is not run, when transaction is rolled back.
+     *
+     * @param action action to run.
+     * @throws NullParamException when action is null.
+     */
+    static void afterCommit(Runnable action) {
+        if (action == null)
+            throw new NullParamException();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
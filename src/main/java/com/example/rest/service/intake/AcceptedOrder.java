@@ -0,0 +1,18 @@
+package com.example.rest.service.intake;
+
+import com.example.rest.service.dto.IOrderCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order, accepted by intake and not yet written to db. Id is taken from pre-allocated block
+ * of order sequence, created time is time of acceptance.
+ */
+public record AcceptedOrder(
+        Long id,
+        Long baristaId,
+        List<Long> coffeeIdList,
+        LocalDateTime created)
+        implements IOrderCreateDTO {
+}
@@ -0,0 +1,49 @@
+package com.example.rest.service.intake;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+
+/**
+ * Dead letters in local text file, one order per line: "id, barista id, coffee ids, created, reason",
+ * separated by tabs, coffee ids are separated by commas. Line is forced to disk before add returns.
+ * Orders are dropped rarely, so file is opened for each order.
+ */
+public class FileOrderDeadLetters implements OrderDeadLetters {
+    private final Path file;
+
+    /**
+     * Create dead letters in file.
+     *
+     * @param file file of dead letters. It and its directory are created on first add, when they don't exist.
+     */
+    public FileOrderDeadLetters(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void add(AcceptedOrder order, String reason) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null)
+            Files.createDirectories(directory);
+
+        String line = String.join("\t",
+                String.valueOf(order.id()),
+                String.valueOf(order.baristaId()),
+                order.coffeeIdList().stream().map(String::valueOf).collect(Collectors.joining(",")),
+                order.created().toString(),
+                String.valueOf(reason).replaceAll("\\s+", " ")) + "\n";
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.rest.service.intake;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal in memory-mapped segment files of fixed size. Segment is named by its sequence
+ * number, when it is full, next segment is created. Segment is deleted, when all orders in it and
+ * in older segments are written.
+ * <p>
+ * Record is "length, crc32c, type, payload": created record contains order, written record contains
+ * ids of written orders. Replay reads segments in order and stops reading segment at first record
+ * with zero length, wrong length or wrong checksum, so record, torn by crash, is dropped and overwritten
+ * by next append.
+ * <p>
+ * Records are in page cache as soon as they are appended, so they survive crash of process.
+ * To survive crash of os, they are forced to disk after each record or every fsync interval
+ * by background thread, depending on {@link FsyncPolicy}. Records are forced outside of journal lock,
+ * so appends of other threads are not blocked by fsync, and they are forced together by next fsync.
+ */
+public class MappedOrderJournal implements OrderJournal {
+    /**
+     * When appended records are forced to disk.
+     */
+    public enum FsyncPolicy {
+        /**
+         * After each record, before append returns. Records, appended concurrently, are forced
+         * by one fsync (group commit), so throughput grows with number of appending threads.
+         */
+        EVERY_WRITE,
+        /**
+         * Every fsync interval by background thread. Records of last interval can be lost by crash of os.
+         */
+        INTERVAL
+    }
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final byte CREATED = 1;
+    private static final byte WRITTEN = 2;
+    private static final int CREATED_SIZE = 1 + 3 * Long.BYTES + 2 * Integer.BYTES;
+    private static final int WRITTEN_SIZE = 1 + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Segment> pending = new HashMap<>();
+    private final CRC32C checksum = new CRC32C();
+    private final Object forceLock = new Object();
+
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.EVERY_WRITE;
+    private long fsyncIntervalMillis = 10;
+
+    private Segment current;
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Create journal in directory with segments of 64 MB.
+     *
+     * @param directory directory of segment files. Is created on replay, when it doesn't exist.
+     */
+    public MappedOrderJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Create journal in directory.
+     *
+     * @param directory   directory of segment files. Is created on replay, when it doesn't exist.
+     * @param segmentSize size of segment file in bytes. Must be at least 1 KB.
+     * @throws IllegalArgumentException when segmentSize is less than 1 KB.
+     */
+    public MappedOrderJournal(Path directory, int segmentSize) {
+        if (segmentSize < 1024)
+            throw new IllegalArgumentException("Segment size can't be less than 1024 bytes!");
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Set when records are forced to disk. Must be set before replay.
+     *
+     * @param fsyncPolicy fsync policy. Can't be null.
+     * @throws IllegalArgumentException when fsyncPolicy is null.
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        if (fsyncPolicy == null)
+            throw new IllegalArgumentException("Fsync policy can't be null!");
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Set interval of forcing records to disk for {@link FsyncPolicy#INTERVAL} policy. Must be set before replay.
+     *
+     * @param fsyncIntervalMillis interval in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when fsyncIntervalMillis is not greater than zero.
+     */
+    public void setFsyncIntervalMillis(long fsyncIntervalMillis) {
+        if (fsyncIntervalMillis < 1)
+            throw new IllegalArgumentException("Fsync interval must be greater than zero!");
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    @Override
+    public synchronized List<AcceptedOrder> replay() throws IOException {
+        close();
+        Files.createDirectories(directory);
+
+        Map<Long, AcceptedOrder> orders = new LinkedHashMap<>();
+        for (Path path : listSegments()) {
+            Segment segment = Segment.open(path, parseIndex(path), 0);
+            segments.add(segment);
+            readRecords(segment, orders);
+        }
+
+        if (segments.isEmpty()) {
+            current = Segment.open(segmentPath(0), 0, segmentSize);
+            segments.add(current);
+        } else {
+            current = segments.getLast();
+            current.clearTail();
+        }
+        deleteWrittenSegments();
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    @Override
+    public void append(AcceptedOrder order) throws IOException {
+        Segment segment;
+        int end;
+        synchronized (this) {
+            List<Long> coffeeIdList = order.coffeeIdList();
+            int size = CREATED_SIZE + coffeeIdList.size() * Long.BYTES;
+            ByteBuffer buffer = startRecord(size);
+
+            buffer.put(CREATED);
+            buffer.putLong(order.id());
+            buffer.putLong(order.baristaId());
+            buffer.putLong(order.created().toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(order.created().getNano());
+            buffer.putInt(coffeeIdList.size());
+            for (Long coffeeId : coffeeIdList)
+                buffer.putLong(coffeeId);
+
+            finishRecord(buffer, size);
+            pending.put(order.id(), current);
+            current.pendingCount++;
+            segment = current;
+            end = buffer.position();
+        }
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE)
+            force(segment, end);
+    }
+
+    @Override
+    public void markWritten(Collection<Long> ids) throws IOException {
+        if (ids.isEmpty())
+            return;
+
+        Segment segment;
+        int end;
+        synchronized (this) {
+            writeMarks(ids);
+            segment = current;
+            end = current.buffer.position();
+        }
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE)
+            force(segment, end);
+    }
+
+    private void writeMarks(Collection<Long> ids) throws IOException {
+        int maxIds = (segmentSize - HEADER_SIZE - WRITTEN_SIZE) / Long.BYTES;
+        Iterator<Long> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            List<Long> chunk = new ArrayList<>();
+            while (iterator.hasNext() && chunk.size() < maxIds)
+                chunk.add(iterator.next());
+
+            int size = WRITTEN_SIZE + chunk.size() * Long.BYTES;
+            ByteBuffer buffer = startRecord(size);
+            buffer.put(WRITTEN);
+            buffer.putInt(chunk.size());
+            for (Long id : chunk)
+                buffer.putLong(id);
+            finishRecord(buffer, size);
+        }
+
+        for (Long id : ids) {
+            Segment segment = pending.remove(id);
+            if (segment != null)
+                segment.pendingCount--;
+        }
+        deleteWrittenSegments();
+    }
+
+    /**
+     * Number of appended orders, that are not marked written.
+     *
+     * @return number of not written orders.
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Number of segment files.
+     *
+     * @return number of segments.
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Force records of current segment to disk. Called by background thread for
+     * {@link FsyncPolicy#INTERVAL} policy. Appends are not blocked while records are forced.
+     */
+    public void flush() {
+        Segment segment;
+        synchronized (this) {
+            segment = current;
+        }
+        if (segment != null)
+            force(segment, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Force records of segment to disk, unless they are already forced up to end. All records,
+     * appended up to now, are forced, so threads, waiting for lock of force, find their records forced.
+     */
+    private void force(Segment segment, int end) {
+        synchronized (forceLock) {
+            int from;
+            int to;
+            synchronized (this) {
+                if (segment.forced >= end)
+                    return;
+                from = segment.forced;
+                to = segment.buffer.position();
+            }
+            if (to > from) {
+                segment.buffer.force(from, to - from);
+                synchronized (this) {
+                    segment.forced = Math.max(segment.forced, to);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (flusher != null)
+            flusher.shutdownNow();
+        flusher = null;
+
+        for (Segment segment : segments) {
+            if (segment == current)
+                segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+        pending.clear();
+        current = null;
+    }
+
+    private ByteBuffer startRecord(int size) throws IOException {
+        if (current == null)
+            throw new IllegalStateException("Journal is not opened by replay!");
+        if (HEADER_SIZE + size > segmentSize)
+            throw new IOException(String.format("Record of %d bytes is larger than segment!", size));
+
+        if (current.buffer.remaining() < HEADER_SIZE + size) {
+            current.buffer.force();
+            current.forced = current.buffer.position();
+            current = Segment.open(segmentPath(current.index + 1), current.index + 1, segmentSize);
+            segments.add(current);
+        }
+
+        ByteBuffer buffer = current.buffer;
+        buffer.position(buffer.position() + HEADER_SIZE);
+        return buffer;
+    }
+
+    private void finishRecord(ByteBuffer buffer, int size) {
+        int start = buffer.position() - size - HEADER_SIZE;
+        checksum.reset();
+        checksum.update(buffer.slice(start + HEADER_SIZE, size));
+        buffer.putInt(start + Integer.BYTES, (int) checksum.getValue());
+        buffer.putInt(start, size);
+    }
+
+    private void readRecords(Segment segment, Map<Long, AcceptedOrder> orders) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.limit()) {
+            int size = buffer.getInt(position);
+            if (size <= 0 || size > buffer.limit() - position - HEADER_SIZE)
+                break;
+            ByteBuffer record = buffer.slice(position + HEADER_SIZE, size);
+            checksum.reset();
+            checksum.update(record.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES) || !readRecord(record, segment, orders))
+                break;
+            position += HEADER_SIZE + size;
+        }
+        buffer.position(position);
+        segment.forced = position;
+    }
+
+    private boolean readRecord(ByteBuffer record, Segment segment, Map<Long, AcceptedOrder> orders) {
+        try {
+            byte type = record.get();
+            if (type == CREATED) {
+                long id = record.getLong();
+                long baristaId = record.getLong();
+                LocalDateTime created = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+                List<Long> coffeeIdList = new ArrayList<>();
+                for (int count = record.getInt(); count > 0; count--)
+                    coffeeIdList.add(record.getLong());
+
+                orders.put(id, new AcceptedOrder(id, baristaId, List.copyOf(coffeeIdList), created));
+                pending.put(id, segment);
+                segment.pendingCount++;
+                return true;
+            }
+            if (type == WRITTEN) {
+                for (int count = record.getInt(); count > 0; count--) {
+                    long id = record.getLong();
+                    orders.remove(id);
+                    Segment created = pending.remove(id);
+                    if (created != null)
+                        created.pendingCount--;
+                }
+                return true;
+            }
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void deleteWrittenSegments() throws IOException {
+        while (segments.size() > 1 && segments.getFirst().pendingCount == 0) {
+            Segment segment = segments.removeFirst();
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(MappedOrderJournal::parseIndex))
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long parseIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int pendingCount;
+        private int forced;
+
+        private Segment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Open segment file and map it.
+         *
+         * @param path  segment file.
+         * @param index sequence number of segment.
+         * @param size  size of created file, 0 to map existing file with its size.
+         */
+        private static Segment open(Path path, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long mappedSize = size > 0 ? size : channel.size();
+            return new Segment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        }
+
+        /**
+         * Zero bytes after last valid record, so rest of torn record is not read after next append.
+         * Length of record is written last, so torn record can have zero length and not empty payload.
+         */
+        private void clearTail() {
+            boolean cleared = false;
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                    cleared = true;
+                }
+            }
+            if (cleared)
+                buffer.force();
+        }
+    }
+}
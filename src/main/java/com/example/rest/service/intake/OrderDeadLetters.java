@@ -0,0 +1,19 @@
+package com.example.rest.service.intake;
+
+import java.io.IOException;
+
+/**
+ * Durable store of accepted orders, which can't be written to db by reason other than unavailable db,
+ * for example, when their barista or coffee is deleted after acceptance. Client got 202 for them,
+ * so they are kept for manual processing instead of being only logged.
+ */
+public interface OrderDeadLetters {
+    /**
+     * Add order, which can't be written. Order survives crash of os, when method returns.
+     *
+     * @param order  accepted order.
+     * @param reason reason, why order can't be written.
+     * @throws IOException when order can't be added.
+     */
+    void add(AcceptedOrder order, String reason) throws IOException;
+}
@@ -0,0 +1,397 @@
+package com.example.rest.service.intake;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.IOrderService;
+import com.example.rest.service.dto.IOrderCreateDTO;
+import com.example.rest.service.exception.IntakeBufferFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind intake of new orders. Accepted order is validated, gets id from pre-allocated block
+ * of order sequence, is appended to journal and put to bounded buffer, from which background writer
+ * inserts orders to db by batches, each in one transaction.
+ * <p>
+ * Buffer holds accepted orders until they are written, so when it is full, submit waits
+ * for offer timeout and then is rejected. When db is unavailable, batch is retried with backoff;
+ * batch, that fails by other reason, is written order by order and failed orders are moved to dead letters.
+ * Stop waits for submits, which passed check of running, so their orders are written before stop returns.
+ * Orders, which are not written before stop or crash, stay in journal and are written on next start
+ * by background writer before new orders, so start doesn't wait for db.
+ */
+public class OrderIntake implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderIntake.class);
+    private static final long POLL_MILLIS = 100;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    private final IOrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderJournal journal;
+    private final int capacity;
+    private final int batchSize;
+    private final int allocationSize;
+    private final BlockingQueue<AcceptedOrder> buffer;
+    private final Semaphore permits;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    private boolean enabled;
+    private long offerTimeoutMillis = 100;
+    private OrderDeadLetters deadLetters;
+
+    private long nextId;
+    private long idBlockEnd;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Create intake.
+     *
+     * @param orderService    service, which validates and writes orders.
+     * @param orderRepository repository, which allocates blocks of ids.
+     * @param journal         journal of accepted orders.
+     * @param capacity        maximum number of accepted, but not written orders. Must be greater than zero.
+     * @param batchSize       maximum number of orders, written in one transaction. Must be greater than zero.
+     * @param allocationSize  size of id block, equal to increment of order sequence. Must be greater than zero.
+     * @throws NullParamException       when orderService, orderRepository or journal is null.
+     * @throws IllegalArgumentException when capacity, batchSize or allocationSize is not greater than zero.
+     */
+    public OrderIntake(IOrderService orderService,
+                       OrderRepository orderRepository,
+                       OrderJournal journal,
+                       int capacity,
+                       int batchSize,
+                       int allocationSize) {
+        if (orderService == null || orderRepository == null || journal == null)
+            throw new NullParamException();
+        if (capacity < 1 || batchSize < 1 || allocationSize < 1)
+            throw new IllegalArgumentException("Capacity, batch size and allocation size must be greater than zero!");
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.journal = journal;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.allocationSize = allocationSize;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Set whether intake is used. Disabled intake is not started and orders are created synchronously.
+     *
+     * @param enabled true to accept orders by intake.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set time, for which submit waits for free place in full buffer.
+     *
+     * @param offerTimeoutMillis timeout in milliseconds. Can't be less than zero.
+     * @throws IllegalArgumentException when offerTimeoutMillis is less than zero.
+     */
+    public void setOfferTimeoutMillis(long offerTimeoutMillis) {
+        if (offerTimeoutMillis < 0)
+            throw new IllegalArgumentException("Offer timeout can't be less than zero!");
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    /**
+     * Set store of orders, which can't be written to db by reason other than unavailable db.
+     *
+     * @param deadLetters dead letters. When not set, such orders are only logged.
+     */
+    public void setDeadLetters(OrderDeadLetters deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Validate order, assign id and created time and put it to buffer. Order is journaled,
+     * when method returns, and is written to db later.
+     *
+     * @param orderDTO created order.
+     * @return accepted order with id.
+     * @throws NullParamException        when orderDTO is null.
+     * @throws IllegalStateException     when intake is not running.
+     * @throws IntakeBufferFullException when buffer is still full after offer timeout.
+     * @throws UncheckedIOException      when order can't be journaled.
+     */
+    public AcceptedOrder submit(IOrderCreateDTO orderDTO) {
+        if (orderDTO == null)
+            throw new NullParamException();
+        if (!running)
+            throw new IllegalStateException("Order intake is not running!");
+
+        orderService.validate(orderDTO);
+
+        acceptLock.readLock().lock();
+        try {
+            if (!running)
+                throw new IllegalStateException("Order intake is not running!");
+            return accept(orderDTO);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of accepted orders, which are not written yet.
+     *
+     * @return number of orders in buffer and in writing batch.
+     */
+    public int getPendingCount() {
+        return capacity - permits.availablePermits();
+    }
+
+    /**
+     * Number of orders, written to db since start.
+     *
+     * @return number of written orders.
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Number of accepted orders, which could not be written and were moved to dead letters.
+     *
+     * @return number of dropped orders.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Read orders, left in journal by previous run, and start background writer, which writes them
+     * before buffered orders. Start doesn't wait for db, so unavailable db doesn't block application start.
+     * Does nothing, when intake is disabled.
+     *
+     * @throws UncheckedIOException when journal can't be read.
+     */
+    @Override
+    public synchronized void start() {
+        if (!enabled || running)
+            return;
+
+        List<AcceptedOrder> replayed;
+        try {
+            replayed = journal.replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        running = true;
+        writer = new Thread(() -> {
+            replay(replayed);
+            drain();
+        }, "order-intake-writer");
+        writer.start();
+    }
+
+    /**
+     * Stop accepting orders, wait for submits, which are appending orders, write buffered orders
+     * and close journal.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.warn("Order intake journal is not closed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private AcceptedOrder accept(IOrderCreateDTO orderDTO) {
+        try {
+            if (!permits.tryAcquire(offerTimeoutMillis, TimeUnit.MILLISECONDS))
+                throw new IntakeBufferFullException(capacity);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntakeBufferFullException(capacity);
+        }
+
+        try {
+            AcceptedOrder order = new AcceptedOrder(allocateId(),
+                    orderDTO.baristaId(),
+                    List.copyOf(orderDTO.coffeeIdList()),
+                    LocalDateTime.now());
+            journal.append(order);
+            buffer.add(order);
+            return order;
+        } catch (IOException e) {
+            permits.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private synchronized long allocateId() {
+        if (nextId == idBlockEnd) {
+            nextId = orderRepository.nextIdBlock();
+            idBlockEnd = nextId + allocationSize;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Write journaled orders by batches. They don't hold buffer's permits, so new orders are accepted meanwhile.
+     */
+    private void replay(List<AcceptedOrder> replayed) {
+        for (int from = 0; from < replayed.size(); from += batchSize) {
+            if (!running) {
+                LOGGER.warn("Order intake stopped with {} journaled orders left in journal", replayed.size() - from);
+                return;
+            }
+            List<AcceptedOrder> batch = replayed.subList(from, Math.min(from + batchSize, replayed.size()));
+            write(new ArrayList<>(batch), false);
+        }
+        if (!replayed.isEmpty())
+            LOGGER.info("Order intake replayed {} journaled orders", replayed.size());
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            AcceptedOrder first;
+            try {
+                first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null)
+                continue;
+
+            List<AcceptedOrder> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            buffer.drainTo(batch, batchSize - 1);
+            write(batch, true);
+        }
+    }
+
+    private void write(List<AcceptedOrder> batch, boolean buffered) {
+        boolean created;
+        try {
+            if (!createWithRetry(batch)) {
+                LOGGER.warn("Order intake stopped with {} orders left in journal", batch.size());
+                if (buffered)
+                    permits.release(batch.size());
+                return;
+            }
+            created = true;
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                for (AcceptedOrder order : batch)
+                    write(List.of(order), buffered);
+                return;
+            }
+            if (!moveToDeadLetters(batch.get(0), e)) {
+                if (buffered)
+                    permits.release();
+                return;
+            }
+            created = false;
+        }
+
+        try {
+            journal.markWritten(batch.stream().map(AcceptedOrder::id).toList());
+        } catch (IOException e) {
+            LOGGER.warn("Written orders are not marked in journal and will be skipped on replay: {}", e.getMessage(), e);
+        }
+        if (buffered)
+            permits.release(batch.size());
+        if (created)
+            written.add(batch.size());
+        else
+            dropped.increment();
+    }
+
+    /**
+     * Move order, which can't be written, to dead letters. When it can't be moved, it is left in journal
+     * and is written again on next start.
+     *
+     * @return false, when order is left in journal.
+     */
+    private boolean moveToDeadLetters(AcceptedOrder order, RuntimeException e) {
+        if (deadLetters == null) {
+            LOGGER.error("Accepted order {} is dropped: {}", order.id(), e.getMessage(), e);
+            return true;
+        }
+        try {
+            deadLetters.add(order, e.getMessage());
+            LOGGER.error("Accepted order {} is moved to dead letters: {}", order.id(), e.getMessage(), e);
+            return true;
+        } catch (IOException deadLettersException) {
+            LOGGER.error("Accepted order {} is not written and left in journal: {}, dead letters failed: {}",
+                    order.id(), e.getMessage(), deadLettersException.getMessage(), deadLettersException);
+            return false;
+        }
+    }
+
+    private boolean createWithRetry(List<AcceptedOrder> batch) {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                orderService.createAccepted(batch);
+                return true;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                if (!running)
+                    return false;
+                LOGGER.warn("Order intake batch is not written, retry in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+}
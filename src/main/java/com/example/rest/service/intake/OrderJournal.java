@@ -0,0 +1,39 @@
+package com.example.rest.service.intake;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable log of accepted orders. Order is appended before it is acknowledged to client
+ * and marked written after it is committed to db, so orders, that are accepted but not written
+ * before crash, are returned by replay on next start.
+ */
+public interface OrderJournal extends Closeable {
+    /**
+     * Open journal and read orders, that are appended but not marked written.
+     * Must be called before other methods.
+     *
+     * @return not written orders in order of appending.
+     * @throws IOException when journal can't be read.
+     */
+    List<AcceptedOrder> replay() throws IOException;
+
+    /**
+     * Append accepted order. Order survives crash of process, when method returns,
+     * and crash of os, when it is forced to disk by journal's fsync policy.
+     *
+     * @param order accepted order.
+     * @throws IOException when order can't be written.
+     */
+    void append(AcceptedOrder order) throws IOException;
+
+    /**
+     * Mark orders written to db, so they are not replayed.
+     *
+     * @param ids ids of written orders.
+     * @throws IOException when mark can't be written.
+     */
+    void markWritten(Collection<Long> ids) throws IOException;
+}
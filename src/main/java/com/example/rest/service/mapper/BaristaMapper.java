@@ -2,7 +2,10 @@ package com.example.rest.service.mapper;
 
 import com.example.rest.entity.Barista;
 import com.example.rest.entity.Order;
+import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.NestedOrderRow;
 import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaCreateDTO;
 import com.example.rest.service.dto.IBaristaUpdateDTO;
 import com.example.rest.servlet.dto.BaristaNoRefDTO;
@@ -22,6 +25,8 @@ import java.util.List;
         imports = {Order.class, List.class})
 @Component
 public abstract class BaristaMapper {
+    private static final String ORDERS_LINK = "/baristas/%d/orders?after=%d";
+
     @Autowired
     protected EntityManager entityManager;
 
@@ -38,10 +43,47 @@ public abstract class BaristaMapper {
     public abstract Barista updateDtoToEntity(IBaristaUpdateDTO baristaUpdateDTO);
 
     @Mapping(target = "orders", expression = "java(parseOrderIdList(barista))")
+    @Mapping(target = "ordersTotal", expression = "java((long) barista.getOrderList().size())")
+    @Mapping(target = "ordersNext", ignore = true)
     public abstract BaristaPublicDTO entityToDto(Barista barista);
 
     public abstract BaristaNoRefDTO entityToNoRefDto(Barista barista);
 
+    /**
+     * Map barista to public dto with requested fields only.
+     * Order list is not touched, when 'orders' field is not requested.
+     *
+     * @param barista mapped barista.
+     * @param fields  requested fields.
+     * @return public dto, not requested collection is null.
+     */
+    public BaristaPublicDTO entityToDto(Barista barista, FieldSet fields) {
+        if (fields.contains("orders"))
+            return entityToDto(barista);
+
+        return new BaristaPublicDTO(barista.getId(), barista.getFullName(), barista.getTipSize(), null);
+    }
+
+    /**
+     * Map barista to public dto with bounded order list.
+     * Link to next orders is set, when barista has more orders than fetched.
+     *
+     * @param barista     mapped barista, order list is not touched.
+     * @param firstOrders first orders of barista, fetched by {@link BaristaRepository#findFirstOrders}.
+     * @return public dto with first orders, total count of orders and link to next orders.
+     */
+    public BaristaPublicDTO entityToDto(Barista barista, List<NestedOrderRow> firstOrders) {
+        List<OrderNoRefDTO> orders = firstOrders.stream()
+                .map(OrderNoRefDTO::new)
+                .toList();
+        long total = firstOrders.isEmpty() ? 0 : firstOrders.get(0).total();
+        String next = total > orders.size()
+                ? String.format(ORDERS_LINK, barista.getId(), orders.get(orders.size() - 1).id())
+                : null;
+
+        return new BaristaPublicDTO(barista.getId(), barista.getFullName(), barista.getTipSize(), orders, total, next);
+    }
+
     protected List<OrderNoRefDTO> parseOrderIdList(Barista barista) {
         entityManager.merge(barista);
         List<Order> orderList = barista.getOrderList();
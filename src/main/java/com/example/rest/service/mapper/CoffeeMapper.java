@@ -3,7 +3,10 @@ package com.example.rest.service.mapper;
 import com.example.rest.entity.Coffee;
 import com.example.rest.entity.Order;
 import com.example.rest.entity.exception.OrderNotFoundException;
+import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.NestedOrderRow;
 import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.ICoffeeCreateDTO;
 import com.example.rest.service.dto.ICoffeeUpdateDTO;
 import com.example.rest.service.exception.DuplicatedElementsException;
@@ -22,6 +25,8 @@ import java.util.List;
         imports = {Order.class, List.class})
 @Component
 public abstract class CoffeeMapper {
+    private static final String ORDERS_LINK = "/coffees/%d/orders?after=%d";
+
     @Autowired
     protected OrderRepository orderRepository;
 
@@ -37,10 +42,47 @@ public abstract class CoffeeMapper {
     public abstract Coffee updateDtoToEntity(ICoffeeUpdateDTO coffeeUpdateDTO);
 
     @Mapping(target = "orders", expression = "java(parseOrderDtoList(coffee.getOrderList()))")
+    @Mapping(target = "ordersTotal", expression = "java((long) coffee.getOrderList().size())")
+    @Mapping(target = "ordersNext", ignore = true)
     public abstract CoffeePublicDTO entityToDto(Coffee coffee);
 
     public abstract CoffeeNoRefDTO entityToNoRefDto(Coffee coffee);
 
+    /**
+     * Map coffee to public dto with requested fields only.
+     * Order list is not touched, when 'orders' field is not requested.
+     *
+     * @param coffee mapped coffee.
+     * @param fields requested fields.
+     * @return public dto, not requested collection is null.
+     */
+    public CoffeePublicDTO entityToDto(Coffee coffee, FieldSet fields) {
+        if (fields.contains("orders"))
+            return entityToDto(coffee);
+
+        return new CoffeePublicDTO(coffee.getId(), coffee.getName(), coffee.getPrice(), null);
+    }
+
+    /**
+     * Map coffee to public dto with bounded order list.
+     * Link to next orders is set, when coffee has more orders than fetched.
+     *
+     * @param coffee      mapped coffee, order list is not touched.
+     * @param firstOrders first orders of coffee, fetched by {@link CoffeeRepository#findFirstOrders}.
+     * @return public dto with first orders, total count of orders and link to next orders.
+     */
+    public CoffeePublicDTO entityToDto(Coffee coffee, List<NestedOrderRow> firstOrders) {
+        List<OrderNoRefDTO> orders = firstOrders.stream()
+                .map(OrderNoRefDTO::new)
+                .toList();
+        long total = firstOrders.isEmpty() ? 0 : firstOrders.get(0).total();
+        String next = total > orders.size()
+                ? String.format(ORDERS_LINK, coffee.getId(), orders.get(orders.size() - 1).id())
+                : null;
+
+        return new CoffeePublicDTO(coffee.getId(), coffee.getName(), coffee.getPrice(), orders, total, next);
+    }
+
     protected List<Order> parseOrders(List<Long> orderIdList) {
         if (orderIdList.isEmpty())
             return List.of();
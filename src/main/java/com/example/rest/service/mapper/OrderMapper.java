@@ -3,23 +3,30 @@ package com.example.rest.service.mapper;
 import com.example.rest.entity.Barista;
 import com.example.rest.entity.Coffee;
 import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderLine;
 import com.example.rest.entity.exception.BaristaNotFoundException;
 import com.example.rest.entity.exception.CoffeeNotFoundException;
 import com.example.rest.repository.BaristaRepository;
 import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IOrderCreateDTO;
 import com.example.rest.service.dto.IOrderUpdateDTO;
-import com.example.rest.service.exception.DuplicatedElementsException;
+import com.example.rest.servlet.dto.CoffeeNoRefDTO;
 import com.example.rest.servlet.dto.OrderPublicDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring",
-        uses = {CoffeeRepository.class, BaristaRepository.class, CoffeeMapper.class, BaristaMapper.class},
+        uses = {CoffeeRepository.class, BaristaRepository.class, BaristaMapper.class},
         imports = {Coffee.class, Barista.class, BaristaNotFoundException.class, List.class}
 )
 @Component
@@ -27,46 +34,91 @@ public abstract class OrderMapper {
     @Autowired
     protected CoffeeRepository coffeeRepository;
     @Autowired
-    protected CoffeeMapper coffeeMapper;
-    @Autowired
     protected BaristaRepository baristaRepository;
     @Autowired
     protected BaristaMapper baristaMapper;
 
     @Mapping(target = "coffeeList", expression = "java(parseCoffees(orderCreateDTO.coffeeIdList()))")
-    @Mapping(target = "barista", expression = "java(baristaRepository.findById(orderCreateDTO.baristaId()).orElseThrow(()-> new BaristaNotFoundException(orderCreateDTO.baristaId())))")
+    @Mapping(target = "lines", ignore = true)
+    @Mapping(target = "barista", expression = "java(baristaRepository.findByIdWithoutOrders(orderCreateDTO.baristaId()).orElseThrow(()-> new BaristaNotFoundException(orderCreateDTO.baristaId())))")
     public abstract Order createDtoToEntity(IOrderCreateDTO orderCreateDTO);
 
     @Mapping(target = "id", expression = "java(orderUpdateDTO.id())")
     @Mapping(target = "coffeeList", expression = "java(parseCoffees(orderUpdateDTO.coffeeIdList()))")
-    @Mapping(target = "barista", expression = "java(baristaRepository.findById(orderUpdateDTO.baristaId()).orElseThrow(()-> new BaristaNotFoundException(orderUpdateDTO.baristaId())))")
+    @Mapping(target = "lines", ignore = true)
+    @Mapping(target = "barista", expression = "java(baristaRepository.findByIdWithoutOrders(orderUpdateDTO.baristaId()).orElseThrow(()-> new BaristaNotFoundException(orderUpdateDTO.baristaId())))")
     @Mapping(target = "created", expression = "java(orderUpdateDTO.created())")
     @Mapping(target = "completed", expression = "java(orderUpdateDTO.completed())")
     @Mapping(target = "price", expression = "java(orderUpdateDTO.price())")
     public abstract Order updateDtoToEntity(IOrderUpdateDTO orderUpdateDTO);
 
-    @Mapping(target = "coffees", expression = "java(order.getCoffeeList().stream().map(coffeeMapper::entityToNoRefDto).toList())")
+    @Mapping(target = "coffees", expression = "java(parseLineDtoList(order.getLines()))")
     @Mapping(target = "baristaId", expression = "java(baristaMapper.entityToNoRefDto(order.getBarista()))")
     public abstract OrderPublicDTO entityToDto(Order order);
 
+    /**
+     * Map order to public dto with requested fields only.
+     * Coffee list is not touched, when 'coffees' field is not requested.
+     *
+     * @param order  mapped order.
+     * @param fields requested fields.
+     * @return public dto, not requested collection is null.
+     */
+    public OrderPublicDTO entityToDto(Order order, FieldSet fields) {
+        if (fields.contains("coffees"))
+            return entityToDto(order);
+
+        return new OrderPublicDTO(order.getId(),
+                baristaMapper.entityToNoRefDto(order.getBarista()),
+                order.getCreated(),
+                order.getCompleted(),
+                order.getPrice(),
+                null);
+    }
+
+    /**
+     * Map order lines to coffee dto's by snapshot of coffee, that is stored in lines.
+     * Coffee is repeated as many times as it is ordered, coffee entity is not loaded.
+     *
+     * @param lines lines of order.
+     * @return coffee dto's with unit price of lines.
+     */
+    protected List<CoffeeNoRefDTO> parseLineDtoList(List<OrderLine> lines) {
+        return lines.stream()
+                .flatMap(line -> Collections.nCopies(line.getQuantity(), new CoffeeNoRefDTO(line)).stream())
+                .toList();
+    }
+
+    /**
+     * Find coffee by ids. Repeated id means that coffee is ordered several times,
+     * each coffee is fetched once.
+     *
+     * @param coffeeIdList ids of ordered coffee, can contain repeated ids.
+     * @return coffee list in order of ids, repeated as many times as id.
+     * @throws CoffeeNotFoundException when some of coffee is not found.
+     */
     protected List<Coffee> parseCoffees(List<Long> coffeeIdList) {
         if (coffeeIdList.isEmpty())
             return List.of();
 
-        long uniqueElements = coffeeIdList.stream().distinct().count();
-        if (coffeeIdList.size() != uniqueElements)
-            throw new DuplicatedElementsException();
+        List<Long> uniqueIdList = coffeeIdList.stream().distinct().toList();
 
-        List<Coffee> existingCoffeeList = coffeeRepository.findAllById(coffeeIdList);
+        List<Coffee> existingCoffeeList = coffeeRepository.findAllByIdWithoutOrders(uniqueIdList);
         if (existingCoffeeList.isEmpty())
-            throw new CoffeeNotFoundException(uniqueElements);
+            throw new CoffeeNotFoundException(uniqueIdList);
 
-        if (existingCoffeeList.size() != uniqueElements) {
+        if (existingCoffeeList.size() != uniqueIdList.size()) {
             List<Long> existingIds = existingCoffeeList.stream().map(Coffee::getId).toList();
-            coffeeIdList.removeAll(existingIds);
-            throw new CoffeeNotFoundException(coffeeIdList);
+            List<Long> notFoundIds = new ArrayList<>(uniqueIdList);
+            notFoundIds.removeAll(existingIds);
+            throw new CoffeeNotFoundException(notFoundIds);
         }
-        return existingCoffeeList;
+
+        Map<Long, Coffee> coffeeById = existingCoffeeList.stream()
+                .collect(Collectors.toMap(Coffee::getId, Function.identity()));
+        return coffeeIdList.stream()
+                .map(coffeeById::get)
+                .toList();
     }
 
 }
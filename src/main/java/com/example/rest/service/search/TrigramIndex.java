@@ -0,0 +1,278 @@
+package com.example.rest.service.search;
+
+import com.example.rest.entity.exception.NullParamException;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of short texts, such as names, for type-ahead search by prefix, substring and similarity.
+ * Texts are normalized: diacritics are removed, letters are lower-cased and other characters
+ * are replaced by spaces. Each word is split into trigrams like in pg_trgm: word is padded by two spaces
+ * before and one space after it. Index keeps sorted map of words for prefix search and posting lists
+ * of trigrams for substring and similarity search, so search reads only entries, which share words
+ * or trigrams with query, and entries are added, changed or removed one by one.
+ * <p>
+ * Matches are ranked: text starts with query, then some word starts with query, then text contains query,
+ * then text is similar to query. Matches of the same rank are ordered by trigram similarity, then by shorter text.
+ * Index is safe for concurrent use; searches run in parallel and wait only for changes.
+ *
+ * @param <T> type of indexed values.
+ */
+public class TrigramIndex<T> {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final double similarityThreshold;
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> words = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Create index with similarity threshold of pg_trgm, 0.3.
+     */
+    public TrigramIndex() {
+        this(0.3);
+    }
+
+    /**
+     * Create index.
+     *
+     * @param similarityThreshold minimum trigram similarity of similar texts, from zero exclusive to one inclusive.
+     * @throws IllegalArgumentException when similarityThreshold is not in range.
+     */
+    public TrigramIndex(double similarityThreshold) {
+        if (!(similarityThreshold > 0.0 && similarityThreshold <= 1.0))
+            throw new IllegalArgumentException("Similarity threshold must be greater than zero and not greater than one!");
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    /**
+     * Add value with its text or replace indexed value with the same id.
+     *
+     * @param id    id of value.
+     * @param text  searched text of value.
+     * @param value value, returned by search.
+     * @throws NullParamException when any param is null.
+     */
+    public void put(Long id, String text, T value) {
+        if (id == null || text == null || value == null)
+            throw new NullParamException();
+
+        String normalized = normalize(text);
+        Set<String> trigrams = trigrams(normalized);
+        Set<String> textWords = words(normalized);
+
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            entries.put(id, new Entry<>(normalized, trigrams.size(), textWords, trigrams, value));
+            for (String trigram : trigrams)
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id);
+            for (String word : textWords)
+                words.computeIfAbsent(word, w -> new HashSet<>()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove value with id. Not indexed id is ignored.
+     *
+     * @param id id of value.
+     * @throws NullParamException when id is null.
+     */
+    public void remove(Long id) {
+        if (id == null)
+            throw new NullParamException();
+
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed values.
+     *
+     * @return size of index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find values, which texts match query by prefix, substring or similarity, best matches first.
+     *
+     * @param query searched text. Is normalized like indexed texts.
+     * @param limit maximum number of values.
+     * @return list of matched values, empty when query has no letters or digits.
+     * @throws NullParamException       when query is null.
+     * @throws IllegalArgumentException when limit is less than one.
+     */
+    public List<T> search(String query, int limit) {
+        if (query == null)
+            throw new NullParamException();
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be greater than zero!");
+
+        String normalized = normalize(query);
+        if (normalized.isEmpty())
+            return List.of();
+        Set<String> queryTrigrams = trigrams(normalized);
+        String firstWord = normalized.split(" ")[0];
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new LinkedHashSet<>();
+            for (Set<Long> ids : words.subMap(firstWord, true, firstWord + Character.MAX_VALUE, false).values())
+                candidates.addAll(ids);
+            candidates.addAll(containing(normalized));
+
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams)
+                for (Long id : postings.getOrDefault(trigram, Set.of()))
+                    shared.merge(id, 1, Integer::sum);
+            candidates.addAll(shared.keySet());
+
+            List<Match<T>> matches = new ArrayList<>();
+            for (Long id : candidates) {
+                Entry<T> entry = entries.get(id);
+                int common = shared.getOrDefault(id, 0);
+                double similarity = (double) common / (queryTrigrams.size() + entry.trigramCount() - common);
+                int rank = rank(entry.text(), normalized, similarity);
+                if (rank >= 0)
+                    matches.add(new Match<>(rank, similarity, entry));
+            }
+
+            return matches.stream()
+                    .sorted(Comparator.comparingInt((Match<T> match) -> match.rank())
+                            .thenComparing(Comparator.comparingDouble((Match<T> match) -> match.similarity()).reversed())
+                            .thenComparingInt(match -> match.entry().text().length())
+                            .thenComparing(match -> match.entry().text()))
+                    .limit(limit)
+                    .map(match -> match.entry().value())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalize text: remove diacritics, lower-case letters, replace other characters by spaces
+     * and collapse spaces.
+     *
+     * @param text text.
+     * @return normalized text, empty when text has no letters or digits.
+     * @throws NullParamException when text is null.
+     */
+    public static String normalize(String text) {
+        if (text == null)
+            throw new NullParamException();
+
+        String decomposed = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Split normalized text into trigrams of its padded words.
+     *
+     * @param normalized normalized text.
+     * @return set of trigrams.
+     */
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : words(normalized)) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++)
+                trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Find entries, which texts contain query. Candidates are entries, which contain all inner trigrams
+     * of query's words; when query has no word of three characters, candidates are not found by trigrams.
+     */
+    private Set<Long> containing(String normalized) {
+        Set<Long> found = null;
+        for (String word : words(normalized)) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                Set<Long> ids = postings.getOrDefault(word.substring(i, i + 3), Set.of());
+                if (found == null)
+                    found = new HashSet<>(ids);
+                else
+                    found.retainAll(ids);
+                if (found.isEmpty())
+                    return found;
+            }
+        }
+        return found == null ? Set.of() : found;
+    }
+
+    private int rank(String text, String query, double similarity) {
+        if (text.startsWith(query))
+            return 0;
+        if (text.contains(" " + query))
+            return 1;
+        if (text.contains(query))
+            return 2;
+        if (similarity >= similarityThreshold)
+            return 3;
+        return -1;
+    }
+
+    private void unindex(Long id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null)
+            return;
+        for (String trigram : entry.trigrams())
+            removeId(postings, trigram, id);
+        for (String word : entry.words())
+            removeId(words, word, id);
+    }
+
+    private static void removeId(Map<String, Set<Long>> map, String key, Long id) {
+        Set<Long> ids = map.get(key);
+        if (ids == null)
+            return;
+        ids.remove(id);
+        if (ids.isEmpty())
+            map.remove(key);
+    }
+
+    private static Set<String> words(String normalized) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : normalized.split(" "))
+            if (!word.isEmpty())
+                words.add(word);
+        return words;
+    }
+
+    private record Entry<T>(String text, int trigramCount, Set<String> words, Set<String> trigrams, T value) {
+    }
+
+    private record Match<T>(int rank, double similarity, Entry<T> entry) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.rest.service.timeline;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderTimelineRow;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size ring of per-minute counters of order throughput. Slot of minute is found by minute's
+ * index modulo ring size and is reused, when newer minute comes, so event is recorded in constant time
+ * and memory doesn't grow. Events of minutes, older than ring, are ignored.
+ * <p>
+ * Each slot has version, which is increased by every event, so slots changed since last flush
+ * are written again, including slots changed while flush is running.
+ */
+public class MinuteRing {
+    private final Slot[] slots;
+
+    /**
+     * Create ring.
+     *
+     * @param minutes number of kept minutes. Must be greater than zero.
+     * @throws IllegalArgumentException when minutes is not greater than zero.
+     */
+    public MinuteRing(int minutes) {
+        if (minutes < 1)
+            throw new IllegalArgumentException("Number of minutes must be greater than zero!");
+        slots = new Slot[minutes];
+        for (int i = 0; i < minutes; i++)
+            slots[i] = new Slot();
+    }
+
+    /**
+     * Number of kept minutes.
+     *
+     * @return size of ring.
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * Count created order.
+     *
+     * @param created    created time of order.
+     * @param queueDepth number of not completed orders after event.
+     * @return false, when minute is older than ring and event is ignored.
+     * @throws NullParamException when created is null.
+     */
+    public boolean recordCreated(LocalDateTime created, long queueDepth) {
+        return record(created, 1, 0, 0.0, queueDepth);
+    }
+
+    /**
+     * Count completed order.
+     *
+     * @param completed   completed time of order.
+     * @param waitSeconds wait of order from created to completed time in seconds.
+     * @param queueDepth  number of not completed orders after event.
+     * @return false, when minute is older than ring and event is ignored.
+     * @throws NullParamException when completed is null.
+     */
+    public boolean recordCompleted(LocalDateTime completed, double waitSeconds, long queueDepth) {
+        return record(completed, 0, 1, waitSeconds, queueDepth);
+    }
+
+    /**
+     * Put stored row of minute to ring. Loaded row is not flushed again until it is changed.
+     *
+     * @param row stored row.
+     * @throws NullParamException when row is null.
+     */
+    public void load(OrderTimelineRow row) {
+        if (row == null)
+            throw new NullParamException();
+
+        long minute = toMinute(row.minute());
+        Slot slot = slot(minute);
+        synchronized (slot) {
+            if (slot.minute > minute)
+                return;
+            slot.reset(minute);
+            slot.created = row.created();
+            slot.completed = row.completed();
+            slot.waitSeconds = row.waitSeconds();
+            slot.queueDepth = row.queueDepth();
+        }
+    }
+
+    /**
+     * Find rows of kept minutes, which start in period.
+     *
+     * @param from start of period.
+     * @param to   end of period, exclusive.
+     * @return rows of minutes with events, ordered by minute.
+     * @throws NullParamException when from or to is null.
+     */
+    public List<OrderTimelineRow> find(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null)
+            throw new NullParamException();
+
+        long end = toMinute(to) + 1;
+        long first = Math.max(toMinute(from), end - slots.length);
+
+        List<OrderTimelineRow> rows = new ArrayList<>();
+        for (long minute = first; minute < end; minute++) {
+            Slot slot = slot(minute);
+            OrderTimelineRow row;
+            synchronized (slot) {
+                if (slot.minute != minute)
+                    continue;
+                row = slot.toRow();
+            }
+            if (!row.minute().isBefore(from) && row.minute().isBefore(to))
+                rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Pass rows of minutes, changed since last flush, to writer. When writer throws,
+     * rows stay changed and are passed by next flush.
+     *
+     * @param writer writer of rows. Is not called, when nothing is changed.
+     * @return number of flushed rows.
+     * @throws NullParamException when writer is null.
+     */
+    public int flush(Consumer<List<OrderTimelineRow>> writer) {
+        if (writer == null)
+            throw new NullParamException();
+
+        List<Slot> changed = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        List<OrderTimelineRow> rows = new ArrayList<>();
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                if (slot.version == slot.flushedVersion)
+                    continue;
+                changed.add(slot);
+                versions.add(slot.version);
+                rows.add(slot.toRow());
+            }
+        }
+        if (rows.isEmpty())
+            return 0;
+
+        writer.accept(rows);
+        for (int i = 0; i < changed.size(); i++) {
+            Slot slot = changed.get(i);
+            synchronized (slot) {
+                if (slot.minute == toMinute(rows.get(i).minute()))
+                    slot.flushedVersion = Math.max(slot.flushedVersion, versions.get(i));
+            }
+        }
+        return rows.size();
+    }
+
+    private boolean record(LocalDateTime time, long created, long completed, double waitSeconds, long queueDepth) {
+        if (time == null)
+            throw new NullParamException();
+
+        long minute = toMinute(time);
+        Slot slot = slot(minute);
+        synchronized (slot) {
+            if (slot.minute > minute)
+                return false;
+            if (slot.minute < minute)
+                slot.reset(minute);
+            slot.created += created;
+            slot.completed += completed;
+            slot.waitSeconds += waitSeconds;
+            slot.queueDepth = queueDepth;
+            slot.version++;
+            return true;
+        }
+    }
+
+    private Slot slot(long minute) {
+        return slots[(int) Math.floorMod(minute, (long) slots.length)];
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static final class Slot {
+        private long minute = Long.MIN_VALUE;
+        private long created;
+        private long completed;
+        private double waitSeconds;
+        private long queueDepth;
+        private long version;
+        private long flushedVersion;
+
+        private void reset(long minute) {
+            this.minute = minute;
+            created = 0;
+            completed = 0;
+            waitSeconds = 0.0;
+            queueDepth = 0;
+            version = 0;
+            flushedVersion = 0;
+        }
+
+        private OrderTimelineRow toRow() {
+            return new OrderTimelineRow(LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC),
+                    created, completed, waitSeconds, queueDepth);
+        }
+    }
+}
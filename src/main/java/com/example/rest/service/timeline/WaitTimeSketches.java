@@ -0,0 +1,265 @@
+package com.example.rest.service.timeline;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.StatsDimension;
+import com.example.rest.repository.WaitSketchRow;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+
+/**
+ * Hourly quantile sketches of order wait time, kept for each barista and each coffee.
+ * Sketch is HDR histogram of wait in milliseconds with two significant digits, so wait is recorded
+ * in constant time, memory of sketch is bounded and sketches of any hours and keys are merged
+ * without loss by adding histograms. Sketches are serialized in compressed form to be stored per hour.
+ * <p>
+ * Only hours from kept hour onward are kept; events of older hours are ignored. Each sketch has version,
+ * which is increased by every event, so sketches changed since last flush are written again,
+ * including sketches changed while flush is running.
+ */
+public class WaitTimeSketches {
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::hour)
+            .thenComparing(Key::dimension)
+            .thenComparing(Key::id);
+
+    private final ConcurrentMap<Key, Sketch> sketches = new ConcurrentHashMap<>();
+    private volatile LocalDateTime keptFrom = LocalDateTime.MIN;
+
+    /**
+     * Start of first kept hour.
+     *
+     * @return hour, from which sketches are kept.
+     */
+    public LocalDateTime keptFrom() {
+        return keptFrom;
+    }
+
+    /**
+     * Move start of kept hours forward and drop flushed sketches of older hours.
+     * Changed sketches of older hours are dropped by flush.
+     *
+     * @param hour new start of kept hours. Is truncated to hour. Earlier hour is ignored.
+     * @throws NullParamException when hour is null.
+     */
+    public void keepFrom(LocalDateTime hour) {
+        if (hour == null)
+            throw new NullParamException();
+
+        LocalDateTime start = hour.truncatedTo(ChronoUnit.HOURS);
+        synchronized (this) {
+            if (start.isAfter(keptFrom))
+                keptFrom = start;
+        }
+        sketches.forEach((key, sketch) -> {
+            if (key.hour().isBefore(keptFrom))
+                removeFlushed(key, sketch);
+        });
+    }
+
+    /**
+     * Record wait of order to sketch of hour, which contains time.
+     *
+     * @param time       completed time of order.
+     * @param dimension  dimension of key.
+     * @param id         id of barista or coffee.
+     * @param waitMillis wait of order in milliseconds. Negative wait is recorded as zero.
+     * @return false, when hour is older than kept hours and event is ignored.
+     * @throws NullParamException when time, dimension or id is null.
+     */
+    public boolean record(LocalDateTime time, StatsDimension dimension, Long id, long waitMillis) {
+        if (time == null || dimension == null || id == null)
+            throw new NullParamException();
+
+        Key key = new Key(time.truncatedTo(ChronoUnit.HOURS), dimension, id);
+        if (key.hour().isBefore(keptFrom))
+            return false;
+
+        Sketch sketch = sketches.computeIfAbsent(key, k -> new Sketch());
+        synchronized (sketch) {
+            if (sketch.removed)
+                return record(time, dimension, id, waitMillis);
+            sketch.histogram.recordValue(Math.max(waitMillis, 0));
+            sketch.version++;
+            return true;
+        }
+    }
+
+    /**
+     * Put stored sketch of kept hour to memory. Events, recorded before loading, are added to stored sketch.
+     * Loaded sketch is not flushed again until it is changed. Sketch of older hour is ignored.
+     * Must be called before sketches of the same hour are flushed, usually on start.
+     *
+     * @param row stored sketch.
+     * @throws NullParamException when row or its fields are null.
+     */
+    public void load(WaitSketchRow row) {
+        if (row == null || row.dimension() == null || row.hour() == null || row.keyId() == null
+                || row.histogram() == null)
+            throw new NullParamException();
+
+        Key key = new Key(row.hour().truncatedTo(ChronoUnit.HOURS), row.dimension(), row.keyId());
+        if (key.hour().isBefore(keptFrom))
+            return;
+
+        Histogram stored = decode(row.histogram());
+        Sketch sketch = sketches.computeIfAbsent(key, k -> new Sketch());
+        synchronized (sketch) {
+            if (sketch.removed) {
+                load(row);
+                return;
+            }
+            sketch.histogram.add(stored);
+            if (sketch.version == sketch.flushedVersion) {
+                sketch.version++;
+                sketch.flushedVersion = sketch.version;
+            }
+        }
+    }
+
+    /**
+     * Add kept sketches of dimension, which hours start in period, to histograms of their keys.
+     *
+     * @param dimension dimension of sketches.
+     * @param from      start of period.
+     * @param to        end of period, exclusive.
+     * @param merged    histograms by id of barista or coffee. Missing histograms are created.
+     * @throws NullParamException when any param is null.
+     */
+    public void mergeInto(StatsDimension dimension, LocalDateTime from, LocalDateTime to, Map<Long, Histogram> merged) {
+        if (dimension == null || from == null || to == null || merged == null)
+            throw new NullParamException();
+
+        sketches.forEach((key, sketch) -> {
+            if (key.dimension() != dimension || key.hour().isBefore(from) || !key.hour().isBefore(to))
+                return;
+            synchronized (sketch) {
+                if (!sketch.removed)
+                    merged.computeIfAbsent(key.id(), id -> newHistogram()).add(sketch.histogram);
+            }
+        });
+    }
+
+    /**
+     * Pass sketches, changed since last flush, to writer, ordered by hour, dimension and key.
+     * When writer throws, sketches stay changed and are passed by next flush.
+     * Flushed sketches of hours older than kept hours are dropped.
+     *
+     * @param writer writer of sketches. Is not called, when nothing is changed.
+     * @return number of flushed sketches.
+     * @throws NullParamException when writer is null.
+     */
+    public int flush(Consumer<List<WaitSketchRow>> writer) {
+        if (writer == null)
+            throw new NullParamException();
+
+        List<Key> keys = new ArrayList<>(sketches.keySet());
+        keys.sort(KEY_ORDER);
+
+        List<Sketch> changed = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        List<WaitSketchRow> rows = new ArrayList<>();
+        for (Key key : keys) {
+            Sketch sketch = sketches.get(key);
+            if (sketch == null)
+                continue;
+            synchronized (sketch) {
+                if (sketch.removed || sketch.version == sketch.flushedVersion)
+                    continue;
+                changed.add(sketch);
+                versions.add(sketch.version);
+                rows.add(new WaitSketchRow(key.dimension(), key.hour(), key.id(), encode(sketch.histogram)));
+            }
+        }
+        if (rows.isEmpty())
+            return 0;
+
+        writer.accept(rows);
+        for (int i = 0; i < changed.size(); i++) {
+            Sketch sketch = changed.get(i);
+            synchronized (sketch) {
+                sketch.flushedVersion = Math.max(sketch.flushedVersion, versions.get(i));
+            }
+            WaitSketchRow row = rows.get(i);
+            if (row.hour().isBefore(keptFrom))
+                removeFlushed(new Key(row.hour(), row.dimension(), row.keyId()), sketch);
+        }
+        return rows.size();
+    }
+
+    /**
+     * Create empty histogram, compatible with sketches.
+     *
+     * @return auto-resizing histogram with precision of sketches.
+     */
+    public static Histogram newHistogram() {
+        return new Histogram(SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Serialize histogram in compressed form.
+     *
+     * @param histogram histogram.
+     * @return compressed bytes.
+     * @throws NullParamException when histogram is null.
+     */
+    public static byte[] encode(Histogram histogram) {
+        if (histogram == null)
+            throw new NullParamException();
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Deserialize histogram from compressed form.
+     *
+     * @param bytes compressed bytes.
+     * @return histogram.
+     * @throws NullParamException    when bytes is null.
+     * @throws IllegalStateException when bytes is not compressed histogram.
+     */
+    public static Histogram decode(byte[] bytes) {
+        if (bytes == null)
+            throw new NullParamException();
+
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0);
+        } catch (DataFormatException | RuntimeException e) {
+            throw new IllegalStateException("Wait time sketch is damaged!", e);
+        }
+    }
+
+    private void removeFlushed(Key key, Sketch sketch) {
+        synchronized (sketch) {
+            if (sketch.removed || sketch.version != sketch.flushedVersion)
+                return;
+            sketch.removed = true;
+            sketches.remove(key, sketch);
+        }
+    }
+
+    private record Key(LocalDateTime hour, StatsDimension dimension, Long id) {
+    }
+
+    private static final class Sketch {
+        private final Histogram histogram = newHistogram();
+        private long version;
+        private long flushedVersion;
+        private boolean removed;
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.rest.servlet;
 
 import com.example.rest.service.IBaristaService;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaPublicDTO;
+import com.example.rest.service.dto.IBaristaSliceDTO;
+import com.example.rest.service.dto.IBaristaStatsDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import com.example.rest.servlet.dto.BaristaCreateDTO;
+import com.example.rest.servlet.dto.BaristaPatchDTO;
+import com.example.rest.servlet.dto.BaristaPublicDTO;
+import com.example.rest.servlet.dto.BaristaSearchDTO;
 import com.example.rest.servlet.dto.BaristaUpdateDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,44 +22,133 @@ import java.util.List;
 @RequestMapping({"/baristas", "/baristas/"})
 
 public class BaristaController {
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,fullName,tipSize", BaristaPublicDTO.class);
+
     private final IBaristaService baristaService;
+    private final IBaristaStatsService baristaStatsService;
 
     @Autowired
-    public BaristaController(IBaristaService baristaService) {
+    public BaristaController(IBaristaService baristaService, IBaristaStatsService baristaStatsService) {
         this.baristaService = baristaService;
+        this.baristaStatsService = baristaStatsService;
     }
 
     /**
      * Send to response all barista objects using the service.
      * Set status OK.
+     *
+     * @param fields      comma separated requested fields. If not specified, all fields are sent.
+     * @param ordersLimit maximum number of orders in each order list. If not specified, all orders are sent.
      */
     @GetMapping({"", "/"})
-    public List<IBaristaPublicDTO> findAll() {
-        return (List<IBaristaPublicDTO>) baristaService.findAll();
+    public List<?> findAll(@RequestParam(value = "fields", required = false) String fields,
+                           @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return baristaService.findAll();
+
+        FieldSet fieldSet = parseFields(fields);
+        List<? extends IBaristaPublicDTO> found = ordersLimit == null
+                ? baristaService.findAll(fieldSet)
+                : baristaService.findAll(fieldSet, ordersLimit);
+        return found.stream()
+                .map(fieldSet::project)
+                .toList();
     }
 
     /**
      * Send to response all barista objects using the service grouped by page.
      * Set status OK.
      *
-     * @param page  number of page.
-     * @param limit maximum objects in page.
+     * @param page        number of page.
+     * @param limit       maximum objects in page.
+     * @param fields      comma separated requested fields. If not specified, all fields are sent.
+     * @param ordersLimit maximum number of orders in each order list. If not specified, all orders are sent.
      */
     @GetMapping(value = {"", "/"}, params = {"page", "limit"})
-    public List<IBaristaPublicDTO> findAllByPage(@RequestParam("page") int page, @RequestParam("limit") int limit) {
-        return (List<IBaristaPublicDTO>) baristaService.findAllByPage(page, limit);
+    public List<?> findAllByPage(@RequestParam("page") int page,
+                                 @RequestParam("limit") int limit,
+                                 @RequestParam(value = "fields", required = false) String fields,
+                                 @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return baristaService.findAllByPage(page, limit);
+
+        FieldSet fieldSet = parseFields(fields);
+        List<? extends IBaristaPublicDTO> found = ordersLimit == null
+                ? baristaService.findAllByPage(page, limit, fieldSet)
+                : baristaService.findAllByPage(page, limit, fieldSet, ordersLimit);
+        return found.stream()
+                .map(fieldSet::project)
+                .toList();
     }
 
     /**
      * Send to response barista object with specified id using the service grouped by page.
      * Set status OK.
      *
-     * @param id searched barista's id.
+     * @param id          searched barista's id.
+     * @param fields      comma separated requested fields. If not specified, all fields are sent.
+     * @param ordersLimit maximum number of orders in each order list. If not specified, all orders are sent.
      */
     @GetMapping({"/{id}", "/{id}/"})
-    public IBaristaPublicDTO findById(@PathVariable("id") Long id) {
+    public Object findById(@PathVariable("id") Long id,
+                           @RequestParam(value = "fields", required = false) String fields,
+                           @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return baristaService.findById(id);
+
+        FieldSet fieldSet = parseFields(fields);
+        return fieldSet.project(ordersLimit == null
+                ? baristaService.findById(id, fieldSet)
+                : baristaService.findById(id, fieldSet, ordersLimit));
+    }
+
+    /**
+     * Send to response barista's orders using the service, ordered by id and limited.
+     * To get next orders, send request with 'after' equal to 'nextAfter' from response.
+     * Set status OK.
+     *
+     * @param id     barista's id.
+     * @param filter keyset cursor 'after', 'limit', 'status' (pending or completed),
+     *               'createdFrom' and 'createdTo' in format yyyy-MM-dd HH:mm:ss.
+     */
+    @GetMapping({"/{id}/orders", "/{id}/orders/"})
+    public IOrderSliceDTO findOrders(@PathVariable("id") Long id, @ModelAttribute OrderFilterDTO filter) {
+        return baristaService.findOrders(id, filter);
+    }
+
+    /**
+     * Send to response barista, which full names match query 'q', best matches first, without order lists.
+     * To get next barista, send request with 'afterRank' and 'after' equal to 'nextAfterRank' and 'nextAfter'
+     * from response.
+     * Set status OK.
+     *
+     * @param search query 'q', keyset cursor 'afterRank' and 'after', and 'limit'.
+     */
+    @GetMapping({"/search", "/search/"})
+    public IBaristaSliceDTO search(@ModelAttribute BaristaSearchDTO search) {
+        return baristaService.search(search);
+    }
 
-        return baristaService.findById(id);
+    /**
+     * Send to response statistics of completed orders of all barista, who completed orders.
+     * Statistics are kept in memory, so db is not queried.
+     * Set status OK.
+     */
+    @GetMapping({"/stats", "/stats/"})
+    public List<? extends IBaristaStatsDTO> findAllStats() {
+        return baristaStatsService.findAll();
+    }
+
+    /**
+     * Send to response statistics of barista's completed orders: count, average preparation time
+     * in seconds, revenue and tip revenue.
+     * Set status OK.
+     *
+     * @param id barista's id.
+     */
+    @GetMapping({"/{id}/stats", "/{id}/stats/"})
+    public IBaristaStatsDTO findStats(@PathVariable("id") Long id) {
+        return baristaStatsService.findById(id);
     }
 
     /**
@@ -65,7 +163,7 @@ public class BaristaController {
     /**
      * Update barista using the service.
      *
-     * @param id updated barista id from url.
+     * @param id          updated barista id from url.
      */
     @PutMapping({"/{id}", "/{id}/"})
     public IBaristaPublicDTO update(@PathVariable("id") Long id, @RequestBody BaristaUpdateDTO baristaUpdateDTO) {
@@ -76,14 +174,32 @@ public class BaristaController {
         return baristaService.update(baristaDTO);
     }
 
+    /**
+     * Partial update barista using the service. Only specified fields are changed.
+     * Send back barista without order list.
+     *
+     * @param id updated barista id from url.
+     */
+    @PatchMapping({"/{id}", "/{id}/"})
+    public Object patch(@PathVariable("id") Long id, @RequestBody BaristaPatchDTO baristaPatchDTO) {
+        BaristaPatchDTO baristaDTO = new BaristaPatchDTO(id,
+                baristaPatchDTO.fullName(),
+                baristaPatchDTO.tipSize());
+
+        return PATCHED_FIELDS.project(baristaService.patch(baristaDTO));
+    }
+
     /**
      * Delete barista with specified id using the service.
      *
-     * @param id id of the barista to be deleted
+     * @param id          id of the barista to be deleted
      */
     @DeleteMapping({"/{id}", "/{id}/"})
     public void delete(@PathVariable("id") Long id) {
         baristaService.delete(id);
     }
 
+    private static FieldSet parseFields(String fields) {
+        return fields == null ? FieldSet.all() : FieldSet.parse(fields, BaristaPublicDTO.class);
+    }
 }
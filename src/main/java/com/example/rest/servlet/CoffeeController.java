@@ -1,9 +1,19 @@
 package com.example.rest.servlet;
 
+import com.example.rest.service.ICoffeeSearchService;
 import com.example.rest.service.ICoffeeService;
+import com.example.rest.service.ICoffeeStatsService;
+import com.example.rest.service.dto.FieldSet;
+import com.example.rest.service.dto.ICoffeeNoRefDTO;
 import com.example.rest.service.dto.ICoffeePublicDTO;
+import com.example.rest.service.dto.ICoffeeStatsDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import com.example.rest.servlet.dto.CoffeeCreateDTO;
+import com.example.rest.servlet.dto.CoffeePatchDTO;
+import com.example.rest.servlet.dto.CoffeePublicDTO;
+import com.example.rest.servlet.dto.CoffeeStatsFilterDTO;
 import com.example.rest.servlet.dto.CoffeeUpdateDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,38 +22,120 @@ import java.util.List;
 @RestController
 @RequestMapping("/coffees")
 public class CoffeeController {
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,name,price", CoffeePublicDTO.class);
+
     private final ICoffeeService coffeeService;
+    private final ICoffeeStatsService coffeeStatsService;
+    private final ICoffeeSearchService coffeeSearchService;
 
 
     @Autowired
-    public CoffeeController(ICoffeeService coffeeService) {
+    public CoffeeController(ICoffeeService coffeeService, ICoffeeStatsService coffeeStatsService,
+                            ICoffeeSearchService coffeeSearchService) {
         this.coffeeService = coffeeService;
+        this.coffeeStatsService = coffeeStatsService;
+        this.coffeeSearchService = coffeeSearchService;
     }
 
     /**
      * Send all coffee objects that found using the service.
      * Set status OK.
+     *
+     * @param fields      comma separated requested fields. If not specified, all fields are sent.
+     * @param ordersLimit maximum number of orders in each order list. If not specified, all orders are sent.
      */
     @GetMapping({"", "/"})
-    public List<ICoffeePublicDTO> findAll() {
-        return (List<ICoffeePublicDTO>) coffeeService.findAll();
+    public List<?> findAll(@RequestParam(value = "fields", required = false) String fields,
+                           @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return coffeeService.findAll();
+
+        FieldSet fieldSet = parseFields(fields);
+        List<? extends ICoffeePublicDTO> found = ordersLimit == null
+                ? coffeeService.findAll(fieldSet)
+                : coffeeService.findAll(fieldSet, ordersLimit);
+        return found.stream()
+                .map(fieldSet::project)
+                .toList();
+    }
+
+    /**
+     * Send to response statistics of all coffee in period: number of orders, quantity and revenue
+     * for each coffee and time bucket.
+     * Set status OK.
+     *
+     * @param filter 'from' and 'to' of period in format yyyy-MM-dd HH:mm:ss, 'to' is exclusive,
+     *               and 'bucket' - 'hour' or 'day'. If bucket is not specified, statistics are grouped by hour.
+     */
+    @GetMapping({"/stats", "/stats/"})
+    public List<? extends ICoffeeStatsDTO> findStats(@ModelAttribute CoffeeStatsFilterDTO filter) {
+        return coffeeStatsService.findStats(filter);
+    }
+
+    /**
+     * Send to response coffee, which names match query by prefix, substring or similarity, best matches first.
+     * Coffee is found in memory, so db is not queried.
+     * Set status OK.
+     *
+     * @param query searched name, case and diacritics are ignored.
+     * @param limit maximum number of coffee. If not specified, it is 10; greater than 50 is cut to 50.
+     */
+    @GetMapping({"/search", "/search/"})
+    public List<? extends ICoffeeNoRefDTO> search(@RequestParam("q") String query,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return coffeeSearchService.search(query, limit);
     }
 
     /**
      * Send coffee object found by id using the service.
      * Set status OK.
      *
-     * @param id
+     * @param id          searched coffee's id.
+     * @param fields      comma separated requested fields. If not specified, all fields are sent.
+     * @param ordersLimit maximum number of orders in each order list. If not specified, all orders are sent.
      */
     @GetMapping({"/{id}", "/{id}/"})
-    public ICoffeePublicDTO findById(@PathVariable("id") Long id) {
-        return coffeeService.findById(id);
+    public Object findById(@PathVariable("id") Long id,
+                           @RequestParam(value = "fields", required = false) String fields,
+                           @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return coffeeService.findById(id);
+
+        FieldSet fieldSet = parseFields(fields);
+        return fieldSet.project(ordersLimit == null
+                ? coffeeService.findById(id, fieldSet)
+                : coffeeService.findById(id, fieldSet, ordersLimit));
     }
 
     @GetMapping(value = {"", "/"}, params = {"page", "limit"})
-    public List<ICoffeePublicDTO> findAllByPage(@RequestParam("page") int page, @RequestParam("limit") int limit) {
+    public List<?> findAllByPage(@RequestParam("page") int page,
+                                 @RequestParam("limit") int limit,
+                                 @RequestParam(value = "fields", required = false) String fields,
+                                 @RequestParam(value = "ordersLimit", required = false) Integer ordersLimit) {
+        if (fields == null && ordersLimit == null)
+            return coffeeService.findAllByPage(page, limit);
+
+        FieldSet fieldSet = parseFields(fields);
+        List<? extends ICoffeePublicDTO> found = ordersLimit == null
+                ? coffeeService.findAllByPage(page, limit, fieldSet)
+                : coffeeService.findAllByPage(page, limit, fieldSet, ordersLimit);
+        return found.stream()
+                .map(fieldSet::project)
+                .toList();
+    }
 
-        return (List<ICoffeePublicDTO>) coffeeService.findAllByPage(page, limit);
+    /**
+     * Send to response orders containing coffee using the service, ordered by id and limited.
+     * To get next orders, send request with 'after' equal to 'nextAfter' from response.
+     * Set status OK.
+     *
+     * @param id     coffee's id.
+     * @param filter keyset cursor 'after', 'limit', 'status' (pending or completed),
+     *               'createdFrom' and 'createdTo' in format yyyy-MM-dd HH:mm:ss.
+     */
+    @GetMapping({"/{id}/orders", "/{id}/orders/"})
+    public IOrderSliceDTO findOrders(@PathVariable("id") Long id, @ModelAttribute OrderFilterDTO filter) {
+        return coffeeService.findOrders(id, filter);
     }
 
     @PostMapping({"", "/"})
@@ -61,9 +153,26 @@ public class CoffeeController {
         return coffeeService.update(coffeeNoRefDTO);
     }
 
+    /**
+     * Partial update coffee using the service. Only specified fields are changed.
+     * Send back coffee without order list.
+     *
+     * @param id updated coffee id from url.
+     */
+    @PatchMapping({"/{id}", "/{id}/"})
+    public Object patch(@PathVariable("id") Long id, @RequestBody CoffeePatchDTO coffeePatchDTO) {
+        CoffeePatchDTO coffeeDTO = new CoffeePatchDTO(id,
+                coffeePatchDTO.name(),
+                coffeePatchDTO.price());
+        return PATCHED_FIELDS.project(coffeeService.patch(coffeeDTO));
+    }
+
     @DeleteMapping({"/{id}", "/{id}/"})
     public void delete(@PathVariable("id") Long id) {
         coffeeService.delete(id);
     }
 
+    private static FieldSet parseFields(String fields) {
+        return fields == null ? FieldSet.all() : FieldSet.parse(fields, CoffeePublicDTO.class);
+    }
 }
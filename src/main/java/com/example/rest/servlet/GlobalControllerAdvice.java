@@ -3,8 +3,19 @@ package com.example.rest.servlet;
 import com.example.rest.entity.exception.*;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.repository.exception.NoValidStatsBucketException;
+import com.example.rest.repository.exception.NoValidStatsDimensionException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
 import com.example.rest.service.exception.DuplicatedElementsException;
+import com.example.rest.service.exception.IdempotencyKeyReusedException;
+import com.example.rest.service.exception.IntakeBufferFullException;
+import com.example.rest.service.exception.NoValidFieldsException;
+import com.example.rest.service.exception.NoValidIdempotencyKeyException;
+import com.example.rest.service.exception.NoValidParamsException;
+import com.example.rest.service.exception.NoValidSearchCursorException;
+import com.example.rest.service.exception.NoValidSearchQueryException;
 import com.example.rest.service.exception.OrderAlreadyCompletedException;
+import com.example.rest.service.exception.StatsNotLoadedException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
@@ -25,6 +36,7 @@ import java.util.Map;
 public class GlobalControllerAdvice {
     public static final String DEFAULT_ERROR_VIEW = "error";
     public static final String DEBUG_INFO = "Error: {}";
+    public static final String RETRY_AFTER_SECONDS = "1";
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalControllerAdvice.class);
 
     @ExceptionHandler(value = {BaristaNotFoundException.class,
@@ -39,7 +51,11 @@ public class GlobalControllerAdvice {
 
     @ExceptionHandler({NullParamException.class, NoValidIdException.class, NoValidNameException.class,
             NoValidPageException.class, NoValidTipSizeException.class, NoValidLimitException.class,
-            OrderAlreadyCompletedException.class, DuplicatedElementsException.class, NoValidPriceException.class})
+            OrderAlreadyCompletedException.class, DuplicatedElementsException.class, NoValidPriceException.class,
+            NoValidFieldsException.class, NoValidStatusException.class, NoValidQuantityException.class,
+            CompletedBeforeCreatedException.class, NoValidIdempotencyKeyException.class,
+            NoValidStatsBucketException.class, NoValidStatsDimensionException.class, NoValidStatsPeriodException.class,
+            NoValidSearchQueryException.class, NoValidSearchCursorException.class, NoValidParamsException.class})
     protected ResponseEntity<?> badRequestHandler(RuntimeException e) {
         String error = e.getMessage();
         LOGGER.debug(DEBUG_INFO, error, e);
@@ -50,6 +66,23 @@ public class GlobalControllerAdvice {
         return new ResponseEntity<>(getErrorsMap(errorList), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    protected ResponseEntity<?> unprocessableHandler(RuntimeException e) {
+        String error = e.getMessage();
+        LOGGER.debug(DEBUG_INFO, error, e);
+        List<String> errorList = List.of("" + error);
+        return new ResponseEntity<>(getErrorsMap(errorList), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler({IntakeBufferFullException.class, StatsNotLoadedException.class})
+    protected ResponseEntity<?> serviceUnavailableHandler(RuntimeException e) {
+        String error = e.getMessage();
+        LOGGER.debug(DEBUG_INFO, error, e);
+        List<String> errorList = List.of("" + error);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return new ResponseEntity<>(getErrorsMap(errorList), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, List<String>>> handleValidationErrors(MethodArgumentNotValidException ex) {
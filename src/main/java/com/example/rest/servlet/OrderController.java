@@ -1,34 +1,124 @@
 package com.example.rest.servlet;
 
+import com.example.rest.entity.OrderIdempotencyKey;
+import com.example.rest.service.IOrderRetentionService;
 import com.example.rest.service.IOrderService;
+import com.example.rest.service.IOrderTimelineService;
+import com.example.rest.service.IOrderWaitTimeService;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IOrderPublicDTO;
+import com.example.rest.service.dto.IOrderRetentionDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
+import com.example.rest.service.dto.IOrderTimelineDTO;
+import com.example.rest.service.dto.IOrderWaitTimeDTO;
+import com.example.rest.service.exception.NoValidParamsException;
+import com.example.rest.service.imp.IdempotencyStore;
+import com.example.rest.service.intake.AcceptedOrder;
+import com.example.rest.service.intake.OrderIntake;
+import com.example.rest.servlet.dto.OrderAcceptedDTO;
 import com.example.rest.servlet.dto.OrderCreateDTO;
+import com.example.rest.servlet.dto.OrderPatchDTO;
+import com.example.rest.servlet.dto.OrderPublicDTO;
+import com.example.rest.servlet.dto.OrderSearchDTO;
 import com.example.rest.servlet.dto.OrderUpdateDTO;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final FieldSet PATCHED_FIELDS = FieldSet.parse("id,baristaId,created,completed,price", OrderPublicDTO.class);
+
     private final IOrderService orderService;
+    private final IdempotencyStore<IOrderPublicDTO> idempotencyStore;
+    private final OrderIntake orderIntake;
+    private final IOrderTimelineService orderTimelineService;
+    private final IOrderWaitTimeService orderWaitTimeService;
+    private final IOrderRetentionService orderRetentionService;
 
     @Autowired
-    public OrderController(IOrderService orderService) {
+    public OrderController(IOrderService orderService,
+                           IdempotencyStore<IOrderPublicDTO> idempotencyStore,
+                           OrderIntake orderIntake,
+                           IOrderTimelineService orderTimelineService,
+                           IOrderWaitTimeService orderWaitTimeService,
+                           IOrderRetentionService orderRetentionService) {
         this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.orderIntake = orderIntake;
+        this.orderTimelineService = orderTimelineService;
+        this.orderWaitTimeService = orderWaitTimeService;
+        this.orderRetentionService = orderRetentionService;
     }
 
+    /**
+     * Send to response all orders with requested fields using the service.
+     * Filters and keyset cursor are rejected, because they are supported only by search of orders.
+     * Set status OK.
+     *
+     * @param fields comma separated requested fields. If not specified, all fields are sent.
+     */
     @GetMapping({"", "/"})
-    public List<?> findAll() {
+    public List<?> findAll(@RequestParam(value = "fields", required = false) String fields,
+                           @ModelAttribute OrderSearchDTO filter) {
+        rejectFilters(filter, true);
+        if (fields == null)
+            return orderService.findAll();
 
-        return orderService.findAll();
+        FieldSet fieldSet = FieldSet.parse(fields, OrderPublicDTO.class);
+        return orderService.findAll(fieldSet).stream()
+                .map(fieldSet::project)
+                .toList();
     }
 
+    /**
+     * Send to response page of orders with requested fields using the service.
+     * Filters and keyset cursor are rejected, because they are supported only by search of orders.
+     * Set status OK.
+     *
+     * @param fields comma separated requested fields. If not specified, all fields are sent.
+     */
     @GetMapping(value = {"", "/"}, params = {"page", "limit"})
-    public List<?> findAllByPage(@RequestParam("page") int page, @RequestParam("limit") int limit) {
+    public List<?> findAllByPage(@RequestParam("page") int page,
+                                 @RequestParam("limit") int limit,
+                                 @RequestParam(value = "fields", required = false) String fields,
+                                 @ModelAttribute OrderSearchDTO filter) {
+        rejectFilters(filter, false);
+        if (fields == null)
+            return orderService.findAllByPage(page, limit);
+
+        FieldSet fieldSet = FieldSet.parse(fields, OrderPublicDTO.class);
+        return orderService.findAllByPage(page, limit, fieldSet).stream()
+                .map(fieldSet::project)
+                .toList();
+    }
 
-        return orderService.findAllByPage(page, limit);
+    /**
+     * Send to response slice of orders, found by one query, ordered by id and limited.
+     * To get next orders, send request with 'after' equal to 'nextAfter' from response.
+     * Orders of slice have all fields, so requested fields are rejected.
+     * Set status OK.
+     *
+     * @param filter keyset cursor 'after', 'limit', 'status' (pending or completed),
+     *               'createdFrom' and 'createdTo' in format yyyy-MM-dd HH:mm:ss,
+     *               'baristaId', 'coffeeId', 'minPrice' and 'maxPrice', and 'includeArchived'
+     *               to find archived orders too.
+     */
+    @GetMapping({"/search", "/search/"})
+    public IOrderSliceDTO search(@RequestParam(value = "fields", required = false) String fields,
+                                 @ModelAttribute OrderSearchDTO filter) {
+        if (fields != null)
+            throw new NoValidParamsException("[fields]", "/orders and /orders/{id}");
+        return orderService.findOrders(filter);
     }
 
     @GetMapping({"/queue", "/queue/"})
@@ -38,16 +128,102 @@ public class OrderController {
         return orderService.getOrderQueue();
     }
 
+    /**
+     * Send to response per-minute throughput of orders: created and completed orders,
+     * average wait in seconds and queue depth.
+     * Set status OK.
+     *
+     * @param from start of period in format yyyy-MM-dd HH:mm:ss. If not specified, period is one hour.
+     * @param to   end of period in format yyyy-MM-dd HH:mm:ss, exclusive. If not specified, it is now.
+     */
+    @GetMapping({"/stats/timeline", "/stats/timeline/"})
+    public List<? extends IOrderTimelineDTO> findTimeline(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to) {
+        return orderTimelineService.findTimeline(from, to);
+    }
+
+    /**
+     * Send to response percentiles of wait time from created to completed of orders, completed in period,
+     * for each barista or each coffee: number of orders, p50, p95, p99 and maximum wait in seconds.
+     * Set status OK.
+     *
+     * @param from start of period in format yyyy-MM-dd HH:mm:ss, truncated to hour. If not specified, period is 24 hours.
+     * @param to   end of period in format yyyy-MM-dd HH:mm:ss, exclusive. If not specified, it is now.
+     * @param by   "barista" or "coffee". If not specified, it is barista.
+     */
+    @GetMapping({"/stats/wait-times", "/stats/wait-times/"})
+    public List<? extends IOrderWaitTimeDTO> findWaitTimes(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+            @RequestParam(value = "by", required = false) String by) {
+        return orderWaitTimeService.findWaitTimes(from, to, by);
+    }
+
+    /**
+     * Send to response progress of purge of old orders: cutoff of current or last run, totals
+     * of deleted orders, archived orders, dropped archive partitions and chunks, and times of last run.
+     * Set status OK.
+     */
+    @GetMapping({"/retention", "/retention/"})
+    public IOrderRetentionDTO findRetentionProgress() {
+        return orderRetentionService.findProgress();
+    }
+
     @GetMapping({"/{id}", "/{id}/"})
-    public IOrderPublicDTO findById(@PathVariable("id") Long id) {
+    public Object findById(@PathVariable("id") Long id,
+                           @RequestParam(value = "fields", required = false) String fields) {
+        if (fields == null)
+            return orderService.findById(id);
 
-        return orderService.findById(id);
+        FieldSet fieldSet = FieldSet.parse(fields, OrderPublicDTO.class);
+        return fieldSet.project(orderService.findById(id, fieldSet));
     }
 
+    /**
+     * Create order using the service. When request has Idempotency-Key header, order is created
+     * once for the key: retries get the same order and concurrent duplicates wait for the first request.
+     * When order intake is running and request has no key, order is validated and accepted
+     * with 202 status, id and Location of order, and is written to db in background.
+     *
+     * @param idempotencyKey key of request, optional.
+     */
     @PostMapping({"", "/"})
-    public IOrderPublicDTO create(@RequestBody OrderCreateDTO orderCreateDTO) {
+    public ResponseEntity<?> create(@RequestBody OrderCreateDTO orderCreateDTO,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null)
+            return ResponseEntity.ok(idempotencyStore.execute(idempotencyKey, orderCreateDTO.requestHash(),
+                    () -> createOnce(orderCreateDTO, idempotencyKey)));
+        if (!orderIntake.isRunning())
+            return ResponseEntity.ok(orderService.create(orderCreateDTO));
 
-        return orderService.create(orderCreateDTO);
+        AcceptedOrder accepted = orderIntake.submit(orderCreateDTO);
+        return ResponseEntity.accepted()
+                .location(URI.create("/orders/" + accepted.id()))
+                .body(new OrderAcceptedDTO(accepted.id(), accepted.created()));
+    }
+
+    /**
+     * Create order once for idempotency key. When other request with the same key, for example
+     * on other instance, stored the key first, its transaction wins and key's insert violates primary key;
+     * then create is repeated once to return stored order or reject reused key.
+     */
+    private IOrderPublicDTO createOnce(OrderCreateDTO orderCreateDTO, String idempotencyKey) {
+        try {
+            return orderService.create(orderCreateDTO, idempotencyKey);
+        } catch (RuntimeException e) {
+            if (!isIdempotencyKeyConflict(e))
+                throw e;
+            return orderService.create(orderCreateDTO, idempotencyKey);
+        }
+    }
+
+    private static boolean isIdempotencyKeyConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+            if (cause instanceof ConstraintViolationException violation
+                    && OrderIdempotencyKey.PRIMARY_KEY.equalsIgnoreCase(violation.getConstraintName()))
+                return true;
+        return false;
     }
 
     @PutMapping({"/{id}", "/{id}/"})
@@ -62,6 +238,22 @@ public class OrderController {
         return orderService.update(orderNoRefDTO);
     }
 
+    /**
+     * Partial update order using the service. Only specified fields are changed,
+     * price is recalculated when barista is changed. Send back order without coffee list.
+     *
+     * @param id updated order id from url.
+     */
+    @PatchMapping({"/{id}", "/{id}/"})
+    public Object patch(@PathVariable("id") Long id, @RequestBody OrderPatchDTO orderPatchDTO) {
+        OrderPatchDTO orderDTO = new OrderPatchDTO(id,
+                orderPatchDTO.baristaId(),
+                orderPatchDTO.created(),
+                orderPatchDTO.completed());
+
+        return PATCHED_FIELDS.project(orderService.patch(orderDTO));
+    }
+
     @PutMapping({"/{id}/complete", "/{id}/complete/"})
     public IOrderPublicDTO complete(@PathVariable("id") Long id) {
         return orderService.completeOrder(id);
@@ -72,4 +264,19 @@ public class OrderController {
         orderService.delete(id);
     }
 
+    private static void rejectFilters(OrderSearchDTO filter, boolean withLimit) {
+        List<String> params = new ArrayList<>();
+        if (filter.after() != null) params.add("after");
+        if (withLimit && filter.limit() != null) params.add("limit");
+        if (filter.status() != null) params.add("status");
+        if (filter.createdFrom() != null) params.add("createdFrom");
+        if (filter.createdTo() != null) params.add("createdTo");
+        if (filter.baristaId() != null) params.add("baristaId");
+        if (filter.coffeeId() != null) params.add("coffeeId");
+        if (filter.minPrice() != null) params.add("minPrice");
+        if (filter.maxPrice() != null) params.add("maxPrice");
+        if (filter.includeArchived() != null) params.add("includeArchived");
+        if (!params.isEmpty())
+            throw new NoValidParamsException(params.toString(), "/orders/search");
+    }
 }
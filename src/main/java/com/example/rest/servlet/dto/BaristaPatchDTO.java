@@ -0,0 +1,15 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IBaristaPatchDTO;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+public record BaristaPatchDTO(
+        @PositiveOrZero(message = "Id can't be less than zero!")
+        Long id,
+        @Size(min = 1, message = "Full name can't be empty!")
+        String fullName,
+        @PositiveOrZero(message = "Tip size can't be less than zero!")
+        Double tipSize)
+        implements IBaristaPatchDTO {
+}
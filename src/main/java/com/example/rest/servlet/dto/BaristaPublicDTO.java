@@ -8,9 +8,15 @@ import java.util.List;
 public record BaristaPublicDTO(Long id,
                                String fullName,
                                Double tipSize,
-                               List<OrderNoRefDTO> orders)
+                               List<OrderNoRefDTO> orders,
+                               Long ordersTotal,
+                               String ordersNext)
         implements IBaristaPublicDTO {
 
+    public BaristaPublicDTO(Long id, String fullName, Double tipSize, List<OrderNoRefDTO> orders) {
+        this(id, fullName, tipSize, orders, orders == null ? null : (long) orders.size(), null);
+    }
+
     public BaristaPublicDTO(Barista barista) {
         this(
                 barista.getId(),
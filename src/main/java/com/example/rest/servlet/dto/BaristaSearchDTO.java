@@ -0,0 +1,10 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IBaristaSearchDTO;
+
+public record BaristaSearchDTO(String q,
+                               Integer afterRank,
+                               Long after,
+                               Integer limit)
+        implements IBaristaSearchDTO {
+}
@@ -0,0 +1,11 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IBaristaSliceDTO;
+
+import java.util.List;
+
+public record BaristaSliceDTO(List<BaristaNoRefDTO> baristas,
+                              Integer nextAfterRank,
+                              Long nextAfter)
+        implements IBaristaSliceDTO {
+}
@@ -0,0 +1,11 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IBaristaStatsDTO;
+
+public record BaristaStatsDTO(Long baristaId,
+                              Long completedOrders,
+                              Double averagePrepSeconds,
+                              Double revenue,
+                              Double tipRevenue)
+        implements IBaristaStatsDTO {
+}
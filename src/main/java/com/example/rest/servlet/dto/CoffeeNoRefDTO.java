@@ -1,6 +1,7 @@
 package com.example.rest.servlet.dto;
 
 import com.example.rest.entity.Coffee;
+import com.example.rest.entity.OrderLine;
 import com.example.rest.service.dto.ICoffeeNoRefDTO;
 
 public record CoffeeNoRefDTO(Long id,
@@ -16,4 +17,12 @@ public record CoffeeNoRefDTO(Long id,
         );
     }
 
+    public CoffeeNoRefDTO(OrderLine line) {
+        this(
+                line.getCoffeeId(),
+                line.getCoffeeName(),
+                line.getUnitPrice()
+        );
+    }
+
 }
@@ -0,0 +1,18 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.ICoffeePatchDTO;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+public record CoffeePatchDTO(
+
+        @PositiveOrZero(message = "Id can't be less than zero!")
+        Long id,
+
+        @Size(min = 1, message = "Name can't be empty!")
+        String name,
+
+        @PositiveOrZero(message = "Price can't be less than zero!")
+        Double price
+) implements ICoffeePatchDTO {
+}
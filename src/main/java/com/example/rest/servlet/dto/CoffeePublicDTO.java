@@ -8,9 +8,15 @@ import java.util.List;
 public record CoffeePublicDTO(Long id,
                               String name,
                               Double price,
-                              List<OrderNoRefDTO> orders)
+                              List<OrderNoRefDTO> orders,
+                              Long ordersTotal,
+                              String ordersNext)
         implements ICoffeePublicDTO {
 
+    public CoffeePublicDTO(Long id, String name, Double price, List<OrderNoRefDTO> orders) {
+        this(id, name, price, orders, orders == null ? null : (long) orders.size(), null);
+    }
+
     public CoffeePublicDTO(Coffee coffee) {
         this(
                 coffee.getId(),
@@ -0,0 +1,13 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.ICoffeeStatsDTO;
+
+import java.time.LocalDateTime;
+
+public record CoffeeStatsDTO(Long coffeeId,
+                             LocalDateTime bucket,
+                             Long orders,
+                             Long quantity,
+                             Double revenue)
+        implements ICoffeeStatsDTO {
+}
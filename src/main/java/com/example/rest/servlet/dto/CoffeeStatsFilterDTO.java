@@ -0,0 +1,14 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.ICoffeeStatsFilterDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record CoffeeStatsFilterDTO(@DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                   LocalDateTime from,
+                                   @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                   LocalDateTime to,
+                                   String bucket)
+        implements ICoffeeStatsFilterDTO {
+}
@@ -0,0 +1,7 @@
+package com.example.rest.servlet.dto;
+
+import java.time.LocalDateTime;
+
+public record OrderAcceptedDTO(Long id,
+                               LocalDateTime created) {
+}
@@ -0,0 +1,16 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderFilterDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record OrderFilterDTO(Long after,
+                             Integer limit,
+                             String status,
+                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                             LocalDateTime createdFrom,
+                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                             LocalDateTime createdTo)
+        implements IOrderFilterDTO {
+}
@@ -1,6 +1,8 @@
 package com.example.rest.servlet.dto;
 
 import com.example.rest.entity.Order;
+import com.example.rest.repository.NestedOrderRow;
+import com.example.rest.repository.OrderArchiveRow;
 import com.example.rest.service.dto.IOrderNoRefDTO;
 
 import java.time.LocalDateTime;
@@ -21,4 +23,24 @@ public record OrderNoRefDTO(Long id,
                 order.getPrice()
         );
     }
+
+    public OrderNoRefDTO(NestedOrderRow row) {
+        this(
+                row.id(),
+                row.baristaId(),
+                row.created(),
+                row.completed(),
+                row.price()
+        );
+    }
+
+    public OrderNoRefDTO(OrderArchiveRow row) {
+        this(
+                row.id(),
+                row.baristaId(),
+                row.created(),
+                row.completed(),
+                row.price()
+        );
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderPatchDTO;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.LocalDateTime;
+
+public record OrderPatchDTO(
+        @PositiveOrZero(message = "Id can't be less than zero!")
+        Long id,
+
+        @PositiveOrZero(message = "Barista id can't be less than zero!")
+        Long baristaId,
+
+        @PastOrPresent(message = "Order can be created only in past or in present, but not in the future!")
+        LocalDateTime created,
+
+        @PastOrPresent(message = "Order can be completed only in past or in present, but not in the future!")
+        LocalDateTime completed)
+        implements IOrderPatchDTO {
+}
@@ -4,6 +4,7 @@ import com.example.rest.entity.Order;
 import com.example.rest.service.dto.IOrderPublicDTO;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 public record OrderPublicDTO(Long id,
@@ -21,8 +22,8 @@ public record OrderPublicDTO(Long id,
                 order.getCreated(),
                 order.getCompleted(),
                 order.getPrice(),
-                order.getCoffeeList().stream()
-                        .map(CoffeeNoRefDTO::new)
+                order.getLines().stream()
+                        .flatMap(line -> Collections.nCopies(line.getQuantity(), new CoffeeNoRefDTO(line)).stream())
                         .toList()
         );
     }
@@ -0,0 +1,16 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderRetentionDTO;
+
+import java.time.LocalDateTime;
+
+public record OrderRetentionDTO(Boolean purging,
+                                LocalDateTime createdBefore,
+                                Long deletedOrders,
+                                Long deletedArchivedOrders,
+                                Long droppedPartitions,
+                                Long chunks,
+                                LocalDateTime lastStarted,
+                                LocalDateTime lastFinished)
+        implements IOrderRetentionDTO {
+}
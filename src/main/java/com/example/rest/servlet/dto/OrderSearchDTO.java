@@ -0,0 +1,21 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderSearchDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record OrderSearchDTO(Long after,
+                             Integer limit,
+                             String status,
+                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                             LocalDateTime createdFrom,
+                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                             LocalDateTime createdTo,
+                             Long baristaId,
+                             Long coffeeId,
+                             Double minPrice,
+                             Double maxPrice,
+                             Boolean includeArchived)
+        implements IOrderSearchDTO {
+}
@@ -0,0 +1,10 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderSliceDTO;
+
+import java.util.List;
+
+public record OrderSliceDTO(List<OrderNoRefDTO> orders,
+                            Long nextAfter)
+        implements IOrderSliceDTO {
+}
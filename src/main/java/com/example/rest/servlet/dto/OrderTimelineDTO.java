@@ -0,0 +1,13 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderTimelineDTO;
+
+import java.time.LocalDateTime;
+
+public record OrderTimelineDTO(LocalDateTime minute,
+                               Long created,
+                               Long completed,
+                               Double averageWaitSeconds,
+                               Long queueDepth)
+        implements IOrderTimelineDTO {
+}
@@ -0,0 +1,12 @@
+package com.example.rest.servlet.dto;
+
+import com.example.rest.service.dto.IOrderWaitTimeDTO;
+
+public record OrderWaitTimeDTO(Long id,
+                               Long orders,
+                               Double p50Seconds,
+                               Double p95Seconds,
+                               Double p99Seconds,
+                               Double maxSeconds)
+        implements IOrderWaitTimeDTO {
+}
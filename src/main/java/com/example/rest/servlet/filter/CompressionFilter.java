@@ -0,0 +1,280 @@
+package com.example.rest.servlet.filter;
+
+import com.example.rest.service.IResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Filter that compresses response body with gzip or deflate, when client accept it
+ * and body is not less than minimal size.
+ * Responses of cached paths (coffee menu by default) are kept in memory already compressed,
+ * so repeated requests are served without calling controller. Cache is cleared by any successful
+ * modifying request and by services after commit of order changes, which are also made by background
+ * writers without request through this filter. Entries expire after time to live, so changes
+ * of other instances are served after it, and least recently used entry is evicted, when cache is full.
+ */
+@Component("compressionFilter")
+public class CompressionFilter extends OncePerRequestFilter implements IResponseCache {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > maxCachedEntries;
+        }
+    };
+    private final AtomicLong generation = new AtomicLong();
+
+    private int minSize = 2048;
+    private volatile int maxCachedEntries = 64;
+    private long cacheTtlMillis = 5000;
+    private Set<String> cachedPaths = Set.of("/coffees");
+
+    /**
+     * Set minimal body size in bytes, from which body is compressed.
+     *
+     * @param minSize minimal size in bytes. Can't be less than zero.
+     * @throws IllegalArgumentException when minSize is less than zero.
+     */
+    @Value("${compression.minSize:2048}")
+    public void setMinSize(int minSize) {
+        if (minSize < 0)
+            throw new IllegalArgumentException("Minimal size can't be less than zero!");
+        this.minSize = minSize;
+    }
+
+    /**
+     * Set maximum number of cached responses.
+     *
+     * @param maxCachedEntries maximum number of cached responses. Can't be less than zero.
+     * @throws IllegalArgumentException when maxCachedEntries is less than zero.
+     */
+    @Value("${compression.maxCachedEntries:64}")
+    public void setMaxCachedEntries(int maxCachedEntries) {
+        if (maxCachedEntries < 0)
+            throw new IllegalArgumentException("Maximum cached entries can't be less than zero!");
+        this.maxCachedEntries = maxCachedEntries;
+    }
+
+    /**
+     * Set time to live of cached response.
+     *
+     * @param cacheTtlMillis time to live in milliseconds. Must be greater than zero.
+     * @throws IllegalArgumentException when cacheTtlMillis is not greater than zero.
+     */
+    @Value("${compression.cacheTtlMillis:5000}")
+    public void setCacheTtlMillis(long cacheTtlMillis) {
+        if (cacheTtlMillis < 1)
+            throw new IllegalArgumentException("Cache time to live must be greater than zero!");
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /**
+     * Set paths, which GET responses are cached. Comma separated, without trailing slash.
+     *
+     * @param cachedPaths comma separated paths, for example "/coffees".
+     */
+    @Value("${compression.cachedPaths:/coffees}")
+    public void setCachedPaths(String cachedPaths) {
+        this.cachedPaths = Set.of(cachedPaths.split("\\s*,\\s*"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String encoding = chooseEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String cacheKey = getCacheKey(request);
+
+        if (cacheKey != null) {
+            CachedResponse cached = getCached(cacheKey);
+            if (cached != null) {
+                String effective = cached.effectiveEncoding(encoding);
+                writeBody(response, cached.contentType(), effective, cached.encoded(effective));
+                return;
+            }
+        }
+
+        long startGeneration = generation.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        boolean successful = wrapper.getStatus() >= 200 && wrapper.getStatus() < 300;
+        if (successful && !SAFE_METHODS.contains(request.getMethod()))
+            evictAll();
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && cacheKey != null) {
+            CachedResponse cached = new CachedResponse(wrapper.getContentType(), body,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis));
+            synchronized (cache) {
+                if (generation.get() == startGeneration)
+                    cache.put(cacheKey, cached);
+            }
+            String effective = cached.effectiveEncoding(encoding);
+            writeBody(wrapper, cached.contentType(), effective, cached.encoded(effective));
+        } else if (body.length >= minSize && isCompressible(wrapper) && !IDENTITY.equals(encoding)) {
+            writeBody(wrapper, wrapper.getContentType(), encoding, compress(body, encoding));
+        }
+
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * Evict all cached responses. Responses, which are being built, are not cached,
+     * because they could be read before eviction.
+     */
+    @Override
+    public void evictAll() {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    /**
+     * Choose the best supported encoding from Accept-Encoding header value.
+     *
+     * @param acceptEncoding Accept-Encoding header value, can be null.
+     * @return gzip, deflate or identity.
+     */
+    static String chooseEncoding(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return IDENTITY;
+
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase();
+            boolean rejected = parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            if (rejected)
+                continue;
+            if (GZIP.equals(name) || "*".equals(name))
+                return GZIP;
+            if (DEFLATE.equals(name))
+                deflate = true;
+        }
+        return deflate ? DEFLATE : IDENTITY;
+    }
+
+    /**
+     * Compress bytes with specified encoding.
+     *
+     * @param body     bytes to compress.
+     * @param encoding gzip or deflate.
+     * @return compressed bytes.
+     */
+    static byte[] compress(byte[] body, String encoding) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream out = GZIP.equals(encoding)
+                ? new GZIPOutputStream(buffer)
+                : new DeflaterOutputStream(buffer)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private String getCacheKey(HttpServletRequest request) {
+        if (!HttpMethod.GET.name().equals(request.getMethod()) || maxCachedEntries == 0)
+            return null;
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.length() > 1 && path.endsWith("/"))
+            path = path.substring(0, path.length() - 1);
+        if (!cachedPaths.contains(path))
+            return null;
+
+        String query = request.getQueryString();
+        return query == null ? path : path + "?" + query;
+    }
+
+    private CachedResponse getCached(String cacheKey) {
+        synchronized (cache) {
+            CachedResponse cached = cache.get(cacheKey);
+            if (cached != null && System.nanoTime() - cached.expiresAt() >= 0) {
+                cache.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private boolean isCompressible(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return response.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && contentType != null
+                && (contentType.contains("json") || contentType.startsWith("text/"));
+    }
+
+    private void writeBody(HttpServletResponse response, String contentType, String encoding, byte[] body) throws IOException {
+        if (response instanceof ContentCachingResponseWrapper wrapper)
+            wrapper.resetBuffer();
+
+        if (contentType != null)
+            response.setContentType(contentType);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!IDENTITY.equals(encoding))
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Response body, stored with all encoded variants. Variants are computed once on demand.
+     */
+    private final class CachedResponse {
+        private final String contentType;
+        private final long expiresAt;
+        private final Map<String, byte[]> variants = new ConcurrentHashMap<>();
+
+        private CachedResponse(String contentType, byte[] body, long expiresAt) {
+            this.contentType = contentType;
+            this.expiresAt = expiresAt;
+            this.variants.put(IDENTITY, body);
+        }
+
+        String contentType() {
+            return contentType;
+        }
+
+        long expiresAt() {
+            return expiresAt;
+        }
+
+        String effectiveEncoding(String encoding) {
+            return variants.get(IDENTITY).length < minSize ? IDENTITY : encoding;
+        }
+
+        byte[] encoded(String encoding) {
+            byte[] body = variants.get(IDENTITY);
+            if (IDENTITY.equals(encoding))
+                return body;
+            return variants.computeIfAbsent(encoding, enc -> compress(body, enc));
+        }
+    }
+}
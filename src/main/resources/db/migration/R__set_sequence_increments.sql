@@ -0,0 +1,33 @@
+-- Increments of id sequences must be equal to allocation sizes of pooled-lo generators.
+-- Values come from db.properties as placeholders, so migration is reapplied when they change.
+-- Under pooled-lo, value v of sequence hands out ids from v to v + increment - 1. When increment is changed,
+-- sequence is moved past the block, handed out by last value with old increment, so next value
+-- with smaller increment doesn't start inside it. Alter sequence locks sequence until commit,
+-- so nextval of running instances waits and doesn't take value between reading and moving.
+do
+$$
+    declare
+        seq           record;
+        old_increment bigint;
+        last          bigint;
+    begin
+        for seq in select *
+                   from (values ('barista_sequence', ${baristaAllocationSize}),
+                                ('coffee_sequence', ${coffeeAllocationSize}),
+                                ('order_sequence', ${orderAllocationSize})) as s(name, increment)
+            loop
+                select increment_by
+                into old_increment
+                from pg_sequences
+                where schemaname = current_schema()
+                  and sequencename = seq.name;
+                continue when old_increment = seq.increment;
+
+                execute format('alter sequence %I increment by %s', seq.name, seq.increment);
+                execute format('select case when is_called then last_value end from %I', seq.name) into last;
+                if last is not null then
+                    perform setval(seq.name::regclass, last + old_increment, false);
+                end if;
+            end loop;
+    end
+$$;
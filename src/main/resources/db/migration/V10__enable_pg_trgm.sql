@@ -0,0 +1,4 @@
+-- Trigram matching of text, used by barista name search.
+-- Enabled in its own migration, because indexes on it are created concurrently outside of transaction.
+
+create extension if not exists pg_trgm;
@@ -0,0 +1,5 @@
+-- Index for barista name search: substring (like '%query%') and similarity (%) matching
+-- of lower-cased full name are read from trigram index, so roster is not scanned.
+-- Created concurrently, so writes to barista are not blocked on existing databases.
+
+create index concurrently if not exists barista_full_name_trgm_idx on barista using gin (lower(full_name) gin_trgm_ops);
@@ -0,0 +1,36 @@
+-- Archive of completed orders, moved from "order" and order_coffee by archival job,
+-- so live order table holds only recent orders and its scans stay short.
+-- Archive tables are range-partitioned by month of order's created time: archival job creates
+-- partition of month before orders of the month are moved, so old months can be detached or dropped
+-- without touching other rows. Default partitions hold rows of months without partition.
+-- Archive has no foreign keys, so barista and coffee of archived orders can be deleted.
+
+create table if not exists order_archive
+(
+    id        bigint       not null,
+    barista   bigint       not null,
+    created   timestamp(6) not null,
+    completed timestamp(6) not null,
+    price     float(53)    not null,
+    archived  timestamp(6) not null,
+    constraint order_archive_pk primary key (id, created)
+) partition by range (created);
+
+create table if not exists order_archive_default partition of order_archive default;
+
+create index if not exists order_archive_barista_id_idx on order_archive (barista, id);
+
+create table if not exists order_coffee_archive
+(
+    order_id    bigint       not null,
+    coffee_id   bigint       not null,
+    coffee_name varchar(255) not null,
+    quantity    integer      not null,
+    unit_price  float(53)    not null,
+    created     timestamp(6) not null,
+    constraint order_coffee_archive_pk primary key (order_id, coffee_id, created)
+) partition by range (created);
+
+create table if not exists order_coffee_archive_default partition of order_coffee_archive default;
+
+create index if not exists order_coffee_archive_coffee_id_order_id_idx on order_coffee_archive (coffee_id, order_id);
@@ -0,0 +1,6 @@
+-- Request of idempotency key is fingerprinted by SHA-256 hex digest instead of 32-bit hash,
+-- so other request with reused key is not taken for retry. Keys, stored before, keep old hash
+-- in decimal form, which never equals digest, so their reuse is rejected instead of creating duplicate.
+
+alter table order_idempotency_key
+    alter column request_hash type varchar(64) using request_hash::varchar(64);
@@ -0,0 +1,35 @@
+-- Default partitions of archive are removed, because partition can't be detached concurrently
+-- from partitioned table with default partition, and each new partition scans default one under lock.
+-- Archival job creates partition of month before orders of the month are moved, so default partitions
+-- are expected to be empty; rows, which are found in them, are moved to partitions of their months.
+
+do
+$$
+    declare
+        month timestamp;
+    begin
+        if to_regclass('order_archive_default') is null then
+            return;
+        end if;
+
+        alter table order_archive detach partition order_archive_default;
+        alter table order_coffee_archive detach partition order_coffee_archive_default;
+
+        for month in select date_trunc('month', a.created) from order_archive_default a
+                     union
+                     select date_trunc('month', l.created) from order_coffee_archive_default l
+            loop
+                execute format('create table if not exists order_archive_%s partition of order_archive '
+                                   'for values from (%L) to (%L)',
+                               to_char(month, '"y"YYYY"m"MM'), month, month + interval '1 month');
+                execute format('create table if not exists order_coffee_archive_%s partition of order_coffee_archive '
+                                   'for values from (%L) to (%L)',
+                               to_char(month, '"y"YYYY"m"MM'), month, month + interval '1 month');
+            end loop;
+
+        insert into order_archive select * from order_archive_default;
+        insert into order_coffee_archive select * from order_coffee_archive_default;
+        drop table order_archive_default;
+        drop table order_coffee_archive_default;
+    end
+$$;
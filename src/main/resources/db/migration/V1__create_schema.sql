@@ -0,0 +1,41 @@
+-- Schema, that was created by hibernate ddl-auto before migrations were introduced.
+-- Existing databases are baselined at this version, so the script is applied to empty databases only.
+
+create sequence if not exists barista_sequence start with 1 increment by 10;
+create sequence if not exists coffee_sequence start with 1 increment by 10;
+create sequence if not exists order_sequence start with 1 increment by 10;
+
+create table if not exists barista
+(
+    id        bigint       not null,
+    full_name varchar(255) not null,
+    tip_size  float(53)    not null,
+    primary key (id)
+);
+
+create table if not exists coffee
+(
+    id    bigint       not null,
+    name  varchar(255) not null,
+    price float(53)    not null,
+    primary key (id)
+);
+
+create table if not exists "order"
+(
+    id        bigint       not null,
+    barista   bigint       not null,
+    created   timestamp(6) not null,
+    completed timestamp(6),
+    price     float(53)    not null,
+    primary key (id),
+    constraint order_barista_fk foreign key (barista) references barista
+);
+
+create table if not exists order_coffee
+(
+    order_id  bigint not null,
+    coffee_id bigint not null,
+    constraint order_coffee_order_fk foreign key (order_id) references "order",
+    constraint order_coffee_coffee_fk foreign key (coffee_id) references coffee
+);
@@ -0,0 +1,9 @@
+-- Indexes for hot lookup paths:
+-- orders of barista, orders of coffee, orders by created period and order queue
+-- (not completed orders sorted by created).
+-- Created concurrently, so writes to orders are not blocked on existing databases.
+
+create index concurrently if not exists order_barista_idx on "order" (barista);
+create index concurrently if not exists order_created_idx on "order" (created);
+create index concurrently if not exists order_completed_created_idx on "order" (completed, created);
+create index concurrently if not exists order_coffee_coffee_id_idx on order_coffee (coffee_id);
@@ -0,0 +1,34 @@
+-- Order lines: each row of order_coffee holds one coffee of order with quantity
+-- and unit price copied at order time. Repeated rows of the old coffee bag are merged
+-- into one line, so changed orders update only their changed lines.
+
+alter table order_coffee
+    add column if not exists quantity integer not null default 1,
+    add column if not exists unit_price float(53);
+
+update order_coffee oc
+set quantity = d.quantity
+from (select order_id, coffee_id, count(*) quantity
+      from order_coffee
+      group by order_id, coffee_id
+      having count(*) > 1) d
+where oc.order_id = d.order_id
+  and oc.coffee_id = d.coffee_id;
+
+delete
+from order_coffee
+where ctid in (select ctid
+               from (select ctid, row_number() over (partition by order_id, coffee_id) rn
+                     from order_coffee) r
+               where r.rn > 1);
+
+update order_coffee oc
+set unit_price = c.price
+from coffee c
+where oc.coffee_id = c.id
+  and oc.unit_price is null;
+
+alter table order_coffee
+    alter column unit_price set not null,
+    alter column quantity drop default,
+    add constraint order_coffee_pk primary key (order_id, coffee_id);
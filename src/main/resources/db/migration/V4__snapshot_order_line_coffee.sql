@@ -0,0 +1,14 @@
+-- Coffee's name is copied to order line together with unit price,
+-- so orders are rendered and reported without joining coffee table.
+
+alter table order_coffee
+    add column if not exists coffee_name varchar(255);
+
+update order_coffee oc
+set coffee_name = c.name
+from coffee c
+where oc.coffee_id = c.id
+  and oc.coffee_name is null;
+
+alter table order_coffee
+    alter column coffee_name set not null;
@@ -0,0 +1,14 @@
+-- Idempotency keys of created orders. Row is inserted in the same transaction as order,
+-- so retried POST /orders with the same Idempotency-Key returns stored order.
+
+create table if not exists order_idempotency_key
+(
+    idempotency_key varchar(255) not null,
+    request_hash    integer      not null,
+    order_id        bigint       not null,
+    created         timestamp(6) not null,
+    constraint order_idempotency_key_pk primary key (idempotency_key),
+    constraint order_idempotency_key_order_fk foreign key (order_id) references "order" (id) on delete cascade
+);
+
+create index if not exists order_idempotency_key_created_idx on order_idempotency_key (created);
@@ -0,0 +1,20 @@
+-- Hourly rollup of ordered coffee: number of orders, quantity and revenue of lines
+-- by coffee and hour of order's created time. Rows are changed by order writes in the same
+-- transaction, so coffee statistics are read without scanning order lines.
+
+create table if not exists coffee_stats_hourly
+(
+    coffee_id bigint       not null,
+    bucket    timestamp(6) not null,
+    orders    bigint       not null,
+    quantity  bigint       not null,
+    revenue   float(53)    not null,
+    constraint coffee_stats_hourly_pk primary key (bucket, coffee_id)
+);
+
+insert into coffee_stats_hourly (coffee_id, bucket, orders, quantity, revenue)
+select oc.coffee_id, date_trunc('hour', o.created), count(*), sum(oc.quantity), sum(oc.unit_price * oc.quantity)
+from order_coffee oc
+         join "order" o on o.id = oc.order_id
+group by oc.coffee_id, date_trunc('hour', o.created)
+on conflict do nothing;
@@ -0,0 +1,13 @@
+-- Per-minute rollup of order throughput: created and completed orders, sum of waits
+-- of completed orders and queue depth at the end of minute. Rows are flushed periodically
+-- from in-memory counters and overwritten with their current values.
+
+create table if not exists order_stats_minute
+(
+    minute       timestamp(6) not null,
+    created      bigint       not null,
+    completed    bigint       not null,
+    wait_seconds float(53)    not null,
+    queue_depth  bigint       not null,
+    constraint order_stats_minute_pk primary key (minute)
+);
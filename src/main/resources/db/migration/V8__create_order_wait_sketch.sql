@@ -0,0 +1,13 @@
+-- Hourly quantile sketches of order wait time from created to completed, one row for each barista
+-- and each coffee of completed orders. Sketch is HDR histogram of wait in milliseconds,
+-- serialized in compressed form. Rows are flushed periodically from in-memory sketches
+-- and overwritten with their current values; sketches of any hours are merged by adding histograms.
+
+create table if not exists order_wait_sketch
+(
+    dimension varchar(16)  not null,
+    bucket    timestamp(6) not null,
+    key_id    bigint       not null,
+    histogram bytea        not null,
+    constraint order_wait_sketch_pk primary key (dimension, bucket, key_id)
+);
@@ -0,0 +1,10 @@
+-- Indexes for filtered keyset pagination of orders, ordered by id:
+-- orders of barista and orders of coffee are read in id order from index,
+-- so next slice is found without sorting all matching orders.
+-- They replace single-column indexes on barista and coffee_id, which are their prefixes.
+-- Created concurrently, so writes to orders are not blocked on existing databases.
+
+create index concurrently if not exists order_barista_id_idx on "order" (barista, id);
+create index concurrently if not exists order_coffee_coffee_id_order_id_idx on order_coffee (coffee_id, order_id);
+drop index concurrently if exists order_barista_idx;
+drop index concurrently if exists order_coffee_coffee_id_idx;
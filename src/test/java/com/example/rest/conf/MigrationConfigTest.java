@@ -0,0 +1,142 @@
+package com.example.rest.conf;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrations are applied to Postgres, because concurrent index creation, partitions and trigram indexes
+ * are not supported by H2. Skipped, when docker is not available.
+ * Plans of queries before and after index creation are printed, so they can be compared on each run.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationConfigTest {
+    @Container
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        PGSimpleDataSource pgDataSource = new PGSimpleDataSource();
+        pgDataSource.setUrl(postgres.getJdbcUrl());
+        pgDataSource.setUser(postgres.getUsername());
+        pgDataSource.setPassword(postgres.getPassword());
+        dataSource = pgDataSource;
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private Flyway migrate() {
+        MigrationConfig migrationConfig = new MigrationConfig();
+        ReflectionTestUtils.setField(migrationConfig, "enabled", true);
+        ReflectionTestUtils.setField(migrationConfig, "locations", "classpath:db/migration");
+        ReflectionTestUtils.setField(migrationConfig, "baselineOnMigrate", true);
+        ReflectionTestUtils.setField(migrationConfig, "baselineVersion", "1");
+        ReflectionTestUtils.setField(migrationConfig, "baristaAllocationSize", 10);
+        ReflectionTestUtils.setField(migrationConfig, "coffeeAllocationSize", 10);
+        ReflectionTestUtils.setField(migrationConfig, "orderAllocationSize", 10);
+        return assertTimeoutPreemptively(Duration.ofMinutes(2), () -> migrationConfig.flyway(dataSource));
+    }
+
+    private void seed() {
+        jdbcTemplate.update("""
+                insert into barista (id, full_name, tip_size)
+                select i, 'Barista ' || i, 0.1 from generate_series(1, 100) i
+                """);
+        jdbcTemplate.update("""
+                insert into "order" (id, barista, created, completed, price)
+                select i, i % 100 + 1, now() - i * interval '1 minute',
+                       case when i % 1000 = 0 then null else now() end, 10
+                  from generate_series(1, 20000) i
+                """);
+        jdbcTemplate.execute("analyze");
+    }
+
+    /**
+     * Plan is built with sequential scans discouraged, so index is chosen for small test tables too.
+     * Index is dropped in rolled back transaction, when plan before its creation is built.
+     */
+    private String explain(String query, String droppedIndex) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            if (droppedIndex != null)
+                jdbcTemplate.execute("drop index " + droppedIndex);
+            List<String> plan = jdbcTemplate.queryForList("explain " + query, String.class);
+            return String.join(System.lineSeparator(), plan);
+        });
+    }
+
+    private void assertIndexUsed(String index, String query) {
+        String before = explain(query, index);
+        String after = explain(query, null);
+        System.out.printf("%s%nbefore:%n%s%nafter:%n%s%n%n", query, before, after);
+
+        assertFalse(before.contains(index));
+        assertTrue(after.contains(index), after);
+    }
+
+    //migrate
+    @Test
+    public void shouldApplyAllMigrations_WhenDatabaseEmpty() {
+        Flyway flyway = migrate();
+
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from pg_index where not indisvalid or not indisready", Integer.class));
+    }
+
+    @Test
+    public void shouldNotApplyMigrations_WhenDatabaseUpToDate() {
+        Flyway flyway = migrate();
+        String version = flyway.info().current().getVersion().getVersion();
+
+        Flyway repeated = migrate();
+
+        assertEquals(version, repeated.info().current().getVersion().getVersion());
+    }
+
+    //indexes
+    @Test
+    public void shouldReadOrdersOfBaristaFromIndex_WhenMigrated() {
+        migrate();
+        seed();
+
+        assertIndexUsed("order_barista_id_idx",
+                "select id from \"order\" where barista = 7 and id > 100 order by id limit 20");
+    }
+
+    @Test
+    public void shouldReadQueueFromIndex_WhenMigrated() {
+        migrate();
+        seed();
+
+        assertIndexUsed("order_completed_created_idx",
+                "select id from \"order\" where completed is null order by created limit 20");
+    }
+
+    @Test
+    public void shouldReadBaristaSearchFromIndex_WhenMigrated() {
+        migrate();
+        seed();
+
+        assertIndexUsed("barista_full_name_trgm_idx",
+                "select id from barista where lower(full_name) like '%sta 4%'");
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.rest.conf;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    public void setup() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+    }
+
+    private static DataSource createDatabase(String node) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", node);
+        return dataSource;
+    }
+
+    private static String queryNode(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+    }
+
+    private ReplicaRoutingDataSource createRouting(long lag) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica);
+        routingDataSource.setLagQuery("select " + lag);
+        routingDataSource.setMaxLagMillis(1000);
+        return routingDataSource;
+    }
+
+    //getConnection
+    @Test
+    void getConnection_WhenReadOnlyTransaction_ShouldUseReplica() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+
+        assertEquals("replica", queryNode(routingDataSource, true));
+        assertEquals(1, routingDataSource.getRoutedCount(ReplicaRoutingDataSource.Route.REPLICA));
+    }
+
+    @Test
+    void getConnection_WhenReadWriteTransaction_ShouldUsePrimary() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+
+        assertEquals("primary", queryNode(routingDataSource, false));
+        assertEquals(0, routingDataSource.getRoutedCount(ReplicaRoutingDataSource.Route.REPLICA));
+    }
+
+    @Test
+    void getConnection_WhenNoTransaction_ShouldUsePrimary() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+
+        assertEquals("primary", new JdbcTemplate(routingDataSource).queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    void getConnection_WhenReplicaLagAboveMaximum_ShouldUsePrimary() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(5000);
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        assertEquals(5000, routingDataSource.getLastLagMillis());
+    }
+
+    @Test
+    void getConnection_WhenLagCheckFails_ShouldUsePrimary() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+        routingDataSource.setLagQuery("select unknown_column from node");
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        assertEquals(-1, routingDataSource.getLastLagMillis());
+    }
+
+    @Test
+    void getConnection_WhenReplicaConnectionFails_ShouldFallBackToPrimary() throws SQLException {
+        DataSource brokenReplica = Mockito.mock(DataSource.class);
+        Mockito.when(brokenReplica.getConnection())
+                .thenReturn(replica.getConnection())
+                .thenThrow(new SQLException("Connection refused"));
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, brokenReplica);
+        routingDataSource.setLagQuery("select 0");
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        assertEquals(1, routingDataSource.getFallbackCount());
+        assertFalse(routingDataSource.isReplicaUsable());
+    }
+
+    @Test
+    void getConnection_WhenNoReplica_ShouldUsePrimary() {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, null);
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        assertFalse(routingDataSource.isReplicaUsable());
+    }
+
+    @Test
+    void getConnection_WhenLagRecovers_ShouldReturnToReplica() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(5000);
+        routingDataSource.setLagCheckIntervalMillis(0);
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        routingDataSource.setLagQuery("select 10");
+        assertEquals("replica", queryNode(routingDataSource, true));
+    }
+
+    //setters
+    @Test
+    void setMaxLagMillis_WhenLessThanZero_ShouldThrowIllegalArgumentException() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+
+        assertThrows(IllegalArgumentException.class, () -> routingDataSource.setMaxLagMillis(-1));
+    }
+
+    @Test
+    void setLagCheckIntervalMillis_WhenLessThanZero_ShouldThrowIllegalArgumentException() {
+        ReplicaRoutingDataSource routingDataSource = createRouting(0);
+
+        assertThrows(IllegalArgumentException.class, () -> routingDataSource.setLagCheckIntervalMillis(-1));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.id.PooledLoSequenceGenerator;
+import org.HdrHistogram.Histogram;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Flush time of completing one order, while many orders with lines are managed by session,
+ * like completeOrder in a long unit of work. With enhanced classes flush asks entities for their
+ * changed attributes, without enhancement it compares every loaded state with its snapshot.
+ * Run by benchmark profile against in-memory H2 or any database given by benchmark.url:
+ * mvn clean test -Pbenchmark -Dtest=CompleteOrderBenchmark
+ * Before (plain classes): mvn clean test -Pbenchmark -Dtest=CompleteOrderBenchmark -Dhibernate.enhance.phase=none
+ */
+class CompleteOrderBenchmark {
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 3000);
+    private static final int COMPLETIONS = Integer.getInteger("benchmark.completions", 500);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 500);
+    private static final String URL = System.getProperty("benchmark.url", "jdbc:h2:mem:complete-order;DB_CLOSE_DELAY=-1");
+    private static final String USER = System.getProperty("benchmark.user", "sa");
+    private static final String PASSWORD = System.getProperty("benchmark.password", "");
+
+    private final List<String> statements = new ArrayList<>();
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    public void setup() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Barista.class)
+                .addAnnotatedClass(Coffee.class)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderLine.class)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_URL, URL)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_USER, USER)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_PASSWORD, PASSWORD)
+                .setProperty(SchemaToolingSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("barista_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("coffee_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"), "10");
+        configuration.setStatementInspector((StatementInspector) sql -> {
+            statements.add(sql);
+            return sql;
+        });
+        sessionFactory = configuration.buildSessionFactory();
+        seed();
+    }
+
+    @AfterEach
+    public void close() {
+        sessionFactory.close();
+    }
+
+    private void seed() {
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("insert into barista (id, full_name, tip_size) values (1, 'Barista', 0.1)");
+                statement.execute("insert into coffee (id, name, price) values (1, 'Latte', 4.5), (2, 'Mocha', 5.0)");
+            }
+            try (var orders = connection.prepareStatement(
+                    "insert into \"order\" (id, barista, created, price) values (?, 1, ?, 10.45)");
+                 var lines = connection.prepareStatement(
+                    "insert into order_coffee (order_id, coffee_id, coffee_name, quantity, unit_price) values (?, ?, 'Latte', 1, 4.5)")) {
+                for (long id = 1; id <= ORDERS; id++) {
+                    orders.setLong(1, id);
+                    orders.setObject(2, LocalDateTime.of(2024, 1, 1, 10, 0));
+                    orders.addBatch();
+                    for (long coffeeId = 1; coffeeId <= 2; coffeeId++) {
+                        lines.setLong(1, id);
+                        lines.setLong(2, coffeeId);
+                        lines.addBatch();
+                    }
+                }
+                orders.executeBatch();
+                lines.executeBatch();
+            }
+        }));
+    }
+
+    @Test
+    public void completeOrder() {
+        Histogram flushes = new Histogram(3);
+        AtomicInteger updates = new AtomicInteger();
+        sessionFactory.inTransaction(session -> {
+            List<Order> orders = loadOrders(session);
+            for (int i = 0; i < WARMUP + COMPLETIONS; i++) {
+                Order order = orders.get(i * (ORDERS / (WARMUP + COMPLETIONS)));
+                order.setCompleted(LocalDateTime.of(2024, 1, 1, 10, 5));
+                statements.clear();
+
+                long started = System.nanoTime();
+                session.flush();
+                if (i >= WARMUP)
+                    flushes.recordValue(System.nanoTime() - started);
+
+                for (String sql : statements) {
+                    assertTrue(sql.startsWith("update \"order\" set completed=? where id=?"), sql);
+                    updates.incrementAndGet();
+                }
+            }
+        });
+
+        System.out.printf("completeOrder %s classes, %d managed orders: flush p50 %5d us, p99 %5d us, max %5d us%n",
+                ManagedEntity.class.isAssignableFrom(Order.class) ? "enhanced" : "plain",
+                ORDERS, flushes.getValueAtPercentile(50) / 1000, flushes.getValueAtPercentile(99) / 1000,
+                flushes.getMaxValue() / 1000);
+        assertEquals(WARMUP + COMPLETIONS, updates.get());
+    }
+
+    private List<Order> loadOrders(Session session) {
+        List<Order> orders = session.createSelectionQuery(
+                "select distinct o from Order o join fetch o.lines l join fetch l.coffee order by o.id", Order.class)
+                .getResultList();
+        assertEquals(ORDERS, orders.size());
+        return orders;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.id.PooledLoSequenceGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.BatchSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of bulk order intake for different allocation sizes of order_sequence.
+ * Orders with two lines are persisted in chunks, one transaction per chunk, with the same batching as application.
+ * All sizes are run once for warm-up, then in several rounds, and median throughput is printed.
+ * Calls of nextval are counted and checked, so effect of allocation size is seen also where round trip to database is cheap.
+ * Run by benchmark profile against in-memory H2 or any database given by benchmark.url:
+ * mvn test -Pbenchmark -Dtest=OrderInsertBenchmark -Dbenchmark.allocationSizes=10,50,500
+ */
+class OrderInsertBenchmark {
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 20000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 5);
+    private static final int CHUNK = Integer.getInteger("benchmark.chunk", 500);
+    private static final String ALLOCATION_SIZES = System.getProperty("benchmark.allocationSizes", "10,50,500");
+    private static final String URL = System.getProperty("benchmark.url", "jdbc:h2:mem:order-insert;DB_CLOSE_DELAY=-1");
+    private static final String USER = System.getProperty("benchmark.user", "sa");
+    private static final String PASSWORD = System.getProperty("benchmark.password", "");
+
+    private final AtomicInteger nextvals = new AtomicInteger();
+    private final Map<Integer, Integer> nextvalCalls = new LinkedHashMap<>();
+
+    @Test
+    public void insertOrders() {
+        int[] allocationSizes = Arrays.stream(ALLOCATION_SIZES.split(",")).mapToInt(Integer::parseInt).toArray();
+        for (int allocationSize : allocationSizes)
+            insertOrders(allocationSize);
+
+        Map<Integer, double[]> throughputs = new LinkedHashMap<>();
+        for (int round = 0; round < ROUNDS; round++)
+            for (int allocationSize : allocationSizes)
+                throughputs.computeIfAbsent(allocationSize, key -> new double[ROUNDS])[round] = insertOrders(allocationSize);
+
+        throughputs.forEach((allocationSize, rounds) -> {
+            Arrays.sort(rounds);
+            System.out.printf("insertOrders allocation size %4d, %d orders: median %6.0f orders/s, %5d nextval calls%n",
+                    allocationSize, ORDERS, rounds[ROUNDS / 2], nextvalCalls.get(allocationSize));
+        });
+    }
+
+    /**
+     * Insert orders into new schema with specified allocation size of order_sequence.
+     *
+     * @return inserted orders per second.
+     */
+    private double insertOrders(int allocationSize) {
+        try (SessionFactory sessionFactory = sessionFactory(allocationSize)) {
+            seed(sessionFactory);
+            nextvals.set(0);
+            long started = System.nanoTime();
+            insert(sessionFactory, ORDERS);
+            long elapsed = System.nanoTime() - started;
+
+            assertTrue(nextvals.get() <= ORDERS / allocationSize + 1, String.valueOf(nextvals.get()));
+            nextvalCalls.put(allocationSize, nextvals.get());
+            return ORDERS * 1e9 / elapsed;
+        }
+    }
+
+    private SessionFactory sessionFactory(int orderAllocationSize) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Barista.class)
+                .addAnnotatedClass(Coffee.class)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderLine.class)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_URL, URL)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_USER, USER)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_PASSWORD, PASSWORD)
+                .setProperty(SchemaToolingSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(BatchSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(BatchSettings.ORDER_INSERTS, "true")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("barista_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("coffee_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"),
+                        String.valueOf(orderAllocationSize));
+        configuration.setStatementInspector((StatementInspector) sql -> {
+            if (sql.contains("order_sequence"))
+                nextvals.incrementAndGet();
+            return sql;
+        });
+        return configuration.buildSessionFactory();
+    }
+
+    private static void seed(SessionFactory sessionFactory) {
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("insert into barista (id, full_name, tip_size) values (1, 'Barista', 0.1)");
+                statement.execute("insert into coffee (id, name, price) values (1, 'Latte', 4.5), (2, 'Mocha', 5.0)");
+            }
+        }));
+    }
+
+    private static void insert(SessionFactory sessionFactory, int orders) {
+        for (int inserted = 0; inserted < orders; inserted += CHUNK) {
+            int chunk = Math.min(CHUNK, orders - inserted);
+            sessionFactory.inTransaction(session -> {
+                Barista barista = session.getReference(Barista.class, 1L);
+                List<Coffee> coffeeList = List.of(session.getReference(Coffee.class, 1L),
+                        session.getReference(Coffee.class, 2L));
+                for (int i = 0; i < chunk; i++)
+                    session.persist(order(barista, coffeeList));
+            });
+        }
+    }
+
+    private static Order order(Barista barista, List<Coffee> coffeeList) {
+        Order order = new Order();
+        order.setBarista(barista);
+        order.setCoffeeList(coffeeList);
+        order.setCreated(LocalDateTime.of(2024, 1, 1, 10, 0));
+        order.setPrice(10.45);
+        return order;
+    }
+}
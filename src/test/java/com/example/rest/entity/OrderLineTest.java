@@ -0,0 +1,81 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.exception.NoValidQuantityException;
+import com.example.rest.entity.exception.NullParamException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderLineTest {
+    @Test
+    void shouldReturnOrderLineWithCoffeePrice_WhenCorrectParams() {
+        Order mockedOrder = Mockito.mock(Order.class);
+        Coffee coffee = new Coffee(1L, "latte", 3.5, List.of());
+
+        OrderLine line = new OrderLine(mockedOrder, coffee, 2);
+
+        assertEquals(mockedOrder, line.getOrder());
+        assertEquals(coffee, line.getCoffee());
+        assertEquals(2, line.getQuantity());
+        assertEquals(3.5, line.getUnitPrice());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        Order mockedOrder = Mockito.mock(Order.class);
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+
+        Assertions.assertThrows(NullParamException.class, () -> new OrderLine(null, mockedCoffee, 1));
+        Assertions.assertThrows(NullParamException.class, () -> new OrderLine(mockedOrder, null, 1));
+        Assertions.assertThrows(NullParamException.class, () -> new OrderLine(mockedOrder, mockedCoffee, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void shouldThrowNoValidQuantityException_WhenConstructorQuantityLessThanOne(Integer quantity) {
+        Order mockedOrder = Mockito.mock(Order.class);
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+
+        Assertions.assertThrows(NoValidQuantityException.class, () -> new OrderLine(mockedOrder, mockedCoffee, quantity));
+    }
+
+    @Test
+    void shouldNotChangeUnitPrice_WhenCoffeePriceChanged() {
+        Coffee coffee = new Coffee(1L, "latte", 3.5, List.of());
+        OrderLine line = new OrderLine(Mockito.mock(Order.class), coffee, 1);
+
+        coffee.setPrice(4.0);
+
+        assertEquals(3.5, line.getUnitPrice());
+    }
+
+    @Test
+    void shouldSetCorrectQuantity_WhenSetQuantity() {
+        OrderLine line = new OrderLine(Mockito.mock(Order.class), Mockito.mock(Coffee.class), 1);
+
+        line.setQuantity(3);
+
+        assertEquals(3, line.getQuantity());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void shouldThrowNoValidQuantityException_WhenSetQuantityLessThanOne(Integer quantity) {
+        OrderLine line = new OrderLine(Mockito.mock(Order.class), Mockito.mock(Coffee.class), 1);
+
+        Assertions.assertThrows(NoValidQuantityException.class, () -> line.setQuantity(quantity));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenSetNullQuantity() {
+        OrderLine line = new OrderLine(Mockito.mock(Order.class), Mockito.mock(Coffee.class), 1);
+
+        Assertions.assertThrows(NullParamException.class, () -> line.setQuantity(null));
+    }
+}
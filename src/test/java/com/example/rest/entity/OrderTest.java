@@ -184,6 +184,48 @@ class OrderTest {
 
     }
 
+    @Test
+    void shouldGroupRepeatedCoffee_WhenSetCoffeeList() {
+        Coffee latte = new Coffee(1L, "latte", 3.0, List.of());
+        Coffee espresso = new Coffee(2L, "espresso", 2.0, List.of());
+        Order order = new Order();
+
+        order.setCoffeeList(List.of(latte, espresso, latte));
+
+        assertEquals(2, order.getLines().size());
+        assertEquals(latte, order.getLines().get(0).getCoffee());
+        assertEquals(2, order.getLines().get(0).getQuantity());
+        assertEquals(1, order.getLines().get(1).getQuantity());
+        assertEquals(List.of(latte, latte, espresso), order.getCoffeeList());
+    }
+
+    @Test
+    void shouldKeepExistingLineAndUnitPrice_WhenSetCoffeeListAgain() {
+        Coffee latte = new Coffee(1L, "latte", 3.0, List.of());
+        Coffee espresso = new Coffee(2L, "espresso", 2.0, List.of());
+        Order order = new Order();
+        order.setCoffeeList(List.of(latte, espresso));
+        OrderLine latteLine = order.getLines().get(0);
+        latte.setPrice(5.0);
+
+        order.setCoffeeList(List.of(latte, latte));
+
+        assertEquals(List.of(latteLine), order.getLines());
+        assertEquals(2, latteLine.getQuantity());
+        assertEquals(3.0, latteLine.getUnitPrice());
+    }
+
+    @Test
+    void shouldReturnSumOfUnitPrices_WhenGetLinesPrice() {
+        Coffee latte = new Coffee(1L, "latte", 3.0, List.of());
+        Coffee espresso = new Coffee(2L, "espresso", 2.0, List.of());
+        Order order = new Order();
+        order.setCoffeeList(List.of(latte, espresso, latte));
+        latte.setPrice(10.0);
+
+        assertEquals(8.0, order.getLinesPrice());
+    }
+
     @Test
     void shouldTrowNullParamException_WhenSetNullCoffeeList() {
         Order order = new Order();
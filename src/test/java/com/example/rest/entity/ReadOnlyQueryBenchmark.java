@@ -0,0 +1,150 @@
+package com.example.rest.entity;
+
+import com.example.rest.entity.id.PooledLoSequenceGenerator;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap of one read request, which loads many orders with lines, coffee and barista, in read-write
+ * and in read-only session. Read-only session is prepared like Spring prepares @Transactional(readOnly = true):
+ * manual flush mode, read-only entities and read-only connection, so no snapshots for dirty checking are kept.
+ * Allocated bytes are counted by thread, retained bytes are taken by used heap after gc while session is open.
+ * Run by benchmark profile against in-memory H2 or any database given by benchmark.url:
+ * mvn test -Pbenchmark -Dtest=ReadOnlyQueryBenchmark
+ */
+class ReadOnlyQueryBenchmark {
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 3000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 50);
+    private static final String URL = System.getProperty("benchmark.url", "jdbc:h2:mem:read-only;DB_CLOSE_DELAY=-1");
+    private static final String USER = System.getProperty("benchmark.user", "sa");
+    private static final String PASSWORD = System.getProperty("benchmark.password", "");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Barista.class)
+                .addAnnotatedClass(Coffee.class)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderLine.class)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_URL, URL)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_USER, USER)
+                .setProperty(JdbcSettings.JAKARTA_JDBC_PASSWORD, PASSWORD)
+                .setProperty(SchemaToolingSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("barista_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("coffee_sequence"), "10")
+                .setProperty(PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"), "10")
+                .buildSessionFactory();
+        seed();
+    }
+
+    @AfterEach
+    public void close() {
+        sessionFactory.close();
+    }
+
+    private void seed() {
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("insert into barista (id, full_name, tip_size) values (1, 'Barista', 0.1)");
+                statement.execute("insert into coffee (id, name, price) values (1, 'Latte', 4.5), (2, 'Mocha', 5.0)");
+            }
+            try (var orders = connection.prepareStatement(
+                    "insert into \"order\" (id, barista, created, price) values (?, 1, ?, 10.45)");
+                 var lines = connection.prepareStatement(
+                    "insert into order_coffee (order_id, coffee_id, coffee_name, quantity, unit_price) values (?, ?, 'Latte', 1, 4.5)")) {
+                for (long id = 1; id <= ORDERS; id++) {
+                    orders.setLong(1, id);
+                    orders.setObject(2, LocalDateTime.of(2024, 1, 1, 10, 0));
+                    orders.addBatch();
+                    for (long coffeeId = 1; coffeeId <= 2; coffeeId++) {
+                        lines.setLong(1, id);
+                        lines.setLong(2, coffeeId);
+                        lines.addBatch();
+                    }
+                }
+                orders.executeBatch();
+                lines.executeBatch();
+            }
+        }));
+    }
+
+    @Test
+    public void findAll() {
+        for (boolean readOnly : new boolean[]{false, true}) {
+            for (int i = 0; i < WARMUP; i++)
+                allocated(readOnly);
+            long[] allocated = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++)
+                allocated[i] = allocated(readOnly);
+            Arrays.sort(allocated);
+
+            System.out.printf("findAll %s session, %d orders: allocated p50 %6d KB, retained %6d KB%n",
+                    readOnly ? "read-only " : "read-write", ORDERS, allocated[REQUESTS / 2] / 1024,
+                    retained(readOnly) / 1024);
+        }
+    }
+
+    private long allocated(boolean readOnly) {
+        long started = threads.getCurrentThreadAllocatedBytes();
+        request(readOnly, () -> {
+        });
+        return threads.getCurrentThreadAllocatedBytes() - started;
+    }
+
+    private long retained(boolean readOnly) {
+        long before = usedHeap();
+        long[] retained = new long[1];
+        request(readOnly, () -> retained[0] = usedHeap() - before);
+        return retained[0];
+    }
+
+    private void request(boolean readOnly, Runnable beforeCommit) {
+        try (Session session = sessionFactory.openSession()) {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+                session.doWork(connection -> connection.setReadOnly(true));
+            }
+            session.beginTransaction();
+            List<Order> orders = loadOrders(session);
+            assertEquals(readOnly, session.isReadOnly(orders.get(0)));
+            beforeCommit.run();
+            session.getTransaction().commit();
+            if (readOnly)
+                session.doWork(connection -> connection.setReadOnly(false));
+        }
+    }
+
+    private static List<Order> loadOrders(Session session) {
+        List<Order> orders = session.createSelectionQuery(
+                "select distinct o from Order o join fetch o.barista join fetch o.lines l join fetch l.coffee", Order.class)
+                .getResultList();
+        assertEquals(ORDERS, orders.size());
+        return orders;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rest.entity.id;
+
+import com.example.rest.entity.Order;
+import org.hibernate.MappingException;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledLoSequenceGeneratorTest {
+    private StandardServiceRegistry serviceRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        if (serviceRegistry != null)
+            StandardServiceRegistryBuilder.destroy(serviceRegistry);
+    }
+
+    private PooledLoSequenceGenerator configure(Integer allocationSize) throws NoSuchFieldException {
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder()
+                .applySetting(JdbcSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting(JdbcSettings.ALLOW_METADATA_ON_BOOT, false);
+        if (allocationSize != null)
+            builder.applySetting(PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"), allocationSize);
+        serviceRegistry = builder.build();
+
+        PooledLoSequence config = Order.class.getDeclaredField("id").getAnnotation(PooledLoSequence.class);
+        PooledLoSequenceGenerator generator = new PooledLoSequenceGenerator(config, null, null);
+        Type type = Mockito.mock(Type.class);
+        Mockito.doReturn(Long.class).when(type).getReturnedClass();
+        generator.configure(type, new Properties(), serviceRegistry);
+        return generator;
+    }
+
+    //configure
+    @Test
+    void configure_WhenAllocationSizeSet_ShouldUsePooledLoWithAllocationSize() throws NoSuchFieldException {
+        PooledLoSequenceGenerator generator = configure(500);
+
+        assertInstanceOf(PooledLoOptimizer.class, generator.getOptimizer());
+        assertEquals(500, generator.getOptimizer().getIncrementSize());
+    }
+
+    @Test
+    void configure_WhenAllocationSizeNotSet_ShouldUseDefaultAllocationSize() throws NoSuchFieldException {
+        PooledLoSequenceGenerator generator = configure(null);
+
+        assertInstanceOf(PooledLoOptimizer.class, generator.getOptimizer());
+        assertEquals(10, generator.getOptimizer().getIncrementSize());
+    }
+
+    @Test
+    void configure_WhenAllocationSizeNotPositive_ShouldThrowMappingException() {
+        assertThrows(MappingException.class, () -> configure(0));
+    }
+
+    //generate
+    @Test
+    void generate_WhenAssignedIdAllowed_ShouldKeepAssignedId() throws NoSuchFieldException {
+        PooledLoSequenceGenerator generator = configure(10);
+        Order order = new Order();
+        SharedSessionContractImplementor session = Mockito.mock(SharedSessionContractImplementor.class);
+        EntityPersister persister = Mockito.mock(EntityPersister.class);
+        Mockito.when(session.getEntityPersister(null, order)).thenReturn(persister);
+        Mockito.when(persister.getIdentifier(order, session)).thenReturn(1000L);
+
+        assertTrue(generator.allowAssignedIdentifiers());
+        assertEquals(1000L, generator.generate(session, order, null, EventType.INSERT));
+    }
+
+    @Test
+    void allocationSizeSetting_ShouldContainSequenceName() {
+        assertEquals("app.sequence.order_sequence.allocation_size",
+                PooledLoSequenceGenerator.allocationSizeSetting("order_sequence"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.rest.repository;
+
+import com.example.rest.conf.MigrationConfig;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Purge is run against Postgres, because data-modifying CTEs and concurrent detach of partitions
+ * are not supported by H2. Skipped, when docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderRetentionRepositoryImplTest {
+    private static final LocalDateTime OLD = LocalDateTime.of(2015, 1, 10, 10, 0);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Container
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderRetentionRepositoryImpl repository;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(postgres.getJdbcUrl());
+        dataSource.setUser(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migrate(dataSource);
+
+        Session session = Mockito.mock(Session.class);
+        Mockito.when(session.doReturningWork(any())).thenAnswer(invocation -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return invocation.<ReturningWork<?>>getArgument(0).execute(connection);
+            }
+        });
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        Mockito.when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        repository = new OrderRetentionRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        ReflectionTestUtils.setField(repository, "dataSource", dataSource);
+
+        jdbcTemplate.update("insert into barista (id, full_name, tip_size) values (1, 'Barista', 0.1)");
+        jdbcTemplate.update("insert into coffee (id, name, price) values (1, 'Latte', 5.0)");
+    }
+
+    private static void migrate(DataSource dataSource) {
+        MigrationConfig migrationConfig = new MigrationConfig();
+        ReflectionTestUtils.setField(migrationConfig, "enabled", true);
+        ReflectionTestUtils.setField(migrationConfig, "locations", "classpath:db/migration");
+        ReflectionTestUtils.setField(migrationConfig, "baselineOnMigrate", true);
+        ReflectionTestUtils.setField(migrationConfig, "baselineVersion", "1");
+        ReflectionTestUtils.setField(migrationConfig, "baristaAllocationSize", 10);
+        ReflectionTestUtils.setField(migrationConfig, "coffeeAllocationSize", 10);
+        ReflectionTestUtils.setField(migrationConfig, "orderAllocationSize", 10);
+        migrationConfig.flyway(dataSource);
+    }
+
+    private void insertOrder(long id, LocalDateTime created, LocalDateTime completed) {
+        jdbcTemplate.update("insert into \"order\" (id, barista, created, completed, price) values (?, 1, ?, ?, 11.0)",
+                id, created, completed);
+        jdbcTemplate.update("""
+                insert into order_coffee (order_id, coffee_id, coffee_name, quantity, unit_price)
+                values (?, 1, 'Latte', 2, 5.0)""", id);
+    }
+
+    private void createArchivePartitions(String suffix, String from, String to) {
+        jdbcTemplate.execute(String.format("create table order_archive_%s partition of order_archive "
+                + "for values from ('%s') to ('%s')", suffix, from, to));
+        jdbcTemplate.execute(String.format("create table order_coffee_archive_%s partition of order_coffee_archive "
+                + "for values from ('%s') to ('%s')", suffix, from, to));
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table);
+    }
+
+    //deleteOrders
+    @Test
+    public void shouldDeleteOldOrdersWithLinesAndReturnStatsOfCompleted_WhenDeleteOrders() {
+        insertOrder(1, OLD, OLD.plusMinutes(5));
+        insertOrder(2, OLD, null);
+        insertOrder(3, LocalDateTime.now(), null);
+
+        PurgedOrders purged = repository.deleteOrders(CUTOFF, 10);
+
+        assertEquals(new PurgedOrders(2, List.of(new BaristaStatsRow(1L, 1L, 300.0, 11.0, 1.0))), purged);
+        assertEquals(List.of(3L), jdbcTemplate.queryForList("select id from \"order\"", Long.class));
+        assertEquals(List.of(3L), jdbcTemplate.queryForList("select order_id from order_coffee", Long.class));
+    }
+
+    @Test
+    public void shouldKeepCoffeeStatsHistory_WhenDeleteOrders() {
+        insertOrder(1, OLD, OLD.plusMinutes(5));
+        jdbcTemplate.update("""
+                insert into coffee_stats_hourly (coffee_id, bucket, orders, quantity, revenue)
+                values (1, ?, 1, 2, 10.0)""", OLD.withMinute(0));
+
+        repository.deleteOrders(CUTOFF, 10);
+
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("select quantity from coffee_stats_hourly", Long.class));
+    }
+
+    //deleteArchivedOrders
+    @Test
+    public void shouldDeleteArchivedOrdersAndReturnStats_WhenDeleteArchivedOrders() {
+        createArchivePartitions("y2015m01", "2015-01-01", "2015-02-01");
+        jdbcTemplate.update("""
+                insert into order_archive (id, barista, created, completed, price, archived)
+                values (1, 1, ?, ?, 11.0, localtimestamp)""", OLD, OLD.plusMinutes(5));
+        jdbcTemplate.update("""
+                insert into order_coffee_archive (order_id, coffee_id, coffee_name, quantity, unit_price, created)
+                values (1, 1, 'Latte', 2, 5.0, ?)""", OLD);
+
+        PurgedOrders purged = repository.deleteArchivedOrders(CUTOFF, 10);
+
+        assertEquals(new PurgedOrders(1, List.of(new BaristaStatsRow(1L, 1L, 300.0, 11.0, 1.0))), purged);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from order_coffee_archive", Integer.class));
+    }
+
+    //dropArchivePartitions
+    @Test
+    public void shouldDetachAndDropExpiredPartitionsWithStats_WhenDropArchivePartitions() {
+        assertFalse(exists("order_archive_default"));
+        createArchivePartitions("y2015m01", "2015-01-01", "2015-02-01");
+        createArchivePartitions("y2024m01", "2024-01-01", "2024-02-01");
+        jdbcTemplate.update("""
+                insert into order_archive (id, barista, created, completed, price, archived)
+                values (1, 1, ?, ?, 11.0, localtimestamp)""", OLD, OLD.plusMinutes(5));
+        jdbcTemplate.update("""
+                insert into order_coffee_archive (order_id, coffee_id, coffee_name, quantity, unit_price, created)
+                values (1, 1, 'Latte', 2, 5.0, ?)""", OLD);
+
+        List<PurgedOrders> purged = repository.dropArchivePartitions(CUTOFF);
+
+        assertEquals(List.of(new PurgedOrders(1, List.of(new BaristaStatsRow(1L, 1L, 300.0, 11.0, 1.0)))), purged);
+        assertFalse(exists("order_archive_y2015m01"));
+        assertFalse(exists("order_coffee_archive_y2015m01"));
+        assertTrue(exists("order_archive_y2024m01"));
+        assertTrue(exists("order_coffee_archive_y2024m01"));
+    }
+
+    @Test
+    public void shouldDropTablesLeftDetached_WhenDropArchivePartitions() {
+        createArchivePartitions("y2015m01", "2015-01-01", "2015-02-01");
+        jdbcTemplate.execute("alter table order_archive detach partition order_archive_y2015m01");
+
+        List<PurgedOrders> purged = repository.dropArchivePartitions(CUTOFF);
+
+        assertEquals(List.of(), purged);
+        assertFalse(exists("order_archive_y2015m01"));
+        assertFalse(exists("order_coffee_archive_y2015m01"));
+    }
+}
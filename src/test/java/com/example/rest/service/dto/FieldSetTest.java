@@ -0,0 +1,73 @@
+package com.example.rest.service.dto;
+
+import com.example.rest.service.exception.NoValidFieldsException;
+import com.example.rest.servlet.dto.BaristaPublicDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSetTest {
+
+    //parse
+    @Test
+    void parse_WhenCorrectFields_ShouldContainOnlyThem() {
+        FieldSet fieldSet = FieldSet.parse("id, fullName", BaristaPublicDTO.class);
+
+        assertTrue(fieldSet.contains("id"));
+        assertTrue(fieldSet.contains("fullName"));
+        assertFalse(fieldSet.contains("tipSize"));
+        assertFalse(fieldSet.contains("orders"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "id,unknown", "orders.id"})
+    void parse_WhenWrongFields_ShouldThrowNoValidFieldsException(String fields) {
+        assertThrows(NoValidFieldsException.class, () -> FieldSet.parse(fields, BaristaPublicDTO.class));
+    }
+
+    @Test
+    void parse_WhenNull_ShouldThrowNoValidFieldsException() {
+        assertThrows(NoValidFieldsException.class, () -> FieldSet.parse(null, BaristaPublicDTO.class));
+    }
+
+    //all
+    @Test
+    void all_WhenAnyField_ShouldContainIt() {
+        assertTrue(FieldSet.all().contains("orders"));
+        assertTrue(FieldSet.all().contains("id"));
+    }
+
+    //containsAny
+    @Test
+    void containsAny_WhenOneOfFieldsRequested_ShouldReturnTrue() {
+        FieldSet fieldSet = FieldSet.parse("id,ordersTotal", BaristaPublicDTO.class);
+
+        assertTrue(fieldSet.containsAny("orders", "ordersTotal"));
+        assertFalse(fieldSet.containsAny("orders", "ordersNext"));
+    }
+
+    //project
+    @Test
+    void project_WhenRecord_ShouldReturnOnlyRequestedFieldsInOrder() {
+        BaristaPublicDTO dto = new BaristaPublicDTO(1L, "John Doe", 0.1, null);
+        FieldSet fieldSet = FieldSet.parse("tipSize,id", BaristaPublicDTO.class);
+
+        Map<String, Object> result = fieldSet.project(dto);
+
+        assertEquals(List.of("id", "tipSize"), List.copyOf(result.keySet()));
+        assertEquals(1L, result.get("id"));
+        assertEquals(0.1, result.get("tipSize"));
+    }
+
+    @Test
+    void project_WhenNotRecord_ShouldThrowIllegalArgumentException() {
+        FieldSet fieldSet = FieldSet.all();
+
+        assertThrows(IllegalArgumentException.class, () -> fieldSet.project("not record"));
+    }
+}
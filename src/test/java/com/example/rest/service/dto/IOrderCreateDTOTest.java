@@ -0,0 +1,40 @@
+package com.example.rest.service.dto;
+
+import com.example.rest.servlet.dto.OrderCreateDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IOrderCreateDTOTest {
+
+    //requestHash
+    @Test
+    void requestHash_WhenSameRequest_ShouldBeEqual() {
+        assertEquals(new OrderCreateDTO(1L, List.of(2L, 3L)).requestHash(),
+                new OrderCreateDTO(1L, List.of(2L, 3L)).requestHash());
+    }
+
+    @Test
+    void requestHash_WhenListHashesCollide_ShouldDiffer() {
+        OrderCreateDTO first = new OrderCreateDTO(1L, List.of(1L, 32L));
+        OrderCreateDTO second = new OrderCreateDTO(1L, List.of(2L, 1L));
+
+        assertEquals(first.coffeeIdList().hashCode(), second.coffeeIdList().hashCode());
+        assertNotEquals(first.requestHash(), second.requestHash());
+    }
+
+    @Test
+    void requestHash_WhenFieldsAreShifted_ShouldDiffer() {
+        assertNotEquals(new OrderCreateDTO(1L, List.of(23L)).requestHash(),
+                new OrderCreateDTO(12L, List.of(3L)).requestHash());
+        assertNotEquals(new OrderCreateDTO(1L, null).requestHash(),
+                new OrderCreateDTO(1L, List.of()).requestHash());
+    }
+
+    @Test
+    void requestHash_WhenAnyRequest_ShouldBeHexDigest() {
+        assertTrue(new OrderCreateDTO(null, null).requestHash().matches("[0-9a-f]{64}"));
+    }
+}
@@ -1,19 +1,34 @@
 package com.example.rest.service.imp;
 
 import com.example.rest.entity.Barista;
+import com.example.rest.entity.Order;
 import com.example.rest.entity.exception.BaristaNotFoundException;
 import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NoValidStatusException;
 import com.example.rest.entity.exception.NullParamException;
 import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.BaristaSearchRow;
+import com.example.rest.repository.NestedOrderRow;
+import com.example.rest.repository.OrderRepository;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaCreateDTO;
 import com.example.rest.service.dto.IBaristaPublicDTO;
+import com.example.rest.service.dto.IBaristaSliceDTO;
 import com.example.rest.service.dto.IBaristaUpdateDTO;
+import com.example.rest.service.dto.IOrderNoRefDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
+import com.example.rest.service.exception.NoValidSearchCursorException;
+import com.example.rest.service.exception.NoValidSearchQueryException;
 import com.example.rest.service.mapper.BaristaMapper;
 import com.example.rest.servlet.dto.BaristaCreateDTO;
+import com.example.rest.servlet.dto.BaristaNoRefDTO;
+import com.example.rest.servlet.dto.BaristaPatchDTO;
 import com.example.rest.servlet.dto.BaristaPublicDTO;
+import com.example.rest.servlet.dto.BaristaSearchDTO;
 import com.example.rest.servlet.dto.BaristaUpdateDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -26,8 +41,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +52,8 @@ class BaristaServiceTest {
     @Mock
     private static BaristaRepository baristaRepository;
     @Mock
+    private static OrderRepository orderRepository;
+    @Mock
     private static BaristaMapper baristaMapper;
 
     private static BaristaService baristaService;
@@ -42,21 +61,22 @@ class BaristaServiceTest {
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
-        baristaService = new BaristaService(baristaRepository, baristaMapper);
+        baristaService = new BaristaService(baristaRepository, orderRepository, baristaMapper);
     }
 
     //constructor
     @Test
     void shouldReturnBaristaService_WhenCorrectParams() {
-        BaristaService resultBaristaService = new BaristaService(baristaRepository, baristaMapper);
+        BaristaService resultBaristaService = new BaristaService(baristaRepository, orderRepository, baristaMapper);
 
         assertNotNull(resultBaristaService);
     }
 
     @Test
     void shouldThrowNullParamException_WhenConstructorNullParam() {
-        assertThrows(NullParamException.class, () -> new BaristaService(null, baristaMapper));
-        assertThrows(NullParamException.class, () -> new BaristaService(baristaRepository, null));
+        assertThrows(NullParamException.class, () -> new BaristaService(null, orderRepository, baristaMapper));
+        assertThrows(NullParamException.class, () -> new BaristaService(baristaRepository, null, baristaMapper));
+        assertThrows(NullParamException.class, () -> new BaristaService(baristaRepository, orderRepository, null));
     }
 
     //create
@@ -107,14 +127,58 @@ class BaristaServiceTest {
         assertThrows(NullParamException.class, () -> baristaService.update(null));
     }
 
+    //patch
+    @Test
+    void shouldUpdateOnlySuppliedFields_WhenPatchWithCorrectDto() {
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        BaristaPublicDTO mockedPublicDto = Mockito.mock(BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.patch(3L, null, 0.2))
+                .thenReturn(1);
+        Mockito.when(baristaRepository.findByIdWithoutOrders(3L))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(baristaMapper.entityToDto(Mockito.eq(mockedBarista), Mockito.any(FieldSet.class)))
+                .thenReturn(mockedPublicDto);
+
+        IBaristaPublicDTO resultPublicDto = baristaService.patch(new BaristaPatchDTO(3L, null, 0.2));
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(baristaRepository).patch(3L, null, 0.2);
+        Mockito.verify(baristaRepository, Mockito.never()).findById(Mockito.any());
+        Mockito.verify(baristaRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenPatchNotExistingBarista() {
+        Mockito.when(baristaRepository.patch(3L, "Name", null))
+                .thenReturn(0);
+
+        BaristaPatchDTO patchDTO = new BaristaPatchDTO(3L, "Name", null);
+        assertThrows(BaristaNotFoundException.class, () -> baristaService.patch(patchDTO));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenPatchWithNullParam() {
+        assertThrows(NullParamException.class, () -> baristaService.patch(null));
+    }
+
     //delete
     @Test
     void shouldDeleteEntityByRepository_WhenDeleteWithCorrectId() {
         Long inputId = 99L;
+        Mockito.when(baristaRepository.deleteByIdWithoutLoading(inputId)).thenReturn(1);
 
         baristaService.delete(inputId);
 
-        Mockito.verify(baristaRepository, Mockito.times(1)).deleteById(inputId);
+        Mockito.verify(baristaRepository, Mockito.times(1)).deleteByIdWithoutLoading(inputId);
+        Mockito.verify(baristaRepository, Mockito.never()).findById(inputId);
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenDeleteNotExistingBarista() {
+        Mockito.when(baristaRepository.deleteByIdWithoutLoading(99L)).thenReturn(0);
+
+        assertThrows(BaristaNotFoundException.class, () -> baristaService.delete(99L));
     }
 
     @Test
@@ -243,4 +307,274 @@ class BaristaServiceTest {
 
     }
 
-}
\ No newline at end of file
+    //findAll with fields
+    @Test
+    void shouldNotFetchOrders_WhenFindAllWithoutOrdersField() {
+        FieldSet fieldSet = FieldSet.parse("id,fullName", BaristaPublicDTO.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        BaristaPublicDTO mockedPublicDto = Mockito.mock(BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.findAllWithoutOrders())
+                .thenReturn(List.of(mockedBarista));
+        Mockito.when(baristaMapper.entityToDto(mockedBarista, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        List<BaristaPublicDTO> resultPublicDtoList = baristaService.findAll(fieldSet);
+
+        assertEquals(List.of(mockedPublicDto), resultPublicDtoList);
+        Mockito.verify(baristaRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldFetchOrders_WhenFindAllWithOrdersField() {
+        FieldSet fieldSet = FieldSet.parse("id,orders", BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.findAll())
+                .thenReturn(List.of());
+
+        baristaService.findAll(fieldSet);
+
+        Mockito.verify(baristaRepository, Mockito.times(1)).findAll();
+        Mockito.verify(baristaRepository, Mockito.never()).findAllWithoutOrders();
+    }
+
+    @Test
+    void shouldNotFetchOrders_WhenFindByIdWithoutOrdersField() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", BaristaPublicDTO.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        BaristaPublicDTO mockedPublicDto = Mockito.mock(BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(baristaMapper.entityToDto(mockedBarista, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        IBaristaPublicDTO resultPublicDto = baristaService.findById(inputId, fieldSet);
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(baristaRepository, Mockito.never()).findById(inputId);
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenFindByIdWithFieldsNotFound() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.empty());
+
+        assertThrows(BaristaNotFoundException.class, () -> baristaService.findById(inputId, fieldSet));
+    }
+
+    @Test
+    void shouldNotFetchOrders_WhenFindAllByPageWithoutOrdersField() {
+        FieldSet fieldSet = FieldSet.parse("id", BaristaPublicDTO.class);
+        Pageable specifiedPageable = PageRequest.of(0, 1);
+        Page<Barista> mockedPage = Mockito.mock(Page.class);
+
+        Mockito.when(baristaRepository.findAllWithoutOrders(specifiedPageable))
+                .thenReturn(mockedPage);
+        Mockito.when(mockedPage.stream())
+                .thenReturn(Stream.of());
+
+        assertEquals(List.of(), baristaService.findAllByPage(0, 1, fieldSet));
+        Mockito.verify(baristaRepository, Mockito.never()).findAll(specifiedPageable);
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenFindAllWithNullFields() {
+        assertThrows(NullParamException.class, () -> baristaService.findAll(null));
+    }
+
+    //ordersLimit
+    @Test
+    void shouldFetchFirstOrdersByOneQuery_WhenFindAllWithOrdersLimit() {
+        FieldSet fieldSet = FieldSet.parse("id,orders", BaristaPublicDTO.class);
+        Barista firstBarista = Mockito.mock(Barista.class);
+        Barista secondBarista = Mockito.mock(Barista.class);
+        BaristaPublicDTO firstPublicDto = Mockito.mock(BaristaPublicDTO.class);
+        BaristaPublicDTO secondPublicDto = Mockito.mock(BaristaPublicDTO.class);
+        List<NestedOrderRow> firstOrders = List.of(
+                new NestedOrderRow(1L, 10L, 0L, LocalDateTime.MIN, null, 1.0, 3L)
+        );
+
+        Mockito.when(firstBarista.getId()).thenReturn(1L);
+        Mockito.when(secondBarista.getId()).thenReturn(2L);
+        Mockito.when(baristaRepository.findAllWithoutOrders())
+                .thenReturn(List.of(firstBarista, secondBarista));
+        Mockito.when(baristaRepository.findFirstOrders(List.of(1L, 2L), 2))
+                .thenReturn(firstOrders);
+        Mockito.when(baristaMapper.entityToDto(firstBarista, firstOrders))
+                .thenReturn(firstPublicDto);
+        Mockito.when(baristaMapper.entityToDto(secondBarista, List.of()))
+                .thenReturn(secondPublicDto);
+
+        List<BaristaPublicDTO> resultPublicDtoList = baristaService.findAll(fieldSet, 2);
+
+        assertEquals(List.of(firstPublicDto, secondPublicDto), resultPublicDtoList);
+        Mockito.verify(baristaRepository, Mockito.times(1)).findFirstOrders(Mockito.anyCollection(), Mockito.anyInt());
+        Mockito.verify(baristaRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldNotFetchFirstOrders_WhenFindByIdWithOrdersLimitWithoutOrderFields() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", BaristaPublicDTO.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        BaristaPublicDTO mockedPublicDto = Mockito.mock(BaristaPublicDTO.class);
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(baristaMapper.entityToDto(mockedBarista, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        assertEquals(mockedPublicDto, baristaService.findById(inputId, fieldSet, 5));
+        Mockito.verify(baristaRepository, Mockito.never()).findFirstOrders(Mockito.anyCollection(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenFindByIdWithOrdersLimitNotFound() {
+        Long inputId = 99L;
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.empty());
+
+        assertThrows(BaristaNotFoundException.class, () -> baristaService.findById(inputId, FieldSet.all(), 5));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void shouldThrowNoValidLimitException_WhenOrdersLimitLessThanOne(int ordersLimit) {
+        assertThrows(NoValidLimitException.class, () -> baristaService.findAll(FieldSet.all(), ordersLimit));
+        assertThrows(NoValidLimitException.class, () -> baristaService.findAllByPage(0, 1, FieldSet.all(), ordersLimit));
+        assertThrows(NoValidLimitException.class, () -> baristaService.findById(0L, FieldSet.all(), ordersLimit));
+    }
+
+    //findOrders
+    @Test
+    void shouldReturnSliceWithNextAfter_WhenFindOrdersFoundMoreThanLimit() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        List<Order> foundOrders = List.of(
+                new Order(1L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0),
+                new Order(2L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0),
+                new Order(3L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0)
+        );
+
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.eq(3)))
+                .thenReturn(foundOrders);
+
+        IOrderSliceDTO resultSlice = baristaService.findOrders(0L, new OrderFilterDTO(null, 2, null, null, null));
+
+        assertEquals(List.of(1L, 2L), resultSlice.orders().stream().map(IOrderNoRefDTO::id).toList());
+        assertEquals(2L, resultSlice.nextAfter());
+        Mockito.verify(baristaRepository, Mockito.never()).existsById(Mockito.any());
+    }
+
+    @Test
+    void shouldReturnSliceWithoutNextAfter_WhenFindOrdersFoundLessThanLimit() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        List<Order> foundOrders = List.of(
+                new Order(5L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0)
+        );
+
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.eq(21)))
+                .thenReturn(foundOrders);
+
+        IOrderSliceDTO resultSlice = baristaService.findOrders(0L, new OrderFilterDTO(4L, null, "pending", null, null));
+
+        assertEquals(1, resultSlice.orders().size());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenFindOrdersOfNotExistingBarista() {
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.anyInt()))
+                .thenReturn(List.of());
+        Mockito.when(baristaRepository.existsById(99L))
+                .thenReturn(false);
+
+        OrderFilterDTO specifiedFilter = new OrderFilterDTO(null, null, null, null, null);
+        assertThrows(BaristaNotFoundException.class, () -> baristaService.findOrders(99L, specifiedFilter));
+    }
+
+    @Test
+    void shouldReturnEmptySlice_WhenFindOrdersOfExistingBaristaWithoutOrders() {
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.anyInt()))
+                .thenReturn(List.of());
+        Mockito.when(baristaRepository.existsById(99L))
+                .thenReturn(true);
+
+        IOrderSliceDTO resultSlice = baristaService.findOrders(99L, new OrderFilterDTO(null, null, null, null, null));
+
+        assertEquals(List.of(), resultSlice.orders());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenFindOrdersWithWrongFilter() {
+        OrderFilterDTO negativeAfter = new OrderFilterDTO(-1L, null, null, null, null);
+        OrderFilterDTO zeroLimit = new OrderFilterDTO(null, 0, null, null, null);
+        OrderFilterDTO unknownStatus = new OrderFilterDTO(null, null, "lost", null, null);
+
+        assertThrows(NullParamException.class, () -> baristaService.findOrders(0L, null));
+        assertThrows(NoValidIdException.class, () -> baristaService.findOrders(-1L, zeroLimit));
+        assertThrows(NoValidIdException.class, () -> baristaService.findOrders(0L, negativeAfter));
+        assertThrows(NoValidLimitException.class, () -> baristaService.findOrders(0L, zeroLimit));
+        assertThrows(NoValidStatusException.class, () -> baristaService.findOrders(0L, unknownStatus));
+    }
+
+    //search
+    @Test
+    void shouldReturnSliceWithNextCursor_WhenSearchFoundMoreThanLimit() {
+        Mockito.when(baristaRepository.searchByName("anna lee", null, null, 3))
+                .thenReturn(List.of(
+                        new BaristaSearchRow(4L, "Anna Lee", 0.1, 0),
+                        new BaristaSearchRow(2L, "Maria Anna Lee", 0.2, 1000),
+                        new BaristaSearchRow(3L, "Joanna Leeds", 0.1, 2150)));
+
+        IBaristaSliceDTO resultSlice = baristaService.search(new BaristaSearchDTO("  anna   lee ", null, null, 2));
+
+        assertEquals(List.of(new BaristaNoRefDTO(4L, "Anna Lee", 0.1), new BaristaNoRefDTO(2L, "Maria Anna Lee", 0.2)),
+                resultSlice.baristas());
+        assertEquals(1000, resultSlice.nextAfterRank());
+        assertEquals(2L, resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldReturnSliceWithoutNextCursor_WhenSearchFromCursorFoundLessThanLimit() {
+        Mockito.when(baristaRepository.searchByName("ann", 1000, 2L, BaristaService.DEFAULT_SEARCH_LIMIT + 1))
+                .thenReturn(List.of(new BaristaSearchRow(3L, "Joanna Leeds", 0.1, 2150)));
+
+        IBaristaSliceDTO resultSlice = baristaService.search(new BaristaSearchDTO("ann", 1000, 2L, null));
+
+        assertEquals(1, resultSlice.baristas().size());
+        assertNull(resultSlice.nextAfterRank());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldCutLimit_WhenSearchWithGreatLimit() {
+        baristaService.search(new BaristaSearchDTO("ann", null, null, 1000));
+
+        Mockito.verify(baristaRepository).searchByName("ann", null, null, BaristaService.MAX_SEARCH_LIMIT + 1);
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenSearchWithWrongParams() {
+        assertThrows(NullParamException.class, () -> baristaService.search(null));
+        assertThrows(NullParamException.class, () -> baristaService.search(new BaristaSearchDTO(null, null, null, null)));
+        assertThrows(NoValidSearchQueryException.class,
+                () -> baristaService.search(new BaristaSearchDTO(" %% ", null, null, null)));
+        assertThrows(NoValidSearchCursorException.class,
+                () -> baristaService.search(new BaristaSearchDTO("ann", 1000, null, null)));
+        assertThrows(NoValidSearchCursorException.class,
+                () -> baristaService.search(new BaristaSearchDTO("ann", null, 2L, null)));
+        assertThrows(NoValidSearchCursorException.class,
+                () -> baristaService.search(new BaristaSearchDTO("ann", -1, 2L, null)));
+        assertThrows(NoValidLimitException.class,
+                () -> baristaService.search(new BaristaSearchDTO("ann", null, null, 0)));
+        Mockito.verify(baristaRepository, Mockito.never())
+                .searchByName(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+}
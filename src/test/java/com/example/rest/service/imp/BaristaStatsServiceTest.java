@@ -0,0 +1,298 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Barista;
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.BaristaNotFoundException;
+import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.BaristaStatsRow;
+import com.example.rest.service.exception.StatsNotLoadedException;
+import com.example.rest.servlet.dto.BaristaStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaristaStatsServiceTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private BaristaRepository baristaRepository;
+
+    private BaristaStatsService statsService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        statsService = new BaristaStatsService(baristaRepository);
+        Mockito.when(baristaRepository.aggregateCompletedOrders())
+                .thenReturn(List.of(new BaristaStatsRow(1L, 2L, 180.0, 13.2, 1.2)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Order completedOrder(long baristaId, long prepSeconds) {
+        Barista barista = new Barista();
+        barista.setId(baristaId);
+        Order order = Mockito.mock(Order.class);
+        Mockito.when(order.getBarista()).thenReturn(barista);
+        Mockito.when(order.getCreated()).thenReturn(CREATED);
+        Mockito.when(order.getCompleted()).thenReturn(CREATED.plusSeconds(prepSeconds));
+        Mockito.when(order.getPrice()).thenReturn(5.5);
+        Mockito.when(order.getLinesPrice()).thenReturn(5.0);
+        return order;
+    }
+
+    private void awaitSeeded() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                statsService.findAll();
+                return;
+            } catch (StatsNotLoadedException e) {
+                assertTrue(System.currentTimeMillis() < deadline, "Statistics are not seeded in time");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new BaristaStatsService(null));
+    }
+
+    //start
+    @Test
+    void shouldSeedStatsByOneQueryInBackground_WhenStart() throws InterruptedException {
+        statsService.start();
+
+        awaitSeeded();
+        assertTrue(statsService.isRunning());
+        assertEquals(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2), statsService.findById(1L));
+        Mockito.verify(baristaRepository, Mockito.times(1)).aggregateCompletedOrders();
+        statsService.stop();
+    }
+
+    @Test
+    void shouldRetrySeed_WhenStartWithNotAvailableDb() throws InterruptedException {
+        Mockito.when(baristaRepository.aggregateCompletedOrders())
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(List.of(new BaristaStatsRow(1L, 2L, 180.0, 13.2, 1.2)));
+        statsService.setSeedRetryMillis(10);
+
+        statsService.start();
+
+        assertTrue(statsService.isRunning());
+        awaitSeeded();
+        assertEquals(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2), statsService.findById(1L));
+        Mockito.verify(baristaRepository, Mockito.times(2)).aggregateCompletedOrders();
+        statsService.stop();
+    }
+
+    @Test
+    void shouldThrowStatsNotLoadedException_WhenNotSeeded() {
+        assertThrows(StatsNotLoadedException.class, () -> statsService.findById(1L));
+        assertThrows(StatsNotLoadedException.class, () -> statsService.findAll());
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotValidSeedRetry() {
+        assertThrows(IllegalArgumentException.class, () -> statsService.setSeedRetryMillis(0));
+    }
+
+    //seed
+    @Test
+    void shouldSeedStatsByOneQuery_WhenSeed() {
+        statsService.seed();
+
+        assertEquals(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2), statsService.findById(1L));
+        Mockito.verify(baristaRepository, Mockito.times(1)).aggregateCompletedOrders();
+    }
+
+    @Test
+    void shouldDropChangesRecordedBeforeSeed_WhenSeed() {
+        statsService.recordCompleted(completedOrder(1L, 60));
+
+        statsService.seed();
+
+        assertEquals(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2), statsService.findById(1L));
+    }
+
+    @Test
+    void shouldAddArchivedOrdersToStats_WhenSeed() {
+        Mockito.when(baristaRepository.aggregateArchivedOrders())
+                .thenReturn(List.of(new BaristaStatsRow(1L, 1L, 90.0, 6.8, 0.8),
+                        new BaristaStatsRow(2L, 1L, 60.0, 3.0, 0.0)));
+
+        statsService.seed();
+
+        assertEquals(new BaristaStatsDTO(1L, 3L, 90.0, 20.0, 2.0), statsService.findById(1L));
+        assertEquals(new BaristaStatsDTO(2L, 1L, 60.0, 3.0, 0.0), statsService.findById(2L));
+        Mockito.verify(baristaRepository, Mockito.times(1)).aggregateArchivedOrders();
+    }
+
+    //recordCompleted
+    @Test
+    void shouldAddOrderToStats_WhenRecordCompleted() {
+        statsService.seed();
+
+        statsService.recordCompleted(completedOrder(1L, 270));
+
+        BaristaStatsDTO stats = statsService.findById(1L);
+        assertEquals(3L, stats.completedOrders());
+        assertEquals(150.0, stats.averagePrepSeconds(), 1e-9);
+        assertEquals(18.7, stats.revenue(), 1e-9);
+        assertEquals(1.7, stats.tipRevenue(), 1e-9);
+    }
+
+    @Test
+    void shouldAddOrderAfterCommit_WhenRecordCompletedInTransaction() {
+        statsService.seed();
+        TransactionSynchronizationManager.initSynchronization();
+
+        statsService.recordCompleted(completedOrder(2L, 60));
+
+        assertFalse(statsService.findAll().stream().anyMatch(stats -> stats.baristaId() == 2L));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(new BaristaStatsDTO(2L, 1L, 60.0, 5.5, 0.5), statsService.findById(2L));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordNotCompletedOrder() {
+        Order order = Mockito.mock(Order.class);
+
+        assertThrows(NullParamException.class, () -> statsService.recordCompleted(order));
+        assertThrows(NullParamException.class, () -> statsService.recordCompleted((Order) null));
+    }
+
+    //recordCompleted by id
+    @Test
+    void shouldAddStoredOrderAfterCommit_WhenRecordCompletedById() {
+        statsService.seed();
+        Mockito.when(baristaRepository.aggregateCompletedOrder(7L))
+                .thenReturn(Optional.of(new BaristaStatsRow(1L, 1L, 270.0, 5.5, 0.5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        statsService.recordCompleted(7L);
+
+        assertEquals(2L, statsService.findById(1L).completedOrders());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(new BaristaStatsDTO(1L, 3L, 150.0, 18.7, 1.7), statsService.findById(1L));
+    }
+
+    @Test
+    void shouldNotChangeStats_WhenRecordPendingOrderById() {
+        statsService.seed();
+        Mockito.when(baristaRepository.aggregateCompletedOrder(7L)).thenReturn(Optional.empty());
+
+        statsService.recordCompleted(7L);
+        statsService.recordDeleted(7L);
+
+        assertEquals(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2), statsService.findById(1L));
+    }
+
+    @Test
+    void shouldThrowException_WhenRecordByNotValidId() {
+        assertThrows(NullParamException.class, () -> statsService.recordCompleted((Long) null));
+        assertThrows(NoValidIdException.class, () -> statsService.recordCompleted(-1L));
+        assertThrows(NullParamException.class, () -> statsService.recordDeleted(null));
+        assertThrows(NoValidIdException.class, () -> statsService.recordDeleted(-1L));
+    }
+
+    //recordDeleted
+    @Test
+    void shouldRemoveStoredOrder_WhenRecordDeleted() {
+        statsService.seed();
+        Mockito.when(baristaRepository.aggregateCompletedOrder(7L))
+                .thenReturn(Optional.of(new BaristaStatsRow(1L, 1L, 60.0, 5.5, 0.5)));
+
+        statsService.recordDeleted(7L);
+
+        BaristaStatsDTO stats = statsService.findById(1L);
+        assertEquals(1L, stats.completedOrders());
+        assertEquals(120.0, stats.averagePrepSeconds(), 1e-9);
+        assertEquals(7.7, stats.revenue(), 1e-9);
+        assertEquals(0.7, stats.tipRevenue(), 1e-9);
+    }
+
+    @Test
+    void shouldNotListBarista_WhenLastOrderDeleted() {
+        statsService.seed();
+        Mockito.when(baristaRepository.aggregateCompletedOrder(7L))
+                .thenReturn(Optional.of(new BaristaStatsRow(1L, 2L, 180.0, 13.2, 1.2)));
+        Mockito.when(baristaRepository.existsById(1L)).thenReturn(true);
+
+        statsService.recordDeleted(7L);
+
+        assertEquals(List.of(), statsService.findAll());
+        assertEquals(new BaristaStatsDTO(1L, 0L, 0.0, 0.0, 0.0), statsService.findById(1L));
+    }
+
+    //recordPurged
+    @Test
+    void shouldRemovePurgedOrders_WhenRecordPurged() {
+        statsService.seed();
+
+        statsService.recordPurged(List.of(new BaristaStatsRow(1L, 1L, 60.0, 5.5, 0.5)));
+
+        BaristaStatsDTO stats = statsService.findById(1L);
+        assertEquals(1L, stats.completedOrders());
+        assertEquals(120.0, stats.averagePrepSeconds(), 1e-9);
+        assertEquals(7.7, stats.revenue(), 1e-9);
+        assertEquals(0.7, stats.tipRevenue(), 1e-9);
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordPurgedNull() {
+        assertThrows(NullParamException.class, () -> statsService.recordPurged(null));
+    }
+
+    //findById
+    @Test
+    void shouldReturnZeroStats_WhenBaristaHasNoCompletedOrders() {
+        statsService.seed();
+        Mockito.when(baristaRepository.existsById(5L)).thenReturn(true);
+
+        assertEquals(new BaristaStatsDTO(5L, 0L, 0.0, 0.0, 0.0), statsService.findById(5L));
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenBaristaNotFound() {
+        statsService.seed();
+        Mockito.when(baristaRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(BaristaNotFoundException.class, () -> statsService.findById(5L));
+    }
+
+    @Test
+    void shouldThrowException_WhenFindByIdWithNotValidId() {
+        assertThrows(NullParamException.class, () -> statsService.findById(null));
+        assertThrows(NoValidIdException.class, () -> statsService.findById(-1L));
+    }
+
+    //findAll
+    @Test
+    void shouldReturnStatsOrderedByBaristaId_WhenFindAll() {
+        statsService.seed();
+        statsService.recordCompleted(completedOrder(0L, 30));
+
+        assertEquals(List.of(0L, 1L), statsService.findAll().stream().map(BaristaStatsDTO::baristaId).toList());
+        Mockito.verify(baristaRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Coffee;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.exception.NoValidLimitException;
+import com.example.rest.service.exception.NoValidSearchQueryException;
+import com.example.rest.servlet.dto.CoffeeNoRefDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoffeeSearchServiceTest {
+    @Mock
+    private CoffeeRepository coffeeRepository;
+
+    private CoffeeSearchService searchService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new CoffeeSearchService(coffeeRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Coffee coffee(long id, String name) {
+        Coffee coffee = new Coffee();
+        coffee.setId(id);
+        coffee.setName(name);
+        coffee.setPrice(3.0);
+        return coffee;
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new CoffeeSearchService(null));
+    }
+
+    //start
+    @Test
+    void shouldIndexAllCoffeeByOneQuery_WhenStart() {
+        Mockito.when(coffeeRepository.findAllWithoutOrders())
+                .thenReturn(List.of(coffee(1L, "Latte"), coffee(2L, "Espresso")));
+
+        searchService.start();
+
+        assertTrue(searchService.isRunning());
+        assertEquals(List.of(new CoffeeNoRefDTO(2L, "Espresso", 3.0)), searchService.search("esp", null));
+        Mockito.verify(coffeeRepository, Mockito.times(1)).findAllWithoutOrders();
+    }
+
+    //record
+    @Test
+    void shouldReplaceIndexedName_WhenRecordSavedWithoutTransaction() {
+        searchService.recordSaved(coffee(1L, "Latte"));
+        searchService.recordSaved(coffee(1L, "Mocha"));
+
+        assertEquals(List.of(), searchService.search("latte", null));
+        assertEquals(List.of(new CoffeeNoRefDTO(1L, "Mocha", 3.0)), searchService.search("moc", null));
+    }
+
+    @Test
+    void shouldIndexAfterCommit_WhenRecordSavedInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        searchService.recordSaved(coffee(1L, "Latte"));
+        assertEquals(List.of(), searchService.search("latte", null));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCommit();
+        assertEquals(1, searchService.search("latte", null).size());
+    }
+
+    @Test
+    void shouldNotFindCoffee_WhenRecordDeleted() {
+        searchService.recordSaved(coffee(1L, "Latte"));
+
+        searchService.recordDeleted(1L);
+
+        assertEquals(List.of(), searchService.search("latte", null));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordWithNullParam() {
+        assertThrows(NullParamException.class, () -> searchService.recordSaved(null));
+        assertThrows(NullParamException.class, () -> searchService.recordDeleted(null));
+    }
+
+    //search
+    @Test
+    void shouldCutLimit_WhenSearchWithDefaultOrGreatLimit() {
+        LongStream.range(0, 60).forEach(id -> searchService.recordSaved(coffee(id, "Latte " + id)));
+
+        assertEquals(CoffeeSearchService.DEFAULT_LIMIT, searchService.search("latte", null).size());
+        assertEquals(CoffeeSearchService.MAX_LIMIT, searchService.search("latte", 1000).size());
+        assertEquals(3, searchService.search("latte", 3).size());
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenSearchWithWrongParams() {
+        assertThrows(NullParamException.class, () -> searchService.search(null, null));
+        assertThrows(NoValidSearchQueryException.class, () -> searchService.search(" %% ", null));
+        assertThrows(NoValidLimitException.class, () -> searchService.search("latte", 0));
+    }
+}
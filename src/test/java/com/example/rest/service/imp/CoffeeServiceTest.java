@@ -1,19 +1,30 @@
 package com.example.rest.service.imp;
 
+import com.example.rest.entity.Barista;
 import com.example.rest.entity.Coffee;
+import com.example.rest.entity.Order;
 import com.example.rest.entity.exception.CoffeeNotFoundException;
 import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NoValidStatusException;
 import com.example.rest.entity.exception.NullParamException;
 import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.NestedOrderRow;
+import com.example.rest.repository.OrderRepository;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.ICoffeeSearchService;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.ICoffeeCreateDTO;
 import com.example.rest.service.dto.ICoffeePublicDTO;
 import com.example.rest.service.dto.ICoffeeUpdateDTO;
+import com.example.rest.service.dto.IOrderNoRefDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import com.example.rest.service.mapper.CoffeeMapper;
 import com.example.rest.servlet.dto.CoffeeCreateDTO;
+import com.example.rest.servlet.dto.CoffeePatchDTO;
 import com.example.rest.servlet.dto.CoffeePublicDTO;
 import com.example.rest.servlet.dto.CoffeeUpdateDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -26,6 +37,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,28 +47,34 @@ class CoffeeServiceTest {
     @Mock
     private CoffeeRepository coffeeRepository;
     @Mock
+    private OrderRepository orderRepository;
+    @Mock
     private CoffeeMapper coffeeMapper;
+    @Mock
+    private ICoffeeSearchService coffeeSearchService;
 
     private CoffeeService coffeeService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        coffeeService = new CoffeeService(coffeeRepository, coffeeMapper);
+        coffeeService = new CoffeeService(coffeeRepository, orderRepository, coffeeMapper, coffeeSearchService);
     }
 
     //constructor
     @Test
     void shouldReturnCoffeeService_WhenConstructorCorrectParams() {
-        CoffeeService resultCoffeeService = new CoffeeService(coffeeRepository, coffeeMapper);
+        CoffeeService resultCoffeeService = new CoffeeService(coffeeRepository, orderRepository, coffeeMapper, coffeeSearchService);
 
         assertNotNull(resultCoffeeService);
     }
 
     @Test
     void shouldThrowNullParamException_WhenConstructorNullParam() {
-        assertThrows(NullParamException.class, () -> new CoffeeService(null, coffeeMapper));
-        assertThrows(NullParamException.class, () -> new CoffeeService(coffeeRepository, null));
+        assertThrows(NullParamException.class, () -> new CoffeeService(null, orderRepository, coffeeMapper, coffeeSearchService));
+        assertThrows(NullParamException.class, () -> new CoffeeService(coffeeRepository, null, coffeeMapper, coffeeSearchService));
+        assertThrows(NullParamException.class, () -> new CoffeeService(coffeeRepository, orderRepository, null, coffeeSearchService));
+        assertThrows(NullParamException.class, () -> new CoffeeService(coffeeRepository, orderRepository, coffeeMapper, null));
     }
 
 
@@ -77,6 +95,7 @@ class CoffeeServiceTest {
         ICoffeePublicDTO resultPublicDto = coffeeService.create(mockedCreateDto);
 
         assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(coffeeSearchService).recordSaved(mockedCoffee);
     }
 
     @Test
@@ -105,6 +124,7 @@ class CoffeeServiceTest {
         ICoffeePublicDTO resultPublicDto = coffeeService.update(mockedUpdateDto);
 
         assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(coffeeSearchService).recordSaved(mockedCoffee);
     }
 
     @Test
@@ -112,14 +132,62 @@ class CoffeeServiceTest {
         assertThrows(NullParamException.class, () -> coffeeService.update(null));
     }
 
+    //patch
+    @Test
+    void shouldUpdateOnlySuppliedFields_WhenPatchWithCorrectDto() {
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+        CoffeePublicDTO mockedPublicDto = Mockito.mock(CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.patch(3L, null, 4.5))
+                .thenReturn(1);
+        Mockito.when(coffeeRepository.findByIdWithoutOrders(3L))
+                .thenReturn(Optional.of(mockedCoffee));
+        Mockito.when(coffeeMapper.entityToDto(Mockito.eq(mockedCoffee), Mockito.any(FieldSet.class)))
+                .thenReturn(mockedPublicDto);
+
+        ICoffeePublicDTO resultPublicDto = coffeeService.patch(new CoffeePatchDTO(3L, null, 4.5));
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(coffeeRepository).patch(3L, null, 4.5);
+        Mockito.verify(coffeeRepository, Mockito.never()).findById(Mockito.any());
+        Mockito.verify(coffeeRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(coffeeSearchService).recordSaved(mockedCoffee);
+    }
+
+    @Test
+    void shouldThrowCoffeeNotFoundException_WhenPatchNotExistingCoffee() {
+        Mockito.when(coffeeRepository.patch(3L, "latte", null))
+                .thenReturn(0);
+
+        CoffeePatchDTO patchDTO = new CoffeePatchDTO(3L, "latte", null);
+        assertThrows(CoffeeNotFoundException.class, () -> coffeeService.patch(patchDTO));
+        Mockito.verify(coffeeSearchService, Mockito.never()).recordSaved(Mockito.any());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenPatchWithNullParam() {
+        assertThrows(NullParamException.class, () -> coffeeService.patch(null));
+    }
+
     //delete
     @Test
     void shouldDeleteEntityByRepository_WhenDeleteWithCorrectId() {
         Long inputId = 99L;
+        Mockito.when(coffeeRepository.deleteByIdWithoutLoading(inputId)).thenReturn(1);
 
         coffeeService.delete(inputId);
 
-        Mockito.verify(coffeeRepository, Mockito.times(1)).deleteById(inputId);
+        Mockito.verify(coffeeRepository, Mockito.times(1)).deleteByIdWithoutLoading(inputId);
+        Mockito.verify(coffeeRepository, Mockito.never()).findById(inputId);
+        Mockito.verify(coffeeSearchService).recordDeleted(inputId);
+    }
+
+    @Test
+    void shouldThrowCoffeeNotFoundException_WhenDeleteNotExistingCoffee() {
+        Mockito.when(coffeeRepository.deleteByIdWithoutLoading(99L)).thenReturn(0);
+
+        assertThrows(CoffeeNotFoundException.class, () -> coffeeService.delete(99L));
+        Mockito.verifyNoInteractions(coffeeSearchService);
     }
 
     @Test
@@ -241,5 +309,207 @@ class CoffeeServiceTest {
         assertThrows(NoValidLimitException.class, () -> coffeeService.findAllByPage(page, limit));
     }
 
+    //findAll with fields
+    @Test
+    void shouldNotFetchOrders_WhenFindAllWithoutOrdersField() {
+        FieldSet fieldSet = FieldSet.parse("id,name", CoffeePublicDTO.class);
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+        CoffeePublicDTO mockedPublicDto = Mockito.mock(CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.findAllWithoutOrders())
+                .thenReturn(List.of(mockedCoffee));
+        Mockito.when(coffeeMapper.entityToDto(mockedCoffee, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        List<CoffeePublicDTO> resultPublicDtoList = coffeeService.findAll(fieldSet);
+
+        assertEquals(List.of(mockedPublicDto), resultPublicDtoList);
+        Mockito.verify(coffeeRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldFetchOrders_WhenFindAllWithOrdersField() {
+        FieldSet fieldSet = FieldSet.parse("orders", CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.findAll())
+                .thenReturn(List.of());
+
+        coffeeService.findAll(fieldSet);
+
+        Mockito.verify(coffeeRepository, Mockito.times(1)).findAll();
+        Mockito.verify(coffeeRepository, Mockito.never()).findAllWithoutOrders();
+    }
+
+    @Test
+    void shouldNotFetchOrders_WhenFindByIdWithoutOrdersField() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("price", CoffeePublicDTO.class);
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+        CoffeePublicDTO mockedPublicDto = Mockito.mock(CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.of(mockedCoffee));
+        Mockito.when(coffeeMapper.entityToDto(mockedCoffee, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        ICoffeePublicDTO resultPublicDto = coffeeService.findById(inputId, fieldSet);
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(coffeeRepository, Mockito.never()).findById(inputId);
+    }
+
+    @Test
+    void shouldThrowCoffeeNotFoundException_WhenFindByIdWithFieldsNotFound() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.empty());
 
-}
\ No newline at end of file
+        assertThrows(CoffeeNotFoundException.class, () -> coffeeService.findById(inputId, fieldSet));
+    }
+
+    @Test
+    void shouldThrowNoValidLimitException_WhenFindAllByPageWithFieldsLessOneLimit() {
+        FieldSet fieldSet = FieldSet.parse("id", CoffeePublicDTO.class);
+
+        assertThrows(NoValidLimitException.class, () -> coffeeService.findAllByPage(0, 0, fieldSet));
+    }
+
+    //ordersLimit
+    @Test
+    void shouldFetchFirstOrdersByOneQuery_WhenFindAllWithOrdersLimit() {
+        FieldSet fieldSet = FieldSet.parse("id,orders", CoffeePublicDTO.class);
+        Coffee firstCoffee = Mockito.mock(Coffee.class);
+        Coffee secondCoffee = Mockito.mock(Coffee.class);
+        CoffeePublicDTO firstPublicDto = Mockito.mock(CoffeePublicDTO.class);
+        CoffeePublicDTO secondPublicDto = Mockito.mock(CoffeePublicDTO.class);
+        List<NestedOrderRow> firstOrders = List.of(
+                new NestedOrderRow(1L, 10L, 0L, LocalDateTime.MIN, null, 1.0, 3L)
+        );
+
+        Mockito.when(firstCoffee.getId()).thenReturn(1L);
+        Mockito.when(secondCoffee.getId()).thenReturn(2L);
+        Mockito.when(coffeeRepository.findAllWithoutOrders())
+                .thenReturn(List.of(firstCoffee, secondCoffee));
+        Mockito.when(coffeeRepository.findFirstOrders(List.of(1L, 2L), 2))
+                .thenReturn(firstOrders);
+        Mockito.when(coffeeMapper.entityToDto(firstCoffee, firstOrders))
+                .thenReturn(firstPublicDto);
+        Mockito.when(coffeeMapper.entityToDto(secondCoffee, List.of()))
+                .thenReturn(secondPublicDto);
+
+        List<CoffeePublicDTO> resultPublicDtoList = coffeeService.findAll(fieldSet, 2);
+
+        assertEquals(List.of(firstPublicDto, secondPublicDto), resultPublicDtoList);
+        Mockito.verify(coffeeRepository, Mockito.times(1)).findFirstOrders(Mockito.anyCollection(), Mockito.anyInt());
+        Mockito.verify(coffeeRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldNotFetchFirstOrders_WhenFindByIdWithOrdersLimitWithoutOrderFields() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", CoffeePublicDTO.class);
+        Coffee mockedCoffee = Mockito.mock(Coffee.class);
+        CoffeePublicDTO mockedPublicDto = Mockito.mock(CoffeePublicDTO.class);
+
+        Mockito.when(coffeeRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.of(mockedCoffee));
+        Mockito.when(coffeeMapper.entityToDto(mockedCoffee, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        assertEquals(mockedPublicDto, coffeeService.findById(inputId, fieldSet, 5));
+        Mockito.verify(coffeeRepository, Mockito.never()).findFirstOrders(Mockito.anyCollection(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldThrowCoffeeNotFoundException_WhenFindByIdWithOrdersLimitNotFound() {
+        Long inputId = 99L;
+
+        Mockito.when(coffeeRepository.findByIdWithoutOrders(inputId))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CoffeeNotFoundException.class, () -> coffeeService.findById(inputId, FieldSet.all(), 5));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void shouldThrowNoValidLimitException_WhenOrdersLimitLessThanOne(int ordersLimit) {
+        assertThrows(NoValidLimitException.class, () -> coffeeService.findAll(FieldSet.all(), ordersLimit));
+        assertThrows(NoValidLimitException.class, () -> coffeeService.findAllByPage(0, 1, FieldSet.all(), ordersLimit));
+        assertThrows(NoValidLimitException.class, () -> coffeeService.findById(0L, FieldSet.all(), ordersLimit));
+    }
+
+    //findOrders
+    @Test
+    void shouldReturnSliceWithNextAfter_WhenFindOrdersFoundMoreThanLimit() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        List<Order> foundOrders = List.of(
+                new Order(1L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0),
+                new Order(2L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0),
+                new Order(3L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0)
+        );
+
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.eq(3)))
+                .thenReturn(foundOrders);
+
+        IOrderSliceDTO resultSlice = coffeeService.findOrders(0L, new OrderFilterDTO(null, 2, null, null, null));
+
+        assertEquals(List.of(1L, 2L), resultSlice.orders().stream().map(IOrderNoRefDTO::id).toList());
+        assertEquals(2L, resultSlice.nextAfter());
+        Mockito.verify(coffeeRepository, Mockito.never()).existsById(Mockito.any());
+    }
+
+    @Test
+    void shouldReturnSliceWithoutNextAfter_WhenFindOrdersFoundLessThanLimit() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        List<Order> foundOrders = List.of(
+                new Order(5L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0)
+        );
+
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.eq(21)))
+                .thenReturn(foundOrders);
+
+        IOrderSliceDTO resultSlice = coffeeService.findOrders(0L, new OrderFilterDTO(4L, null, "pending", null, null));
+
+        assertEquals(1, resultSlice.orders().size());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldThrowCoffeeNotFoundException_WhenFindOrdersOfNotExistingCoffee() {
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.anyInt()))
+                .thenReturn(List.of());
+        Mockito.when(coffeeRepository.existsById(99L))
+                .thenReturn(false);
+
+        OrderFilterDTO specifiedFilter = new OrderFilterDTO(null, null, null, null, null);
+        assertThrows(CoffeeNotFoundException.class, () -> coffeeService.findOrders(99L, specifiedFilter));
+    }
+
+    @Test
+    void shouldReturnEmptySlice_WhenFindOrdersOfExistingCoffeeWithoutOrders() {
+        Mockito.when(orderRepository.findFirstOrderedById(Mockito.any(), Mockito.anyInt()))
+                .thenReturn(List.of());
+        Mockito.when(coffeeRepository.existsById(99L))
+                .thenReturn(true);
+
+        IOrderSliceDTO resultSlice = coffeeService.findOrders(99L, new OrderFilterDTO(null, null, null, null, null));
+
+        assertEquals(List.of(), resultSlice.orders());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenFindOrdersWithWrongFilter() {
+        OrderFilterDTO negativeAfter = new OrderFilterDTO(-1L, null, null, null, null);
+        OrderFilterDTO zeroLimit = new OrderFilterDTO(null, 0, null, null, null);
+        OrderFilterDTO unknownStatus = new OrderFilterDTO(null, null, "lost", null, null);
+
+        assertThrows(NullParamException.class, () -> coffeeService.findOrders(0L, null));
+        assertThrows(NoValidIdException.class, () -> coffeeService.findOrders(-1L, zeroLimit));
+        assertThrows(NoValidIdException.class, () -> coffeeService.findOrders(0L, negativeAfter));
+        assertThrows(NoValidLimitException.class, () -> coffeeService.findOrders(0L, zeroLimit));
+        assertThrows(NoValidStatusException.class, () -> coffeeService.findOrders(0L, unknownStatus));
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Coffee;
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.CoffeeRepository;
+import com.example.rest.repository.CoffeeStatsRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.StatsBucket;
+import com.example.rest.repository.exception.NoValidStatsBucketException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.servlet.dto.CoffeeStatsDTO;
+import com.example.rest.servlet.dto.CoffeeStatsFilterDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class CoffeeStatsServiceTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 25);
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private CoffeeRepository coffeeRepository;
+    @Mock
+    private OrderRepository orderRepository;
+
+    private CoffeeStatsService statsService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        statsService = new CoffeeStatsService(coffeeRepository, orderRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.unbindResourceIfPossible(statsService);
+    }
+
+    private static Coffee coffee(long id, double price) {
+        Coffee coffee = new Coffee();
+        coffee.setId(id);
+        coffee.setName("coffee " + id);
+        coffee.setPrice(price);
+        return coffee;
+    }
+
+    private static Order order(LocalDateTime created, Coffee... coffeeList) {
+        Order order = new Order();
+        order.setCoffeeList(List.of(coffeeList));
+        order.setCreated(created);
+        return order;
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new CoffeeStatsService(null, orderRepository));
+        assertThrows(NullParamException.class, () -> new CoffeeStatsService(coffeeRepository, null));
+    }
+
+    //findStats
+    @Test
+    void shouldReturnRollupRows_WhenFindStatsByDay() {
+        Mockito.when(coffeeRepository.findStats(FROM, TO, StatsBucket.DAY))
+                .thenReturn(List.of(new CoffeeStatsRow(1L, FROM, 3L, 4L, 12.0)));
+
+        List<CoffeeStatsDTO> result = statsService.findStats(new CoffeeStatsFilterDTO(FROM, TO, "Day"));
+
+        assertEquals(List.of(new CoffeeStatsDTO(1L, FROM, 3L, 4L, 12.0)), result);
+    }
+
+    @Test
+    void shouldGroupByHour_WhenFindStatsWithoutBucket() {
+        statsService.findStats(new CoffeeStatsFilterDTO(FROM, TO, null));
+
+        Mockito.verify(coffeeRepository).findStats(FROM, TO, StatsBucket.HOUR);
+    }
+
+    @Test
+    void shouldThrowNoValidStatsBucketException_WhenFindStatsWithUnknownBucket() {
+        CoffeeStatsFilterDTO filter = new CoffeeStatsFilterDTO(FROM, TO, "week");
+
+        assertThrows(NoValidStatsBucketException.class, () -> statsService.findStats(filter));
+        Mockito.verifyNoInteractions(coffeeRepository);
+    }
+
+    @Test
+    void shouldThrowNoValidStatsPeriodException_WhenFindStatsWithEndNotAfterStart() {
+        CoffeeStatsFilterDTO filter = new CoffeeStatsFilterDTO(TO, FROM, "hour");
+
+        assertThrows(NoValidStatsPeriodException.class, () -> statsService.findStats(filter));
+        assertThrows(NoValidStatsPeriodException.class,
+                () -> statsService.findStats(new CoffeeStatsFilterDTO(FROM, FROM, "hour")));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenFindStatsWithoutPeriod() {
+        assertThrows(NullParamException.class, () -> statsService.findStats(null));
+        assertThrows(NullParamException.class, () -> statsService.findStats(new CoffeeStatsFilterDTO(null, TO, null)));
+        assertThrows(NullParamException.class, () -> statsService.findStats(new CoffeeStatsFilterDTO(FROM, null, null)));
+    }
+
+    //recordCreated
+    @Test
+    void shouldWriteLinesToHourAtOnce_WhenRecordCreatedWithoutTransaction() {
+        statsService.recordCreated(order(CREATED, coffee(2L, 2.0), coffee(1L, 3.0), coffee(1L, 3.0)));
+
+        Mockito.verify(coffeeRepository).addStats(List.of(
+                new CoffeeStatsRow(1L, HOUR, 1L, 2L, 6.0),
+                new CoffeeStatsRow(2L, HOUR, 1L, 1L, 2.0)));
+    }
+
+    @Test
+    void shouldWriteMergedChangesBeforeCommit_WhenRecordCreatedInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        statsService.recordCreated(order(CREATED, coffee(1L, 3.0)));
+        statsService.recordCreated(order(CREATED.plusMinutes(45), coffee(1L, 3.0), coffee(2L, 2.0)));
+        Mockito.verify(coffeeRepository, Mockito.never()).addStats(any());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCommit(false);
+
+        Mockito.verify(coffeeRepository).addStats(List.of(
+                new CoffeeStatsRow(1L, HOUR, 1L, 1L, 3.0),
+                new CoffeeStatsRow(1L, HOUR.plusHours(1), 1L, 1L, 3.0),
+                new CoffeeStatsRow(2L, HOUR.plusHours(1), 1L, 1L, 2.0)));
+    }
+
+    @Test
+    void shouldUnbindChanges_WhenTransactionCompleted() {
+        TransactionSynchronizationManager.initSynchronization();
+        statsService.recordCreated(order(CREATED, coffee(1L, 3.0)));
+
+        TransactionSynchronizationManager.getSynchronizations().get(0)
+                .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(TransactionSynchronizationManager.hasResource(statsService));
+        Mockito.verify(coffeeRepository, Mockito.never()).addStats(any());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordCreatedWithoutCreated() {
+        assertThrows(NullParamException.class, () -> statsService.recordCreated(null));
+        assertThrows(NullParamException.class, () -> statsService.recordCreated(order(null, coffee(1L, 3.0))));
+    }
+
+    //recordDeleted
+    @Test
+    void shouldWriteOnlyChangedLines_WhenRecordDeletedAndCreatedInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        Order order = order(CREATED, coffee(1L, 3.0), coffee(2L, 2.0));
+
+        statsService.recordDeleted(order);
+        order.setCoffeeList(List.of(coffee(1L, 3.0), coffee(2L, 2.0), coffee(2L, 2.0)));
+        statsService.recordCreated(order);
+        TransactionSynchronizationManager.getSynchronizations().get(0).beforeCommit(false);
+
+        Mockito.verify(coffeeRepository).addStats(List.of(new CoffeeStatsRow(2L, HOUR, 0L, 1L, 2.0)));
+    }
+
+    @Test
+    void shouldSubtractLines_WhenRecordDeleted() {
+        statsService.recordDeleted(order(CREATED, coffee(1L, 3.0), coffee(1L, 3.0)));
+
+        Mockito.verify(coffeeRepository).addStats(List.of(new CoffeeStatsRow(1L, HOUR, -1L, -2L, -6.0)));
+    }
+
+    @Test
+    void shouldSubtractStoredLines_WhenRecordDeletedById() {
+        Mockito.when(orderRepository.findLineStats(5L))
+                .thenReturn(List.of(new CoffeeStatsRow(1L, CREATED, 1L, 2L, 6.0)));
+
+        statsService.recordDeleted(5L);
+
+        Mockito.verify(coffeeRepository).addStats(List.of(new CoffeeStatsRow(1L, HOUR, -1L, -2L, -6.0)));
+    }
+
+    @Test
+    void shouldThrowException_WhenRecordDeletedWithNotValidId() {
+        assertThrows(NullParamException.class, () -> statsService.recordDeleted((Long) null));
+        assertThrows(NoValidIdException.class, () -> statsService.recordDeleted(-1L));
+    }
+
+    //recordMoved
+    @Test
+    void shouldMoveStoredLinesToNewHour_WhenRecordMoved() {
+        Mockito.when(orderRepository.findLineStats(5L))
+                .thenReturn(List.of(new CoffeeStatsRow(1L, CREATED, 1L, 2L, 6.0)));
+
+        statsService.recordMoved(5L, CREATED.minusDays(1));
+
+        Mockito.verify(coffeeRepository).addStats(List.of(
+                new CoffeeStatsRow(1L, HOUR.minusDays(1), 1L, 2L, 6.0),
+                new CoffeeStatsRow(1L, HOUR, -1L, -2L, -6.0)));
+    }
+
+    @Test
+    void shouldNotWrite_WhenRecordMovedInSameHour() {
+        Mockito.when(orderRepository.findLineStats(5L))
+                .thenReturn(List.of(new CoffeeStatsRow(1L, CREATED, 1L, 2L, 6.0)));
+
+        statsService.recordMoved(5L, HOUR.plusMinutes(59));
+
+        Mockito.verify(coffeeRepository, Mockito.never()).addStats(any());
+    }
+
+    @Test
+    void shouldThrowException_WhenRecordMovedWithWrongParam() {
+        assertThrows(NullParamException.class, () -> statsService.recordMoved(null, CREATED));
+        assertThrows(NullParamException.class, () -> statsService.recordMoved(5L, null));
+        assertThrows(NoValidIdException.class, () -> statsService.recordMoved(-1L, CREATED));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.service.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private IdempotencyStore<String> store;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    public void setup() {
+        store = new IdempotencyStore<>(2);
+        calls = new AtomicInteger();
+    }
+
+    private String action() {
+        return "result-" + calls.incrementAndGet();
+    }
+
+    //constructor
+    @Test
+    void shouldThrowIllegalArgumentException_WhenConstructorWithZeroMaxEntries() {
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyStore<>(0));
+    }
+
+    //execute
+    @Test
+    void shouldReturnStoredResult_WhenExecuteWithSameKey() {
+        assertEquals("result-1", store.execute("key", "1", this::action));
+        assertEquals("result-1", store.execute("key", "1", this::action));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldExecuteAction_WhenExecuteWithOtherKey() {
+        assertEquals("result-1", store.execute("first", "1", this::action));
+        assertEquals("result-2", store.execute("second", "1", this::action));
+    }
+
+    @Test
+    void shouldThrowIdempotencyKeyReusedException_WhenExecuteWithOtherFingerprint() {
+        store.execute("key", "1", this::action);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("key", "2", this::action));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldNotStoreFailure_WhenActionThrows() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key", "1", () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals("result-1", store.execute("key", "1", this::action));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedKey_WhenStoreIsFull() {
+        store.execute("first", "1", this::action);
+        store.execute("second", "1", this::action);
+        store.execute("first", "1", this::action);
+        store.execute("third", "1", this::action);
+
+        assertEquals(2, store.size());
+        assertEquals("result-1", store.execute("first", "1", this::action));
+        assertEquals("result-4", store.execute("second", "1", this::action));
+    }
+
+    @Test
+    void shouldExecuteActionOnce_WhenConcurrentExecuteWithSameKey() throws Exception {
+        int threads = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> store.execute("key", "1", () -> {
+                started.countDown();
+                await(release);
+                return action();
+            })));
+            started.await();
+            for (int i = 1; i < threads; i++)
+                results.add(executor.submit(() -> store.execute("key", "1", this::action)));
+            release.countDown();
+
+            for (Future<String> result : results)
+                assertEquals("result-1", result.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRethrowFailureToWaitingRequests_WhenConcurrentActionThrows() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> store.execute("key", "1", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("failed");
+            }));
+            started.await();
+            Future<String> second = executor.submit(() -> store.execute("key", "1", this::action));
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, firstError.getCause());
+            try {
+                assertEquals("result-1", second.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
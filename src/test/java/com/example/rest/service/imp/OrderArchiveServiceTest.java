@@ -0,0 +1,100 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class OrderArchiveServiceTest {
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderArchiveService archiveService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        archiveService = new OrderArchiveService(orderRepository);
+        archiveService.setAfterDays(30);
+        archiveService.setBatchSize(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        archiveService.stop();
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new OrderArchiveService(null));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> archiveService.setAfterDays(0));
+        assertThrows(IllegalArgumentException.class, () -> archiveService.setBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> archiveService.setIntervalMillis(0));
+    }
+
+    //archive
+    @Test
+    void shouldMoveBatchesUntilBatchIsNotFull_WhenArchive() {
+        Mockito.when(orderRepository.archiveCompleted(any(), Mockito.eq(2)))
+                .thenReturn(2, 2, 1);
+
+        int archived = archiveService.archive();
+
+        assertEquals(5, archived);
+        Mockito.verify(orderRepository, Mockito.times(3)).archiveCompleted(any(), Mockito.eq(2));
+    }
+
+    @Test
+    void shouldArchiveOrdersCompletedBeforeAge_WhenArchive() {
+        LocalDateTime before = LocalDateTime.now().minusDays(30);
+
+        archiveService.archive();
+
+        ArgumentCaptor<LocalDateTime> completedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(orderRepository).archiveCompleted(completedBefore.capture(), anyInt());
+        assertFalse(completedBefore.getValue().isBefore(before));
+        assertTrue(completedBefore.getValue().isBefore(before.plusMinutes(1)));
+    }
+
+    //start
+    @Test
+    void shouldNotArchive_WhenStartNotEnabled() {
+        archiveService.setIntervalMillis(1);
+
+        archiveService.start();
+
+        assertTrue(archiveService.isRunning());
+        Mockito.verify(orderRepository, Mockito.after(100).never()).archiveCompleted(any(), anyInt());
+    }
+
+    @Test
+    void shouldArchivePeriodically_WhenStartEnabled() {
+        archiveService.setEnabled(true);
+        archiveService.setIntervalMillis(10);
+        Mockito.when(orderRepository.archiveCompleted(any(), anyInt()))
+                .thenThrow(new IllegalStateException("db is down"))
+                .thenReturn(0);
+
+        archiveService.start();
+
+        Mockito.verify(orderRepository, Mockito.timeout(1000).atLeast(2)).archiveCompleted(any(), anyInt());
+        archiveService.stop();
+        assertFalse(archiveService.isRunning());
+    }
+}
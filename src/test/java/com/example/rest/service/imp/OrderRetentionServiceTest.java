@@ -0,0 +1,189 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.BaristaStatsRow;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.PurgedOrders;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.IResponseCache;
+import com.example.rest.servlet.dto.OrderRetentionDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class OrderRetentionServiceTest {
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private IBaristaStatsService baristaStatsService;
+    @Mock
+    private IResponseCache responseCache;
+
+    private OrderRetentionService retentionService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        retentionService = new OrderRetentionService(orderRepository, baristaStatsService);
+        retentionService.setResponseCache(responseCache);
+        retentionService.setYears(2);
+        retentionService.setChunkSize(10);
+        retentionService.setMaxRowsPerSecond(1_000_000);
+        Mockito.when(orderRepository.deleteArchivedOrders(any(), anyInt())).thenReturn(purged(0));
+        Mockito.when(orderRepository.deleteOrders(any(), anyInt())).thenReturn(purged(0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        retentionService.stop();
+    }
+
+    private static PurgedOrders purged(int orders) {
+        return new PurgedOrders(orders, List.of());
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new OrderRetentionService(null, baristaStatsService));
+        assertThrows(NullParamException.class, () -> new OrderRetentionService(orderRepository, null));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> retentionService.setYears(0));
+        assertThrows(IllegalArgumentException.class, () -> retentionService.setChunkSize(0));
+        assertThrows(IllegalArgumentException.class, () -> retentionService.setMaxRowsPerSecond(0));
+        assertThrows(IllegalArgumentException.class, () -> retentionService.setIntervalMillis(0));
+    }
+
+    //purge
+    @Test
+    void shouldDropPartitionsThenDeleteArchivedOrdersThenOrders_WhenPurge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusYears(2);
+        Mockito.when(orderRepository.dropArchivePartitions(any()))
+                .thenReturn(List.of(purged(100), purged(50), purged(0)));
+        Mockito.when(orderRepository.deleteArchivedOrders(any(), Mockito.eq(10))).thenReturn(purged(10), purged(4));
+        Mockito.when(orderRepository.deleteOrders(any(), Mockito.eq(10))).thenReturn(purged(10), purged(10), purged(0));
+
+        OrderRetentionDTO progress = retentionService.purge();
+
+        InOrder inOrder = Mockito.inOrder(orderRepository);
+        inOrder.verify(orderRepository).dropArchivePartitions(any());
+        inOrder.verify(orderRepository, Mockito.times(2)).deleteArchivedOrders(any(), anyInt());
+        inOrder.verify(orderRepository, Mockito.times(3)).deleteOrders(any(), anyInt());
+        assertFalse(progress.purging());
+        assertFalse(progress.createdBefore().isBefore(cutoff));
+        assertTrue(progress.createdBefore().isBefore(cutoff.plusMinutes(1)));
+        assertEquals(20L, progress.deletedOrders());
+        assertEquals(14L, progress.deletedArchivedOrders());
+        assertEquals(3L, progress.droppedPartitions());
+        assertEquals(5L, progress.chunks());
+        assertNotNull(progress.lastFinished());
+        Mockito.verify(responseCache).evictAll();
+    }
+
+    @Test
+    void shouldRemovePurgedCompletedOrdersFromBaristaStats_WhenPurge() {
+        List<BaristaStatsRow> partition = List.of(new BaristaStatsRow(1L, 50L, 9000.0, 250.0, 25.0));
+        List<BaristaStatsRow> archived = List.of(new BaristaStatsRow(1L, 4L, 720.0, 20.0, 2.0));
+        List<BaristaStatsRow> live = List.of(new BaristaStatsRow(2L, 3L, 540.0, 15.0, 1.5));
+        Mockito.when(orderRepository.dropArchivePartitions(any())).thenReturn(List.of(new PurgedOrders(50, partition)));
+        Mockito.when(orderRepository.deleteArchivedOrders(any(), anyInt())).thenReturn(new PurgedOrders(4, archived));
+        Mockito.when(orderRepository.deleteOrders(any(), anyInt())).thenReturn(new PurgedOrders(5, live));
+
+        retentionService.purge();
+
+        InOrder inOrder = Mockito.inOrder(orderRepository, baristaStatsService);
+        inOrder.verify(orderRepository).dropArchivePartitions(any());
+        inOrder.verify(baristaStatsService).recordPurged(partition);
+        inOrder.verify(orderRepository).deleteArchivedOrders(any(), anyInt());
+        inOrder.verify(baristaStatsService).recordPurged(archived);
+        inOrder.verify(orderRepository).deleteOrders(any(), anyInt());
+        inOrder.verify(baristaStatsService).recordPurged(live);
+        Mockito.verifyNoMoreInteractions(baristaStatsService);
+    }
+
+    @Test
+    void shouldNotEvictResponses_WhenPurgeDeletedNoOrders() {
+        Mockito.when(orderRepository.deleteArchivedOrders(any(), anyInt())).thenReturn(purged(4));
+
+        retentionService.purge();
+
+        Mockito.verifyNoInteractions(responseCache);
+    }
+
+    @Test
+    void shouldAddToTotals_WhenPurgeTwice() {
+        Mockito.when(orderRepository.deleteOrders(any(), anyInt())).thenReturn(purged(5));
+
+        retentionService.purge();
+        retentionService.purge();
+
+        assertEquals(10L, retentionService.findProgress().deletedOrders());
+        assertEquals(4L, retentionService.findProgress().chunks());
+    }
+
+    @Test
+    void shouldThrottleDeletes_WhenPurgeAheadOfRate() {
+        retentionService.setMaxRowsPerSecond(100);
+        Mockito.when(orderRepository.deleteOrders(any(), anyInt())).thenReturn(purged(10), purged(10), purged(10), purged(5));
+
+        long started = System.nanoTime();
+        retentionService.purge();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 290, "Purge of 30 rows at 100 rows per second took " + elapsedMillis + " ms");
+        assertEquals(35L, retentionService.findProgress().deletedOrders());
+    }
+
+    @Test
+    void shouldKeepTotals_WhenPurgeFailed() {
+        Mockito.when(orderRepository.deleteArchivedOrders(any(), anyInt())).thenReturn(purged(3));
+        Mockito.when(orderRepository.deleteOrders(any(), anyInt())).thenThrow(new IllegalStateException("db is down"));
+
+        assertThrows(IllegalStateException.class, () -> retentionService.purge());
+
+        OrderRetentionDTO progress = retentionService.findProgress();
+        assertFalse(progress.purging());
+        assertEquals(3L, progress.deletedArchivedOrders());
+        assertNull(progress.lastFinished());
+    }
+
+    //start
+    @Test
+    void shouldNotPurge_WhenStartNotEnabled() {
+        retentionService.setIntervalMillis(1);
+
+        retentionService.start();
+
+        assertTrue(retentionService.isRunning());
+        Mockito.verify(orderRepository, Mockito.after(100).never()).dropArchivePartitions(any());
+    }
+
+    @Test
+    void shouldPurgePeriodically_WhenStartEnabled() {
+        retentionService.setEnabled(true);
+        retentionService.setIntervalMillis(10);
+        Mockito.when(orderRepository.dropArchivePartitions(any()))
+                .thenThrow(new IllegalStateException("db is down"))
+                .thenReturn(List.of());
+
+        retentionService.start();
+
+        Mockito.verify(orderRepository, Mockito.timeout(1000).atLeast(2)).dropArchivePartitions(any());
+        retentionService.stop();
+        assertFalse(retentionService.isRunning());
+    }
+}
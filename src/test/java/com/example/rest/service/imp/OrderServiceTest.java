@@ -2,65 +2,108 @@ package com.example.rest.service.imp;
 
 import com.example.rest.entity.Barista;
 import com.example.rest.entity.Order;
-import com.example.rest.entity.exception.NoValidIdException;
-import com.example.rest.entity.exception.NullParamException;
-import com.example.rest.entity.exception.OrderNotFoundException;
+import com.example.rest.entity.OrderIdempotencyKey;
+import com.example.rest.entity.exception.*;
+import com.example.rest.repository.BaristaRepository;
+import com.example.rest.repository.OrderArchiveFilter;
+import com.example.rest.repository.OrderArchiveRow;
+import com.example.rest.repository.OrderIdempotencyKeyRepository;
 import com.example.rest.repository.OrderRepository;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.IBaristaStatsService;
+import com.example.rest.service.ICoffeeStatsService;
+import com.example.rest.service.IOrderTimelineService;
+import com.example.rest.service.IOrderWaitTimeService;
+import com.example.rest.service.IResponseCache;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IOrderCreateDTO;
+import com.example.rest.service.dto.IOrderNoRefDTO;
 import com.example.rest.service.dto.IOrderPublicDTO;
+import com.example.rest.service.dto.IOrderSliceDTO;
 import com.example.rest.service.dto.IOrderUpdateDTO;
+import com.example.rest.service.exception.IdempotencyKeyReusedException;
+import com.example.rest.service.exception.NoValidIdempotencyKeyException;
 import com.example.rest.service.exception.OrderAlreadyCompletedException;
+import com.example.rest.service.intake.AcceptedOrder;
 import com.example.rest.service.mapper.OrderMapper;
 import com.example.rest.servlet.dto.OrderCreateDTO;
+import com.example.rest.servlet.dto.OrderPatchDTO;
 import com.example.rest.servlet.dto.OrderPublicDTO;
+import com.example.rest.servlet.dto.OrderSearchDTO;
 import com.example.rest.servlet.dto.OrderUpdateDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 
 class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
     @Mock
+    private BaristaRepository baristaRepository;
+    @Mock
+    private OrderIdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
     private OrderMapper orderMapper;
+    @Mock
+    private IBaristaStatsService baristaStatsService;
+    @Mock
+    private ICoffeeStatsService coffeeStatsService;
+    @Mock
+    private IOrderTimelineService orderTimelineService;
+    @Mock
+    private IOrderWaitTimeService orderWaitTimeService;
+    @Mock
+    private IResponseCache responseCache;
 
     private OrderService orderService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        orderService = new OrderService(orderRepository, orderMapper);
+        orderService = new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService);
+        orderService.setResponseCache(responseCache);
     }
 
     //constructor
     @Test
     void shouldReturnOrderService_WhenConstructorCorrectParams() {
-        OrderService resultOrderService = new OrderService(orderRepository, orderMapper);
+        OrderService resultOrderService = new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService);
 
         assertNotNull(resultOrderService);
     }
 
     @Test
     void shouldThrowNullParamException_WhenConstructorNullParam() {
-        assertThrows(NullParamException.class, () -> new OrderService(null, orderMapper));
-        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, null));
+        assertThrows(NullParamException.class, () -> new OrderService(null, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, null, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, null, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, null, baristaStatsService, coffeeStatsService, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, null, coffeeStatsService, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, null, orderTimelineService, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, null, orderWaitTimeService));
+        assertThrows(NullParamException.class, () -> new OrderService(orderRepository, baristaRepository, idempotencyKeyRepository, orderMapper, baristaStatsService, coffeeStatsService, orderTimelineService, null));
     }
 
     //create
@@ -77,8 +120,8 @@ class OrderServiceTest {
                 .thenReturn(mockedBarista);
         Mockito.when(mockedBarista.getTipSize())
                 .thenReturn(0.1);
-        Mockito.when(mockedOrder.getCoffeeList())
-                .thenReturn(List.of());
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(0.0);
         Mockito.when(orderRepository.save(mockedOrder))
                 .thenReturn(mockedOrder);
         Mockito.when(orderMapper.entityToDto(mockedOrder))
@@ -88,6 +131,8 @@ class OrderServiceTest {
         IOrderPublicDTO resultPublicDto = orderService.create(mockedCreateDto);
 
         assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(coffeeStatsService, Mockito.times(1)).recordCreated(mockedOrder);
+        Mockito.verify(orderTimelineService, Mockito.times(1)).recordCreated(mockedOrder);
     }
 
     @Test
@@ -95,6 +140,181 @@ class OrderServiceTest {
         assertThrows(NullParamException.class, () -> orderService.create(null));
     }
 
+    //create with idempotency key
+    private OrderPublicDTO mockCreate(OrderCreateDTO createDto) {
+        Order mockedOrder = Mockito.mock(Order.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        OrderPublicDTO publicDto = new OrderPublicDTO(7L, null, null, null, 0.0, List.of());
+
+        Mockito.when(orderMapper.createDtoToEntity(createDto))
+                .thenReturn(mockedOrder);
+        Mockito.when(mockedOrder.getBarista())
+                .thenReturn(mockedBarista);
+        Mockito.when(orderRepository.save(mockedOrder))
+                .thenReturn(mockedOrder);
+        Mockito.when(orderMapper.entityToDto(mockedOrder))
+                .thenReturn(publicDto);
+        return publicDto;
+    }
+
+    @Test
+    void shouldCreateOrderAndStoreKey_WhenCreateWithNewKey() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+        OrderPublicDTO publicDto = mockCreate(createDto);
+
+        Mockito.when(idempotencyKeyRepository.findById("key"))
+                .thenReturn(Optional.empty());
+
+        assertEquals(publicDto, orderService.create(createDto, "key"));
+        Mockito.verify(idempotencyKeyRepository).save(argThat(key ->
+                key.getKey().equals("key") && key.getOrderId().equals(7L) && key.getRequestHash().equals(createDto.requestHash())));
+    }
+
+    @Test
+    void shouldReturnStoredOrderWithoutWrites_WhenCreateWithStoredKey() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+        Order mockedOrder = Mockito.mock(Order.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(idempotencyKeyRepository.findById("key"))
+                .thenReturn(Optional.of(new OrderIdempotencyKey("key", createDto.requestHash(), 7L, LocalDateTime.now())));
+        Mockito.when(orderRepository.findById(7L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder))
+                .thenReturn(mockedPublicDto);
+
+        assertEquals(mockedPublicDto, orderService.create(createDto, "key"));
+        Mockito.verify(orderRepository, Mockito.never()).save(any());
+        Mockito.verify(idempotencyKeyRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void shouldThrowIdempotencyKeyReusedException_WhenCreateWithKeyOfOtherRequest() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+
+        Mockito.when(idempotencyKeyRepository.findById("key"))
+                .thenReturn(Optional.of(new OrderIdempotencyKey("key", new OrderCreateDTO(0L, List.of(2L)).requestHash(), 7L, LocalDateTime.now())));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> orderService.create(createDto, "key"));
+        Mockito.verify(orderRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void shouldNotStoreKey_WhenCreateWithKeyAndKeysNotStored() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+        OrderPublicDTO publicDto = mockCreate(createDto);
+        orderService.setIdempotencyKeysStored(false);
+
+        assertEquals(publicDto, orderService.create(createDto, "key"));
+        Mockito.verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " "})
+    void shouldThrowNoValidIdempotencyKeyException_WhenCreateWithBlankKey(String key) {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+
+        assertThrows(NoValidIdempotencyKeyException.class, () -> orderService.create(createDto, key));
+    }
+
+    @Test
+    void shouldThrowNoValidIdempotencyKeyException_WhenCreateWithTooLongKey() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+
+        assertThrows(NoValidIdempotencyKeyException.class, () -> orderService.create(createDto, "k".repeat(256)));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenCreateWithNullKey() {
+        OrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+
+        assertThrows(NullParamException.class, () -> orderService.create(createDto, null));
+    }
+
+    //validate
+    @Test
+    void shouldNotWrite_WhenValidateWithCorrectDto() {
+        IOrderCreateDTO createDto = new OrderCreateDTO(0L, List.of(1L));
+        Order mockedOrder = Mockito.mock(Order.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+
+        Mockito.when(orderMapper.createDtoToEntity(createDto))
+                .thenReturn(mockedOrder);
+        Mockito.when(mockedOrder.getBarista())
+                .thenReturn(mockedBarista);
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(1.0);
+
+        orderService.validate(createDto);
+
+        Mockito.verify(orderRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenValidateWithUnknownBarista() {
+        IOrderCreateDTO createDto = new OrderCreateDTO(99L, List.of(1L));
+
+        Mockito.when(orderMapper.createDtoToEntity(createDto))
+                .thenThrow(new BaristaNotFoundException(99L));
+
+        assertThrows(BaristaNotFoundException.class, () -> orderService.validate(createDto));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenValidateWithNullCoffeeList() {
+        assertThrows(NullParamException.class, () -> orderService.validate(new OrderCreateDTO(0L, null)));
+        assertThrows(NullParamException.class, () -> orderService.validate(null));
+    }
+
+    //createAccepted
+    @Test
+    void shouldInsertOrdersWithAcceptedIdAndCreated_WhenCreateAccepted() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        AcceptedOrder accepted = new AcceptedOrder(11L, 0L, List.of(1L), created);
+        Order mockedOrder = Mockito.mock(Order.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+
+        Mockito.when(orderRepository.findExistingIds(List.of(11L)))
+                .thenReturn(List.of());
+        Mockito.when(orderMapper.createDtoToEntity(accepted))
+                .thenReturn(mockedOrder);
+        Mockito.when(mockedOrder.getBarista())
+                .thenReturn(mockedBarista);
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(2.0);
+        Mockito.when(mockedBarista.getTipSize())
+                .thenReturn(0.5);
+
+        assertEquals(1, orderService.createAccepted(List.of(accepted)));
+
+        Mockito.verify(mockedOrder).setId(11L);
+        Mockito.verify(mockedOrder).setCreated(created);
+        Mockito.verify(mockedOrder).setPrice(3.0);
+        Mockito.verify(orderRepository).insertAll(List.of(mockedOrder));
+        Mockito.verify(coffeeStatsService).recordCreated(mockedOrder);
+        Mockito.verify(orderTimelineService).recordCreated(mockedOrder);
+        Mockito.verify(responseCache).evictAll();
+    }
+
+    @Test
+    void shouldSkipStoredOrders_WhenCreateAcceptedWithStoredIds() {
+        AcceptedOrder stored = new AcceptedOrder(11L, 0L, List.of(1L), LocalDateTime.MIN);
+
+        Mockito.when(orderRepository.findExistingIds(List.of(11L)))
+                .thenReturn(List.of(11L));
+
+        assertEquals(0, orderService.createAccepted(List.of(stored)));
+
+        Mockito.verify(orderMapper, Mockito.never()).createDtoToEntity(any());
+        Mockito.verify(orderRepository).insertAll(List.of());
+        Mockito.verifyNoInteractions(coffeeStatsService, responseCache);
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenCreateAcceptedWithNullParam() {
+        assertThrows(NullParamException.class, () -> orderService.createAccepted(null));
+    }
+
     //update
     @Test
     void shouldUpdateEntityByRepository_WhenUpdateWithCorrectDto() {
@@ -105,8 +325,8 @@ class OrderServiceTest {
 
         Mockito.when(orderMapper.updateDtoToEntity(mockedCreateDto))
                 .thenReturn(mockedOrder);
-        Mockito.when(mockedOrder.getCoffeeList())
-                .thenReturn(List.of());
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(0.0);
         Mockito.when(mockedOrder.getBarista())
                 .thenReturn(mockedBarista);
         Mockito.when(mockedBarista.getTipSize())
@@ -123,7 +343,64 @@ class OrderServiceTest {
         IOrderPublicDTO resultPublicDto = orderService.update(mockedCreateDto);
 
         assertEquals(mockedPublicDto, resultPublicDto);
+        InOrder inOrder = Mockito.inOrder(coffeeStatsService, mockedOrder);
+        inOrder.verify(coffeeStatsService).recordDeleted(mockedOrder);
+        inOrder.verify(mockedOrder).setCoffeeList(any());
+        inOrder.verify(coffeeStatsService).recordCreated(mockedOrder);
+    }
+
+    @Test
+    void shouldMoveStoredOrderInBaristaStats_WhenUpdateCompletedOrder() {
+        IOrderUpdateDTO mockedUpdateDto = Mockito.mock(OrderUpdateDTO.class);
+        Order mockedOrder = Mockito.mock(Order.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+
+        Mockito.when(orderMapper.updateDtoToEntity(mockedUpdateDto))
+                .thenReturn(mockedOrder);
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(10.0);
+        Mockito.when(mockedOrder.getBarista())
+                .thenReturn(mockedBarista);
+        Mockito.when(mockedOrder.getId())
+                .thenReturn(5L);
+        Mockito.when(mockedOrder.getCompleted())
+                .thenReturn(LocalDateTime.of(2024, 1, 1, 10, 5));
+        Mockito.when(orderRepository.findById(any()))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderRepository.save(mockedOrder))
+                .thenReturn(mockedOrder);
+
+        orderService.update(mockedUpdateDto);
+
+        InOrder inOrder = Mockito.inOrder(baristaStatsService, mockedOrder);
+        inOrder.verify(baristaStatsService).recordDeleted(5L);
+        inOrder.verify(mockedOrder).setCompleted(any());
+        inOrder.verify(mockedOrder).setPrice(10.0);
+        inOrder.verify(baristaStatsService).recordCompleted(mockedOrder);
+    }
 
+    @Test
+    void shouldOnlyRemoveStoredOrderFromBaristaStats_WhenUpdateToPendingOrder() {
+        IOrderUpdateDTO mockedUpdateDto = Mockito.mock(OrderUpdateDTO.class);
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderMapper.updateDtoToEntity(mockedUpdateDto))
+                .thenReturn(mockedOrder);
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(10.0);
+        Mockito.when(mockedOrder.getBarista())
+                .thenReturn(Mockito.mock(Barista.class));
+        Mockito.when(mockedOrder.getId())
+                .thenReturn(5L);
+        Mockito.when(orderRepository.findById(any()))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderRepository.save(mockedOrder))
+                .thenReturn(mockedOrder);
+
+        orderService.update(mockedUpdateDto);
+
+        Mockito.verify(baristaStatsService).recordDeleted(5L);
+        Mockito.verify(baristaStatsService, Mockito.never()).recordCompleted(any(Order.class));
     }
 
     @Test
@@ -131,14 +408,233 @@ class OrderServiceTest {
         assertThrows(NullParamException.class, () -> orderService.update(null));
     }
 
+    //patch
+    @Test
+    void shouldUpdateOnlySuppliedFieldsAndRecalculatePrice_WhenPatchWithBarista() {
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, 2L, null, null);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        Order mockedOrder = Mockito.mock(Order.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(2L))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(mockedBarista.getTipSize())
+                .thenReturn(0.5);
+        Mockito.when(orderRepository.sumLinesPrice(5L))
+                .thenReturn(10.0);
+        Mockito.when(orderRepository.patch(5L, mockedBarista, 15.0, null, null))
+                .thenReturn(1);
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(any(Order.class), any(FieldSet.class)))
+                .thenReturn(mockedPublicDto);
+
+        IOrderPublicDTO resultPublicDto = orderService.patch(patchDTO);
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(orderRepository).patch(5L, mockedBarista, 15.0, null, null);
+        Mockito.verify(orderRepository, Mockito.never()).findById(any());
+        Mockito.verify(orderRepository, Mockito.never()).save(any());
+        Mockito.verifyNoInteractions(coffeeStatsService);
+    }
+
+    @Test
+    void shouldMoveStatsBeforeUpdate_WhenPatchWithCreated() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.patch(5L, null, null, created, null))
+                .thenReturn(1);
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(any(Order.class), any(FieldSet.class)))
+                .thenReturn(Mockito.mock(OrderPublicDTO.class));
+
+        orderService.patch(new OrderPatchDTO(5L, null, created, null));
+
+        InOrder inOrder = Mockito.inOrder(coffeeStatsService, orderRepository);
+        inOrder.verify(coffeeStatsService).recordMoved(5L, created);
+        inOrder.verify(orderRepository).patch(5L, null, null, created, null);
+    }
+
+    @Test
+    void shouldMoveStoredOrderInBaristaStatsAroundUpdate_WhenPatch() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        Mockito.when(orderRepository.patch(5L, null, null, created, null))
+                .thenReturn(1);
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.of(Mockito.mock(Order.class)));
+        Mockito.when(orderMapper.entityToDto(any(Order.class), any(FieldSet.class)))
+                .thenReturn(Mockito.mock(OrderPublicDTO.class));
+
+        orderService.patch(new OrderPatchDTO(5L, null, created, null));
+
+        InOrder inOrder = Mockito.inOrder(baristaStatsService, orderRepository);
+        inOrder.verify(baristaStatsService).recordDeleted(5L);
+        inOrder.verify(orderRepository).patch(5L, null, null, created, null);
+        inOrder.verify(baristaStatsService).recordCompleted(5L);
+    }
+
+    @Test
+    void shouldNotUpdate_WhenPatchWithoutFields() {
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(any(Order.class), any(FieldSet.class)))
+                .thenReturn(Mockito.mock(OrderPublicDTO.class));
+
+        orderService.patch(new OrderPatchDTO(5L, null, null, null));
+
+        Mockito.verify(orderRepository, Mockito.never()).patch(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldThrowOrderNotFoundException_WhenPatchNotExistingOrder() {
+        LocalDateTime created = LocalDateTime.now();
+
+        Mockito.when(orderRepository.patch(5L, null, null, created, null))
+                .thenReturn(0);
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.empty());
+
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, null, created, null);
+        assertThrows(OrderNotFoundException.class, () -> orderService.patch(patchDTO));
+    }
+
+    @Test
+    void shouldThrowCompletedBeforeCreatedException_WhenPatchCreatedAfterStoredCompleted() {
+        LocalDateTime created = LocalDateTime.now();
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.patch(5L, null, null, created, null))
+                .thenReturn(0);
+        Mockito.when(orderRepository.findByIdWithoutCoffees(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(mockedOrder.getCompleted())
+                .thenReturn(created.minusDays(1));
+
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, null, created, null);
+        assertThrows(CompletedBeforeCreatedException.class, () -> orderService.patch(patchDTO));
+    }
+
+    @Test
+    void shouldThrowCompletedBeforeCreatedException_WhenPatchCompletedBeforeStoredCreated() {
+        LocalDateTime completed = LocalDateTime.now().minusDays(1);
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.findById(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(mockedOrder.getCreated())
+                .thenReturn(LocalDateTime.now());
+
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, null, null, completed);
+        assertThrows(CompletedBeforeCreatedException.class, () -> orderService.patch(patchDTO));
+        Mockito.verify(mockedOrder, Mockito.never()).setCompleted(any());
+        Mockito.verifyNoInteractions(baristaStatsService, orderTimelineService, orderWaitTimeService);
+    }
+
+    @Test
+    void shouldCompleteAndRecordStats_WhenPatchPendingOrderWithCompleted() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime completed = created.plusMinutes(5);
+        Order mockedOrder = Mockito.mock(Order.class);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(2L))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(mockedBarista.getTipSize())
+                .thenReturn(0.5);
+        Mockito.when(orderRepository.findById(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(mockedOrder.getCreated())
+                .thenReturn(created);
+        Mockito.when(mockedOrder.getLinesPrice())
+                .thenReturn(10.0);
+        Mockito.when(orderMapper.entityToDto(any(Order.class), any(FieldSet.class)))
+                .thenReturn(mockedPublicDto);
+
+        IOrderPublicDTO resultPublicDto = orderService.patch(new OrderPatchDTO(5L, 2L, null, completed));
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        InOrder inOrder = Mockito.inOrder(mockedOrder, baristaStatsService);
+        inOrder.verify(mockedOrder).setBarista(mockedBarista);
+        inOrder.verify(mockedOrder).setPrice(15.0);
+        inOrder.verify(mockedOrder).setCompleted(completed);
+        inOrder.verify(baristaStatsService).recordCompleted(mockedOrder);
+        Mockito.verify(orderTimelineService).recordCompleted(mockedOrder);
+        Mockito.verify(orderWaitTimeService).recordCompleted(mockedOrder);
+        Mockito.verify(responseCache).evictAll();
+        Mockito.verify(orderRepository, Mockito.never()).patch(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldThrowOrderAlreadyCompletedException_WhenPatchCompletedOrderWithCompleted() {
+        LocalDateTime storedCompleted = LocalDateTime.now().minusHours(1);
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.findById(5L))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(mockedOrder.getCreated())
+                .thenReturn(storedCompleted.minusHours(1));
+        Mockito.when(mockedOrder.getCompleted())
+                .thenReturn(storedCompleted);
+
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, null, null, LocalDateTime.now());
+        assertThrows(OrderAlreadyCompletedException.class, () -> orderService.patch(patchDTO));
+        Mockito.verify(mockedOrder, Mockito.never()).setCompleted(any());
+        Mockito.verify(orderRepository, Mockito.never()).patch(any(), any(), any(), any(), any());
+        Mockito.verifyNoInteractions(baristaStatsService, orderTimelineService, orderWaitTimeService, responseCache);
+    }
+
+    @Test
+    void shouldThrowCompletedBeforeCreatedException_WhenPatchCompletedBeforeCreated() {
+        LocalDateTime created = LocalDateTime.now();
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, null, created, created.minusMinutes(1));
+
+        assertThrows(CompletedBeforeCreatedException.class, () -> orderService.patch(patchDTO));
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void shouldThrowBaristaNotFoundException_WhenPatchWithNotExistingBarista() {
+        Mockito.when(baristaRepository.findByIdWithoutOrders(2L))
+                .thenReturn(Optional.empty());
+
+        OrderPatchDTO patchDTO = new OrderPatchDTO(5L, 2L, null, null);
+        assertThrows(BaristaNotFoundException.class, () -> orderService.patch(patchDTO));
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenPatchWithNullParam() {
+        assertThrows(NullParamException.class, () -> orderService.patch(null));
+    }
+
     //delete
     @Test
     void shouldDeleteEntityByRepository_WhenDeleteWithCorrectId() {
         Long inputId = 99L;
+        Mockito.when(orderRepository.deleteByIdWithoutLoading(inputId)).thenReturn(1);
 
         orderService.delete(inputId);
 
-        Mockito.verify(orderRepository, Mockito.times(1)).deleteById(inputId);
+        InOrder inOrder = Mockito.inOrder(coffeeStatsService, baristaStatsService, orderRepository);
+        inOrder.verify(coffeeStatsService).recordDeleted(inputId);
+        inOrder.verify(baristaStatsService).recordDeleted(inputId);
+        inOrder.verify(orderRepository).deleteLinesByOrderId(inputId);
+        inOrder.verify(orderRepository).deleteByIdWithoutLoading(inputId);
+        Mockito.verify(orderRepository, Mockito.never()).findById(inputId);
+        Mockito.verify(responseCache).evictAll();
+    }
+
+    @Test
+    void shouldThrowOrderNotFoundException_WhenDeleteNotExistingOrder() {
+        Mockito.when(orderRepository.deleteByIdWithoutLoading(99L)).thenReturn(0);
+
+        assertThrows(OrderNotFoundException.class, () -> orderService.delete(99L));
+        Mockito.verifyNoInteractions(responseCache);
     }
 
     @Test
@@ -262,16 +758,107 @@ class OrderServiceTest {
         assertThrows(NoValidLimitException.class, () -> orderService.findAllByPage(page, limit));
     }
 
+    //findOrders
+    @Test
+    void shouldReturnSliceWithNextAfter_WhenFindOrdersFoundMoreThanLimit() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        List<Order> foundOrders = List.of(
+                new Order(1L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 1.0),
+                new Order(2L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 2.0),
+                new Order(3L, specifiedBarista, List.of(), LocalDateTime.MIN, null, 3.0)
+        );
+
+        Mockito.when(orderRepository.findFirstOrderedById(any(), Mockito.eq(3)))
+                .thenReturn(foundOrders);
+
+        IOrderSliceDTO resultSlice = orderService.findOrders(
+                new OrderSearchDTO(null, 2, "pending", null, null, 0L, 1L, 1.0, 5.0, null));
+
+        assertEquals(List.of(1L, 2L), resultSlice.orders().stream().map(IOrderNoRefDTO::id).toList());
+        assertEquals(2L, resultSlice.nextAfter());
+        Mockito.verify(orderRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldReturnSliceWithoutNextAfter_WhenFindOrdersWithoutFilters() {
+        Mockito.when(orderRepository.findFirstOrderedById(any(), Mockito.eq(21)))
+                .thenReturn(List.of());
+
+        IOrderSliceDTO resultSlice = orderService.findOrders(
+                new OrderSearchDTO(null, null, null, null, null, null, null, null, null, null));
+
+        assertEquals(List.of(), resultSlice.orders());
+        assertNull(resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldMergeArchivedOrdersById_WhenFindOrdersIncludeArchived() {
+        Barista specifiedBarista = new Barista(0L, "John Doe", List.of(), 0.1);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Mockito.when(orderRepository.findFirstOrderedById(any(), Mockito.eq(3)))
+                .thenReturn(List.of(new Order(4L, specifiedBarista, List.of(), created, created, 1.0),
+                        new Order(7L, specifiedBarista, List.of(), created, created, 1.0)));
+        OrderArchiveFilter expectedArchiveFilter = new OrderArchiveFilter(1L, null, null, 0L, null, null, null);
+        Mockito.when(orderRepository.findArchivedOrders(expectedArchiveFilter, 3))
+                .thenReturn(List.of(new OrderArchiveRow(2L, 0L, created, created, 1.0),
+                        new OrderArchiveRow(4L, 0L, created, created, 1.0),
+                        new OrderArchiveRow(5L, 0L, created, created, 1.0)));
+
+        IOrderSliceDTO resultSlice = orderService.findOrders(
+                new OrderSearchDTO(1L, 2, null, null, null, 0L, null, null, null, true));
+
+        assertEquals(List.of(2L, 4L), resultSlice.orders().stream().map(IOrderNoRefDTO::id).toList());
+        assertEquals(4L, resultSlice.nextAfter());
+    }
+
+    @Test
+    void shouldNotReadArchive_WhenFindPendingOrdersIncludeArchived() {
+        Mockito.when(orderRepository.findFirstOrderedById(any(), Mockito.anyInt()))
+                .thenReturn(List.of());
+
+        orderService.findOrders(new OrderSearchDTO(null, null, "pending", null, null, null, null, null, null, true));
+        orderService.findOrders(new OrderSearchDTO(null, null, null, null, null, null, null, null, null, false));
+
+        Mockito.verify(orderRepository, Mockito.never()).findArchivedOrders(any(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenFindOrdersWithWrongFilter() {
+        OrderSearchDTO negativeAfter = new OrderSearchDTO(-1L, null, null, null, null, null, null, null, null, null);
+        OrderSearchDTO zeroLimit = new OrderSearchDTO(null, 0, null, null, null, null, null, null, null, null);
+        OrderSearchDTO unknownStatus = new OrderSearchDTO(null, null, "lost", null, null, null, null, null, null, null);
+        OrderSearchDTO negativeBaristaId = new OrderSearchDTO(null, null, null, null, null, -1L, null, null, null, null);
+        OrderSearchDTO negativeCoffeeId = new OrderSearchDTO(null, null, null, null, null, null, -1L, null, null, null);
+        OrderSearchDTO negativeMinPrice = new OrderSearchDTO(null, null, null, null, null, null, null, -1.0, null, null);
+        OrderSearchDTO negativeMaxPrice = new OrderSearchDTO(null, null, null, null, null, null, null, null, -1.0, null);
+
+        assertThrows(NullParamException.class, () -> orderService.findOrders(null));
+        assertThrows(NoValidIdException.class, () -> orderService.findOrders(negativeAfter));
+        assertThrows(NoValidLimitException.class, () -> orderService.findOrders(zeroLimit));
+        assertThrows(NoValidStatusException.class, () -> orderService.findOrders(unknownStatus));
+        assertThrows(NoValidIdException.class, () -> orderService.findOrders(negativeBaristaId));
+        assertThrows(NoValidIdException.class, () -> orderService.findOrders(negativeCoffeeId));
+        assertThrows(NoValidPriceException.class, () -> orderService.findOrders(negativeMinPrice));
+        assertThrows(NoValidPriceException.class, () -> orderService.findOrders(negativeMaxPrice));
+        Mockito.verify(orderRepository, Mockito.never()).findFirstOrderedById(any(), Mockito.anyInt());
+    }
+
     //getOrderQueue
     @Test
     void shouldReturnCorrectOrderList_WhenGetOrderQueue() {
 
-        Mockito.when(orderRepository.findAll())
-                .thenReturn(List.of());
+        Order mockedOrder = Mockito.mock(Order.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(orderRepository.findQueue())
+                .thenReturn(List.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder))
+                .thenReturn(mockedPublicDto);
 
         List<OrderPublicDTO> resultPublicDtoList = orderService.getOrderQueue();
 
-        assertEquals(List.of(), resultPublicDtoList);
+        assertEquals(List.of(mockedPublicDto), resultPublicDtoList);
+        Mockito.verify(orderRepository, Mockito.never()).findAll();
 
     }
 
@@ -298,6 +885,39 @@ class OrderServiceTest {
         Mockito.verify(mockedOrder, Mockito.times(1)).setCompleted(any());
     }
 
+    @Test
+    void shouldNotMergeOrder_WhenCompleteOrder() {
+        Long inputId = 99L;
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.findById(inputId))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder))
+                .thenReturn(Mockito.mock(OrderPublicDTO.class));
+
+        orderService.completeOrder(inputId);
+
+        Mockito.verify(orderRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void shouldRecordStats_WhenCompleteOrder() {
+        Long inputId = 99L;
+        Order mockedOrder = Mockito.mock(Order.class);
+
+        Mockito.when(orderRepository.findById(inputId))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder))
+                .thenReturn(Mockito.mock(OrderPublicDTO.class));
+
+        orderService.completeOrder(inputId);
+
+        Mockito.verify(baristaStatsService).recordCompleted(mockedOrder);
+        Mockito.verify(orderTimelineService).recordCompleted(mockedOrder);
+        Mockito.verify(orderWaitTimeService).recordCompleted(mockedOrder);
+        Mockito.verify(responseCache).evictAll();
+    }
+
     @Test
     void shouldThrowNullParamException_WhenCompleteNullParam() {
         assertThrows(NullParamException.class, () -> orderService.completeOrder(null));
@@ -334,4 +954,83 @@ class OrderServiceTest {
         assertThrows(NoValidIdException.class, () -> orderService.completeOrder(id));
     }
 
-}
\ No newline at end of file
+    //findAll with fields
+    @Test
+    void shouldNotFetchCoffees_WhenFindAllWithoutCoffeesField() {
+        FieldSet fieldSet = FieldSet.parse("id,price", OrderPublicDTO.class);
+        Order mockedOrder = Mockito.mock(Order.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(orderRepository.findAllWithoutCoffees())
+                .thenReturn(List.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        List<OrderPublicDTO> resultPublicDtoList = orderService.findAll(fieldSet);
+
+        assertEquals(List.of(mockedPublicDto), resultPublicDtoList);
+        Mockito.verify(orderRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldNotFetchCoffees_WhenFindByIdWithoutCoffeesField() {
+        Long inputId = 99L;
+        FieldSet fieldSet = FieldSet.parse("id", OrderPublicDTO.class);
+        Order mockedOrder = Mockito.mock(Order.class);
+        OrderPublicDTO mockedPublicDto = Mockito.mock(OrderPublicDTO.class);
+
+        Mockito.when(orderRepository.findByIdWithoutCoffees(inputId))
+                .thenReturn(Optional.of(mockedOrder));
+        Mockito.when(orderMapper.entityToDto(mockedOrder, fieldSet))
+                .thenReturn(mockedPublicDto);
+
+        IOrderPublicDTO resultPublicDto = orderService.findById(inputId, fieldSet);
+
+        assertEquals(mockedPublicDto, resultPublicDto);
+        Mockito.verify(orderRepository, Mockito.never()).findById(inputId);
+    }
+
+    @Test
+    void shouldFetchCoffees_WhenFindAllByPageWithCoffeesField() {
+        FieldSet fieldSet = FieldSet.parse("coffees", OrderPublicDTO.class);
+        Pageable specifiedPageable = PageRequest.of(0, 1);
+        Page<Order> mockedPage = Mockito.mock(Page.class);
+
+        Mockito.when(orderRepository.findAll(specifiedPageable))
+                .thenReturn(mockedPage);
+        Mockito.when(mockedPage.stream())
+                .thenReturn(Stream.of());
+
+        assertEquals(List.of(), orderService.findAllByPage(0, 1, fieldSet));
+        Mockito.verify(orderRepository, Mockito.never()).findAllWithoutCoffees(specifiedPageable);
+    }
+
+    //transactions
+    @ParameterizedTest
+    @CsvSource(value = {
+            "findAll, true",
+            "findById, true",
+            "findAllByPage, true",
+            "getOrderQueue, true",
+            "completeOrder, false",
+            "create, false",
+            "validate, false",
+            "createAccepted, false",
+            "update, false",
+            "patch, false",
+            "delete, false",
+            "findOrders, true"
+    })
+    void shouldMarkOnlyReadMethodsReadOnly(String methodName, boolean readOnly) {
+        List<Method> methods = Arrays.stream(OrderService.class.getDeclaredMethods())
+                .filter(method -> method.getName().equals(methodName))
+                .toList();
+
+        assertFalse(methods.isEmpty());
+        for (Method method : methods) {
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            assertNotNull(transactional, method.toString());
+            assertEquals(readOnly, transactional.readOnly(), method.toString());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.OrderTimelineRow;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.servlet.dto.OrderTimelineDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class OrderTimelineServiceTest {
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderTimelineService timelineService;
+    private LocalDateTime minute;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        timelineService = new OrderTimelineService(orderRepository);
+        timelineService.setMinutes(60);
+        minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timelineService.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Order order(LocalDateTime created, LocalDateTime completed) {
+        Order order = new Order();
+        order.setCreated(created);
+        order.setCompleted(completed);
+        return order;
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new OrderTimelineService(null));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> timelineService.setMinutes(0));
+        assertThrows(IllegalArgumentException.class, () -> timelineService.setFlushIntervalMillis(0));
+    }
+
+    //start
+    @Test
+    void shouldSeedQueueAndMinutes_WhenStart() {
+        Mockito.when(orderRepository.countQueue()).thenReturn(7L);
+        Mockito.when(orderRepository.findTimeline(any(), any()))
+                .thenReturn(List.of(new OrderTimelineRow(minute, 5L, 2L, 60.0, 7L)));
+
+        timelineService.start();
+        timelineService.recordCreated(order(minute, null));
+
+        assertTrue(timelineService.isRunning());
+        assertEquals(List.of(new OrderTimelineDTO(minute, 6L, 2L, 30.0, 8L)),
+                timelineService.findTimeline(minute, minute.plusMinutes(1)));
+    }
+
+    //record
+    @Test
+    void shouldCountCreatedAndCompleted_WhenRecordWithoutTransaction() {
+        timelineService.recordCreated(order(minute, null));
+        timelineService.recordCreated(order(minute, null));
+        timelineService.recordCompleted(order(minute, minute.plusSeconds(30)));
+
+        assertEquals(List.of(new OrderTimelineDTO(minute, 2L, 1L, 30.0, 1L)),
+                timelineService.findTimeline(minute, minute.plusMinutes(1)));
+    }
+
+    @Test
+    void shouldCountAfterCommit_WhenRecordInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        timelineService.recordCreated(order(minute, null));
+        assertTrue(timelineService.findTimeline(minute, minute.plusMinutes(1)).isEmpty());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCommit();
+        assertEquals(1, timelineService.findTimeline(minute, minute.plusMinutes(1)).size());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordWithoutTimes() {
+        assertThrows(NullParamException.class, () -> timelineService.recordCreated(null));
+        assertThrows(NullParamException.class, () -> timelineService.recordCreated(order(null, null)));
+        assertThrows(NullParamException.class, () -> timelineService.recordCompleted(order(minute, null)));
+    }
+
+    //findTimeline
+    @Test
+    void shouldReadMinutesOlderThanRingFromDb_WhenFindTimeline() {
+        LocalDateTime from = minute.minusDays(1);
+        LocalDateTime ringStart = minute.minusMinutes(59);
+        Mockito.when(orderRepository.findTimeline(from, ringStart))
+                .thenReturn(List.of(new OrderTimelineRow(from, 1L, 0L, 0.0, 1L)));
+        timelineService.recordCreated(order(minute, null));
+
+        List<OrderTimelineDTO> result = timelineService.findTimeline(from, minute.plusMinutes(1));
+
+        assertEquals(List.of(new OrderTimelineDTO(from, 1L, 0L, 0.0, 1L),
+                new OrderTimelineDTO(minute, 1L, 0L, 0.0, 1L)), result);
+    }
+
+    @Test
+    void shouldNotReadDb_WhenFindTimelineOfLastHour() {
+        timelineService.setMinutes(120);
+
+        timelineService.findTimeline(null, null);
+
+        Mockito.verify(orderRepository, Mockito.never()).findTimeline(any(), any());
+    }
+
+    @Test
+    void shouldThrowNoValidStatsPeriodException_WhenFindTimelineWithEndNotAfterStart() {
+        assertThrows(NoValidStatsPeriodException.class, () -> timelineService.findTimeline(minute, minute));
+    }
+
+    //flush
+    @Test
+    void shouldSaveChangedMinutes_WhenFlush() {
+        timelineService.recordCreated(order(minute, null));
+
+        timelineService.flush();
+        timelineService.flush();
+
+        Mockito.verify(orderRepository, Mockito.times(1))
+                .saveTimeline(List.of(new OrderTimelineRow(minute, 1L, 0L, 0.0, 1L)));
+    }
+
+    @Test
+    void shouldRetryMinutes_WhenFlushFailed() {
+        timelineService.recordCreated(order(minute, null));
+        Mockito.doThrow(new IllegalStateException("db is down"))
+                .doNothing()
+                .when(orderRepository).saveTimeline(anyList());
+
+        timelineService.flush();
+        timelineService.flush();
+
+        Mockito.verify(orderRepository, Mockito.times(2)).saveTimeline(anyList());
+    }
+
+    @Test
+    void shouldFlushChangedMinutes_WhenStop() {
+        timelineService.start();
+        timelineService.recordCreated(order(minute, null));
+
+        timelineService.stop();
+
+        assertFalse(timelineService.isRunning());
+        Mockito.verify(orderRepository).saveTimeline(anyList());
+    }
+}
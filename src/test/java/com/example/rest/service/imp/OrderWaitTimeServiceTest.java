@@ -0,0 +1,224 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.Barista;
+import com.example.rest.entity.Coffee;
+import com.example.rest.entity.Order;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.repository.StatsDimension;
+import com.example.rest.repository.WaitSketchRow;
+import com.example.rest.repository.exception.NoValidStatsDimensionException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.service.timeline.WaitTimeSketches;
+import com.example.rest.servlet.dto.OrderWaitTimeDTO;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class OrderWaitTimeServiceTest {
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderWaitTimeService waitTimeService;
+    private LocalDateTime hour;
+    private LocalDateTime now;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        waitTimeService = new OrderWaitTimeService(orderRepository);
+        now = LocalDateTime.now();
+        hour = now.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        waitTimeService.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Coffee coffee(long id) {
+        Coffee coffee = new Coffee();
+        coffee.setId(id);
+        coffee.setName("coffee " + id);
+        coffee.setPrice(2.0);
+        return coffee;
+    }
+
+    private Order order(long baristaId, long waitSeconds, Coffee... coffeeList) {
+        Barista barista = new Barista();
+        barista.setId(baristaId);
+        Order order = new Order();
+        order.setBarista(barista);
+        order.setCoffeeList(List.of(coffeeList));
+        order.setCreated(now.minusSeconds(waitSeconds));
+        order.setCompleted(now);
+        return order;
+    }
+
+    private static byte[] encoded(long... waitMillis) {
+        Histogram histogram = WaitTimeSketches.newHistogram();
+        for (long wait : waitMillis)
+            histogram.recordValue(wait);
+        return WaitTimeSketches.encode(histogram);
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new OrderWaitTimeService(null));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotPositiveFlushInterval() {
+        assertThrows(IllegalArgumentException.class, () -> waitTimeService.setFlushIntervalMillis(0));
+    }
+
+    //record
+    @Test
+    void shouldRecordWaitForBaristaAndEachCoffee_WhenRecordWithoutTransaction() {
+        waitTimeService.recordCompleted(order(1L, 60, coffee(1L), coffee(1L), coffee(2L)));
+        waitTimeService.recordCompleted(order(1L, 120, coffee(2L)));
+        waitTimeService.recordCompleted(order(2L, 300, coffee(2L)));
+
+        List<OrderWaitTimeDTO> baristas = waitTimeService.findWaitTimes(hour, null, "barista");
+        List<OrderWaitTimeDTO> coffees = waitTimeService.findWaitTimes(hour, null, "COFFEE");
+
+        assertEquals(List.of(1L, 2L), baristas.stream().map(OrderWaitTimeDTO::id).toList());
+        assertEquals(2L, baristas.get(0).orders());
+        assertEquals(60.0, baristas.get(0).p50Seconds(), 0.6);
+        assertEquals(120.0, baristas.get(0).p95Seconds(), 1.2);
+        assertEquals(120.0, baristas.get(0).maxSeconds(), 1.2);
+        assertEquals(List.of(1L, 2L), coffees.stream().map(OrderWaitTimeDTO::id).toList());
+        assertEquals(1L, coffees.get(0).orders());
+        assertEquals(3L, coffees.get(1).orders());
+        assertEquals(300.0, coffees.get(1).p99Seconds(), 3.0);
+    }
+
+    @Test
+    void shouldRecordAfterCommit_WhenRecordInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        waitTimeService.recordCompleted(order(1L, 60, coffee(1L)));
+        assertTrue(waitTimeService.findWaitTimes(hour, null, null).isEmpty());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCommit();
+        assertEquals(1, waitTimeService.findWaitTimes(hour, null, null).size());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordWithoutTimes() {
+        Order notCompleted = order(1L, 60);
+        notCompleted.setCompleted(null);
+
+        assertThrows(NullParamException.class, () -> waitTimeService.recordCompleted(null));
+        assertThrows(NullParamException.class, () -> waitTimeService.recordCompleted(notCompleted));
+    }
+
+    //findWaitTimes
+    @Test
+    void shouldMergeStoredHoursWithKeptHours_WhenFindWaitTimes() {
+        LocalDateTime from = hour.minusDays(1);
+        LocalDateTime keptFrom = hour.minusHours(1);
+        Mockito.when(orderRepository.findWaitSketches(StatsDimension.BARISTA, from, keptFrom))
+                .thenReturn(List.of(new WaitSketchRow(StatsDimension.BARISTA, from, 1L, encoded(10_000, 20_000)),
+                        new WaitSketchRow(StatsDimension.BARISTA, from.plusHours(1), 2L, encoded(5_000))));
+        waitTimeService.recordCompleted(order(1L, 30));
+
+        List<OrderWaitTimeDTO> result = waitTimeService.findWaitTimes(from.plusMinutes(30), hour.plusHours(1), null);
+
+        assertEquals(2, result.size());
+        assertEquals(3L, result.get(0).orders());
+        assertEquals(20.0, result.get(0).p50Seconds(), 0.2);
+        assertEquals(30.0, result.get(0).maxSeconds(), 0.3);
+        assertEquals(1L, result.get(1).orders());
+    }
+
+    @Test
+    void shouldNotReadDb_WhenFindWaitTimesOfKeptHours() {
+        waitTimeService.findWaitTimes(hour.minusHours(1), null, null);
+
+        Mockito.verify(orderRepository, Mockito.never()).findWaitSketches(any(), any(), any());
+    }
+
+    @Test
+    void shouldThrowNoValidStatsPeriodException_WhenFindWaitTimesWithEndNotAfterStart() {
+        assertThrows(NoValidStatsPeriodException.class, () -> waitTimeService.findWaitTimes(hour, hour, null));
+    }
+
+    @Test
+    void shouldThrowNoValidStatsDimensionException_WhenFindWaitTimesByUnknownDimension() {
+        assertThrows(NoValidStatsDimensionException.class, () -> waitTimeService.findWaitTimes(null, null, "cup"));
+    }
+
+    //start
+    @Test
+    void shouldSeedKeptHoursOfEachDimension_WhenStart() {
+        Mockito.when(orderRepository.findWaitSketches(Mockito.eq(StatsDimension.BARISTA), any(), any()))
+                .thenReturn(List.of(new WaitSketchRow(StatsDimension.BARISTA, hour, 1L, encoded(10_000))));
+
+        waitTimeService.start();
+        waitTimeService.recordCompleted(order(1L, 30));
+
+        assertTrue(waitTimeService.isRunning());
+        Mockito.verify(orderRepository).findWaitSketches(Mockito.eq(StatsDimension.COFFEE), Mockito.eq(hour.minusHours(1)), any());
+        assertEquals(2L, waitTimeService.findWaitTimes(hour, null, null).get(0).orders());
+    }
+
+    //flush
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSaveChangedSketches_WhenFlush() {
+        waitTimeService.recordCompleted(order(1L, 60, coffee(3L)));
+
+        waitTimeService.flush();
+        waitTimeService.flush();
+
+        ArgumentCaptor<List<WaitSketchRow>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(orderRepository, Mockito.times(1)).saveWaitSketches(captor.capture());
+        assertEquals(List.of(StatsDimension.BARISTA, StatsDimension.COFFEE),
+                captor.getValue().stream().map(WaitSketchRow::dimension).toList());
+        assertEquals(hour, captor.getValue().get(0).hour());
+    }
+
+    @Test
+    void shouldRetrySketches_WhenFlushFailed() {
+        waitTimeService.recordCompleted(order(1L, 60));
+        Mockito.doThrow(new IllegalStateException("db is down"))
+                .doNothing()
+                .when(orderRepository).saveWaitSketches(anyList());
+
+        waitTimeService.flush();
+        waitTimeService.flush();
+
+        Mockito.verify(orderRepository, Mockito.times(2)).saveWaitSketches(anyList());
+    }
+
+    @Test
+    void shouldFlushChangedSketches_WhenStop() {
+        waitTimeService.start();
+        waitTimeService.recordCompleted(order(1L, 60));
+
+        waitTimeService.stop();
+
+        assertFalse(waitTimeService.isRunning());
+        Mockito.verify(orderRepository).saveWaitSketches(anyList());
+    }
+}
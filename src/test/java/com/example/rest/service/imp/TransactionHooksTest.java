@@ -0,0 +1,57 @@
+package com.example.rest.service.imp;
+
+import com.example.rest.entity.exception.NullParamException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionHooksTest {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    //afterCommit
+    @Test
+    void shouldRunAtOnce_WhenAfterCommitWithoutTransaction() {
+        TransactionHooks.afterCommit(calls::incrementAndGet);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldRunOnlyAfterCommit_WhenAfterCommitInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionHooks.afterCommit(calls::incrementAndGet);
+        assertEquals(0, calls.get());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCommit();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldNotRun_WhenTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionHooks.afterCommit(calls::incrementAndGet);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenAfterCommitWithNullAction() {
+        assertThrows(NullParamException.class, () -> TransactionHooks.afterCommit(null));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.rest.service.intake;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and latency of appends to journal by concurrent threads for each fsync policy.
+ * With one thread every append of EVERY_WRITE waits for its own fsync, as it did, when fsync was
+ * done under journal lock; with more threads appends are forced together. Run by benchmark profile:
+ * mvn test -Pbenchmark -Dtest=MappedOrderJournalBenchmark -Dbenchmark.orders=20000
+ */
+class MappedOrderJournalBenchmark {
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 5000);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @TempDir
+    private Path directory;
+
+    @ParameterizedTest
+    @CsvSource({
+            "EVERY_WRITE, 1",
+            "EVERY_WRITE, 4",
+            "EVERY_WRITE, 16",
+            "INTERVAL, 1",
+            "INTERVAL, 16"
+    })
+    void append(MappedOrderJournal.FsyncPolicy policy, int threads) throws Exception {
+        Path journalDirectory = Files.createDirectories(directory.resolve(policy + "-" + threads));
+        MappedOrderJournal journal = new MappedOrderJournal(journalDirectory);
+        journal.setFsyncPolicy(policy);
+        journal.replay();
+
+        Recorder recorder = new Recorder(3);
+        AtomicLong nextId = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++)
+                futures.add(executor.submit(() -> {
+                    for (long id = nextId.incrementAndGet(); id <= ORDERS; id = nextId.incrementAndGet()) {
+                        long appendStarted = System.nanoTime();
+                        journal.append(new AcceptedOrder(id, 1L, List.of(2L, 3L), CREATED));
+                        recorder.recordValue(System.nanoTime() - appendStarted);
+                    }
+                    return null;
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        int pending = journal.pendingCount();
+        journal.close();
+
+        Histogram latency = recorder.getIntervalHistogram();
+        System.out.printf("journal %-11s threads %2d: %8.0f appends/s, latency p50 %6d us, p99 %6d us, max %6d us%n",
+                policy, threads, ORDERS * 1e9 / elapsedNanos,
+                latency.getValueAtPercentile(50) / 1000, latency.getValueAtPercentile(99) / 1000,
+                latency.getMaxValue() / 1000);
+        assertEquals(ORDERS, pending);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.rest.service.intake;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedOrderJournalTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_789);
+    private static final int SEGMENT_SIZE = 1024;
+    /**
+     * Header, type, id, barista id, created seconds and nanos, coffee count and three coffee ids.
+     */
+    private static final int RECORD_SIZE = 8 + 1 + 8 + 8 + 8 + 4 + 4 + 3 * 8;
+
+    @TempDir
+    private Path directory;
+    private MappedOrderJournal journal;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        journal = new MappedOrderJournal(directory, SEGMENT_SIZE);
+        journal.replay();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private static AcceptedOrder order(long id) {
+        return new AcceptedOrder(id, 1L, List.of(2L, 2L, 3L), CREATED);
+    }
+
+    private List<AcceptedOrder> reopen() throws IOException {
+        journal.close();
+        journal = new MappedOrderJournal(directory, SEGMENT_SIZE);
+        return journal.replay();
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private void appendAll(long fromId, long toId) throws IOException {
+        for (long id = fromId; id <= toId; id++)
+            journal.append(order(id));
+    }
+
+    private static List<AcceptedOrder> orders(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(MappedOrderJournalTest::order)
+                .toList();
+    }
+
+    //constructor and setters
+    @Test
+    void shouldThrowIllegalArgumentException_WhenConstructorWithSmallSegment() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedOrderJournal(directory, 1023));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenSetNotValidFsync() {
+        assertThrows(IllegalArgumentException.class, () -> journal.setFsyncPolicy(null));
+        assertThrows(IllegalArgumentException.class, () -> journal.setFsyncIntervalMillis(0));
+    }
+
+    //replay
+    @Test
+    void shouldReturnNotWrittenOrders_WhenReplayAfterRestart() throws IOException {
+        appendAll(1, 3);
+        journal.markWritten(List.of(2L));
+
+        assertEquals(List.of(order(1), order(3)), reopen());
+    }
+
+    @Test
+    void shouldReturnEmptyList_WhenReplayInNewDirectory() throws IOException {
+        journal.close();
+        journal = new MappedOrderJournal(directory.resolve("new"), SEGMENT_SIZE);
+
+        assertEquals(List.of(), journal.replay());
+    }
+
+    @Test
+    void shouldReturnOrderWithoutCoffee_WhenReplayOrderWithEmptyCoffeeList() throws IOException {
+        AcceptedOrder empty = new AcceptedOrder(1L, 1L, List.of(), CREATED);
+        journal.append(empty);
+
+        assertEquals(List.of(empty), reopen());
+    }
+
+    @Test
+    void shouldDropTornRecord_WhenTailTruncatedMidRecord() throws IOException {
+        appendAll(1, 3);
+        journal.close();
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.truncate(2L * RECORD_SIZE + RECORD_SIZE / 2);
+        }
+
+        assertEquals(orders(1, 2), reopen());
+        journal.append(order(4));
+        assertEquals(List.of(order(1), order(2), order(4)), reopen());
+    }
+
+    @Test
+    void shouldDropTornRecord_WhenLengthIsNotWritten() throws IOException {
+        appendAll(1, 2);
+        journal.close();
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 7, 7, 7, 7, 1, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9}),
+                    2L * RECORD_SIZE);
+        }
+
+        assertEquals(orders(1, 2), reopen());
+        journal.append(new AcceptedOrder(3L, 1L, List.of(), CREATED));
+        journal.append(order(4));
+        assertEquals(List.of(order(1), order(2), new AcceptedOrder(3L, 1L, List.of(), CREATED), order(4)), reopen());
+    }
+
+    @Test
+    void shouldStopReading_WhenChecksumDoesNotMatch() throws IOException {
+        appendAll(1, 3);
+        journal.close();
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), RECORD_SIZE + 20L);
+        }
+
+        assertEquals(List.of(order(1)), reopen());
+    }
+
+    //segments
+    @Test
+    void shouldRollSegment_WhenSegmentIsFull() throws IOException {
+        int perSegment = SEGMENT_SIZE / RECORD_SIZE;
+        appendAll(1, perSegment + 5);
+
+        assertEquals(2, journal.segmentCount());
+        assertEquals(orders(1, perSegment + 5), reopen());
+    }
+
+    @Test
+    void shouldDeleteOldSegment_WhenAllItsOrdersWritten() throws IOException {
+        int perSegment = SEGMENT_SIZE / RECORD_SIZE;
+        appendAll(1, perSegment + 5);
+        List<Long> firstSegmentIds = new ArrayList<>();
+        for (long id = 1; id <= perSegment; id++)
+            firstSegmentIds.add(id);
+
+        journal.markWritten(firstSegmentIds);
+
+        assertEquals(1, journal.segmentCount());
+        assertEquals(orders(perSegment + 1, perSegment + 5), reopen());
+    }
+
+    @Test
+    void shouldKeepOldSegment_WhenItHasNotWrittenOrder() throws IOException {
+        int perSegment = SEGMENT_SIZE / RECORD_SIZE;
+        appendAll(1, perSegment * 2L + 1);
+
+        journal.markWritten(LongStream.rangeClosed(2, perSegment * 2L + 1).boxed().toList());
+
+        assertEquals(3, journal.segmentCount());
+        assertEquals(List.of(order(1)), reopen());
+        assertEquals(3, journal.segmentCount());
+    }
+
+    @Test
+    void shouldWriteMarksToNextSegment_WhenManyIdsWritten() throws IOException {
+        int perSegment = SEGMENT_SIZE / RECORD_SIZE;
+        appendAll(1, perSegment);
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1000, 1200).boxed().toList());
+        Collections.addAll(ids, 1L, 2L);
+
+        journal.markWritten(ids);
+
+        assertEquals(orders(3, perSegment), reopen());
+    }
+
+    //append
+    @Test
+    void shouldThrowIOException_WhenRecordLargerThanSegment() {
+        List<Long> coffeeIdList = Collections.nCopies(200, 1L);
+
+        assertThrows(IOException.class, () -> journal.append(new AcceptedOrder(1L, 1L, coffeeIdList, CREATED)));
+    }
+
+    @Test
+    void shouldThrowIllegalStateException_WhenAppendBeforeReplay() {
+        MappedOrderJournal notOpened = new MappedOrderJournal(directory.resolve("other"), SEGMENT_SIZE);
+
+        assertThrows(IllegalStateException.class, () -> notOpened.append(order(1)));
+    }
+
+    @Test
+    void shouldReplayAppendedOrders_WhenIntervalFsync() throws IOException {
+        journal.close();
+        journal = new MappedOrderJournal(directory, SEGMENT_SIZE);
+        journal.setFsyncPolicy(MappedOrderJournal.FsyncPolicy.INTERVAL);
+        journal.setFsyncIntervalMillis(1);
+        journal.replay();
+        appendAll(1, 3);
+        journal.flush();
+
+        assertEquals(orders(1, 3), reopen());
+    }
+
+    @Test
+    void shouldReplayAllOrders_WhenAppendedConcurrentlyWithEveryWriteFsync() throws Exception {
+        journal.close();
+        journal = new MappedOrderJournal(directory, 64 * SEGMENT_SIZE);
+        journal.replay();
+        int threads = 4;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                long fromId = thread * perThread + 1L;
+                futures.add(executor.submit(() -> {
+                    appendAll(fromId, fromId + perThread - 1);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        journal.close();
+        journal = new MappedOrderJournal(directory, 64 * SEGMENT_SIZE);
+        List<AcceptedOrder> replayed = new ArrayList<>(journal.replay());
+        replayed.sort(Comparator.comparing(AcceptedOrder::id));
+        assertEquals(orders(1, threads * perThread), replayed);
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.rest.service.intake;
+
+import com.example.rest.entity.exception.BaristaNotFoundException;
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderRepository;
+import com.example.rest.service.IOrderService;
+import com.example.rest.service.exception.IntakeBufferFullException;
+import com.example.rest.servlet.dto.OrderCreateDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+
+class OrderIntakeTest {
+    private static final OrderCreateDTO CREATE_DTO = new OrderCreateDTO(1L, List.of(2L));
+
+    @Mock
+    private IOrderService orderService;
+    @Mock
+    private OrderRepository orderRepository;
+
+    @TempDir
+    private Path directory;
+    private MappedOrderJournal journal;
+    private OrderIntake intake;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        journal = new MappedOrderJournal(directory, 64 * 1024);
+        Mockito.when(orderRepository.nextIdBlock())
+                .thenReturn(100L, 200L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (intake != null)
+            intake.stop();
+    }
+
+    private OrderIntake start(int capacity, int batchSize) {
+        intake = new OrderIntake(orderService, orderRepository, journal, capacity, batchSize, 2);
+        intake.setEnabled(true);
+        intake.start();
+        return intake;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition is not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    //constructor
+    @Test
+    void shouldThrowNullParamException_WhenConstructorNullParam() {
+        assertThrows(NullParamException.class, () -> new OrderIntake(null, orderRepository, journal, 1, 1, 1));
+        assertThrows(NullParamException.class, () -> new OrderIntake(orderService, null, journal, 1, 1, 1));
+        assertThrows(NullParamException.class, () -> new OrderIntake(orderService, orderRepository, null, 1, 1, 1));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_WhenConstructorNotPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntake(orderService, orderRepository, journal, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntake(orderService, orderRepository, journal, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntake(orderService, orderRepository, journal, 1, 1, 0));
+    }
+
+    //start
+    @Test
+    void shouldNotStart_WhenDisabled() {
+        intake = new OrderIntake(orderService, orderRepository, journal, 10, 10, 2);
+        intake.start();
+
+        assertFalse(intake.isRunning());
+        assertThrows(IllegalStateException.class, () -> intake.submit(CREATE_DTO));
+    }
+
+    @Test
+    void shouldWriteJournaledOrders_WhenStartAfterCrash() throws Exception {
+        AcceptedOrder journaled = new AcceptedOrder(7L, 1L, List.of(2L), LocalDateTime.MIN);
+        journal.replay();
+        journal.append(journaled);
+        journal.close();
+
+        start(10, 10);
+
+        awaitCondition(() -> intake.getWrittenCount() == 1);
+        Mockito.verify(orderService).createAccepted(List.of(journaled));
+        assertEquals(1, intake.getWrittenCount());
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    void shouldDropOnlyFailedOrder_WhenBatchFails() throws Exception {
+        AcceptedOrder valid = new AcceptedOrder(7L, 1L, List.of(2L), LocalDateTime.MIN);
+        AcceptedOrder invalid = new AcceptedOrder(8L, 99L, List.of(2L), LocalDateTime.MIN);
+        journal.replay();
+        journal.append(valid);
+        journal.append(invalid);
+        journal.close();
+        Mockito.when(orderService.createAccepted(argThat(orders -> orders.contains(invalid))))
+                .thenThrow(new BaristaNotFoundException(99L));
+
+        start(10, 10);
+
+        awaitCondition(() -> intake.getDroppedCount() == 1);
+        Mockito.verify(orderService).createAccepted(List.of(valid));
+        assertEquals(1, intake.getWrittenCount());
+        assertEquals(1, intake.getDroppedCount());
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    void shouldMoveFailedOrderToDeadLetters_WhenBatchFails() throws Exception {
+        AcceptedOrder invalid = new AcceptedOrder(8L, 99L, List.of(2L, 3L), LocalDateTime.of(2024, 1, 1, 10, 0));
+        journal.replay();
+        journal.append(invalid);
+        journal.close();
+        Mockito.when(orderService.createAccepted(List.of(invalid)))
+                .thenThrow(new BaristaNotFoundException(99L));
+        Path deadLetterFile = directory.resolve("dead-letters").resolve("orders.tsv");
+        intake = new OrderIntake(orderService, orderRepository, journal, 10, 10, 2);
+        intake.setEnabled(true);
+        intake.setDeadLetters(new FileOrderDeadLetters(deadLetterFile));
+
+        intake.start();
+
+        awaitCondition(() -> intake.getDroppedCount() == 1);
+        assertEquals(List.of("8\t99\t2,3\t2024-01-01T10:00\tBarista '99' is not found!"),
+                Files.readAllLines(deadLetterFile));
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    void shouldLeaveFailedOrderInJournal_WhenDeadLettersFail() throws Exception {
+        AcceptedOrder invalid = new AcceptedOrder(8L, 99L, List.of(2L), LocalDateTime.MIN);
+        journal.replay();
+        journal.append(invalid);
+        journal.close();
+        Mockito.when(orderService.createAccepted(List.of(invalid)))
+                .thenThrow(new BaristaNotFoundException(99L));
+        OrderDeadLetters deadLetters = Mockito.mock(OrderDeadLetters.class);
+        Mockito.doThrow(new IOException("Disk is full"))
+                .when(deadLetters).add(Mockito.eq(invalid), any());
+        intake = new OrderIntake(orderService, orderRepository, journal, 10, 10, 2);
+        intake.setEnabled(true);
+        intake.setDeadLetters(deadLetters);
+        intake.start();
+
+        Mockito.verify(deadLetters, Mockito.timeout(5000)).add(Mockito.eq(invalid), any());
+        intake.stop();
+
+        assertEquals(0, intake.getDroppedCount());
+        try (MappedOrderJournal reopened = new MappedOrderJournal(directory, 64 * 1024)) {
+            assertEquals(List.of(invalid), reopened.replay());
+        }
+    }
+
+    @Test
+    void shouldStartAndAcceptOrders_WhenDbUnavailableDuringReplay() throws Exception {
+        AcceptedOrder journaled = new AcceptedOrder(7L, 1L, List.of(2L), LocalDateTime.MIN);
+        journal.replay();
+        journal.append(journaled);
+        journal.close();
+        Mockito.when(orderService.createAccepted(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"));
+
+        start(1, 10);
+
+        assertTrue(intake.isRunning());
+        AcceptedOrder accepted = intake.submit(CREATE_DTO);
+        intake.stop();
+        try (MappedOrderJournal reopened = new MappedOrderJournal(directory, 64 * 1024)) {
+            assertEquals(List.of(journaled, accepted), reopened.replay());
+        }
+    }
+
+    //submit
+    @Test
+    void shouldAssignIdsFromAllocatedBlocks_WhenSubmit() {
+        start(10, 10);
+
+        assertEquals(100L, intake.submit(CREATE_DTO).id());
+        assertEquals(101L, intake.submit(CREATE_DTO).id());
+        assertEquals(200L, intake.submit(CREATE_DTO).id());
+        Mockito.verify(orderRepository, Mockito.times(2)).nextIdBlock();
+    }
+
+    @Test
+    void shouldWriteOrdersInBackground_WhenSubmit() throws InterruptedException {
+        start(10, 10);
+
+        AcceptedOrder accepted = intake.submit(CREATE_DTO);
+
+        awaitCondition(() -> intake.getWrittenCount() == 1);
+        Mockito.verify(orderService).createAccepted(List.of(accepted));
+        assertEquals(0, intake.getPendingCount());
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    void shouldNotAcceptOrder_WhenValidationFails() {
+        Mockito.doThrow(new BaristaNotFoundException(1L))
+                .when(orderService).validate(CREATE_DTO);
+        start(10, 10);
+
+        assertThrows(BaristaNotFoundException.class, () -> intake.submit(CREATE_DTO));
+        assertEquals(0, journal.pendingCount());
+        Mockito.verify(orderRepository, Mockito.never()).nextIdBlock();
+    }
+
+    @Test
+    void shouldThrowIntakeBufferFullException_WhenBufferFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(orderService.createAccepted(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        start(1, 10);
+        intake.setOfferTimeoutMillis(0);
+
+        intake.submit(CREATE_DTO);
+
+        assertThrows(IntakeBufferFullException.class, () -> intake.submit(CREATE_DTO));
+        release.countDown();
+        awaitCondition(() -> intake.getPendingCount() == 0);
+        assertNotNull(intake.submit(CREATE_DTO));
+    }
+
+    @Test
+    void shouldRetryBatch_WhenDbUnavailable() throws InterruptedException {
+        Mockito.when(orderService.createAccepted(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"))
+                .thenReturn(1);
+        start(10, 10);
+
+        intake.submit(CREATE_DTO);
+
+        awaitCondition(() -> intake.getWrittenCount() == 1);
+        Mockito.verify(orderService, Mockito.times(2)).createAccepted(any());
+        assertEquals(0, intake.getDroppedCount());
+    }
+
+    //stop
+    @Test
+    void shouldWaitForSubmitAndWriteItsOrder_WhenStopDuringAppend() throws Exception {
+        CountDownLatch appending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderJournal slowJournal = new OrderJournal() {
+            @Override
+            public List<AcceptedOrder> replay() throws IOException {
+                return journal.replay();
+            }
+
+            @Override
+            public void append(AcceptedOrder order) throws IOException {
+                appending.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                journal.append(order);
+            }
+
+            @Override
+            public void markWritten(Collection<Long> ids) throws IOException {
+                journal.markWritten(ids);
+            }
+
+            @Override
+            public void close() throws IOException {
+                journal.close();
+            }
+        };
+        intake = new OrderIntake(orderService, orderRepository, slowJournal, 10, 10, 2);
+        intake.setEnabled(true);
+        intake.start();
+        CompletableFuture<AcceptedOrder> submitted = CompletableFuture.supplyAsync(() -> intake.submit(CREATE_DTO));
+        assertTrue(appending.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(intake::stop);
+        Thread.sleep(100);
+        assertFalse(stopped.isDone());
+        release.countDown();
+        stopped.get(5, TimeUnit.SECONDS);
+
+        Mockito.verify(orderService).createAccepted(List.of(submitted.get(5, TimeUnit.SECONDS)));
+        assertEquals(1, intake.getWrittenCount());
+        assertThrows(IllegalStateException.class, () -> intake.submit(CREATE_DTO));
+    }
+
+    @Test
+    void shouldKeepOrdersInJournal_WhenStoppedWhileDbUnavailable() throws IOException {
+        Mockito.when(orderService.createAccepted(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"));
+        start(10, 10);
+        AcceptedOrder accepted = intake.submit(CREATE_DTO);
+
+        intake.stop();
+
+        assertEquals(0, intake.getWrittenCount());
+        try (MappedOrderJournal reopened = new MappedOrderJournal(directory, 64 * 1024)) {
+            assertEquals(List.of(accepted), reopened.replay());
+        }
+    }
+}
@@ -5,8 +5,10 @@ import com.example.rest.entity.Order;
 import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
 import com.example.rest.entity.exception.NoValidTipSizeException;
+import com.example.rest.repository.NestedOrderRow;
 import com.example.rest.servlet.dto.BaristaCreateDTO;
 import com.example.rest.servlet.dto.BaristaNoRefDTO;
+import com.example.rest.servlet.dto.OrderNoRefDTO;
 import com.example.rest.servlet.dto.BaristaPublicDTO;
 import com.example.rest.servlet.dto.BaristaUpdateDTO;
 import jakarta.persistence.EntityManager;
@@ -22,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BaristaMapperTest {
@@ -152,4 +155,30 @@ class BaristaMapperTest {
         assertEquals(expectedFullName, resultBaristaDTO.fullName());
         assertEquals(expectedTipSize, resultBaristaDTO.tipSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    void entityToDto_WhenMoreOrdersThanFetched_ShouldReturnTotalAndNextLink() {
+        Barista specifiedEntity = new Barista(7L, "John Doe", List.of(), 0.1);
+        List<NestedOrderRow> firstOrders = List.of(
+                new NestedOrderRow(7L, 1L, 0L, LocalDateTime.MIN, null, 1.0, 5L),
+                new NestedOrderRow(7L, 3L, 0L, LocalDateTime.MIN, null, 2.0, 5L)
+        );
+
+        BaristaPublicDTO resultPublicDto = baristaMapper.entityToDto(specifiedEntity, firstOrders);
+
+        assertEquals(List.of(1L, 3L), resultPublicDto.orders().stream().map(OrderNoRefDTO::id).toList());
+        assertEquals(5L, resultPublicDto.ordersTotal());
+        assertEquals("/baristas/7/orders?after=3", resultPublicDto.ordersNext());
+    }
+
+    @Test
+    void entityToDto_WhenAllOrdersFetched_ShouldReturnNullNextLink() {
+        Barista specifiedEntity = new Barista(7L, "John Doe", List.of(), 0.1);
+
+        BaristaPublicDTO resultPublicDto = baristaMapper.entityToDto(specifiedEntity, List.of());
+
+        assertEquals(List.of(), resultPublicDto.orders());
+        assertEquals(0L, resultPublicDto.ordersTotal());
+        assertNull(resultPublicDto.ordersNext());
+    }
+}
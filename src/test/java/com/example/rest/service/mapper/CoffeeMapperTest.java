@@ -7,6 +7,7 @@ import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
 import com.example.rest.entity.exception.NoValidPriceException;
 import com.example.rest.entity.exception.OrderNotFoundException;
+import com.example.rest.repository.NestedOrderRow;
 import com.example.rest.repository.OrderRepository;
 import com.example.rest.service.exception.DuplicatedElementsException;
 import com.example.rest.servlet.dto.*;
@@ -23,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class CoffeeMapperTest {
@@ -211,4 +213,30 @@ class CoffeeMapperTest {
         assertEquals(expectedName, resultNoRefDto.name());
         assertEquals(expectedPrice, resultNoRefDto.price());
     }
-}
\ No newline at end of file
+
+    @Test
+    void entityToDto_WhenMoreOrdersThanFetched_ShouldReturnTotalAndNextLink() {
+        Coffee specifiedEntity = new Coffee(7L, "Latte", 2.5, List.of());
+        List<NestedOrderRow> firstOrders = List.of(
+                new NestedOrderRow(7L, 1L, 0L, LocalDateTime.MIN, null, 1.0, 5L),
+                new NestedOrderRow(7L, 3L, 0L, LocalDateTime.MIN, null, 2.0, 5L)
+        );
+
+        CoffeePublicDTO resultPublicDto = coffeeMapper.entityToDto(specifiedEntity, firstOrders);
+
+        assertEquals(List.of(1L, 3L), resultPublicDto.orders().stream().map(OrderNoRefDTO::id).toList());
+        assertEquals(5L, resultPublicDto.ordersTotal());
+        assertEquals("/coffees/7/orders?after=3", resultPublicDto.ordersNext());
+    }
+
+    @Test
+    void entityToDto_WhenAllOrdersFetched_ShouldReturnNullNextLink() {
+        Coffee specifiedEntity = new Coffee(7L, "Latte", 2.5, List.of());
+
+        CoffeePublicDTO resultPublicDto = coffeeMapper.entityToDto(specifiedEntity, List.of());
+
+        assertEquals(List.of(), resultPublicDto.orders());
+        assertEquals(0L, resultPublicDto.ordersTotal());
+        assertNull(resultPublicDto.ordersNext());
+    }
+}
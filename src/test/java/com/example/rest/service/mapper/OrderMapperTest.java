@@ -25,14 +25,11 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
 
 class OrderMapperTest {
     @Mock
     protected CoffeeRepository coffeeRepository;
     @Mock
-    protected CoffeeMapper coffeeMapper;
-    @Mock
     protected BaristaRepository baristaRepository;
     @Mock
     protected BaristaMapper baristaMapper;
@@ -46,6 +43,12 @@ class OrderMapperTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static Coffee mockCoffee(Long id) {
+        Coffee coffee = Mockito.mock(Coffee.class);
+        Mockito.when(coffee.getId()).thenReturn(id);
+        return coffee;
+    }
+
 
     @Test
     void createDtoToEntity_WhenCorrectDto_ShouldReturnEntity() {
@@ -53,15 +56,15 @@ class OrderMapperTest {
         List<Long> expectedCoffeeIdList = List.of(1L, 2L);
         Barista mockedBarista = Mockito.mock(Barista.class);
         List<Coffee> mockedCoffeeList = List.of(
-                Mockito.mock(Coffee.class),
-                Mockito.mock(Coffee.class)
+                mockCoffee(1L),
+                mockCoffee(2L)
         );
 
         OrderCreateDTO orderCreateDTO = new OrderCreateDTO(expectedBaristaId, expectedCoffeeIdList);
 
-        Mockito.when(baristaRepository.findById(expectedBaristaId))
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
                 .thenReturn(Optional.of(mockedBarista));
-        Mockito.when(coffeeRepository.findAllById(expectedCoffeeIdList))
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(expectedCoffeeIdList))
                 .thenReturn(mockedCoffeeList);
 
         Order resultOrder = orderMapper.createDtoToEntity(orderCreateDTO);
@@ -70,20 +73,42 @@ class OrderMapperTest {
         assertEquals(mockedCoffeeList, resultOrder.getCoffeeList());
     }
 
+    @Test
+    void createDtoToEntity_WhenRepeatedCoffeeId_ShouldRepeatCoffeeAndFindItOnce() {
+        Long expectedBaristaId = 0L;
+        Coffee latte = mockCoffee(1L);
+        Coffee espresso = mockCoffee(2L);
+        Barista mockedBarista = Mockito.mock(Barista.class);
+
+        OrderCreateDTO orderCreateDTO = new OrderCreateDTO(expectedBaristaId, List.of(1L, 2L, 1L));
+
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
+                .thenReturn(Optional.of(mockedBarista));
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(List.of(1L, 2L)))
+                .thenReturn(List.of(latte, espresso));
+
+        Order resultOrder = orderMapper.createDtoToEntity(orderCreateDTO);
+
+        assertEquals(2, resultOrder.getLines().size());
+        assertEquals(2, resultOrder.getLines().get(0).getQuantity());
+        assertEquals(1, resultOrder.getLines().get(1).getQuantity());
+        Mockito.verify(coffeeRepository, Mockito.times(1)).findAllByIdWithoutOrders(List.of(1L, 2L));
+    }
+
     @Test
     void createDtoToEntity_WhenBaristaNotFound_ShouldThrowBaristaNotFoundException() {
         Long expectedBaristaId = 0L;
         List<Long> expectedCoffeeIdList = List.of(1L, 2L);
         List<Coffee> mockedCoffeeList = List.of(
-                Mockito.mock(Coffee.class),
-                Mockito.mock(Coffee.class)
+                mockCoffee(1L),
+                mockCoffee(2L)
         );
 
         OrderCreateDTO orderCreateDTO = new OrderCreateDTO(expectedBaristaId, expectedCoffeeIdList);
 
-        Mockito.when(baristaRepository.findById(expectedBaristaId))
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
                 .thenReturn(Optional.empty());
-        Mockito.when(coffeeRepository.findAllById(expectedCoffeeIdList))
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(expectedCoffeeIdList))
                 .thenReturn(mockedCoffeeList);
 
         assertThrows(BaristaNotFoundException.class, () -> orderMapper.createDtoToEntity(orderCreateDTO));
@@ -96,9 +121,9 @@ class OrderMapperTest {
         Barista mockedBarista = Mockito.mock(Barista.class);
         OrderCreateDTO orderCreateDTO = new OrderCreateDTO(expectedBaristaId, expectedCoffeeIdList);
 
-        Mockito.when(baristaRepository.findById(expectedBaristaId))
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
                 .thenReturn(Optional.of(mockedBarista));
-        Mockito.when(coffeeRepository.findAllById(expectedCoffeeIdList))
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(expectedCoffeeIdList))
                 .thenReturn(List.of());
 
         assertThrows(CoffeeNotFoundException.class, () -> orderMapper.createDtoToEntity(orderCreateDTO));
@@ -114,8 +139,8 @@ class OrderMapperTest {
         List<Long> expectedCoffeeIdList = List.of(1L, 2L);
         Barista mockedBarista = Mockito.mock(Barista.class);
         List<Coffee> mockedCoffeeList = List.of(
-                Mockito.mock(Coffee.class),
-                Mockito.mock(Coffee.class)
+                mockCoffee(1L),
+                mockCoffee(2L)
         );
 
         OrderUpdateDTO orderUpdateDTO = new OrderUpdateDTO(
@@ -127,9 +152,9 @@ class OrderMapperTest {
                 expectedCoffeeIdList
         );
 
-        Mockito.when(baristaRepository.findById(expectedBaristaId))
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
                 .thenReturn(Optional.of(mockedBarista));
-        Mockito.when(coffeeRepository.findAllById(expectedCoffeeIdList))
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(expectedCoffeeIdList))
                 .thenReturn(mockedCoffeeList);
 
         Order resultOrder = orderMapper.updateDtoToEntity(orderUpdateDTO);
@@ -173,8 +198,8 @@ class OrderMapperTest {
         List<Long> expectedCoffeeIdList = List.of(1L, 2L);
         Barista mockedBarista = Mockito.mock(Barista.class);
         List<Coffee> mockedCoffeeList = List.of(
-                Mockito.mock(Coffee.class),
-                Mockito.mock(Coffee.class)
+                mockCoffee(1L),
+                mockCoffee(2L)
         );
 
         OrderUpdateDTO orderUpdateDTO = new OrderUpdateDTO(
@@ -185,9 +210,9 @@ class OrderMapperTest {
                 price,
                 expectedCoffeeIdList
         );
-        Mockito.when(baristaRepository.findById(expectedBaristaId))
+        Mockito.when(baristaRepository.findByIdWithoutOrders(expectedBaristaId))
                 .thenReturn(Optional.of(mockedBarista));
-        Mockito.when(coffeeRepository.findAllById(expectedCoffeeIdList))
+        Mockito.when(coffeeRepository.findAllByIdWithoutOrders(expectedCoffeeIdList))
                 .thenReturn(mockedCoffeeList);
 
         assertThrows(NoValidPriceException.class, () -> orderMapper.updateDtoToEntity(orderUpdateDTO));
@@ -205,7 +230,7 @@ class OrderMapperTest {
                 new Coffee(0L, "naem", 0.0, List.of())
         );
         BaristaNoRefDTO mockedBaristaDto = Mockito.mock(BaristaNoRefDTO.class);
-        CoffeeNoRefDTO mockedCoffeeDto = Mockito.mock(CoffeeNoRefDTO.class);
+        CoffeeNoRefDTO expectedCoffeeDto = new CoffeeNoRefDTO(0L, "naem", 0.0);
 
 
         Order specifiedOrder = new Order(
@@ -219,16 +244,27 @@ class OrderMapperTest {
 
         Mockito.when(baristaMapper.entityToNoRefDto(specifiedBarista))
                 .thenReturn(mockedBaristaDto);
-        Mockito.when(coffeeMapper.entityToNoRefDto(any()))
-                .thenReturn(mockedCoffeeDto);
 
         OrderPublicDTO resultPublicDto = orderMapper.entityToDto(specifiedOrder);
 
         assertEquals(mockedBaristaDto, resultPublicDto.baristaId());
-        assertEquals(List.of(mockedCoffeeDto, mockedCoffeeDto), resultPublicDto.coffees());
+        assertEquals(List.of(expectedCoffeeDto, expectedCoffeeDto), resultPublicDto.coffees());
         assertEquals(expectedId, resultPublicDto.id());
         assertEquals(expectedCreated, resultPublicDto.created());
         assertEquals(expectedCompleted, resultPublicDto.completed());
         assertEquals(expectedPrice, resultPublicDto.price());
     }
+
+    @Test
+    void entityToDto_WhenCoffeePriceChanged_ShouldReturnUnitPriceOfLine() {
+        Barista specifiedBarista = new Barista(0L, "Name", List.of(), 0.0);
+        Coffee specifiedCoffee = new Coffee(1L, "latte", 3.0, List.of());
+        Order specifiedOrder = new Order(0L, specifiedBarista, List.of(specifiedCoffee), LocalDateTime.MIN, null, 3.0);
+        specifiedCoffee.setPrice(5.0);
+        specifiedCoffee.setName("new latte");
+
+        OrderPublicDTO resultPublicDto = orderMapper.entityToDto(specifiedOrder);
+
+        assertEquals(List.of(new CoffeeNoRefDTO(1L, "latte", 3.0)), resultPublicDto.coffees());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.rest.service.search;
+
+import com.example.rest.entity.exception.NullParamException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+    private TrigramIndex<String> index;
+
+    @BeforeEach
+    public void setup() {
+        index = new TrigramIndex<>();
+        index.put(1L, "Latte", "Latte");
+        index.put(2L, "Flat White", "Flat White");
+        index.put(3L, "Caffè Latte Macchiato", "Caffè Latte Macchiato");
+        index.put(4L, "Espresso", "Espresso");
+        index.put(5L, "Iced Latte", "Iced Latte");
+    }
+
+    //constructor
+    @Test
+    void shouldThrowIllegalArgumentException_WhenConstructorWithThresholdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TrigramIndex<>(0.0));
+        assertThrows(IllegalArgumentException.class, () -> new TrigramIndex<>(1.1));
+    }
+
+    //normalize
+    @Test
+    void shouldRemoveDiacriticsCaseAndPunctuation_WhenNormalize() {
+        assertEquals("caffe latte", TrigramIndex.normalize("  Caffè-LATTE! "));
+        assertEquals("", TrigramIndex.normalize(" %% "));
+    }
+
+    @Test
+    void shouldPadWords_WhenSplitIntoTrigrams() {
+        assertEquals(Set.of("  a", " ab", "ab ", "  c", " c "), TrigramIndex.trigrams("ab c"));
+    }
+
+    //search
+    @Test
+    void shouldRankTextPrefixThenWordPrefixThenSubstring_WhenSearch() {
+        assertEquals(List.of("Latte", "Iced Latte", "Caffè Latte Macchiato", "Flat White"), index.search("lat", 10));
+        assertEquals("Flat White", index.search("lat w", 10).get(0));
+    }
+
+    @Test
+    void shouldFindSubstringInsideWord_WhenSearch() {
+        assertEquals(List.of("Espresso"), index.search("press", 10));
+    }
+
+    @Test
+    void shouldFindSimilarText_WhenSearchWithTypo() {
+        assertEquals(List.of("Espresso"), index.search("expresso", 10));
+        assertEquals("Caffè Latte Macchiato", index.search("machiato", 10).get(0));
+    }
+
+    @Test
+    void shouldIgnoreCaseAndDiacritics_WhenSearch() {
+        assertEquals(List.of("Caffè Latte Macchiato"), index.search("CAFFE", 10));
+    }
+
+    @Test
+    void shouldLimitResult_WhenSearch() {
+        assertEquals(List.of("Latte"), index.search("latte", 1));
+    }
+
+    @Test
+    void shouldReturnEmptyList_WhenSearchNotMatchedOrEmptyQuery() {
+        assertEquals(List.of(), index.search("tea", 10));
+        assertEquals(List.of(), index.search(" ", 10));
+    }
+
+    @Test
+    void shouldThrowExceptions_WhenSearchWithWrongParams() {
+        assertThrows(NullParamException.class, () -> index.search(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("latte", 0));
+    }
+
+    //put
+    @Test
+    void shouldReplaceText_WhenPutSameId() {
+        index.put(4L, "Ristretto", "Ristretto");
+
+        assertEquals(List.of(), index.search("espresso", 10));
+        assertEquals(List.of("Ristretto"), index.search("rist", 10));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenPutNullParam() {
+        assertThrows(NullParamException.class, () -> index.put(null, "Mocha", "Mocha"));
+        assertThrows(NullParamException.class, () -> index.put(6L, null, "Mocha"));
+        assertThrows(NullParamException.class, () -> index.put(6L, "Mocha", null));
+    }
+
+    //remove
+    @Test
+    void shouldNotFindRemovedValue_WhenRemove() {
+        index.remove(1L);
+        index.remove(99L);
+
+        assertEquals(List.of("Iced Latte", "Caffè Latte Macchiato"), index.search("latte", 10));
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.rest.service.timeline;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.OrderTimelineRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinuteRingTest {
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private MinuteRing ring;
+
+    @BeforeEach
+    public void setup() {
+        ring = new MinuteRing(3);
+    }
+
+    //constructor
+    @Test
+    void shouldThrowIllegalArgumentException_WhenConstructorWithZeroMinutes() {
+        assertThrows(IllegalArgumentException.class, () -> new MinuteRing(0));
+    }
+
+    //record
+    @Test
+    void shouldCountEventsOfMinute_WhenRecordCreatedAndCompleted() {
+        assertTrue(ring.recordCreated(MINUTE.plusSeconds(5), 1));
+        assertTrue(ring.recordCreated(MINUTE.plusSeconds(30), 2));
+        assertTrue(ring.recordCompleted(MINUTE.plusSeconds(59), 40.0, 1));
+        ring.recordCompleted(MINUTE.plusMinutes(1), 20.0, 0);
+
+        assertEquals(List.of(new OrderTimelineRow(MINUTE, 2L, 1L, 40.0, 1L),
+                        new OrderTimelineRow(MINUTE.plusMinutes(1), 0L, 1L, 20.0, 0L)),
+                ring.find(MINUTE, MINUTE.plusMinutes(2)));
+    }
+
+    @Test
+    void shouldReuseSlot_WhenRecordNewerMinuteOfSameSlot() {
+        ring.recordCreated(MINUTE, 1);
+        ring.recordCreated(MINUTE.plusMinutes(3), 2);
+
+        assertEquals(List.of(new OrderTimelineRow(MINUTE.plusMinutes(3), 1L, 0L, 0.0, 2L)),
+                ring.find(MINUTE, MINUTE.plusMinutes(4)));
+    }
+
+    @Test
+    void shouldIgnoreEvent_WhenRecordMinuteOlderThanRing() {
+        ring.recordCreated(MINUTE.plusMinutes(3), 1);
+
+        assertFalse(ring.recordCreated(MINUTE, 2));
+        assertEquals(1, ring.find(MINUTE, MINUTE.plusMinutes(4)).size());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordWithNullTime() {
+        assertThrows(NullParamException.class, () -> ring.recordCreated(null, 0));
+        assertThrows(NullParamException.class, () -> ring.recordCompleted(null, 0.0, 0));
+    }
+
+    //find
+    @Test
+    void shouldReturnOnlyMinutesStartingInPeriod_WhenFind() {
+        ring.recordCreated(MINUTE, 1);
+        ring.recordCreated(MINUTE.plusMinutes(1), 2);
+        ring.recordCreated(MINUTE.plusMinutes(2), 3);
+
+        List<OrderTimelineRow> rows = ring.find(MINUTE.plusSeconds(1), MINUTE.plusMinutes(2));
+
+        assertEquals(List.of(new OrderTimelineRow(MINUTE.plusMinutes(1), 1L, 0L, 0.0, 2L)), rows);
+    }
+
+    //load
+    @Test
+    void shouldNotFlushLoadedRow_WhenLoad() {
+        OrderTimelineRow row = new OrderTimelineRow(MINUTE, 5L, 4L, 100.0, 1L);
+        ring.load(row);
+
+        assertEquals(List.of(row), ring.find(MINUTE, MINUTE.plusMinutes(1)));
+        assertEquals(0, ring.flush(rows -> fail()));
+    }
+
+    @Test
+    void shouldAddEventsToLoadedRow_WhenRecordAfterLoad() {
+        ring.load(new OrderTimelineRow(MINUTE, 5L, 4L, 100.0, 1L));
+
+        ring.recordCreated(MINUTE.plusSeconds(10), 2);
+
+        assertEquals(List.of(new OrderTimelineRow(MINUTE, 6L, 4L, 100.0, 2L)), ring.find(MINUTE, MINUTE.plusMinutes(1)));
+    }
+
+    //flush
+    @Test
+    void shouldWriteOnlyChangedMinutes_WhenFlush() {
+        ring.recordCreated(MINUTE, 1);
+        ring.recordCreated(MINUTE.plusMinutes(1), 2);
+        List<OrderTimelineRow> written = new ArrayList<>();
+
+        assertEquals(2, ring.flush(written::addAll));
+        assertEquals(0, ring.flush(written::addAll));
+        ring.recordCompleted(MINUTE.plusMinutes(1), 30.0, 1);
+        assertEquals(1, ring.flush(written::addAll));
+
+        assertEquals(new OrderTimelineRow(MINUTE.plusMinutes(1), 1L, 1L, 30.0, 1L), written.get(2));
+    }
+
+    @Test
+    void shouldKeepMinutesChanged_WhenFlushWriterThrows() {
+        ring.recordCreated(MINUTE, 1);
+
+        assertThrows(IllegalStateException.class, () -> ring.flush(rows -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, ring.flush(rows -> {
+        }));
+    }
+
+    @Test
+    void shouldWriteAgain_WhenMinuteChangedDuringFlush() {
+        ring.recordCreated(MINUTE, 1);
+
+        ring.flush(rows -> ring.recordCreated(MINUTE, 2));
+
+        List<OrderTimelineRow> written = new ArrayList<>();
+        assertEquals(1, ring.flush(written::addAll));
+        assertEquals(new OrderTimelineRow(MINUTE, 2L, 0L, 0.0, 2L), written.get(0));
+    }
+}
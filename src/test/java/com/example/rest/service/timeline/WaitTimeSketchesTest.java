@@ -0,0 +1,192 @@
+package com.example.rest.service.timeline;
+
+import com.example.rest.entity.exception.NullParamException;
+import com.example.rest.repository.StatsDimension;
+import com.example.rest.repository.WaitSketchRow;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitTimeSketchesTest {
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private WaitTimeSketches sketches;
+
+    @BeforeEach
+    public void setup() {
+        sketches = new WaitTimeSketches();
+        sketches.keepFrom(HOUR);
+    }
+
+    private Map<Long, Histogram> merge(StatsDimension dimension, LocalDateTime from, LocalDateTime to) {
+        Map<Long, Histogram> merged = new HashMap<>();
+        sketches.mergeInto(dimension, from, to, merged);
+        return merged;
+    }
+
+    private static byte[] encoded(long... waits) {
+        Histogram histogram = WaitTimeSketches.newHistogram();
+        for (long wait : waits)
+            histogram.recordValue(wait);
+        return WaitTimeSketches.encode(histogram);
+    }
+
+    //record
+    @Test
+    void shouldKeepSketchOfEachHourAndKey_WhenRecord() {
+        assertTrue(sketches.record(HOUR.plusMinutes(5), StatsDimension.BARISTA, 1L, 1_000));
+        assertTrue(sketches.record(HOUR.plusMinutes(59), StatsDimension.BARISTA, 1L, 3_000));
+        sketches.record(HOUR.plusHours(1), StatsDimension.BARISTA, 1L, 5_000);
+        sketches.record(HOUR, StatsDimension.BARISTA, 2L, 7_000);
+        sketches.record(HOUR, StatsDimension.COFFEE, 1L, 9_000);
+
+        Map<Long, Histogram> firstHour = merge(StatsDimension.BARISTA, HOUR, HOUR.plusHours(1));
+        assertEquals(2, firstHour.get(1L).getTotalCount());
+        assertEquals(1, firstHour.get(2L).getTotalCount());
+        assertEquals(3, merge(StatsDimension.BARISTA, HOUR, HOUR.plusHours(2)).get(1L).getTotalCount());
+        assertEquals(1, merge(StatsDimension.COFFEE, HOUR, HOUR.plusHours(2)).size());
+    }
+
+    @Test
+    void shouldIgnoreEvent_WhenRecordHourOlderThanKept() {
+        assertFalse(sketches.record(HOUR.minusMinutes(1), StatsDimension.BARISTA, 1L, 1_000));
+
+        assertTrue(merge(StatsDimension.BARISTA, HOUR.minusHours(1), HOUR.plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void shouldThrowNullParamException_WhenRecordWithNullParam() {
+        assertThrows(NullParamException.class, () -> sketches.record(null, StatsDimension.BARISTA, 1L, 0));
+        assertThrows(NullParamException.class, () -> sketches.record(HOUR, null, 1L, 0));
+        assertThrows(NullParamException.class, () -> sketches.record(HOUR, StatsDimension.BARISTA, null, 0));
+    }
+
+    //mergeInto
+    @Test
+    void shouldAddHoursToExistingHistogram_WhenMergeInto() {
+        sketches.record(HOUR, StatsDimension.COFFEE, 1L, 1_000);
+        Map<Long, Histogram> merged = new HashMap<>();
+        merged.put(1L, WaitTimeSketches.decode(encoded(2_000, 3_000)));
+
+        sketches.mergeInto(StatsDimension.COFFEE, HOUR, HOUR.plusHours(1), merged);
+
+        assertEquals(3, merged.get(1L).getTotalCount());
+        assertEquals(2_000, merged.get(1L).getValueAtPercentile(50.0), 20);
+    }
+
+    //load
+    @Test
+    void shouldNotFlushLoadedSketch_WhenLoad() {
+        sketches.load(new WaitSketchRow(StatsDimension.BARISTA, HOUR, 1L, encoded(1_000, 2_000)));
+
+        assertEquals(2, merge(StatsDimension.BARISTA, HOUR, HOUR.plusHours(1)).get(1L).getTotalCount());
+        assertEquals(0, sketches.flush(rows -> fail()));
+    }
+
+    @Test
+    void shouldFlushStoredAndRecordedWaits_WhenRecordAfterLoad() {
+        sketches.load(new WaitSketchRow(StatsDimension.BARISTA, HOUR, 1L, encoded(1_000, 2_000)));
+        sketches.record(HOUR, StatsDimension.BARISTA, 1L, 3_000);
+        List<WaitSketchRow> written = new ArrayList<>();
+
+        assertEquals(1, sketches.flush(written::addAll));
+
+        assertEquals(3, WaitTimeSketches.decode(written.get(0).histogram()).getTotalCount());
+    }
+
+    @Test
+    void shouldIgnoreSketch_WhenLoadHourOlderThanKept() {
+        sketches.load(new WaitSketchRow(StatsDimension.BARISTA, HOUR.minusHours(1), 1L, encoded(1_000)));
+
+        assertTrue(merge(StatsDimension.BARISTA, HOUR.minusHours(1), HOUR.plusHours(1)).isEmpty());
+    }
+
+    //flush
+    @Test
+    void shouldWriteOnlyChangedSketchesInKeyOrder_WhenFlush() {
+        sketches.record(HOUR.plusHours(1), StatsDimension.BARISTA, 1L, 1_000);
+        sketches.record(HOUR, StatsDimension.COFFEE, 2L, 1_000);
+        sketches.record(HOUR, StatsDimension.BARISTA, 3L, 1_000);
+        List<WaitSketchRow> written = new ArrayList<>();
+
+        assertEquals(3, sketches.flush(written::addAll));
+        assertEquals(0, sketches.flush(written::addAll));
+        sketches.record(HOUR, StatsDimension.COFFEE, 2L, 2_000);
+        assertEquals(1, sketches.flush(written::addAll));
+
+        assertEquals(List.of(3L, 2L, 1L, 2L), written.stream().map(WaitSketchRow::keyId).toList());
+        assertEquals(HOUR, written.get(0).hour());
+        assertEquals(StatsDimension.COFFEE, written.get(3).dimension());
+        assertEquals(2, WaitTimeSketches.decode(written.get(3).histogram()).getTotalCount());
+    }
+
+    @Test
+    void shouldKeepSketchesChanged_WhenFlushWriterThrows() {
+        sketches.record(HOUR, StatsDimension.BARISTA, 1L, 1_000);
+
+        assertThrows(IllegalStateException.class, () -> sketches.flush(rows -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, sketches.flush(rows -> {
+        }));
+    }
+
+    @Test
+    void shouldWriteAgain_WhenSketchChangedDuringFlush() {
+        sketches.record(HOUR, StatsDimension.BARISTA, 1L, 1_000);
+
+        sketches.flush(rows -> sketches.record(HOUR, StatsDimension.BARISTA, 1L, 2_000));
+
+        List<WaitSketchRow> written = new ArrayList<>();
+        assertEquals(1, sketches.flush(written::addAll));
+        assertEquals(2, WaitTimeSketches.decode(written.get(0).histogram()).getTotalCount());
+    }
+
+    //keepFrom
+    @Test
+    void shouldDropOnlyFlushedOlderSketches_WhenKeepFrom() {
+        sketches.record(HOUR, StatsDimension.BARISTA, 1L, 1_000);
+        sketches.flush(rows -> {
+        });
+        sketches.record(HOUR, StatsDimension.BARISTA, 2L, 1_000);
+
+        sketches.keepFrom(HOUR.plusMinutes(90));
+
+        assertEquals(HOUR.plusHours(1), sketches.keptFrom());
+        List<WaitSketchRow> written = new ArrayList<>();
+        assertEquals(1, sketches.flush(written::addAll));
+        assertEquals(2L, written.get(0).keyId());
+        assertEquals(0, sketches.flush(rows -> fail()));
+    }
+
+    @Test
+    void shouldNotMoveBack_WhenKeepFromEarlierHour() {
+        sketches.keepFrom(HOUR.minusHours(1));
+
+        assertEquals(HOUR, sketches.keptFrom());
+    }
+
+    //encode
+    @Test
+    void shouldKeepPercentiles_WhenEncodeAndDecode() {
+        Histogram histogram = WaitTimeSketches.decode(encoded(1_000, 2_000, 3_000, 60_000));
+
+        assertEquals(4, histogram.getTotalCount());
+        assertEquals(2_000, histogram.getValueAtPercentile(50.0), 20);
+        assertEquals(60_000, histogram.getMaxValue(), 600);
+    }
+
+    @Test
+    void shouldThrowIllegalStateException_WhenDecodeDamagedBytes() {
+        assertThrows(IllegalStateException.class, () -> WaitTimeSketches.decode(new byte[]{1, 2, 3}));
+    }
+}
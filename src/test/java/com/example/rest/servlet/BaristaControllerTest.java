@@ -3,11 +3,25 @@ package com.example.rest.servlet;
 import com.example.rest.entity.exception.BaristaNotFoundException;
 import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
+import com.example.rest.entity.exception.NoValidStatusException;
 import com.example.rest.entity.exception.NoValidTipSizeException;
+import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.service.dto.FieldSet;
 import com.example.rest.service.dto.IBaristaPublicDTO;
+import com.example.rest.service.exception.NoValidSearchCursorException;
+import com.example.rest.service.exception.NoValidSearchQueryException;
+import com.example.rest.service.exception.StatsNotLoadedException;
 import com.example.rest.service.imp.BaristaService;
+import com.example.rest.service.imp.BaristaStatsService;
+import com.example.rest.servlet.dto.BaristaNoRefDTO;
 import com.example.rest.servlet.dto.BaristaPublicDTO;
+import com.example.rest.servlet.dto.BaristaSearchDTO;
+import com.example.rest.servlet.dto.BaristaSliceDTO;
+import com.example.rest.servlet.dto.BaristaStatsDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
+import com.example.rest.servlet.dto.OrderNoRefDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,18 +32,22 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Locale;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +57,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class BaristaControllerTest {
     @Mock
     private BaristaService baristaService;
+    @Mock
+    private BaristaStatsService baristaStatsService;
 
     private MockMvc mockMvc;
 
@@ -52,7 +72,7 @@ class BaristaControllerTest {
         MockitoAnnotations.openMocks(this);
         GlobalControllerAdvice advice = new GlobalControllerAdvice();
         this.mockMvc = MockMvcBuilders
-                .standaloneSetup(new BaristaController(baristaService))
+                .standaloneSetup(new BaristaController(baristaService, baristaStatsService))
                 .setControllerAdvice(advice)
                 .build();
     }
@@ -238,6 +258,35 @@ class BaristaControllerTest {
     }
 
 
+    //patch
+    @Test
+    void patch_WhenOnlyTipSize_ShouldReturnBaristaWithoutOrders() throws Exception {
+        Long expectedId = 3L;
+        IBaristaPublicDTO specifiedPublicDto = new BaristaPublicDTO(expectedId, "John Doe", 0.2, null);
+
+        Mockito.when(baristaService.patch(argThat(barista ->
+                        barista.id().equals(expectedId) &&
+                                barista.fullName() == null &&
+                                barista.tipSize().equals(0.2))))
+                .thenReturn(specifiedPublicDto);
+
+        mockMvc.perform(patch("/baristas/" + expectedId).contentType(MediaType.APPLICATION_JSON).content("{\"tipSize\": 0.2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(expectedId))
+                .andExpect(jsonPath("$.fullName").value("John Doe"))
+                .andExpect(jsonPath("$.tipSize").value(0.2))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+    }
+
+    @Test
+    void patch_WhenBaristaNotFound_ShouldReturnNotFound() throws Exception {
+        Mockito.when(baristaService.patch(argThat(barista -> barista.id().equals(3L))))
+                .thenThrow(new BaristaNotFoundException(3L));
+
+        mockMvc.perform(patch("/baristas/3").contentType(MediaType.APPLICATION_JSON).content("{\"tipSize\": 0.2}"))
+                .andExpect(status().isNotFound());
+    }
+
     //update
     @Test
     void update_WhenCorrectDto_ShouldReturnEntityJson() throws Exception {
@@ -367,4 +416,238 @@ class BaristaControllerTest {
 
         Mockito.verify(baristaService, Mockito.times(1)).delete(expectedId);
     }
-}
\ No newline at end of file
+
+    //fields
+    @Test
+    void findAll_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        FieldSet fieldSet = FieldSet.parse("id,fullName", BaristaPublicDTO.class);
+        List<BaristaPublicDTO> mockedPublicDtoList = List.of(
+                new BaristaPublicDTO(0L, "name", 0.1, null)
+        );
+        Mockito.when(baristaService.findAll(fieldSet))
+                .thenReturn(mockedPublicDtoList);
+
+        mockMvc.perform(get("/baristas").param("fields", "id,fullName"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(0L))
+                .andExpect(jsonPath("$[0].fullName").value("name"))
+                .andExpect(jsonPath("$[0].tipSize").doesNotExist())
+                .andExpect(jsonPath("$[0].orders").doesNotExist());
+    }
+
+    @Test
+    void findAll_WhenUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/baristas").param("fields", "id,password"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllByPage_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        FieldSet fieldSet = FieldSet.parse("tipSize", BaristaPublicDTO.class);
+        Mockito.when(baristaService.findAllByPage(0, 1, fieldSet))
+                .thenReturn(List.of(new BaristaPublicDTO(0L, "name", 0.1, null)));
+
+        mockMvc.perform(get("/baristas")
+                        .param("page", "0")
+                        .param("limit", "1")
+                        .param("fields", "tipSize"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tipSize").value(0.1))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+    }
+
+    @Test
+    void findById_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        Long expectedId = 0L;
+        FieldSet fieldSet = FieldSet.parse("id", BaristaPublicDTO.class);
+        Mockito.when(baristaService.findById(expectedId, fieldSet))
+                .thenReturn(new BaristaPublicDTO(expectedId, "name", 0.1, null));
+
+        mockMvc.perform(get("/baristas/" + expectedId).param("fields", "id"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(expectedId))
+                .andExpect(jsonPath("$.fullName").doesNotExist());
+    }
+
+    //ordersLimit
+    @Test
+    void findAll_WhenOrdersLimitSpecified_ShouldReturnBoundedOrders() throws Exception {
+        List<OrderNoRefDTO> firstOrders = List.of(new OrderNoRefDTO(5L, 0L, null, null, 1.0));
+        Mockito.when(baristaService.findAll(FieldSet.all(), 1))
+                .thenReturn(List.of(new BaristaPublicDTO(0L, "name", 0.1, firstOrders, 3L, "/baristas/0/orders?after=5")));
+
+        mockMvc.perform(get("/baristas").param("ordersLimit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orders.length()").value(1))
+                .andExpect(jsonPath("$[0].ordersTotal").value(3))
+                .andExpect(jsonPath("$[0].ordersNext").value("/baristas/0/orders?after=5"));
+    }
+
+    @Test
+    void findById_WhenOrdersLimitAndFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        Long expectedId = 0L;
+        FieldSet fieldSet = FieldSet.parse("id,ordersTotal", BaristaPublicDTO.class);
+        Mockito.when(baristaService.findById(expectedId, fieldSet, 10))
+                .thenReturn(new BaristaPublicDTO(expectedId, "name", 0.1, List.of(), 0L, null));
+
+        mockMvc.perform(get("/baristas/" + expectedId)
+                        .param("fields", "id,ordersTotal")
+                        .param("ordersLimit", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordersTotal").value(0))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+    }
+
+    @Test
+    void findAllByPage_WhenOrdersLimitLessThanOne_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(baristaService.findAllByPage(0, 1, FieldSet.all(), 0))
+                .thenThrow(new NoValidLimitException(0));
+
+        mockMvc.perform(get("/baristas")
+                        .param("page", "0")
+                        .param("limit", "1")
+                        .param("ordersLimit", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //stats
+    @Test
+    void findStats_WhenBaristaExists_ShouldReturnStats() throws Exception {
+        Mockito.when(baristaStatsService.findById(1L))
+                .thenReturn(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2));
+
+        mockMvc.perform(get("/baristas/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baristaId").value(1))
+                .andExpect(jsonPath("$.completedOrders").value(2))
+                .andExpect(jsonPath("$.averagePrepSeconds").value(90.0))
+                .andExpect(jsonPath("$.tipRevenue").value(1.2));
+    }
+
+    @Test
+    void findStats_WhenBaristaNotFound_ShouldReturnNotFound() throws Exception {
+        Mockito.when(baristaStatsService.findById(99L))
+                .thenThrow(new BaristaNotFoundException(99L));
+
+        mockMvc.perform(get("/baristas/99/stats"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findStats_WhenStatsNotLoaded_ShouldReturnServiceUnavailable() throws Exception {
+        Mockito.when(baristaStatsService.findById(1L))
+                .thenThrow(new StatsNotLoadedException("Barista"));
+
+        mockMvc.perform(get("/baristas/1/stats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.errors[0]").value("Barista statistics are not loaded yet, retry later!"));
+    }
+
+    @Test
+    void findAllStats_WhenAnyCall_ShouldReturnAllStats() throws Exception {
+        Mockito.doReturn(List.of(new BaristaStatsDTO(1L, 2L, 90.0, 13.2, 1.2),
+                        new BaristaStatsDTO(2L, 1L, 60.0, 5.0, 0.5)))
+                .when(baristaStatsService).findAll();
+
+        mockMvc.perform(get("/baristas/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].baristaId").value(2));
+        Mockito.verify(baristaService, Mockito.never()).findById(any());
+    }
+
+    //findOrders
+    @Test
+    void findOrders_WhenFilterSpecified_ShouldBindFilterAndReturnSlice() throws Exception {
+        Long expectedId = 0L;
+        OrderFilterDTO expectedFilter = new OrderFilterDTO(5L, 2, "pending",
+                LocalDateTime.of(2024, 1, 1, 0, 0), null);
+        Mockito.when(baristaService.findOrders(expectedId, expectedFilter))
+                .thenReturn(new OrderSliceDTO(List.of(new OrderNoRefDTO(6L, 0L, null, null, 1.0)), 6L));
+
+        mockMvc.perform(get("/baristas/" + expectedId + "/orders")
+                        .param("after", "5")
+                        .param("limit", "2")
+                        .param("status", "pending")
+                        .param("createdFrom", "2024-01-01 00:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value(6L))
+                .andExpect(jsonPath("$.nextAfter").value(6L));
+    }
+
+    @Test
+    void findOrders_WhenBaristaNotFound_ShouldReturnNotFound() throws Exception {
+        Long expectedId = 99L;
+        Mockito.when(baristaService.findOrders(Mockito.eq(expectedId), Mockito.any()))
+                .thenThrow(new BaristaNotFoundException(expectedId));
+
+        mockMvc.perform(get("/baristas/" + expectedId + "/orders"))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findOrders_WhenUnknownStatus_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(baristaService.findOrders(Mockito.eq(0L), Mockito.any()))
+                .thenThrow(new NoValidStatusException("lost"));
+
+        mockMvc.perform(get("/baristas/0/orders").param("status", "lost"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findOrders_WhenWrongDateFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/baristas/0/orders").param("createdFrom", "yesterday"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //search
+    @Test
+    void search_WhenQueryAndCursorSpecified_ShouldBindSearchAndReturnSlice() throws Exception {
+        BaristaSearchDTO expectedSearch = new BaristaSearchDTO("anna", 1000, 2L, 1);
+        Mockito.when(baristaService.search(expectedSearch))
+                .thenReturn(new BaristaSliceDTO(List.of(new BaristaNoRefDTO(3L, "Joanna Smith", 0.1)), 2000, 3L));
+
+        mockMvc.perform(get("/baristas/search")
+                        .param("q", "anna")
+                        .param("afterRank", "1000")
+                        .param("after", "2")
+                        .param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baristas[0].fullName").value("Joanna Smith"))
+                .andExpect(jsonPath("$.nextAfterRank").value(2000))
+                .andExpect(jsonPath("$.nextAfter").value(3L));
+    }
+
+    @Test
+    void search_WhenQueryWithoutLetters_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(baristaService.search(any()))
+                .thenThrow(new NoValidSearchQueryException("%%"));
+
+        mockMvc.perform(get("/baristas/search/").param("q", "%%"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_WhenCursorWithoutId_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(baristaService.search(any()))
+                .thenThrow(new NoValidSearchCursorException(1000, null));
+
+        mockMvc.perform(get("/baristas/search").param("q", "anna").param("afterRank", "1000"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
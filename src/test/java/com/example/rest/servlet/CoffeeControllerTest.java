@@ -4,11 +4,22 @@ import com.example.rest.entity.exception.CoffeeNotFoundException;
 import com.example.rest.entity.exception.NoValidIdException;
 import com.example.rest.entity.exception.NoValidNameException;
 import com.example.rest.entity.exception.NoValidPriceException;
+import com.example.rest.entity.exception.NoValidStatusException;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.repository.exception.NoValidStatsBucketException;
+import com.example.rest.service.ICoffeeSearchService;
+import com.example.rest.service.ICoffeeStatsService;
+import com.example.rest.service.dto.FieldSet;
+import com.example.rest.service.exception.NoValidSearchQueryException;
 import com.example.rest.service.imp.CoffeeService;
+import com.example.rest.servlet.dto.CoffeeNoRefDTO;
 import com.example.rest.servlet.dto.CoffeePublicDTO;
+import com.example.rest.servlet.dto.CoffeeStatsDTO;
+import com.example.rest.servlet.dto.CoffeeStatsFilterDTO;
+import com.example.rest.servlet.dto.OrderFilterDTO;
 import com.example.rest.servlet.dto.OrderNoRefDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,6 +46,10 @@ class CoffeeControllerTest {
 
     @Mock
     private CoffeeService coffeeService;
+    @Mock
+    private ICoffeeStatsService coffeeStatsService;
+    @Mock
+    private ICoffeeSearchService coffeeSearchService;
 
     private MockMvc mockMvc;
 
@@ -48,7 +63,7 @@ class CoffeeControllerTest {
         MockitoAnnotations.openMocks(this);
         GlobalControllerAdvice advice = new GlobalControllerAdvice();
         this.mockMvc = MockMvcBuilders
-                .standaloneSetup(new CoffeeController(coffeeService))
+                .standaloneSetup(new CoffeeController(coffeeService, coffeeStatsService, coffeeSearchService))
                 .setControllerAdvice(advice)
                 .build();
     }
@@ -249,6 +264,35 @@ class CoffeeControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    //patch
+    @Test
+    void patch_WhenOnlyPrice_ShouldReturnCoffeeWithoutOrders() throws Exception {
+        Long expectedId = 3L;
+        CoffeePublicDTO specifiedPublicDto = new CoffeePublicDTO(expectedId, "latte", 4.5, null);
+
+        Mockito.when(coffeeService.patch(argThat(coffee ->
+                        coffee.id().equals(expectedId) &&
+                                coffee.name() == null &&
+                                coffee.price().equals(4.5))))
+                .thenReturn(specifiedPublicDto);
+
+        mockMvc.perform(patch("/coffees/" + expectedId).contentType(MediaType.APPLICATION_JSON).content("{\"price\": 4.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(expectedId))
+                .andExpect(jsonPath("$.name").value("latte"))
+                .andExpect(jsonPath("$.price").value(4.5))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+    }
+
+    @Test
+    void patch_WhenCoffeeNotFound_ShouldReturnNotFound() throws Exception {
+        Mockito.when(coffeeService.patch(argThat(coffee -> coffee.id().equals(3L))))
+                .thenThrow(new CoffeeNotFoundException(3L));
+
+        mockMvc.perform(patch("/coffees/3").contentType(MediaType.APPLICATION_JSON).content("{\"price\": 4.5}"))
+                .andExpect(status().isNotFound());
+    }
+
     //update
     @Test
     void update_WhenCorrectJson_ShouldReturnEntity() throws Exception {
@@ -407,4 +451,194 @@ class CoffeeControllerTest {
         Mockito.verify(coffeeService, Mockito.times(1)).delete(expectedId);
     }
 
-}
\ No newline at end of file
+    //fields
+    @Test
+    void findAll_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        FieldSet fieldSet = FieldSet.parse("name,price", CoffeePublicDTO.class);
+        Mockito.when(coffeeService.findAll(fieldSet))
+                .thenReturn(List.of(new CoffeePublicDTO(0L, "name", 0.1, null)));
+
+        mockMvc.perform(get("/coffees").param("fields", "name,price"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("name"))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].orders").doesNotExist());
+    }
+
+    @Test
+    void findById_WhenUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/coffees/0").param("fields", "unknown"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //ordersLimit
+    @Test
+    void findAll_WhenOrdersLimitSpecified_ShouldReturnBoundedOrders() throws Exception {
+        List<OrderNoRefDTO> firstOrders = List.of(new OrderNoRefDTO(5L, 0L, null, null, 1.0));
+        Mockito.when(coffeeService.findAll(FieldSet.all(), 1))
+                .thenReturn(List.of(new CoffeePublicDTO(0L, "Latte", 2.5, firstOrders, 3L, "/coffees/0/orders?after=5")));
+
+        mockMvc.perform(get("/coffees").param("ordersLimit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orders.length()").value(1))
+                .andExpect(jsonPath("$[0].ordersTotal").value(3))
+                .andExpect(jsonPath("$[0].ordersNext").value("/coffees/0/orders?after=5"));
+    }
+
+    @Test
+    void findById_WhenOrdersLimitAndFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        Long expectedId = 0L;
+        FieldSet fieldSet = FieldSet.parse("id,ordersTotal", CoffeePublicDTO.class);
+        Mockito.when(coffeeService.findById(expectedId, fieldSet, 10))
+                .thenReturn(new CoffeePublicDTO(expectedId, "Latte", 2.5, List.of(), 0L, null));
+
+        mockMvc.perform(get("/coffees/" + expectedId)
+                        .param("fields", "id,ordersTotal")
+                        .param("ordersLimit", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordersTotal").value(0))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+    }
+
+    @Test
+    void findAllByPage_WhenOrdersLimitLessThanOne_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(coffeeService.findAllByPage(0, 1, FieldSet.all(), 0))
+                .thenThrow(new NoValidLimitException(0));
+
+        mockMvc.perform(get("/coffees")
+                        .param("page", "0")
+                        .param("limit", "1")
+                        .param("ordersLimit", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //search
+    @Test
+    void search_WhenQuerySpecified_ShouldReturnMatchedCoffee() throws Exception {
+        Mockito.doReturn(List.of(new CoffeeNoRefDTO(1L, "Latte", 3.5), new CoffeeNoRefDTO(5L, "Iced Latte", 4.0)))
+                .when(coffeeSearchService).search("lat", 5);
+
+        mockMvc.perform(get("/coffees/search")
+                        .param("q", "lat")
+                        .param("limit", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Latte"))
+                .andExpect(jsonPath("$[1].id").value(5L));
+        Mockito.verify(coffeeService, Mockito.never()).findAll();
+    }
+
+    @Test
+    void search_WhenQueryNotSpecified_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/coffees/search/"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_WhenQueryWithoutLetters_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(coffeeSearchService.search("%%", null))
+                .thenThrow(new NoValidSearchQueryException("%%"));
+
+        mockMvc.perform(get("/coffees/search").param("q", "%%"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //stats
+    @Test
+    void findStats_WhenPeriodAndBucketSpecified_ShouldBindFilterAndReturnStats() throws Exception {
+        CoffeeStatsFilterDTO expectedFilter = new CoffeeStatsFilterDTO(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0), "day");
+        Mockito.doReturn(List.of(new CoffeeStatsDTO(1L, LocalDateTime.of(2024, 1, 1, 0, 0), 3L, 4L, 12.0),
+                        new CoffeeStatsDTO(2L, LocalDateTime.of(2024, 1, 1, 0, 0), 1L, 1L, 2.5)))
+                .when(coffeeStatsService).findStats(expectedFilter);
+
+        mockMvc.perform(get("/coffees/stats")
+                        .param("from", "2024-01-01 00:00:00")
+                        .param("to", "2024-02-01 00:00:00")
+                        .param("bucket", "day"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].coffeeId").value(1))
+                .andExpect(jsonPath("$[0].orders").value(3))
+                .andExpect(jsonPath("$[0].quantity").value(4))
+                .andExpect(jsonPath("$[0].revenue").value(12.0));
+        Mockito.verify(coffeeService, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void findStats_WhenUnknownBucket_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(coffeeStatsService.findStats(Mockito.any()))
+                .thenThrow(new NoValidStatsBucketException("week"));
+
+        mockMvc.perform(get("/coffees/stats")
+                        .param("from", "2024-01-01 00:00:00")
+                        .param("to", "2024-02-01 00:00:00")
+                        .param("bucket", "week"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findStats_WhenWrongDateFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/coffees/stats").param("from", "yesterday"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //findOrders
+    @Test
+    void findOrders_WhenFilterSpecified_ShouldBindFilterAndReturnSlice() throws Exception {
+        Long expectedId = 0L;
+        OrderFilterDTO expectedFilter = new OrderFilterDTO(5L, 2, "pending",
+                LocalDateTime.of(2024, 1, 1, 0, 0), null);
+        Mockito.when(coffeeService.findOrders(expectedId, expectedFilter))
+                .thenReturn(new OrderSliceDTO(List.of(new OrderNoRefDTO(6L, 0L, null, null, 1.0)), 6L));
+
+        mockMvc.perform(get("/coffees/" + expectedId + "/orders")
+                        .param("after", "5")
+                        .param("limit", "2")
+                        .param("status", "pending")
+                        .param("createdFrom", "2024-01-01 00:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value(6L))
+                .andExpect(jsonPath("$.nextAfter").value(6L));
+    }
+
+    @Test
+    void findOrders_WhenCoffeeNotFound_ShouldReturnNotFound() throws Exception {
+        Long expectedId = 99L;
+        Mockito.when(coffeeService.findOrders(Mockito.eq(expectedId), Mockito.any()))
+                .thenThrow(new CoffeeNotFoundException(expectedId));
+
+        mockMvc.perform(get("/coffees/" + expectedId + "/orders"))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findOrders_WhenUnknownStatus_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(coffeeService.findOrders(Mockito.eq(0L), Mockito.any()))
+                .thenThrow(new NoValidStatusException("lost"));
+
+        mockMvc.perform(get("/coffees/0/orders").param("status", "lost"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findOrders_WhenWrongDateFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/coffees/0/orders").param("createdFrom", "yesterday"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,16 +1,37 @@
 package com.example.rest.servlet;
 
+import com.example.rest.entity.Order;
+import com.example.rest.entity.OrderIdempotencyKey;
 import com.example.rest.entity.exception.BaristaNotFoundException;
 import com.example.rest.entity.exception.CoffeeNotFoundException;
+import com.example.rest.entity.exception.CompletedBeforeCreatedException;
 import com.example.rest.entity.exception.NoValidIdException;
+import com.example.rest.entity.exception.NoValidPriceException;
 import com.example.rest.entity.exception.OrderNotFoundException;
 import com.example.rest.repository.exception.NoValidLimitException;
 import com.example.rest.repository.exception.NoValidPageException;
+import com.example.rest.repository.exception.NoValidStatsDimensionException;
+import com.example.rest.repository.exception.NoValidStatsPeriodException;
+import com.example.rest.service.IOrderRetentionService;
+import com.example.rest.service.IOrderTimelineService;
+import com.example.rest.service.IOrderWaitTimeService;
+import com.example.rest.service.dto.FieldSet;
+import com.example.rest.service.exception.IntakeBufferFullException;
 import com.example.rest.service.exception.OrderAlreadyCompletedException;
+import com.example.rest.service.imp.IdempotencyStore;
 import com.example.rest.service.imp.OrderService;
+import com.example.rest.service.intake.AcceptedOrder;
+import com.example.rest.service.intake.OrderIntake;
 import com.example.rest.servlet.dto.BaristaNoRefDTO;
 import com.example.rest.servlet.dto.CoffeeNoRefDTO;
+import com.example.rest.servlet.dto.OrderNoRefDTO;
 import com.example.rest.servlet.dto.OrderPublicDTO;
+import com.example.rest.servlet.dto.OrderRetentionDTO;
+import com.example.rest.servlet.dto.OrderSearchDTO;
+import com.example.rest.servlet.dto.OrderSliceDTO;
+import com.example.rest.servlet.dto.OrderTimelineDTO;
+import com.example.rest.servlet.dto.OrderWaitTimeDTO;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,23 +40,38 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Locale;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class OrderControllerTest {
     @Mock
     private OrderService orderService;
+    @Mock
+    private OrderIntake orderIntake;
+    @Mock
+    private IOrderTimelineService orderTimelineService;
+    @Mock
+    private IOrderWaitTimeService orderWaitTimeService;
+    @Mock
+    private IOrderRetentionService orderRetentionService;
 
     private MockMvc mockMvc;
 
@@ -49,7 +85,8 @@ class OrderControllerTest {
         MockitoAnnotations.openMocks(this);
         GlobalControllerAdvice advice = new GlobalControllerAdvice();
         this.mockMvc = MockMvcBuilders
-                .standaloneSetup(new OrderController(orderService))
+                .standaloneSetup(new OrderController(orderService, new IdempotencyStore<>(100), orderIntake, orderTimelineService,
+                        orderWaitTimeService, orderRetentionService))
                 .setControllerAdvice(advice)
                 .build();
     }
@@ -74,6 +111,96 @@ class OrderControllerTest {
                 .andDo(print());
     }
 
+
+    //search
+    @Test
+    void search_WhenFilterSpecified_ShouldBindFilterAndReturnSlice() throws Exception {
+        OrderSearchDTO expectedFilter = new OrderSearchDTO(5L, 2, "completed",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), 1L, 3L, 2.5, 10.0, null);
+        Mockito.when(orderService.findOrders(expectedFilter))
+                .thenReturn(new OrderSliceDTO(List.of(new OrderNoRefDTO(6L, 1L, null, null, 4.0)), 6L));
+
+        mockMvc.perform(get("/orders/search")
+                        .param("after", "5")
+                        .param("limit", "2")
+                        .param("status", "completed")
+                        .param("createdFrom", "2024-01-01 00:00:00")
+                        .param("createdTo", "2024-02-01 00:00:00")
+                        .param("baristaId", "1")
+                        .param("coffeeId", "3")
+                        .param("minPrice", "2.5")
+                        .param("maxPrice", "10.0"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value(6L))
+                .andExpect(jsonPath("$.nextAfter").value(6L));
+        Mockito.verify(orderService, Mockito.never()).findAll();
+    }
+
+    @Test
+    void search_WhenOnlyIncludeArchivedSpecified_ShouldReturnSliceWithArchivedOrders() throws Exception {
+        OrderSearchDTO expectedFilter = new OrderSearchDTO(null, null, null, null, null, null, null, null, null, true);
+        Mockito.when(orderService.findOrders(expectedFilter))
+                .thenReturn(new OrderSliceDTO(List.of(new OrderNoRefDTO(2L, 1L, null, null, 4.0)), null));
+
+        mockMvc.perform(get("/orders/search").param("includeArchived", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value(2L));
+        Mockito.verify(orderService, Mockito.never()).findAll();
+    }
+
+    @Test
+    void search_WhenOnlyLimitSpecified_ShouldReturnFirstSlice() throws Exception {
+        OrderSearchDTO expectedFilter = new OrderSearchDTO(null, 10, null, null, null, null, null, null, null, null);
+        Mockito.when(orderService.findOrders(expectedFilter))
+                .thenReturn(new OrderSliceDTO(List.of(), null));
+
+        mockMvc.perform(get("/orders/search/").param("limit", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(0));
+    }
+
+    @Test
+    void search_WhenNegativePriceFilter_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(orderService.findOrders(any()))
+                .thenThrow(new NoValidPriceException(-1.0));
+
+        mockMvc.perform(get("/orders/search").param("minPrice", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_WhenWrongDateFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/orders/search").param("createdFrom", "yesterday"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+    @Test
+    void search_WhenFieldsSpecified_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/orders/search")
+                        .param("status", "pending")
+                        .param("fields", "id"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Params [fields] are supported only by /orders and /orders/{id}!"));
+        Mockito.verify(orderService, Mockito.never()).findOrders(any());
+    }
+
+    @Test
+    void findAll_WhenFilterSpecified_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/orders")
+                        .param("status", "pending")
+                        .param("limit", "10")
+                        .param("fields", "id"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Params [limit, status] are supported only by /orders/search!"));
+        Mockito.verifyNoInteractions(orderService);
+    }
+
     //findAllByPage
     @Test
     void findAllByPage_WhenCorrectPage_ShouldReturnEntities() throws Exception {
@@ -98,6 +225,19 @@ class OrderControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void findAllByPage_WhenFilterSpecified_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/orders")
+                        .param("page", "0")
+                        .param("limit", "10")
+                        .param("baristaId", "1")
+                        .param("createdFrom", "2024-01-01 00:00:00"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Params [createdFrom, baristaId] are supported only by /orders/search!"));
+        Mockito.verifyNoInteractions(orderService);
+    }
+
     @Test
     void findAllByPage_WhenWrongPage_ShouldReturnBadRequest() throws Exception {
         int page = -1;
@@ -383,6 +523,184 @@ class OrderControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    //create with idempotency key
+    @Test
+    void create_WhenSameIdempotencyKeyRepeated_ShouldCallServiceOnce() throws Exception {
+        OrderPublicDTO orderPublicDTO = new OrderPublicDTO(7L, null, LocalDateTime.MIN, null, 0.0, List.of());
+        String json = """
+                {
+                    "baristaId":0,
+                    "coffeeIdList":[1]
+                }
+                """;
+
+        Mockito.when(orderService.create(argThat(order -> order.baristaId().equals(0L)), eq("key")))
+                .thenReturn(orderPublicDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(json)
+                            .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(7));
+        }
+        Mockito.verify(orderService, Mockito.times(1)).create(any(), eq("key"));
+        Mockito.verify(orderService, Mockito.never()).create(any());
+    }
+
+    @Test
+    void create_WhenIdempotencyKeyReusedWithOtherBody_ShouldReturnUnprocessableEntity() throws Exception {
+        OrderPublicDTO orderPublicDTO = new OrderPublicDTO(7L, null, LocalDateTime.MIN, null, 0.0, List.of());
+
+        Mockito.when(orderService.create(any(), eq("key")))
+                .thenReturn(orderPublicDTO);
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[1]}")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[2]}")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void create_WhenServiceFailedWithIdempotencyKey_ShouldExecuteRetry() throws Exception {
+        OrderPublicDTO orderPublicDTO = new OrderPublicDTO(7L, null, LocalDateTime.MIN, null, 0.0, List.of());
+        String json = "{\"baristaId\":0,\"coffeeIdList\":[1]}";
+
+        Mockito.when(orderService.create(any(), eq("key")))
+                .thenThrow(new BaristaNotFoundException(0L))
+                .thenReturn(orderPublicDTO);
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(json)
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(json)
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void create_WhenIdempotencyKeyStoredConcurrently_ShouldReturnStoredOrder() throws Exception {
+        OrderPublicDTO orderPublicDTO = new OrderPublicDTO(7L, null, LocalDateTime.MIN, null, 0.0, List.of());
+        ConstraintViolationException violation = new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key"), OrderIdempotencyKey.PRIMARY_KEY);
+
+        Mockito.when(orderService.create(any(), eq("key")))
+                .thenThrow(new DataIntegrityViolationException("duplicate key", violation))
+                .thenReturn(orderPublicDTO);
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[1]}")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+        Mockito.verify(orderService, Mockito.times(2)).create(any(), eq("key"));
+    }
+
+    @Test
+    void create_WhenOtherConstraintViolated_ShouldNotRepeatCreate() {
+        Mockito.when(orderService.create(any(), eq("key")))
+                .thenThrow(new DataIntegrityViolationException("fk", new ConstraintViolationException("fk",
+                        new SQLException("fk"), "order_barista_fk")));
+
+        assertThrows(Exception.class, () -> mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"baristaId\":0,\"coffeeIdList\":[1]}")
+                .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key")));
+        Mockito.verify(orderService, Mockito.times(1)).create(any(), eq("key"));
+    }
+
+    //create with intake
+    @Test
+    void create_WhenIntakeRunning_ShouldReturnAccepted() throws Exception {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Mockito.when(orderIntake.isRunning()).thenReturn(true);
+        Mockito.when(orderIntake.submit(argThat(order -> order.baristaId().equals(0L))))
+                .thenReturn(new AcceptedOrder(11L, 0L, List.of(1L), created));
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[1]}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/orders/11"))
+                .andExpect(jsonPath("$.id").value(11));
+        Mockito.verify(orderService, Mockito.never()).create(any());
+    }
+
+    @Test
+    void create_WhenIntakeBufferFull_ShouldReturnServiceUnavailable() throws Exception {
+        Mockito.when(orderIntake.isRunning()).thenReturn(true);
+        Mockito.when(orderIntake.submit(any()))
+                .thenThrow(new IntakeBufferFullException(10));
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[1]}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void create_WhenIntakeRunningAndIdempotencyKey_ShouldCreateSynchronously() throws Exception {
+        OrderPublicDTO orderPublicDTO = new OrderPublicDTO(7L, null, LocalDateTime.MIN, null, 0.0, List.of());
+        Mockito.when(orderIntake.isRunning()).thenReturn(true);
+        Mockito.when(orderService.create(any(), eq("key")))
+                .thenReturn(orderPublicDTO);
+
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baristaId\":0,\"coffeeIdList\":[1]}")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+        Mockito.verify(orderIntake, Mockito.never()).submit(any());
+    }
+
+    //patch
+    @Test
+    void patch_WhenOnlyBarista_ShouldReturnOrderWithoutCoffees() throws Exception {
+        Long expectedId = 5L;
+        BaristaNoRefDTO baristaNoRefDTO = new BaristaNoRefDTO(2L, "John Doe", 0.5);
+        OrderPublicDTO specifiedPublicDto = new OrderPublicDTO(expectedId, baristaNoRefDTO, LocalDateTime.MIN, null, 15.0, null);
+
+        Mockito.when(orderService.patch(argThat(order ->
+                        order.id().equals(expectedId) &&
+                                order.baristaId().equals(2L) &&
+                                order.created() == null &&
+                                order.completed() == null)))
+                .thenReturn(specifiedPublicDto);
+
+        mockMvc.perform(patch("/orders/" + expectedId).contentType(MediaType.APPLICATION_JSON).content("{\"baristaId\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(expectedId))
+                .andExpect(jsonPath("$.baristaId.id").value(2L))
+                .andExpect(jsonPath("$.price").value(15.0))
+                .andExpect(jsonPath("$.coffees").doesNotExist());
+    }
+
+    @Test
+    void patch_WhenCompletedBeforeCreated_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(orderService.patch(argThat(order -> order.id().equals(5L))))
+                .thenThrow(new CompletedBeforeCreatedException(LocalDateTime.MAX, LocalDateTime.MIN));
+
+        mockMvc.perform(patch("/orders/5").contentType(MediaType.APPLICATION_JSON).content("{\"baristaId\": 2}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patch_WhenCompletedOfCompletedOrder_ShouldReturnBadRequest() throws Exception {
+        Order completedOrder = new Order();
+        completedOrder.setId(5L);
+        completedOrder.setCreated(LocalDateTime.of(2024, 1, 1, 9, 0));
+        completedOrder.setCompleted(LocalDateTime.of(2024, 1, 1, 10, 0));
+        Mockito.when(orderService.patch(argThat(order -> order.id().equals(5L) && order.completed() != null)))
+                .thenThrow(new OrderAlreadyCompletedException(completedOrder));
+
+        mockMvc.perform(patch("/orders/5").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\": \"2024-02-01T10:00:00\"}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Order '5' is already completed at '2024-01-01T10:00'!"));
+    }
+
     //update
     @Test
     void update_WhenCorrectData_ShouldReturnEntity() throws Exception {
@@ -569,4 +887,149 @@ class OrderControllerTest {
                 .andExpect(status().isNotFound());
     }
 
-}
\ No newline at end of file
+    //fields
+    @Test
+    void findAll_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        FieldSet fieldSet = FieldSet.parse("id,completed", OrderPublicDTO.class);
+        BaristaNoRefDTO baristaNoRefDTO = new BaristaNoRefDTO(0L, "John Doe", 0.1);
+        Mockito.when(orderService.findAll(fieldSet))
+                .thenReturn(List.of(new OrderPublicDTO(0L, baristaNoRefDTO, LocalDateTime.MIN, null, 0.0, null)));
+
+        mockMvc.perform(get("/orders").param("fields", "id,completed"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(0L))
+                .andExpect(jsonPath("$[0].completed").isEmpty())
+                .andExpect(jsonPath("$[0].coffees").doesNotExist())
+                .andExpect(jsonPath("$[0].baristaId").doesNotExist());
+    }
+
+    @Test
+    void findById_WhenFieldsSpecified_ShouldReturnOnlyRequestedFields() throws Exception {
+        Long expectedId = 0L;
+        FieldSet fieldSet = FieldSet.parse("id,baristaId", OrderPublicDTO.class);
+        BaristaNoRefDTO baristaNoRefDTO = new BaristaNoRefDTO(0L, "John Doe", 0.1);
+        Mockito.when(orderService.findById(expectedId, fieldSet))
+                .thenReturn(new OrderPublicDTO(expectedId, baristaNoRefDTO, LocalDateTime.MIN, null, 0.0, null));
+
+        mockMvc.perform(get("/orders/" + expectedId).param("fields", "id,baristaId"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baristaId.fullName").value("John Doe"))
+                .andExpect(jsonPath("$.price").doesNotExist());
+    }
+
+    @Test
+    void findAllByPage_WhenUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/orders")
+                        .param("page", "0")
+                        .param("limit", "1")
+                        .param("fields", "id,barista"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //timeline
+    @Test
+    void findTimeline_WhenPeriodSpecified_ShouldReturnMinutes() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 11, 0);
+        Mockito.doReturn(List.of(new OrderTimelineDTO(from, 3L, 2L, 90.0, 4L)))
+                .when(orderTimelineService).findTimeline(from, to);
+
+        mockMvc.perform(get("/orders/stats/timeline")
+                        .param("from", "2024-01-01 10:00:00")
+                        .param("to", "2024-01-01 11:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].created").value(3))
+                .andExpect(jsonPath("$[0].completed").value(2))
+                .andExpect(jsonPath("$[0].averageWaitSeconds").value(90.0))
+                .andExpect(jsonPath("$[0].queueDepth").value(4));
+        Mockito.verify(orderService, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void findTimeline_WhenPeriodNotSpecified_ShouldPassNulls() throws Exception {
+        Mockito.doReturn(List.of()).when(orderTimelineService).findTimeline(null, null);
+
+        mockMvc.perform(get("/orders/stats/timeline"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void findTimeline_WhenEndBeforeStart_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(orderTimelineService.findTimeline(any(), any()))
+                .thenThrow(new NoValidStatsPeriodException(LocalDateTime.MAX, LocalDateTime.MIN));
+
+        mockMvc.perform(get("/orders/stats/timeline")
+                        .param("from", "2024-01-01 11:00:00")
+                        .param("to", "2024-01-01 10:00:00"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //wait times
+    @Test
+    void findWaitTimes_WhenCoffeeDimension_ShouldReturnPercentiles() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 10, 0);
+        Mockito.doReturn(List.of(new OrderWaitTimeDTO(7L, 40L, 120.0, 300.0, 420.0, 480.0)))
+                .when(orderWaitTimeService).findWaitTimes(from, to, "coffee");
+
+        mockMvc.perform(get("/orders/stats/wait-times")
+                        .param("from", "2024-01-01 10:00:00")
+                        .param("to", "2024-01-02 10:00:00")
+                        .param("by", "coffee"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].orders").value(40))
+                .andExpect(jsonPath("$[0].p50Seconds").value(120.0))
+                .andExpect(jsonPath("$[0].p95Seconds").value(300.0))
+                .andExpect(jsonPath("$[0].p99Seconds").value(420.0))
+                .andExpect(jsonPath("$[0].maxSeconds").value(480.0));
+        Mockito.verify(orderService, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void findWaitTimes_WhenNothingSpecified_ShouldPassNulls() throws Exception {
+        Mockito.doReturn(List.of()).when(orderWaitTimeService).findWaitTimes(null, null, null);
+
+        mockMvc.perform(get("/orders/stats/wait-times/"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void findWaitTimes_WhenUnknownDimension_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(orderWaitTimeService.findWaitTimes(any(), any(), any()))
+                .thenThrow(new NoValidStatsDimensionException("cup"));
+
+        mockMvc.perform(get("/orders/stats/wait-times")
+                        .param("by", "cup"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //retention
+    @Test
+    void findRetentionProgress_WhenCalled_ShouldReturnProgress() throws Exception {
+        LocalDateTime cutoff = LocalDateTime.of(2020, 1, 1, 0, 0);
+        Mockito.when(orderRetentionService.findProgress())
+                .thenReturn(new OrderRetentionDTO(false, cutoff, 1200L, 300L, 4L, 3L, cutoff, cutoff));
+
+        mockMvc.perform(get("/orders/retention"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purging").value(false))
+                .andExpect(jsonPath("$.deletedOrders").value(1200L))
+                .andExpect(jsonPath("$.droppedPartitions").value(4L));
+        Mockito.verify(orderRetentionService, Mockito.never()).purge();
+    }
+}
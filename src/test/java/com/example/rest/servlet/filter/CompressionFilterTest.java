@@ -0,0 +1,212 @@
+package com.example.rest.servlet.filter;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+    private static final String BIG_BODY = "{\"name\":\"latte\"}".repeat(500);
+    private static final String SMALL_BODY = "{\"name\":\"latte\"}";
+
+    private CompressionFilter filter;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    public void setup() {
+        filter = new CompressionFilter();
+        filter.setMinSize(1024);
+        calls = new AtomicInteger();
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String acceptEncoding, String body) throws Exception {
+        String[] parts = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest(method, parts[0]);
+        if (parts.length > 1) {
+            request.setQueryString(parts[1]);
+            for (String parameter : parts[1].split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        if (acceptEncoding != null)
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                calls.incrementAndGet();
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    //chooseEncoding
+    @ParameterizedTest
+    @CsvSource(value = {
+            "gzip, deflate, br|gzip",
+            "deflate|deflate",
+            "deflate, gzip;q=0|deflate",
+            "br|identity",
+            "*|gzip",
+            "GZIP|gzip"
+    }, delimiter = '|')
+    void chooseEncoding_WhenAcceptEncoding_ShouldReturnBestEncoding(String acceptEncoding, String expected) {
+        assertEquals(expected, CompressionFilter.chooseEncoding(acceptEncoding));
+    }
+
+    @Test
+    void chooseEncoding_WhenNull_ShouldReturnIdentity() {
+        assertEquals(CompressionFilter.IDENTITY, CompressionFilter.chooseEncoding(null));
+    }
+
+    //doFilter
+    @Test
+    void doFilter_WhenBigBodyAndGzipAccepted_ShouldCompress() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/orders", "gzip", BIG_BODY);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(response.getContentAsByteArray().length < BIG_BODY.length());
+        assertEquals(BIG_BODY, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void doFilter_WhenBigBodyAndDeflateAccepted_ShouldDeflate() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/orders", "deflate", BIG_BODY);
+
+        assertEquals("deflate", response.getHeader("Content-Encoding"));
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(BIG_BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void doFilter_WhenSmallBody_ShouldNotCompress() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/orders", "gzip", SMALL_BODY);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(SMALL_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenEncodingNotAccepted_ShouldNotCompress() throws Exception {
+        MockHttpServletResponse response = perform("GET", "/orders", null, BIG_BODY);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(BIG_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenCachedPathRequestedTwice_ShouldServeFromCache() throws Exception {
+        perform("GET", "/coffees?fields=id,name", "gzip", BIG_BODY);
+        MockHttpServletResponse response = perform("GET", "/coffees/?fields=id,name", "gzip", "changed");
+
+        assertEquals(1, calls.get());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals(BIG_BODY, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void doFilter_WhenCachedPathWithoutEncoding_ShouldServeIdentityFromCache() throws Exception {
+        perform("GET", "/coffees?fields=id,name", "gzip", BIG_BODY);
+        MockHttpServletResponse response = perform("GET", "/coffees?fields=id,name", null, "changed");
+
+        assertEquals(1, calls.get());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(BIG_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenModifyingRequest_ShouldInvalidateCache() throws Exception {
+        perform("GET", "/coffees?fields=id,name", "gzip", BIG_BODY);
+        perform("POST", "/orders", null, SMALL_BODY);
+        MockHttpServletResponse response = perform("GET", "/coffees?fields=id,name", null, SMALL_BODY);
+
+        assertEquals(3, calls.get());
+        assertEquals(SMALL_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenMenuRequestedWithoutFields_ShouldServeFromCache() throws Exception {
+        perform("GET", "/coffees", "gzip", BIG_BODY);
+        MockHttpServletResponse response = perform("GET", "/coffees", "gzip", "changed");
+
+        assertEquals(1, calls.get());
+        assertEquals(BIG_BODY, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void evictAll_WhenOrdersChangedWithoutRequest_ShouldCallControllerAgain() throws Exception {
+        perform("GET", "/coffees", "gzip", BIG_BODY);
+        filter.evictAll();
+        MockHttpServletResponse response = perform("GET", "/coffees", null, SMALL_BODY);
+
+        assertEquals(2, calls.get());
+        assertEquals(SMALL_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenCachedResponseExpired_ShouldCallController() throws Exception {
+        filter.setCacheTtlMillis(1);
+        perform("GET", "/coffees?fields=id,name", "gzip", BIG_BODY);
+        Thread.sleep(5);
+        MockHttpServletResponse response = perform("GET", "/coffees?fields=id,name", null, SMALL_BODY);
+
+        assertEquals(2, calls.get());
+        assertEquals(SMALL_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenCacheIsFull_ShouldEvictLeastRecentlyUsedResponse() throws Exception {
+        filter.setMaxCachedEntries(2);
+        perform("GET", "/coffees?fields=id", null, SMALL_BODY);
+        perform("GET", "/coffees?fields=name", null, SMALL_BODY);
+        perform("GET", "/coffees?fields=id", null, SMALL_BODY);
+        perform("GET", "/coffees?fields=price", null, SMALL_BODY);
+        assertEquals(3, calls.get());
+
+        perform("GET", "/coffees?fields=id", null, SMALL_BODY);
+        perform("GET", "/coffees?fields=price", null, SMALL_BODY);
+        assertEquals(3, calls.get());
+        perform("GET", "/coffees?fields=name", null, SMALL_BODY);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void doFilter_WhenNotCachedPath_ShouldCallControllerEveryTime() throws Exception {
+        perform("GET", "/baristas", "gzip", BIG_BODY);
+        perform("GET", "/baristas", "gzip", BIG_BODY);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void setMinSize_WhenLessThanZero_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> filter.setMinSize(-1));
+    }
+}